@@ -21,6 +21,7 @@ package com.xwiki.projectmanagement;
  */
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.xwiki.component.annotation.Role;
@@ -34,6 +35,7 @@ import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
 import com.xwiki.projectmanagement.exception.WorkItemUpdatingException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 /**
  * The blueprint for a project management client. A client is responsible with providing the CRUD operations over the
@@ -69,6 +71,82 @@ public interface ProjectManagementClient
         List<LiveDataQuery.SortEntry> sortEntries) throws
         WorkItemRetrievalException;
 
+    /**
+     * Retrieve a list of work items based on a list of filters, telling the client which work item properties are
+     * going to be used. Clients can use this information to retrieve only these properties from the project management
+     * platform, but they are free to return more.
+     *
+     * @param page the number identifying the page that needs to be retrieved.
+     * @param pageSize the maximum number of items that can be present in the returned result.
+     * @param filters a list of filters that the returned items need to match.
+     * @param sortEntries a list of {@link org.xwiki.livedata.LiveDataQuery.SortEntry} objects that denote how the
+     *     results should be sorted.
+     * @param properties the work item properties needed by the caller (e.g. {@link WorkItem#KEY_SUMMARY}); an empty
+     *     list means that all the properties are needed.
+     * @return a paginated result containing the items matching the list of filters.
+     * @throws WorkItemRetrievalException if there was any exception during the retrieval of the work item.
+     * @since 1.2.1
+     */
+    default PaginatedResult<WorkItem> getWorkItems(int page, int pageSize, List<LiveDataQuery.Filter> filters,
+        List<LiveDataQuery.SortEntry> sortEntries, List<String> properties) throws WorkItemRetrievalException
+    {
+        return getWorkItems(page, pageSize, filters, sortEntries);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getWorkItems(int, int, List, List, List)}, allowing several retrievals to run
+     * concurrently without using one thread for each of them. Clients that can't retrieve the work items
+     * asynchronously retrieve them before returning the future. The client execution context is read when the method
+     * is called.
+     *
+     * @param page the number identifying the page that needs to be retrieved.
+     * @param pageSize the maximum number of items that can be present in the returned result.
+     * @param filters a list of filters that the returned items need to match.
+     * @param sortEntries a list of sort entries that denote how the results should be sorted.
+     * @param properties the work item properties needed by the caller; an empty list means that all the properties
+     *     are needed.
+     * @return the future paginated result containing the items matching the list of filters, completed
+     *     exceptionally with a {@link WorkItemRetrievalException} if the retrieval failed.
+     * @since 1.2.1
+     */
+    default CompletableFuture<PaginatedResult<WorkItem>> getWorkItemsAsync(int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+    {
+        try {
+            return CompletableFuture.completedFuture(getWorkItems(page, pageSize, filters, sortEntries, properties));
+        } catch (WorkItemRetrievalException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @param property a work item property (e.g. {@link WorkItem#KEY_STATUS}).
+     * @return true if the client can count the work items grouped by the given property without retrieving them, see
+     *     {@link #aggregateWorkItems(List, String)}.
+     * @since 1.2.1
+     */
+    default boolean supportsAggregation(String property)
+    {
+        return false;
+    }
+
+    /**
+     * Counts the work items matching a list of filters, grouped by the values of a property. The counting is done by
+     * the project management platform, so the result covers all the matching work items regardless of their number.
+     *
+     * @param filters a list of filters that the counted items need to match.
+     * @param property the work item property used to group the work items. It should be supported, see
+     *     {@link #supportsAggregation(String)}.
+     * @return the number of matching work items for each value of the property.
+     * @throws WorkItemRetrievalException if there was any exception while counting the work items.
+     * @since 1.2.1
+     */
+    default WorkItemAggregation aggregateWorkItems(List<LiveDataQuery.Filter> filters, String property)
+        throws WorkItemRetrievalException
+    {
+        throw new NotImplementedException("The aggregation of work items is not implemented.");
+    }
+
     /**
      * Creates a work item.
      *
@@ -20,7 +20,9 @@ package com.xwiki.projectmanagement;
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.livedata.LiveDataQuery;
@@ -29,6 +31,7 @@ import com.xwiki.projectmanagement.exception.WorkItemCreationException;
 import com.xwiki.projectmanagement.exception.WorkItemException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 /**
  * Offers access to the CRUD operations of different project management clients.
@@ -64,6 +67,173 @@ public interface ProjectManagementManager
         List<LiveDataQuery.SortEntry> sortEntries)
         throws WorkItemException;
 
+    /**
+     * Retrieve a list of work items based on a filter, retrieving only the given properties when the client supports
+     * it.
+     *
+     * @param client the hint of the client implementation.
+     * @param page the number identifying the page that needs retrieval.
+     * @param pageSize the maximum number of items the result can have.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @param properties the work item properties that are going to be used; an empty list means all of them.
+     * @return a paginated result containing the list of items that satisfy the filters.
+     * @throws WorkItemException if there was an exception during the retrieval of the tasks.
+     * @since 1.2.1
+     */
+    default PaginatedResult<WorkItem> getWorkItems(String client, int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+        throws WorkItemException
+    {
+        return getWorkItems(client, page, pageSize, filters, sortEntries);
+    }
+
+    /**
+     * Retrieve a list of work items without blocking the calling thread while the client waits for the project
+     * management platform, when the client supports it.
+     *
+     * @param client the hint of the client implementation.
+     * @param page the number identifying the page that needs retrieval.
+     * @param pageSize the maximum number of items the result can have.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @param properties the work item properties that are going to be used; an empty list means all of them.
+     * @return the future paginated result containing the list of items that satisfy the filters, completed
+     *     exceptionally with a {@link WorkItemException} if the retrieval failed.
+     * @since 1.2.1
+     */
+    default CompletableFuture<PaginatedResult<WorkItem>> getWorkItemsAsync(String client, int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+    {
+        try {
+            return CompletableFuture.completedFuture(
+                getWorkItems(client, page, pageSize, filters, sortEntries, properties));
+        } catch (WorkItemException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Iterate over all the work items that satisfy a filter, retrieving them page by page, while the previous page is
+     * consumed. The iteration stops after a configured maximum number of work items.
+     *
+     * @param client the hint of the client implementation.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @return an iterator over the work items that satisfy the filters, that should be closed once it is no longer
+     *     needed. Its methods throw a {@link com.xwiki.projectmanagement.exception.WorkItemIterationException} if a
+     *     page couldn't be retrieved.
+     * @throws WorkItemException if the client couldn't be found.
+     * @since 1.2.1
+     */
+    default WorkItemIterator iterateWorkItems(String client, int pageSize, List<LiveDataQuery.Filter> filters,
+        List<LiveDataQuery.SortEntry> sortEntries) throws WorkItemException
+    {
+        return iterateWorkItems(client, pageSize, Integer.MAX_VALUE, filters, sortEntries);
+    }
+
+    /**
+     * Iterate over the first work items that satisfy a filter, retrieving them page by page, while the previous page
+     * is consumed. No page is retrieved beyond the given number of work items, nor beyond the configured maximum
+     * number of work items.
+     *
+     * @param client the hint of the client implementation.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items to iterate over.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @return an iterator over the work items that satisfy the filters, see
+     *     {@link #iterateWorkItems(String, int, List, List)}.
+     * @throws WorkItemException if the client couldn't be found.
+     * @since 1.2.1
+     */
+    default WorkItemIterator iterateWorkItems(String client, int pageSize, int maxItems,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries) throws WorkItemException
+    {
+        return iterateWorkItems(client, 0, pageSize, maxItems, filters, sortEntries, Collections.emptyList());
+    }
+
+    /**
+     * Iterate over the work items that satisfy a filter, starting from a given offset, retrieving only the needed
+     * properties of the work items page by page, while the previous page is consumed. No page is retrieved beyond the
+     * given number of work items, nor beyond the configured maximum number of work items.
+     *
+     * @param client the hint of the client implementation.
+     * @param offset the index of the first work item to iterate over.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items to iterate over.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @param properties the work item properties needed by the caller, see
+     *     {@link #getWorkItems(String, int, int, List, List, List)}.
+     * @return an iterator over the work items that satisfy the filters, see
+     *     {@link #iterateWorkItems(String, int, List, List)}.
+     * @throws WorkItemException if the client couldn't be found.
+     * @since 1.2.1
+     */
+    default WorkItemIterator iterateWorkItems(String client, int offset, int pageSize, int maxItems,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+        throws WorkItemException
+    {
+        return new WorkItemIterator((pageOffset, size) -> getWorkItems(client, offset + pageOffset, size, filters,
+            sortEntries, properties), pageSize, maxItems, Runnable::run);
+    }
+
+    /**
+     * Collect the first work items that satisfy a filter, starting from a given offset, without blocking the calling
+     * thread. The pages are requested one after the other, each one once the previous one is retrieved. No page is
+     * retrieved beyond the given number of work items, nor beyond the configured maximum number of work items.
+     *
+     * @param client the hint of the client implementation.
+     * @param offset the index of the first work item to collect.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items to collect.
+     * @param filters a list of filters that the returned items must satisfy.
+     * @param sortEntries a list of sort entries that denote how the results should be arranged.
+     * @param properties the work item properties needed by the caller, see
+     *     {@link #getWorkItems(String, int, int, List, List, List)}.
+     * @return the future collected work items, completed exceptionally with a {@link WorkItemException} if a page
+     *     couldn't be retrieved. Their total number of items is larger than the number of collected items when there
+     *     were more work items than the maximum.
+     * @since 1.2.1
+     */
+    default CompletableFuture<PaginatedResult<WorkItem>> collectWorkItemsAsync(String client, int offset,
+        int pageSize, int maxItems, List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries,
+        List<String> properties)
+    {
+        return WorkItemIterator.collectAsync((pageOffset, size) -> getWorkItemsAsync(client, offset + pageOffset,
+            size, filters, sortEntries, properties), pageSize, maxItems, Runnable::run);
+    }
+
+    /**
+     * @param client the hint of the client implementation.
+     * @param property a work item property.
+     * @return true if the client can count the work items grouped by the given property without retrieving them.
+     * @throws WorkItemException if the client couldn't be found.
+     * @since 1.2.1
+     */
+    default boolean supportsAggregation(String client, String property) throws WorkItemException
+    {
+        return false;
+    }
+
+    /**
+     * Counts the work items that satisfy the filters, grouped by the values of a property.
+     *
+     * @param client the hint of the client implementation.
+     * @param filters a list of filters that the counted items must satisfy.
+     * @param property the work item property used to group the work items.
+     * @return the number of matching work items for each value of the property.
+     * @throws WorkItemException if there was an exception while counting the work items.
+     * @since 1.2.1
+     */
+    default WorkItemAggregation aggregateWorkItems(String client, List<LiveDataQuery.Filter> filters,
+        String property) throws WorkItemException
+    {
+        throw new WorkItemException(String.format("The client [%s] doesn't support aggregating work items.", client));
+    }
+
     /**
      * Create a work item.
      *
@@ -0,0 +1,336 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.xwiki.projectmanagement.exception.WorkItemException;
+import com.xwiki.projectmanagement.exception.WorkItemIterationException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Iterates over all the work items of a query, page by page. The next page is retrieved in the background while the
+ * current one is consumed, so the consumer doesn't wait for each request and at most two pages are kept in memory.
+ * The iteration stops after a maximum number of work items, see {@link #isTruncated()}. The pages can also be
+ * collected without blocking, see {@link #collectAsync(AsyncPageLoader, int, int, Executor)}.
+ * <p>
+ * The iterator is not thread safe. It should be closed, or fully consumed, in order to not leave a page being
+ * retrieved needlessly.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class WorkItemIterator implements Iterator<WorkItem>, AutoCloseable
+{
+    private final PageLoader loader;
+
+    private final AsyncPageLoader asyncLoader;
+
+    private final int pageSize;
+
+    private final int maxItems;
+
+    private final Executor executor;
+
+    private Iterator<WorkItem> currentPage = Collections.emptyIterator();
+
+    private CompletableFuture<PaginatedResult<WorkItem>> nextPage;
+
+    private int nextOffset;
+
+    private int returnedItems;
+
+    private boolean started;
+
+    private boolean exhausted;
+
+    private boolean truncated;
+
+    /**
+     * @param loader retrieves the pages of work items.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items returned by the iterator.
+     * @param executor the executor used to retrieve the next page in the background. The first page is always
+     *     retrieved in the calling thread.
+     */
+    public WorkItemIterator(PageLoader loader, int pageSize, int maxItems, Executor executor)
+    {
+        checkPageSize(pageSize);
+        this.loader = loader;
+        this.asyncLoader = null;
+        this.pageSize = pageSize;
+        this.maxItems = maxItems;
+        this.executor = executor;
+    }
+
+    /**
+     * @param loader sends the requests retrieving the pages of work items, without blocking. The next page is
+     *     requested from the thread consuming the current one, so the loader can rely on the context of that thread.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items returned by the iterator.
+     */
+    public WorkItemIterator(AsyncPageLoader loader, int pageSize, int maxItems)
+    {
+        checkPageSize(pageSize);
+        this.loader = null;
+        this.asyncLoader = loader;
+        this.pageSize = pageSize;
+        this.maxItems = maxItems;
+        this.executor = null;
+    }
+
+    /**
+     * Collects the first work items of a query, page by page, without blocking the calling thread.
+     *
+     * @param loader sends the requests retrieving the pages of work items. The first page is requested from the
+     *     calling thread and the next ones from the executor.
+     * @param pageSize the number of work items retrieved by each request.
+     * @param maxItems the maximum number of work items to collect.
+     * @param executor the executor requesting the next page once a page is retrieved.
+     * @return the future collected work items. Their total number of items is larger than the number of collected
+     *     items when the collection was stopped because the maximum number of work items was reached, while there
+     *     were more work items to retrieve.
+     */
+    public static CompletableFuture<PaginatedResult<WorkItem>> collectAsync(AsyncPageLoader loader, int pageSize,
+        int maxItems, Executor executor)
+    {
+        checkPageSize(pageSize);
+        return collectAsync(loader, pageSize, maxItems, executor, new ArrayList<>(), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WorkItemIterationException if a page of work items couldn't be retrieved.
+     */
+    @Override
+    public boolean hasNext()
+    {
+        while (!this.currentPage.hasNext()) {
+            if (this.exhausted) {
+                return false;
+            }
+            this.currentPage = retrievePage().getItems().iterator();
+        }
+        if (this.returnedItems >= this.maxItems) {
+            this.truncated = true;
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WorkItemIterationException if a page of work items couldn't be retrieved.
+     */
+    @Override
+    public WorkItem next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        this.returnedItems++;
+        return this.currentPage.next();
+    }
+
+    /**
+     * @return true if the iteration was stopped because the maximum number of work items was reached, while there
+     *     were more work items to retrieve.
+     */
+    public boolean isTruncated()
+    {
+        return this.truncated;
+    }
+
+    /**
+     * @return a sequential stream over the remaining work items, that closes this iterator when it is closed.
+     */
+    public Stream<WorkItem> stream()
+    {
+        Spliterator<WorkItem> spliterator =
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Stops the iteration, abandoning the page being retrieved in the background, if any.
+     */
+    @Override
+    public void close()
+    {
+        this.exhausted = true;
+        this.currentPage = Collections.emptyIterator();
+        if (this.nextPage != null) {
+            this.nextPage.cancel(false);
+            this.nextPage = null;
+        }
+    }
+
+    private PaginatedResult<WorkItem> retrievePage()
+    {
+        PaginatedResult<WorkItem> page;
+        int pageOffset = this.nextOffset;
+        if (!this.started) {
+            this.started = true;
+            page = (this.loader != null) ? load(pageOffset) : await(loadAsync(pageOffset));
+        } else {
+            page = await(this.nextPage);
+        }
+        this.nextPage = null;
+        this.nextOffset += this.pageSize;
+
+        Integer totalItems = page.getTotalItems();
+        int pageItems = page.getItems().size();
+        this.exhausted = pageItems == 0 || this.nextOffset >= this.maxItems
+            || (totalItems != null ? this.nextOffset >= totalItems : pageItems < this.pageSize);
+        if (!this.exhausted) {
+            // Retrieve the next page while the current one is consumed.
+            int offset = this.nextOffset;
+            this.nextPage = (this.loader != null) ? CompletableFuture.supplyAsync(() -> load(offset), this.executor)
+                : loadAsync(offset);
+        } else if (this.nextOffset >= this.maxItems && pageItems > 0
+            && (totalItems != null ? this.nextOffset < totalItems : pageItems == this.pageSize))
+        {
+            this.truncated = true;
+        }
+        return page;
+    }
+
+    private PaginatedResult<WorkItem> load(int offset)
+    {
+        try {
+            PaginatedResult<WorkItem> page = this.loader.load(offset, this.pageSize);
+            return page != null ? page : new PaginatedResult<>();
+        } catch (WorkItemException e) {
+            throw new WorkItemIterationException(e);
+        }
+    }
+
+    private CompletableFuture<PaginatedResult<WorkItem>> loadAsync(int offset)
+    {
+        return loadAsync(this.asyncLoader, offset, this.pageSize)
+            .thenApply(page -> page != null ? page : new PaginatedResult<>());
+    }
+
+    private PaginatedResult<WorkItem> await(CompletableFuture<PaginatedResult<WorkItem>> page)
+    {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof WorkItemException) {
+                throw new WorkItemIterationException((WorkItemException) e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    private static CompletableFuture<PaginatedResult<WorkItem>> collectAsync(AsyncPageLoader loader, int pageSize,
+        int maxItems, Executor executor, List<WorkItem> items, int offset)
+    {
+        return loadAsync(loader, offset, pageSize).thenComposeAsync(page -> {
+            List<WorkItem> pageItems =
+                (page != null && page.getItems() != null) ? page.getItems() : Collections.emptyList();
+            Integer totalItems = (page != null) ? page.getTotalItems() : null;
+            int taken = Math.min(pageItems.size(), Math.max(0, maxItems - items.size()));
+            items.addAll(pageItems.subList(0, taken));
+            int nextOffset = offset + pageSize;
+            boolean more = !pageItems.isEmpty()
+                && (totalItems != null ? nextOffset < totalItems : pageItems.size() >= pageSize);
+            if (more && items.size() < maxItems) {
+                return collectAsync(loader, pageSize, maxItems, executor, items, nextOffset);
+            }
+            int total = items.size();
+            if (more || taken < pageItems.size()) {
+                // The total is at least one more than the collected items when it isn't known.
+                total = (totalItems != null) ? Math.max(totalItems, total + 1) : total + 1;
+            }
+            return CompletableFuture.completedFuture(new PaginatedResult<>(items, 0, pageSize, total));
+        }, executor);
+    }
+
+    private static CompletableFuture<PaginatedResult<WorkItem>> loadAsync(AsyncPageLoader loader, int offset,
+        int pageSize)
+    {
+        try {
+            CompletableFuture<PaginatedResult<WorkItem>> page = loader.load(offset, pageSize);
+            return (page != null) ? page : CompletableFuture.completedFuture(new PaginatedResult<>());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void checkPageSize(int pageSize)
+    {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive.");
+        }
+    }
+
+    /**
+     * Retrieves a page of work items.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface PageLoader
+    {
+        /**
+         * @param offset the index of the first work item of the page.
+         * @param pageSize the maximum number of work items of the page.
+         * @return the work items of the page.
+         * @throws WorkItemException if the page couldn't be retrieved.
+         */
+        PaginatedResult<WorkItem> load(int offset, int pageSize) throws WorkItemException;
+    }
+
+    /**
+     * Sends the request retrieving a page of work items, without waiting for its response.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface AsyncPageLoader
+    {
+        /**
+         * @param offset the index of the first work item of the page.
+         * @param pageSize the maximum number of work items of the page.
+         * @return the future work items of the page, completed exceptionally with a {@link WorkItemException} if the
+         *     page couldn't be retrieved.
+         */
+        CompletableFuture<PaginatedResult<WorkItem>> load(int offset, int pageSize);
+    }
+}
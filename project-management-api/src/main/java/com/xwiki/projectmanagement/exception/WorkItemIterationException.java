@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.exception;
+
+/**
+ * Unchecked exception thrown while iterating over work items, when one of the pages couldn't be retrieved. It is
+ * needed since {@link java.util.Iterator} methods can't throw checked exceptions.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class WorkItemIterationException extends RuntimeException
+{
+    /**
+     * Class ID for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param cause the exception thrown while retrieving a page of work items.
+     */
+    public WorkItemIterationException(WorkItemException cause)
+    {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized WorkItemException getCause()
+    {
+        return (WorkItemException) super.getCause();
+    }
+}
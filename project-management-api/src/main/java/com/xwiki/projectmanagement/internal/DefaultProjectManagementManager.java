@@ -21,20 +21,25 @@ package com.xwiki.projectmanagement.internal;
  */
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.livedata.LiveDataQuery;
 
 import com.xwiki.projectmanagement.ProjectManagementClient;
 import com.xwiki.projectmanagement.ProjectManagementManager;
+import com.xwiki.projectmanagement.WorkItemIterator;
 import com.xwiki.projectmanagement.exception.WorkItemException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 /**
  * Default implementation of the {@link ProjectManagementManager}. It searches the component manager for the client
@@ -47,9 +52,20 @@ import com.xwiki.projectmanagement.model.WorkItem;
 @Singleton
 public class DefaultProjectManagementManager implements ProjectManagementManager
 {
+    private static final String MAX_ITERATED_ITEMS_PROPERTY = "projectmanagement.iteration.maxItems";
+
+    private static final int DEFAULT_MAX_ITERATED_ITEMS = 10000;
+
     @Inject
     private ComponentManager componentManager;
 
+    @Inject
+    private ProjectManagementTaskExecutor taskExecutor;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
     @Override
     public WorkItem getWorkItem(String client, String workItemId) throws WorkItemException
     {
@@ -63,6 +79,65 @@ public class DefaultProjectManagementManager implements ProjectManagementManager
         return getClient(client).getWorkItems(page, pageSize, filters, sortEntries);
     }
 
+    @Override
+    public PaginatedResult<WorkItem> getWorkItems(String client, int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+        throws WorkItemException
+    {
+        return getClient(client).getWorkItems(page, pageSize, filters, sortEntries, properties);
+    }
+
+    @Override
+    public CompletableFuture<PaginatedResult<WorkItem>> getWorkItemsAsync(String client, int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+    {
+        try {
+            return getClient(client).getWorkItemsAsync(page, pageSize, filters, sortEntries, properties);
+        } catch (WorkItemException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public WorkItemIterator iterateWorkItems(String client, int offset, int pageSize, int maxItems,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+        throws WorkItemException
+    {
+        ProjectManagementClient clientImpl = getClient(client);
+        // The next page is requested from the consuming thread, which has the context needed by the client.
+        return new WorkItemIterator((pageOffset, size) -> clientImpl.getWorkItemsAsync(offset + pageOffset, size,
+            filters, sortEntries, properties), pageSize, getMaxItems(maxItems));
+    }
+
+    @Override
+    public CompletableFuture<PaginatedResult<WorkItem>> collectWorkItemsAsync(String client, int offset,
+        int pageSize, int maxItems, List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries,
+        List<String> properties)
+    {
+        ProjectManagementClient clientImpl;
+        try {
+            clientImpl = getClient(client);
+        } catch (WorkItemException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // The next pages are requested from the task executor, in the context of the calling thread.
+        return WorkItemIterator.collectAsync((pageOffset, size) -> clientImpl.getWorkItemsAsync(offset + pageOffset,
+            size, filters, sortEntries, properties), pageSize, getMaxItems(maxItems), taskExecutor.contextExecutor());
+    }
+
+    @Override
+    public boolean supportsAggregation(String client, String property) throws WorkItemException
+    {
+        return getClient(client).supportsAggregation(property);
+    }
+
+    @Override
+    public WorkItemAggregation aggregateWorkItems(String client, List<LiveDataQuery.Filter> filters, String property)
+        throws WorkItemException
+    {
+        return getClient(client).aggregateWorkItems(filters, property);
+    }
+
     @Override
     public WorkItem createWorkItem(String client, WorkItem workItem) throws WorkItemException
     {
@@ -81,6 +156,11 @@ public class DefaultProjectManagementManager implements ProjectManagementManager
         return getClient(client).deleteWorkItem(workItemId);
     }
 
+    private int getMaxItems(int maxItems)
+    {
+        return Math.min(maxItems, xwikiProperties.getProperty(MAX_ITERATED_ITEMS_PROPERTY, DEFAULT_MAX_ITERATED_ITEMS));
+    }
+
     private ProjectManagementClient getClient(String hint) throws WorkItemException
     {
         try {
@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Creates the executors on which the project management modules wait for the remote servers. By default the tasks run
+ * on bounded pools of platform threads. When {@code projectmanagement.virtualThreads} is enabled and the Java runtime
+ * supports them (Java 21 or later), every task runs on its own virtual thread instead, so that the tasks blocked on
+ * I/O don't hold a scarce platform thread. The concurrency towards a remote server is then limited by the client of
+ * that server.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = ProjectManagementExecutors.class)
+@Singleton
+public class ProjectManagementExecutors implements Initializable
+{
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    private Logger logger;
+
+    private Method virtualThreadBuilder;
+
+    private Method builderName;
+
+    private Method builderFactory;
+
+    private Method threadPerTaskExecutor;
+
+    @Override
+    public void initialize()
+    {
+        if (!this.xwikiProperties.getProperty("projectmanagement.virtualThreads", false)) {
+            return;
+        }
+        // The build targets Java 11, so the virtual thread API is looked up at runtime.
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            this.virtualThreadBuilder = Thread.class.getMethod("ofVirtual");
+            this.builderName = builderClass.getMethod("name", String.class, long.class);
+            this.builderFactory = builderClass.getMethod("factory");
+            this.threadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            this.virtualThreadBuilder = null;
+            this.logger.warn("Virtual threads are not supported by the Java runtime [{}]. The project management "
+                + "tasks will run on platform threads.", System.getProperty("java.version"));
+        }
+    }
+
+    /**
+     * @return {@code true} if the executors run their tasks on virtual threads, {@code false} otherwise
+     */
+    public boolean isVirtual()
+    {
+        return this.virtualThreadBuilder != null;
+    }
+
+    /**
+     * @param name the prefix of the names of the threads running the tasks
+     * @param maxThreads the maximum number of platform threads running the tasks; ignored when the tasks run on
+     *     virtual threads
+     * @return a new executor, that the caller is responsible for shutting down
+     */
+    public ExecutorService newExecutor(String name, int maxThreads)
+    {
+        if (isVirtual()) {
+            try {
+                Object builder = this.builderName.invoke(this.virtualThreadBuilder.invoke(null), name + " #", 1L);
+                ThreadFactory threadFactory = (ThreadFactory) this.builderFactory.invoke(builder);
+                return (ExecutorService) this.threadPerTaskExecutor.invoke(null, threadFactory);
+            } catch (ReflectiveOperationException e) {
+                this.logger.warn("Failed to create the virtual thread executor [{}]. Using platform threads instead.",
+                    name, e);
+            }
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new PlatformThreadFactory(name));
+        // Let the idle threads die.
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class PlatformThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private final String name;
+
+        PlatformThreadFactory(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread =
+                new Thread(runnable, String.format("%s #%d", this.name, this.counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
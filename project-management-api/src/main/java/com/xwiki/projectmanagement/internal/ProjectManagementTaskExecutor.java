@@ -0,0 +1,213 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
+
+import com.xpn.xwiki.internal.context.XWikiContextContextStore;
+import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
+
+/**
+ * Runs project management tasks, such as the retrieval of work items, on a bounded thread pool, or on virtual threads
+ * when enabled (see {@link ProjectManagementExecutors}). The tasks are executed with the user, wiki, action, locale
+ * and current page, and the client execution context, of the thread that submitted them, so the clients behave as if
+ * they were called directly.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = ProjectManagementTaskExecutor.class)
+@Singleton
+public class ProjectManagementTaskExecutor implements Executor, Initializable, Disposable
+{
+    private static final Set<String> CONTEXT_ENTRIES =
+        Set.of(XWikiContextContextStore.PROP_USER, XWikiContextContextStore.PROP_WIKI,
+            XWikiContextContextStore.PROP_ACTION, XWikiContextContextStore.PROP_LOCALE,
+            XWikiContextContextStore.PROP_DOCUMENT_REFERENCE);
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    private ContextStoreManager contextStoreManager;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ProjectManagementClientExecutionContext clientExecutionContext;
+
+    @Inject
+    private ProjectManagementExecutors executors;
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize()
+    {
+        Integer maxThreads = this.xwikiProperties.getProperty("projectmanagement.maxThreads", Integer.class);
+        int threads = (maxThreads != null && maxThreads > 0) ? maxThreads : 8;
+        this.executor = this.executors.newExecutor("Project management task", threads);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @param task the task to run in the context of the calling thread
+     * @param <T> the type of the task result
+     * @return the future result of the task
+     */
+    public <T> Future<T> submit(Callable<T> task)
+    {
+        TaskContext context = saveContext();
+        return this.executor.submit(() -> {
+            try {
+                context.restore();
+                return task.call();
+            } finally {
+                context.clean();
+            }
+        });
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        TaskContext context = saveContext();
+        this.executor.execute(() -> run(context, command));
+    }
+
+    /**
+     * Saves the context of the calling thread once, for tasks that are submitted later from threads that don't have
+     * it, such as the continuations of an asynchronous request. The tasks are expected to run one after the other.
+     *
+     * @return an executor running the tasks in the context of the thread that called this method
+     */
+    public Executor contextExecutor()
+    {
+        return contextExecutor(this.executor);
+    }
+
+    /**
+     * Saves the context of the calling thread once, for tasks that run on an executor owned by the caller, such as
+     * tasks that must not compete for the threads retrieving the work items.
+     *
+     * @param executor the executor running the tasks
+     * @return an executor running the tasks on the given executor, in the context of the thread that called this
+     *     method
+     */
+    public Executor contextExecutor(Executor executor)
+    {
+        TaskContext context = saveContext();
+        return command -> executor.execute(() -> run(context, command));
+    }
+
+    private void run(TaskContext context, Runnable command)
+    {
+        try {
+            context.restore();
+            command.run();
+        } finally {
+            context.clean();
+        }
+    }
+
+    private TaskContext saveContext()
+    {
+        try {
+            // Each task gets its own copy of the client context, so that the tasks and the submitting thread don't
+            // see each other's changes.
+            return new TaskContext(this.contextStoreManager.save(CONTEXT_ENTRIES),
+                new HashMap<>(this.clientExecutionContext.getContext()));
+        } catch (ComponentLookupException e) {
+            // Shouldn't happen since the context stores are provided by the platform.
+            throw new IllegalStateException("Failed to save the context of the project management task.", e);
+        }
+    }
+
+    private final class TaskContext
+    {
+        private final Map<String, Serializable> contextStore;
+
+        private final Map<String, Object> clientContext;
+
+        TaskContext(Map<String, Serializable> contextStore, Map<String, Object> clientContext)
+        {
+            this.contextStore = contextStore;
+            this.clientContext = clientContext;
+        }
+
+        void restore()
+        {
+            try {
+                ExecutionContext executionContext = new ExecutionContext();
+                execution.setContext(executionContext);
+                executionContextManager.initialize(executionContext);
+                contextStoreManager.restore(this.contextStore);
+            } catch (ExecutionContextException | ComponentLookupException e) {
+                throw new IllegalStateException("Failed to restore the context of the project management task.", e);
+            }
+            setClientContext(this.clientContext);
+        }
+
+        void clean()
+        {
+            setClientContext(null);
+            execution.removeContext();
+        }
+
+        private void setClientContext(Map<String, Object> context)
+        {
+            if (clientExecutionContext instanceof DefaultProjectManagementClientExecutionContext) {
+                ((DefaultProjectManagementClientExecutionContext) clientExecutionContext).setContext(context);
+            }
+        }
+    }
+}
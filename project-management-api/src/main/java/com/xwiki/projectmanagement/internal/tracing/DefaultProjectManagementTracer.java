@@ -0,0 +1,204 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.tracing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.environment.Environment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
+
+/**
+ * Default implementation of {@link ProjectManagementTracer}. When {@code projectmanagement.tracing.enabled} is set,
+ * every ended span is exported as a JSON line, either through the {@code com.xwiki.projectmanagement.tracing} logger
+ * (the default {@code log} exporter) or appended to a file (the {@code file} exporter), which is
+ * {@code projectmanagement/traces.jsonl} in the permanent directory unless {@code projectmanagement.tracing.file} is
+ * set. The lines use the field names of the OpenTelemetry protocol, so they can be converted and sent to a collector.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component
+@Singleton
+public class DefaultProjectManagementTracer implements ProjectManagementTracer, Initializable, Disposable
+{
+    private static final String PREFIX = "projectmanagement.tracing.";
+
+    private static final Logger TRACES = LoggerFactory.getLogger("com.xwiki.projectmanagement.tracing");
+
+    private final ThreadLocal<TraceSpan> currentSpan = new ThreadLocal<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private Logger logger;
+
+    private volatile boolean enabled;
+
+    private Writer fileWriter;
+
+    @Override
+    public void initialize()
+    {
+        this.enabled = this.xwikiProperties.getProperty(PREFIX + "enabled", false);
+        if (this.enabled && "file".equals(this.xwikiProperties.getProperty(PREFIX + "exporter", "log"))) {
+            File file = new File(this.environment.getPermanentDirectory(), "projectmanagement/traces.jsonl");
+            String path = this.xwikiProperties.getProperty(PREFIX + "file", String.class);
+            if (path != null && !path.isBlank()) {
+                file = new File(path);
+            }
+            try {
+                Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+                this.fileWriter = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                this.logger.warn("Failed to open the trace file [{}]. The spans are logged instead.", file, e);
+            }
+        }
+    }
+
+    @Override
+    public TraceSpan startSpan(String name)
+    {
+        return startSpan(name, getCurrentSpan());
+    }
+
+    @Override
+    public TraceSpan startSpan(String name, TraceSpan parent)
+    {
+        if (!this.enabled) {
+            return NoOpTraceSpan.INSTANCE;
+        }
+        TraceSpan previous = this.currentSpan.get();
+        RecordingTraceSpan span = new RecordingTraceSpan(this, name, asRecording(parent),
+            (previous != null) ? previous : NoOpTraceSpan.INSTANCE);
+        this.currentSpan.set(span);
+        return span;
+    }
+
+    @Override
+    public TraceSpan startAsyncSpan(String name, TraceSpan parent)
+    {
+        if (!this.enabled) {
+            return NoOpTraceSpan.INSTANCE;
+        }
+        return new RecordingTraceSpan(this, name, asRecording(parent), null);
+    }
+
+    @Override
+    public TraceSpan getCurrentSpan()
+    {
+        TraceSpan span = this.currentSpan.get();
+        return (span != null) ? span : NoOpTraceSpan.INSTANCE;
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.enabled = false;
+        synchronized (this) {
+            if (this.fileWriter != null) {
+                try {
+                    this.fileWriter.close();
+                } catch (IOException e) {
+                    this.logger.debug("Failed to close the trace file.", e);
+                }
+                this.fileWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Restores the span that was current before the given one, if it is still the current span, and exports it. The
+     * spans that ended before the given one, when the spans are not ended in the reverse order of their start, are
+     * skipped so that the calling thread never keeps an ended span as its current span.
+     *
+     * @param span the ended span
+     */
+    void end(RecordingTraceSpan span)
+    {
+        TraceSpan previous = span.getPrevious();
+        if (previous != null && this.currentSpan.get() == span) {
+            while (previous instanceof RecordingTraceSpan && ((RecordingTraceSpan) previous).isEnded()) {
+                previous = ((RecordingTraceSpan) previous).getPrevious();
+            }
+            if (previous == null || previous == NoOpTraceSpan.INSTANCE) {
+                this.currentSpan.remove();
+            } else {
+                this.currentSpan.set(previous);
+            }
+        }
+        export(span);
+    }
+
+    private void export(RecordingTraceSpan span)
+    {
+        String line;
+        try {
+            line = this.objectMapper.writeValueAsString(span.toMap());
+        } catch (JsonProcessingException e) {
+            this.logger.debug("Failed to serialize a span.", e);
+            return;
+        }
+        synchronized (this) {
+            if (this.fileWriter != null) {
+                try {
+                    this.fileWriter.write(line);
+                    this.fileWriter.write('\n');
+                    this.fileWriter.flush();
+                    return;
+                } catch (IOException e) {
+                    this.logger.warn("Failed to write a span to the trace file. Cause: [{}].", e.getMessage());
+                }
+            }
+        }
+        TRACES.info(line);
+    }
+
+    private static RecordingTraceSpan asRecording(TraceSpan span)
+    {
+        return (span instanceof RecordingTraceSpan) ? (RecordingTraceSpan) span : null;
+    }
+}
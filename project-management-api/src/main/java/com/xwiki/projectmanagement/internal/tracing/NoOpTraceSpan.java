@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.tracing;
+
+import com.xwiki.projectmanagement.tracing.TraceSpan;
+
+/**
+ * The span returned when tracing is disabled; it records nothing.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public final class NoOpTraceSpan implements TraceSpan
+{
+    /**
+     * The shared instance.
+     */
+    public static final NoOpTraceSpan INSTANCE = new NoOpTraceSpan();
+
+    private NoOpTraceSpan()
+    {
+    }
+
+    @Override
+    public TraceSpan setAttribute(String key, String value)
+    {
+        return this;
+    }
+
+    @Override
+    public TraceSpan setAttribute(String key, long value)
+    {
+        return this;
+    }
+
+    @Override
+    public TraceSpan recordException(Throwable exception)
+    {
+        return this;
+    }
+
+    @Override
+    public boolean isRecording()
+    {
+        return false;
+    }
+
+    @Override
+    public void end()
+    {
+        // Nothing to end.
+    }
+}
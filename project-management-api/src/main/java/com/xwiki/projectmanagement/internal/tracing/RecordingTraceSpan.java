@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.xwiki.projectmanagement.tracing.TraceSpan;
+
+/**
+ * A span that is exported by {@link DefaultProjectManagementTracer} when it ends. The ids use the sizes and the
+ * hexadecimal encoding of the W3C trace context, like the OpenTelemetry ones.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class RecordingTraceSpan implements TraceSpan
+{
+    private final DefaultProjectManagementTracer tracer;
+
+    private final String name;
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final long startEpochNanos;
+
+    private final long startNanos;
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    private final TraceSpan previous;
+
+    private volatile Throwable exception;
+
+    private volatile long durationNanos;
+
+    /**
+     * @param tracer the tracer exporting the span when it ends
+     * @param name the name of the span
+     * @param parent the parent span, {@code null} to start a new trace
+     * @param previous the span that was current before this one, restored when it ends, or {@code null} if this span
+     *     doesn't become the current span
+     */
+    RecordingTraceSpan(DefaultProjectManagementTracer tracer, String name, RecordingTraceSpan parent,
+        TraceSpan previous)
+    {
+        this.tracer = tracer;
+        this.name = name;
+        this.traceId = (parent != null) ? parent.traceId : newId(2);
+        this.spanId = newId(1);
+        this.parentSpanId = (parent != null) ? parent.spanId : null;
+        this.startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+        this.previous = previous;
+    }
+
+    @Override
+    public TraceSpan setAttribute(String key, String value)
+    {
+        return putAttribute(key, value);
+    }
+
+    @Override
+    public TraceSpan setAttribute(String key, long value)
+    {
+        return putAttribute(key, value);
+    }
+
+    @Override
+    public TraceSpan recordException(Throwable exception)
+    {
+        this.exception = exception;
+        return this;
+    }
+
+    @Override
+    public boolean isRecording()
+    {
+        return !this.ended.get();
+    }
+
+    @Override
+    public void end()
+    {
+        if (this.ended.compareAndSet(false, true)) {
+            this.durationNanos = System.nanoTime() - this.startNanos;
+            this.tracer.end(this);
+        }
+    }
+
+    /**
+     * @return {@code true} if the span was ended
+     */
+    boolean isEnded()
+    {
+        return this.ended.get();
+    }
+
+    /**
+     * @return the span that was current before this one, or {@code null} if this span is not the current span
+     */
+    TraceSpan getPrevious()
+    {
+        return this.previous;
+    }
+
+    /**
+     * @return the fields of the ended span, named after the ones of the OpenTelemetry protocol
+     */
+    Map<String, Object> toMap()
+    {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("traceId", this.traceId);
+        fields.put("spanId", this.spanId);
+        if (this.parentSpanId != null) {
+            fields.put("parentSpanId", this.parentSpanId);
+        }
+        fields.put("name", this.name);
+        fields.put("startTimeUnixNano", this.startEpochNanos);
+        fields.put("endTimeUnixNano", this.startEpochNanos + this.durationNanos);
+        fields.put("durationMs", this.durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        synchronized (this.attributes) {
+            fields.put("attributes", new LinkedHashMap<>(this.attributes));
+        }
+        Throwable error = this.exception;
+        if (error == null) {
+            fields.put("status", "OK");
+        } else {
+            fields.put("status", "ERROR");
+            fields.put("exception", String.format("%s: %s", error.getClass().getName(), error.getMessage()));
+        }
+        return fields;
+    }
+
+    private TraceSpan putAttribute(String key, Object value)
+    {
+        if (key != null && value != null && !this.ended.get()) {
+            synchronized (this.attributes) {
+                this.attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    private static String newId(int longs)
+    {
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < longs; i++) {
+            id.append(String.format("%016x", ThreadLocalRandom.current().nextLong()));
+        }
+        return id.toString();
+    }
+}
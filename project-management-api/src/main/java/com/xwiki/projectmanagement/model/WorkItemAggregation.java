@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The number of work items matching a query, grouped by the values of a work item property. It is computed by the
+ * project management platform, so it covers all the matching work items, not only a page of them.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkItemAggregation
+{
+    @JsonProperty
+    private String property;
+
+    @JsonProperty
+    private Map<String, Long> counts;
+
+    @JsonProperty
+    private Integer totalItems;
+
+    /**
+     * Default constructor that initializes the counts with an empty map.
+     */
+    public WorkItemAggregation()
+    {
+        counts = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param property the work item property used to group the work items.
+     * @param counts the number of work items for each value of the property. The work items that have no value for
+     *     the property are counted under the empty string.
+     * @param totalItems the total number of work items matching the query.
+     */
+    public WorkItemAggregation(String property, Map<String, Long> counts, Integer totalItems)
+    {
+        this.property = property;
+        this.counts = counts;
+        this.totalItems = totalItems;
+    }
+
+    /**
+     * @return the work item property used to group the work items (e.g. {@link WorkItem#KEY_STATUS}).
+     */
+    public String getProperty()
+    {
+        return property;
+    }
+
+    /**
+     * @param property see {@link #getProperty()}.
+     */
+    public void setProperty(String property)
+    {
+        this.property = property;
+    }
+
+    /**
+     * @return the number of work items for each value of the property. The work items that have no value for the
+     *     property are counted under the empty string.
+     */
+    public Map<String, Long> getCounts()
+    {
+        return counts;
+    }
+
+    /**
+     * @param counts see {@link #getCounts()}.
+     */
+    public void setCounts(Map<String, Long> counts)
+    {
+        this.counts = counts;
+    }
+
+    /**
+     * @return the total number of work items matching the query.
+     */
+    public Integer getTotalItems()
+    {
+        return totalItems;
+    }
+
+    /**
+     * @param totalItems see {@link #getTotalItems()}.
+     */
+    public void setTotalItems(Integer totalItems)
+    {
+        this.totalItems = totalItems;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.tracing;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.livedata.LiveDataQuery;
+
+/**
+ * Creates the {@link TraceSpan spans} measuring the stages of the project management requests, from the execution of
+ * a macro to the HTTP calls sent to the remote servers and the rendering of the retrieved work items. Tracing is
+ * disabled by default, in which case the returned spans do nothing; it is enabled with the
+ * {@code projectmanagement.tracing.enabled} property of {@code xwiki.properties}.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Role
+public interface ProjectManagementTracer
+{
+    /**
+     * The attribute holding the id of the project management client, such as {@code openproject}.
+     */
+    String ATTRIBUTE_CLIENT = "projectmanagement.client";
+
+    /**
+     * The attribute holding the name of the connection to the remote server.
+     */
+    String ATTRIBUTE_CONNECTION = "projectmanagement.connection";
+
+    /**
+     * The attribute holding the hash of the filters of a query, see {@link #hashFilters(List)}.
+     */
+    String ATTRIBUTE_FILTERS_HASH = "projectmanagement.filters.hash";
+
+    /**
+     * The attribute holding the number of items requested by a query.
+     */
+    String ATTRIBUTE_PAGE_SIZE = "projectmanagement.page.size";
+
+    /**
+     * The attribute holding the number of items returned or displayed.
+     */
+    String ATTRIBUTE_ITEM_COUNT = "projectmanagement.item.count";
+
+    /**
+     * Starts a span that is a child of the current span of the calling thread, and makes it the current span until it
+     * ends. It has to be ended by the calling thread, ideally with a try-with-resources statement.
+     *
+     * @param name the name of the span
+     * @return the started span
+     */
+    TraceSpan startSpan(String name);
+
+    /**
+     * Starts a span that is a child of the given span, and makes it the current span of the calling thread until it
+     * ends. It is used to continue a trace on another thread, such as the one rendering an asynchronous macro.
+     *
+     * @param name the name of the span
+     * @param parent the parent span, possibly started by another thread; {@code null} or a no-op span to start a new
+     *     trace
+     * @return the started span
+     */
+    TraceSpan startSpan(String name, TraceSpan parent);
+
+    /**
+     * Starts a span that is a child of the given span, without making it the current span. It can be ended by any
+     * thread, for instance when an asynchronous request completes.
+     *
+     * @param name the name of the span
+     * @param parent the parent span; {@code null} or a no-op span to start a new trace
+     * @return the started span
+     */
+    TraceSpan startAsyncSpan(String name, TraceSpan parent);
+
+    /**
+     * @return the current span of the calling thread, or a no-op span if there is none
+     */
+    TraceSpan getCurrentSpan();
+
+    /**
+     * @param filters the filters of a query
+     * @return a short hash of the filtered properties and operators, identical across restarts, that allows grouping
+     *     the spans of the same kind of query; the filter values are left out since they can be confidential
+     */
+    static String hashFilters(List<LiveDataQuery.Filter> filters)
+    {
+        if (filters == null || filters.isEmpty()) {
+            return "";
+        }
+        String shape = filters.stream()
+            .map(filter -> filter.getProperty() + filter.getConstraints().stream()
+                .map(LiveDataQuery.Constraint::getOperator)
+                .collect(Collectors.joining(",", "(", ")")))
+            .collect(Collectors.joining(";"));
+        return String.format("%08x", shape.hashCode());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.tracing;
+
+/**
+ * A timed stage of the processing of a project management request, such as the execution of a macro or an HTTP call
+ * to a remote server. It follows the OpenTelemetry span model: a span belongs to a trace, has an optional parent and
+ * carries attributes, so the exported spans can be assembled into a timing breakdown of a whole request.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public interface TraceSpan extends AutoCloseable
+{
+    /**
+     * @param key the name of the attribute
+     * @param value the value of the attribute
+     * @return this span, for chaining
+     */
+    TraceSpan setAttribute(String key, String value);
+
+    /**
+     * @param key the name of the attribute
+     * @param value the value of the attribute
+     * @return this span, for chaining
+     */
+    TraceSpan setAttribute(String key, long value);
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param exception the exception that interrupted the stage measured by this span
+     * @return this span, for chaining
+     */
+    TraceSpan recordException(Throwable exception);
+
+    /**
+     * @return {@code true} if the span is exported when it ends, {@code false} if it is a no-op span; callers can
+     *     use it to skip computing costly attributes
+     */
+    boolean isRecording();
+
+    /**
+     * Ends the span. Only the first call has an effect.
+     */
+    void end();
+
+    /**
+     * Ends the span, allowing it to be used in a try-with-resources statement.
+     */
+    @Override
+    default void close()
+    {
+        end();
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.xwiki.projectmanagement.exception.WorkItemException;
+import com.xwiki.projectmanagement.exception.WorkItemIterationException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkItemIteratorTest
+{
+    private static final String INDEX = "index";
+
+    private final List<Integer> loadedOffsets = new ArrayList<>();
+
+    @Test
+    void iteratesOverAllThePages()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(60, true), 25, 1000, Runnable::run);
+
+        assertEquals(indexes(0, 60), collect(iterator));
+        assertEquals(List.of(0, 25, 50), this.loadedOffsets);
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void stopsAtTheTotalWhenItIsAMultipleOfThePageSize()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(50, true), 25, 1000, Runnable::run);
+
+        assertEquals(indexes(0, 50), collect(iterator));
+        // The total is known, so the page after the last one is not retrieved.
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void stopsAtTheFirstEmptyPageWhenTheTotalIsUnknown()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(50, false), 25, 1000, Runnable::run);
+
+        assertEquals(indexes(0, 50), collect(iterator));
+        assertEquals(List.of(0, 25, 50), this.loadedOffsets);
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void stopsAtTheFirstIncompletePageWhenTheTotalIsUnknown()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(40, false), 25, 1000, Runnable::run);
+
+        assertEquals(indexes(0, 40), collect(iterator));
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+    }
+
+    @Test
+    void handlesAnEmptyResult()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(0, true), 25, 1000, Runnable::run);
+
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(List.of(0), this.loadedOffsets);
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void stopsInTheMiddleOfAPageAtTheMaximumNumberOfItems()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(100, true), 25, 30, Runnable::run);
+
+        assertEquals(indexes(0, 30), collect(iterator));
+        // No page starting after the maximum number of items is retrieved.
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertTrue(iterator.isTruncated());
+    }
+
+    @Test
+    void stopsAtTheEndOfAPageAtTheMaximumNumberOfItems()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(100, true), 25, 50, Runnable::run);
+
+        assertEquals(indexes(0, 50), collect(iterator));
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertTrue(iterator.isTruncated());
+    }
+
+    @Test
+    void isNotTruncatedWhenTheMaximumNumberOfItemsIsTheTotal()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(50, true), 25, 50, Runnable::run);
+
+        assertEquals(indexes(0, 50), collect(iterator));
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void retrievesASinglePageWhenTheMaximumNumberOfItemsIsThePageSize()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(100, true), 25, 25, Runnable::run);
+
+        assertEquals(indexes(0, 25), collect(iterator));
+        assertEquals(List.of(0), this.loadedOffsets);
+        assertTrue(iterator.isTruncated());
+    }
+
+    @Test
+    void prefetchesTheNextPageWithTheExecutor()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        WorkItemIterator iterator = new WorkItemIterator(loader(30, true), 25, 1000, tasks::add);
+
+        assertTrue(iterator.hasNext());
+        assertEquals(List.of(0), this.loadedOffsets);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertEquals(indexes(0, 30), collect(iterator));
+    }
+
+    @Test
+    void failsWhenAPageCannotBeRetrieved()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        WorkItemIterator iterator = new WorkItemIterator((offset, pageSize) -> {
+            if (offset > 0) {
+                throw failure;
+            }
+            return page(offset, pageSize, 50, true);
+        }, 25, 1000, Runnable::run);
+
+        for (int i = 0; i < 25; i++) {
+            iterator.next();
+        }
+        WorkItemIterationException exception = assertThrows(WorkItemIterationException.class, iterator::hasNext);
+        assertSame(failure, exception.getCause());
+        // The iteration is over after a failure.
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void failsWhenTheFirstPageCannotBeRetrieved()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        WorkItemIterator iterator = new WorkItemIterator((offset, pageSize) -> {
+            throw failure;
+        }, 25, 1000, Runnable::run);
+
+        WorkItemIterationException exception = assertThrows(WorkItemIterationException.class, iterator::hasNext);
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void closeAbandonsThePrefetchedPage() throws Exception
+    {
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WorkItemIterator iterator = new WorkItemIterator((offset, pageSize) -> {
+                if (offset > 0) {
+                    release.join();
+                }
+                return page(offset, pageSize, 100, true);
+            }, 25, 1000, executor);
+
+            assertTrue(iterator.hasNext());
+            iterator.close();
+
+            assertFalse(iterator.hasNext());
+            release.complete(null);
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void streamClosesTheIterator()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(loader(100, true), 25, 1000, Runnable::run);
+
+        try (Stream<WorkItem> stream = iterator.stream()) {
+            assertEquals(indexes(0, 10), stream.limit(10).collect(Collectors.toList()));
+        }
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void rejectsAnInvalidPageSize()
+    {
+        assertThrows(IllegalArgumentException.class,
+            () -> new WorkItemIterator(loader(10, true), 0, 1000, Runnable::run));
+    }
+
+    @Test
+    void requestsTheNextPageFromTheConsumingThreadWithAnAsyncLoader()
+    {
+        Thread consumer = Thread.currentThread();
+        List<CompletableFuture<PaginatedResult<WorkItem>>> pages = new ArrayList<>();
+        WorkItemIterator iterator = new WorkItemIterator((offset, pageSize) -> {
+            assertSame(consumer, Thread.currentThread());
+            this.loadedOffsets.add(offset);
+            CompletableFuture<PaginatedResult<WorkItem>> future = new CompletableFuture<>();
+            pages.add(future);
+            if (offset == 0) {
+                future.complete(page(offset, pageSize, 30, true));
+            }
+            return future;
+        }, 25, 1000);
+
+        assertTrue(iterator.hasNext());
+        // The next page is requested, without waiting for it, while the first one is consumed.
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertFalse(pages.get(1).isDone());
+
+        pages.get(1).complete(page(25, 25, 30, true));
+        assertEquals(indexes(0, 30), collect(iterator));
+        assertFalse(iterator.isTruncated());
+    }
+
+    @Test
+    void failsWhenAnAsyncPageCannotBeRetrieved()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        WorkItemIterator.AsyncPageLoader loader = asyncLoader(50, true);
+        WorkItemIterator iterator = new WorkItemIterator((offset, pageSize) -> offset > 0
+            ? CompletableFuture.<PaginatedResult<WorkItem>>failedFuture(failure) : loader.load(offset, pageSize), 25,
+            1000);
+
+        for (int i = 0; i < 25; i++) {
+            iterator.next();
+        }
+        WorkItemIterationException exception = assertThrows(WorkItemIterationException.class, iterator::hasNext);
+        assertSame(failure, exception.getCause());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void truncatesAnAsyncIteration()
+    {
+        WorkItemIterator iterator = new WorkItemIterator(asyncLoader(100, false), 25, 30);
+
+        assertEquals(indexes(0, 30), collect(iterator));
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        assertTrue(iterator.isTruncated());
+    }
+
+    @Test
+    void collectsAllThePages()
+    {
+        PaginatedResult<WorkItem> result =
+            WorkItemIterator.collectAsync(asyncLoader(60, true), 25, 1000, Runnable::run).join();
+
+        assertEquals(indexes(0, 60), result.getItems());
+        assertEquals(60, result.getTotalItems());
+        assertEquals(List.of(0, 25, 50), this.loadedOffsets);
+    }
+
+    @Test
+    void collectsUntilTheFirstIncompletePageWhenTheTotalIsUnknown()
+    {
+        PaginatedResult<WorkItem> result =
+            WorkItemIterator.collectAsync(asyncLoader(40, false), 25, 1000, Runnable::run).join();
+
+        assertEquals(indexes(0, 40), result.getItems());
+        assertEquals(40, result.getTotalItems());
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+    }
+
+    @Test
+    void collectsUpToTheMaximumNumberOfItems()
+    {
+        PaginatedResult<WorkItem> result =
+            WorkItemIterator.collectAsync(asyncLoader(100, true), 25, 30, Runnable::run).join();
+
+        assertEquals(indexes(0, 30), result.getItems());
+        // The total reports the truncation.
+        assertEquals(100, result.getTotalItems());
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+
+        this.loadedOffsets.clear();
+        result = WorkItemIterator.collectAsync(asyncLoader(100, false), 25, 50, Runnable::run).join();
+
+        assertEquals(indexes(0, 50), result.getItems());
+        assertTrue(result.getTotalItems() > 50);
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+    }
+
+    @Test
+    void isNotTruncatedWhenTheMaximumNumberOfItemsIsTheTotalOfTheCollectedItems()
+    {
+        PaginatedResult<WorkItem> result =
+            WorkItemIterator.collectAsync(asyncLoader(50, true), 25, 50, Runnable::run).join();
+
+        assertEquals(indexes(0, 50), result.getItems());
+        assertEquals(50, result.getTotalItems());
+    }
+
+    @Test
+    void requestsTheNextPagesWithTheExecutor()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        CompletableFuture<PaginatedResult<WorkItem>> result =
+            WorkItemIterator.collectAsync(asyncLoader(30, true), 25, 1000, tasks::add);
+
+        // Only the first page is requested from the calling thread.
+        assertEquals(List.of(0), this.loadedOffsets);
+        assertFalse(result.isDone());
+
+        tasks.remove(0).run();
+        assertEquals(List.of(0, 25), this.loadedOffsets);
+        tasks.remove(0).run();
+        assertEquals(indexes(0, 30), result.join().getItems());
+    }
+
+    @Test
+    void collectFailsWhenAPageCannotBeRetrieved()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        CompletableFuture<PaginatedResult<WorkItem>> result = WorkItemIterator.collectAsync(
+            (offset, pageSize) -> CompletableFuture.failedFuture(failure), 25, 1000, Runnable::run);
+
+        assertTrue(result.isCompletedExceptionally());
+        assertSame(failure, assertThrows(CompletionException.class, result::join).getCause());
+    }
+
+    private WorkItemIterator.AsyncPageLoader asyncLoader(int total, boolean knownTotal)
+    {
+        WorkItemIterator.PageLoader loader = loader(total, knownTotal);
+        return (offset, pageSize) -> {
+            try {
+                return CompletableFuture.completedFuture(loader.load(offset, pageSize));
+            } catch (WorkItemException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+
+    private WorkItemIterator.PageLoader loader(int total, boolean knownTotal)
+    {
+        return (offset, pageSize) -> {
+            this.loadedOffsets.add(offset);
+            return page(offset, pageSize, total, knownTotal);
+        };
+    }
+
+    private static PaginatedResult<WorkItem> page(int offset, int pageSize, int total, boolean knownTotal)
+    {
+        List<WorkItem> items = indexes(Math.min(offset, total), Math.min(offset + pageSize, total));
+        return new PaginatedResult<>(items, offset, pageSize, knownTotal ? total : null);
+    }
+
+    private static List<WorkItem> indexes(int start, int end)
+    {
+        return IntStream.range(start, end).mapToObj(index -> {
+            WorkItem workItem = new WorkItem();
+            workItem.put(INDEX, index);
+            return workItem;
+        }).collect(Collectors.toList());
+    }
+
+    private static List<WorkItem> collect(WorkItemIterator iterator)
+    {
+        List<WorkItem> workItems = new ArrayList<>();
+        iterator.forEachRemaining(workItems::add);
+        return workItems;
+    }
+}
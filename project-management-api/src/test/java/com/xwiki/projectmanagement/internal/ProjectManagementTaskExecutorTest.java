@@ -0,0 +1,200 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@ComponentList(DefaultProjectManagementClientExecutionContext.class)
+class ProjectManagementTaskExecutorTest
+{
+    private static final String KEY = "key";
+
+    private static final String VALUE = "value";
+
+    @InjectMockComponents
+    private ProjectManagementTaskExecutor taskExecutor;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @MockComponent
+    private ContextStoreManager contextStoreManager;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ProjectManagementExecutors executors;
+
+    private ExecutorService executor;
+
+    private DefaultProjectManagementClientExecutionContext clientContext;
+
+    private final Map<String, Serializable> savedContext = Map.of("user", "xwiki:XWiki.Alice");
+
+    @BeforeComponent
+    void configure()
+    {
+        this.executor = Executors.newSingleThreadExecutor();
+        when(this.executors.newExecutor(anyString(), anyInt())).thenReturn(this.executor);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        this.clientContext = this.componentManager.getInstance(ProjectManagementClientExecutionContext.class);
+        when(this.contextStoreManager.save(any())).thenReturn(this.savedContext);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.clientContext.setContext(null);
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void createsTheExecutorWithTheDefaultNumberOfThreads()
+    {
+        verify(this.executors).newExecutor("Project management task", 8);
+    }
+
+    @Test
+    void submitRunsTheTaskInTheContextOfTheCaller() throws Exception
+    {
+        this.clientContext.setContext(new HashMap<>(Map.of(KEY, VALUE)));
+
+        Object value = this.taskExecutor.submit(() -> this.clientContext.get(KEY)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(VALUE, value);
+        InOrder order = inOrder(this.execution, this.executionContextManager, this.contextStoreManager);
+        order.verify(this.execution).setContext(any(ExecutionContext.class));
+        order.verify(this.executionContextManager).initialize(any(ExecutionContext.class));
+        order.verify(this.contextStoreManager).restore(this.savedContext);
+        order.verify(this.execution).removeContext();
+    }
+
+    @Test
+    void executeRunsTheTaskInTheContextOfTheCaller() throws Exception
+    {
+        this.clientContext.setContext(new HashMap<>(Map.of(KEY, VALUE)));
+        CompletableFuture<Object> value = new CompletableFuture<>();
+
+        this.taskExecutor.execute(() -> value.complete(this.clientContext.get(KEY)));
+
+        assertEquals(VALUE, value.get(5, TimeUnit.SECONDS));
+        verify(this.contextStoreManager).restore(this.savedContext);
+    }
+
+    @Test
+    void contextExecutorRunsTheTasksInTheContextSavedWhenItWasCreated() throws Exception
+    {
+        this.clientContext.setContext(new HashMap<>(Map.of(KEY, VALUE)));
+        Executor contextExecutor = this.taskExecutor.contextExecutor();
+        // The tasks are submitted later, from a thread that doesn't have the context.
+        this.clientContext.setContext(null);
+        CompletableFuture<Object> value = new CompletableFuture<>();
+
+        this.executor.execute(() -> contextExecutor.execute(() -> value.complete(this.clientContext.get(KEY))));
+
+        assertEquals(VALUE, value.get(5, TimeUnit.SECONDS));
+        verify(this.contextStoreManager).save(any());
+        verify(this.contextStoreManager).restore(this.savedContext);
+    }
+
+    @Test
+    void tasksDoNotShareTheClientContextOfTheCaller() throws Exception
+    {
+        Map<String, Object> context = new HashMap<>(Map.of(KEY, VALUE));
+        this.clientContext.setContext(context);
+
+        this.taskExecutor.submit(() -> this.clientContext.getContext().put(KEY, "modified")).get(5, TimeUnit.SECONDS);
+        Object value = this.taskExecutor.submit(() -> this.clientContext.get(KEY)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(VALUE, value);
+        assertEquals(VALUE, context.get(KEY));
+    }
+
+    @Test
+    void theClientContextIsClearedAfterTheTask() throws Exception
+    {
+        this.clientContext.setContext(new HashMap<>(Map.of(KEY, VALUE)));
+        this.taskExecutor.submit(() -> this.clientContext.get(KEY)).get(5, TimeUnit.SECONDS);
+
+        // Run directly on the worker thread, without going through the task executor.
+        Map<String, Object> workerContext =
+            this.executor.submit(this.clientContext::getContext).get(5, TimeUnit.SECONDS);
+
+        assertTrue(workerContext.isEmpty());
+    }
+
+    @Test
+    void disposeStopsTheExecutor()
+    {
+        this.taskExecutor.dispose();
+
+        assertTrue(this.executor.isShutdown());
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.tracing;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.environment.Environment;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.mockito.ReflectionUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DefaultProjectManagementTracerTest
+{
+    private static final String PREFIX = "projectmanagement.tracing.";
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.INFO);
+
+    @TempDir
+    Path temporaryDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ConfigurationSource xwikiProperties = mock(ConfigurationSource.class);
+
+    private final Environment environment = mock(Environment.class);
+
+    private final Logger logger = mock(Logger.class);
+
+    private File traceFile;
+
+    private DefaultProjectManagementTracer tracer;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.traceFile = this.temporaryDirectory.resolve("traces.jsonl").toFile();
+        // The properties that are not set explicitly get their default value.
+        when(this.xwikiProperties.getProperty(anyString(), (Object) any()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+        when(this.environment.getPermanentDirectory()).thenReturn(this.temporaryDirectory.toFile());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if (this.tracer != null) {
+            this.tracer.dispose();
+        }
+    }
+
+    @Test
+    void disabledByDefaultTest()
+    {
+        DefaultProjectManagementTracer disabled = newTracer();
+
+        TraceSpan span = disabled.startSpan("macro");
+
+        assertSame(NoOpTraceSpan.INSTANCE, span);
+        assertFalse(span.isRecording());
+        assertSame(NoOpTraceSpan.INSTANCE, disabled.startAsyncSpan("request", span));
+        assertSame(NoOpTraceSpan.INSTANCE, disabled.getCurrentSpan());
+        span.end();
+        assertFalse(new File(this.temporaryDirectory.toFile(), "projectmanagement").exists());
+    }
+
+    @Test
+    void nestedSpansTest() throws Exception
+    {
+        enableFileExporter();
+
+        TraceSpan outer = this.tracer.startSpan("macro");
+        TraceSpan inner = this.tracer.startSpan("request");
+        assertSame(inner, this.tracer.getCurrentSpan());
+        inner.end();
+        assertSame(outer, this.tracer.getCurrentSpan());
+        outer.end();
+        assertSame(NoOpTraceSpan.INSTANCE, this.tracer.getCurrentSpan());
+
+        List<JsonNode> spans = readSpans();
+        assertEquals(2, spans.size());
+        assertEquals("request", spans.get(0).path("name").asText());
+        assertEquals("macro", spans.get(1).path("name").asText());
+        assertEquals(spans.get(1).path("traceId"), spans.get(0).path("traceId"));
+        assertEquals(spans.get(1).path("spanId"), spans.get(0).path("parentSpanId"));
+        assertTrue(spans.get(1).path("parentSpanId").isMissingNode());
+    }
+
+    @Test
+    void asyncSpansTest() throws Exception
+    {
+        enableFileExporter();
+
+        TraceSpan macro = this.tracer.startSpan("macro");
+        TraceSpan request = this.tracer.startAsyncSpan("request", macro);
+        // An asynchronous span doesn't become the current span and can be ended by another thread.
+        assertSame(macro, this.tracer.getCurrentSpan());
+        CompletableFuture.runAsync(request::end).get(5, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> {
+            try (TraceSpan rendering = this.tracer.startSpan("rendering", macro)) {
+                assertSame(rendering, this.tracer.getCurrentSpan());
+            }
+            assertSame(NoOpTraceSpan.INSTANCE, this.tracer.getCurrentSpan());
+        }).get(5, TimeUnit.SECONDS);
+        macro.end();
+
+        List<JsonNode> spans = readSpans();
+        assertEquals(3, spans.size());
+        JsonNode macroSpan = spans.get(2);
+        for (JsonNode child : spans.subList(0, 2)) {
+            assertEquals(macroSpan.path("traceId"), child.path("traceId"));
+            assertEquals(macroSpan.path("spanId"), child.path("parentSpanId"));
+        }
+    }
+
+    @Test
+    void jsonLinesExportTest() throws Exception
+    {
+        enableFileExporter();
+
+        try (TraceSpan span = this.tracer.startSpan("request")) {
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_CONNECTION, "openproject");
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT, 25);
+            span.recordException(new IllegalStateException("Timeout"));
+        }
+
+        List<JsonNode> spans = readSpans();
+        assertEquals(1, spans.size());
+        JsonNode span = spans.get(0);
+        assertEquals(32, span.path("traceId").asText().length());
+        assertEquals(16, span.path("spanId").asText().length());
+        assertEquals("request", span.path("name").asText());
+        assertTrue(span.path("startTimeUnixNano").asLong() <= span.path("endTimeUnixNano").asLong());
+        assertEquals("openproject", span.path("attributes").path(ProjectManagementTracer.ATTRIBUTE_CONNECTION)
+            .asText());
+        assertEquals(25, span.path("attributes").path(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT).asInt());
+        assertEquals("ERROR", span.path("status").asText());
+        assertEquals("java.lang.IllegalStateException: Timeout", span.path("exception").asText());
+    }
+
+    @Test
+    void spansEndedOutOfOrderTest()
+    {
+        enableFileExporter();
+
+        TraceSpan root = this.tracer.startSpan("root");
+        TraceSpan outer = this.tracer.startSpan("outer");
+        TraceSpan inner = this.tracer.startSpan("inner");
+        outer.end();
+        assertSame(inner, this.tracer.getCurrentSpan());
+        inner.end();
+        // The ended outer span is skipped.
+        assertSame(root, this.tracer.getCurrentSpan());
+        root.end();
+        assertSame(NoOpTraceSpan.INSTANCE, this.tracer.getCurrentSpan());
+    }
+
+    @Test
+    void fileExporterDefaultPathTest() throws Exception
+    {
+        when(this.xwikiProperties.getProperty(PREFIX + "enabled", false)).thenReturn(true);
+        when(this.xwikiProperties.getProperty(PREFIX + "exporter", "log")).thenReturn("file");
+        this.tracer = newTracer();
+
+        this.tracer.startSpan("macro").end();
+
+        this.traceFile = new File(this.temporaryDirectory.toFile(), "projectmanagement/traces.jsonl");
+        assertEquals("macro", readSpans().get(0).path("name").asText());
+    }
+
+    @Test
+    void logExporterTest()
+    {
+        when(this.xwikiProperties.getProperty(PREFIX + "enabled", false)).thenReturn(true);
+        this.tracer = newTracer();
+
+        this.tracer.startSpan("macro").end();
+
+        assertTrue(this.logCapture.getMessage(0).contains("\"name\":\"macro\""));
+    }
+
+    @Test
+    void fileExporterFallsBackToTheLoggerTest() throws Exception
+    {
+        // The trace file can't be created under a regular file.
+        File blocker = Files.createFile(this.temporaryDirectory.resolve("blocker")).toFile();
+        when(this.xwikiProperties.getProperty(PREFIX + "enabled", false)).thenReturn(true);
+        when(this.xwikiProperties.getProperty(PREFIX + "exporter", "log")).thenReturn("file");
+        when(this.xwikiProperties.getProperty(PREFIX + "file", String.class))
+            .thenReturn(new File(blocker, "traces.jsonl").getPath());
+        this.tracer = newTracer();
+
+        this.tracer.startSpan("macro").end();
+
+        verify(this.logger).warn(eq("Failed to open the trace file [{}]. The spans are logged instead."),
+            any(File.class), any(Exception.class));
+        assertTrue(this.logCapture.getMessage(0).contains("\"name\":\"macro\""));
+    }
+
+    private void enableFileExporter()
+    {
+        when(this.xwikiProperties.getProperty(PREFIX + "enabled", false)).thenReturn(true);
+        when(this.xwikiProperties.getProperty(PREFIX + "exporter", "log")).thenReturn("file");
+        when(this.xwikiProperties.getProperty(PREFIX + "file", String.class)).thenReturn(this.traceFile.getPath());
+        this.tracer = newTracer();
+    }
+
+    private DefaultProjectManagementTracer newTracer()
+    {
+        DefaultProjectManagementTracer newTracer = new DefaultProjectManagementTracer();
+        ReflectionUtils.setFieldValue(newTracer, "xwikiProperties", this.xwikiProperties);
+        ReflectionUtils.setFieldValue(newTracer, "environment", this.environment);
+        ReflectionUtils.setFieldValue(newTracer, "logger", this.logger);
+        newTracer.initialize();
+        return newTracer;
+    }
+
+    private List<JsonNode> readSpans() throws Exception
+    {
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(this.traceFile.toPath())) {
+            spans.add(this.objectMapper.readTree(line));
+        }
+        return spans;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler and compares their results with a baseline, failing when one of
+ * them regressed by more than the allowed percentage: either a lower throughput or more memory allocated by operation.
+ * The run is configured with the following system properties:
+ * <ul>
+ * <li>{@code benchmarks.include}: the regular expression matching the benchmarks to run</li>
+ * <li>{@code benchmarks.forks}, {@code benchmarks.warmupIterations}, {@code benchmarks.iterations}: the JMH run
+ * options</li>
+ * <li>{@code benchmarks.baseline}: the properties file holding the reference results; the benchmarks missing from it
+ * are not compared</li>
+ * <li>{@code benchmarks.maxRegression}: the allowed regression, in percent</li>
+ * <li>{@code benchmarks.results}: the properties file where the results are written, in the format of the baseline,
+ * so that they can replace it</li>
+ * </ul>
+ * The throughput depends on the machine, so it should only be compared with a baseline recorded on the same machine.
+ * The allocated memory doesn't, so its baseline can be shared.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public final class BenchmarkRunner
+{
+    private static final String PREFIX = "benchmarks.";
+
+    private static final String ALLOCATION_SUFFIX = ".alloc";
+
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner()
+    {
+    }
+
+    /**
+     * @param args not used, the run is configured with system properties
+     * @throws RunnerException if the benchmarks could not be run
+     * @throws IOException if the baseline or the results could not be read or written
+     */
+    public static void main(String[] args) throws RunnerException, IOException
+    {
+        Options options = new OptionsBuilder()
+            .include(System.getProperty(PREFIX + "include", ".*"))
+            .forks(Integer.getInteger(PREFIX + "forks", 1))
+            .warmupIterations(Integer.getInteger(PREFIX + "warmupIterations", 3))
+            .measurementIterations(Integer.getInteger(PREFIX + "iterations", 5))
+            .addProfiler(GCProfiler.class)
+            .build();
+        Map<String, Double> results = getResults(new Runner(options).run());
+
+        String resultsFile = System.getProperty(PREFIX + "results");
+        if (resultsFile != null) {
+            write(results, Paths.get(resultsFile));
+        }
+
+        int maxRegression = Integer.getInteger(PREFIX + "maxRegression", 20);
+        String baselineFile = System.getProperty(PREFIX + "baseline");
+        if (baselineFile != null && Files.isRegularFile(Paths.get(baselineFile))) {
+            List<String> regressions = getRegressions(read(Paths.get(baselineFile)), results, maxRegression);
+            if (!regressions.isEmpty()) {
+                throw new IllegalStateException(String.format("The following benchmarks regressed by more than %d%%:"
+                    + "%n%s", maxRegression, String.join(System.lineSeparator(), regressions)));
+            }
+        }
+    }
+
+    private static Map<String, Double> getResults(Collection<RunResult> runResults)
+    {
+        Map<String, Double> results = new TreeMap<>();
+        for (RunResult runResult : runResults) {
+            String key = getKey(runResult.getParams());
+            results.put(key, runResult.getPrimaryResult().getScore());
+            for (Map.Entry<String, Result> secondary : runResult.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith(ALLOCATION_RESULT)) {
+                    results.put(key + ALLOCATION_SUFFIX, secondary.getValue().getScore());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The keys are made of the benchmark name and its parameter values, which avoids the characters that would have to
+     * be escaped in a properties file.
+     */
+    private static String getKey(BenchmarkParams params)
+    {
+        List<String> values = params.getParamsKeys().stream().sorted().map(params::getParam)
+            .collect(Collectors.toList());
+        values.add(0, params.getBenchmark());
+        return String.join("-", values);
+    }
+
+    private static List<String> getRegressions(Map<String, Double> baseline, Map<String, Double> results,
+        int maxRegression)
+    {
+        List<String> regressions = new ArrayList<>();
+        double tolerance = maxRegression / 100.0;
+        results.forEach((key, value) -> {
+            Double reference = baseline.get(key);
+            if (reference == null || reference <= 0) {
+                return;
+            }
+            // A higher throughput is better, while a higher allocation is worse.
+            boolean regressed = key.endsWith(ALLOCATION_SUFFIX) ? value > reference * (1 + tolerance)
+                : value < reference * (1 - tolerance);
+            if (regressed) {
+                regressions.add(String.format("%s: %.2f (baseline: %.2f)", key, value, reference));
+            }
+        });
+        return regressions;
+    }
+
+    private static Map<String, Double> read(Path file) throws IOException
+    {
+        Properties properties = new Properties();
+        try (InputStream stream = Files.newInputStream(file)) {
+            properties.load(stream);
+        }
+        Map<String, Double> values = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, Double.valueOf(properties.getProperty(key)));
+        }
+        return values;
+    }
+
+    private static void write(Map<String, Double> results, Path file) throws IOException
+    {
+        Properties properties = new Properties();
+        results.forEach((key, value) -> properties.setProperty(key, String.valueOf(value)));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            properties.store(stream, "Results of the Project Management benchmarks");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+
+import com.xwiki.projectmanagement.chart.ChartPeriod;
+import com.xwiki.projectmanagement.internal.chart.displayer.AbstractChartJSDisplayer;
+import com.xwiki.projectmanagement.internal.chart.displayer.BarChartDisplayer;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Measures the computation of the ChartJS model and data of the work item charts: counting the work items by label,
+ * building the datasets and serializing them. The chartjs macro markup is printed but not parsed, since its parsing
+ * doesn't depend on the number of work items.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChartDisplayerBenchmark
+{
+    /**
+     * The number of displayed work items.
+     */
+    @Param({ "25", "250", "2500" })
+    public int size;
+
+    /**
+     * The property the work items are grouped by: a plain one, or a date one, grouped by day.
+     */
+    @Param({ WorkItem.KEY_STATUS, WorkItem.KEY_CREATION_DATE })
+    public String property;
+
+    /**
+     * The metric of the chart.
+     */
+    @Param({ AbstractChartJSDisplayer.PARAM_METRIC_COUNT, AbstractChartJSDisplayer.PARAM_METRIC_ACCUMULATE })
+    public String metric;
+
+    private AbstractChartJSDisplayer displayer;
+
+    private List<PaginatedResult<WorkItem>> workItems;
+
+    private Map<String, String> parameters;
+
+    private final MacroTransformationContext context = new MacroTransformationContext();
+
+    /**
+     * Creates the displayer and the displayed work items.
+     */
+    @Setup
+    public void setUp()
+    {
+        this.displayer = new BarChartDisplayer();
+        ReflectionUtils.setFieldValue(this.displayer, "renderer", RenderingStubs.newWikiRenderer());
+        ReflectionUtils.setFieldValue(this.displayer, "contentParser", RenderingStubs.newMacroContentParser());
+
+        this.workItems = Collections.singletonList(
+            new PaginatedResult<>(WorkItemFixtures.getWorkItems(this.size), 1, this.size, this.size));
+        this.parameters = Map.of(AbstractChartJSDisplayer.PARAM_METRIC, this.metric,
+            AbstractChartJSDisplayer.PARAM_PERIOD, ChartPeriod.DAILY.name());
+    }
+
+    /**
+     * @return the blocks displaying the chart
+     * @throws MacroExecutionException if the chart data can't be serialized
+     */
+    @Benchmark
+    public List<Block> displayChart() throws MacroExecutionException
+    {
+        return this.displayer.execute(this.workItems, this.property, Collections.singletonList("Work items"),
+            this.context, this.parameters);
+    }
+}
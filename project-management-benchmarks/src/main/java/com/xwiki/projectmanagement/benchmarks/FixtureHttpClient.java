@@ -0,0 +1,203 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+/**
+ * HTTP client answering all the requests with the same recorded response, so that the benchmarks measure how the
+ * responses are decoded without depending on an OpenProject server. Only the responses read as an
+ * {@link InputStream} are supported, which is how the work package collections are read.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class FixtureHttpClient extends HttpClient
+{
+    private static final HttpHeaders HEADERS =
+        HttpHeaders.of(Map.of("Content-Type", List.of("application/hal+json")), (name, value) -> true);
+
+    private static final String SYNCHRONOUS_ONLY = "The benchmarks only send synchronous requests.";
+
+    private final byte[] body;
+
+    /**
+     * @param body the body of the responses
+     */
+    FixtureHttpClient(byte[] body)
+    {
+        this.body = body;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+    {
+        return (HttpResponse<T>) new FixtureResponse(request, new ByteArrayInputStream(this.body));
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+        HttpResponse.BodyHandler<T> responseBodyHandler)
+    {
+        throw new UnsupportedOperationException(SYNCHRONOUS_ONLY);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+        HttpResponse.BodyHandler<T> responseBodyHandler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler)
+    {
+        throw new UnsupportedOperationException(SYNCHRONOUS_ONLY);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Redirect followRedirects()
+    {
+        return Redirect.NEVER;
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public SSLContext sslContext()
+    {
+        return null;
+    }
+
+    @Override
+    public SSLParameters sslParameters()
+    {
+        return new SSLParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Version version()
+    {
+        return Version.HTTP_1_1;
+    }
+
+    @Override
+    public Optional<Executor> executor()
+    {
+        return Optional.empty();
+    }
+
+    private static final class FixtureResponse implements HttpResponse<InputStream>
+    {
+        private final HttpRequest request;
+
+        private final InputStream body;
+
+        FixtureResponse(HttpRequest request, InputStream body)
+        {
+            this.request = request;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode()
+        {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request()
+        {
+            return this.request;
+        }
+
+        @Override
+        public Optional<HttpResponse<InputStream>> previousResponse()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers()
+        {
+            return HEADERS;
+        }
+
+        @Override
+        public InputStream body()
+        {
+            return this.body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri()
+        {
+            return this.request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version()
+        {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
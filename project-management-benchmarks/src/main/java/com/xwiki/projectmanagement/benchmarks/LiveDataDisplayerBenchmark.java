@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.component.util.ReflectionUtils;
+
+import com.xwiki.projectmanagement.displayer.WorkItemPropertyDisplayerManager;
+import com.xwiki.projectmanagement.livadata.internal.displayer.DefaultProjectManagementLiveDataDisplayer;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Measures the conversion of the work items properties into the HTML displayed in the livedata cells. The work items
+ * are copied before each run since the displayer replaces their properties; the copies are shallow, so they cost
+ * little compared to the display.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LiveDataDisplayerBenchmark
+{
+    /**
+     * The number of displayed work items.
+     */
+    @Param({ "25", "250", "2500" })
+    public int size;
+
+    private DefaultProjectManagementLiveDataDisplayer displayer;
+
+    private List<WorkItem> workItems;
+
+    /**
+     * Creates the displayer and the displayed work items.
+     *
+     * @throws InitializationException if the property displayers can't be initialized
+     */
+    @Setup
+    public void setUp() throws InitializationException
+    {
+        WorkItemPropertyDisplayerManager displayerManager = RenderingStubs.newDisplayerManager();
+        this.displayer = new DefaultProjectManagementLiveDataDisplayer();
+        ReflectionUtils.setFieldValue(this.displayer, "defaultDisplayerManager", displayerManager);
+        ReflectionUtils.setFieldValue(this.displayer, "htmlRendererFactory", RenderingStubs.newHtmlRendererFactory());
+        ReflectionUtils.setFieldValue(this.displayer, "logger",
+            LoggerFactory.getLogger(DefaultProjectManagementLiveDataDisplayer.class));
+        ReflectionUtils.setFieldValue(this.displayer, "componentManager",
+            RenderingStubs.newComponentManager(displayerManager));
+        ReflectionUtils.setFieldValue(this.displayer, "executionContext", RenderingStubs.newExecutionContext());
+
+        this.workItems = WorkItemFixtures.getWorkItems(this.size);
+    }
+
+    /**
+     * @return the displayed work items
+     */
+    @Benchmark
+    public List<WorkItem> displayWorkItems()
+    {
+        List<WorkItem> displayed = WorkItemFixtures.copy(this.workItems);
+        this.displayer.display(displayed);
+        return displayed;
+    }
+}
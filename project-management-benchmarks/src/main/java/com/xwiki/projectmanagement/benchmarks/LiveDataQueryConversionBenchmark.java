@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.livedata.LiveDataQuery;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectFilterHandler;
+import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectSortingHandler;
+
+/**
+ * Measures the translation of the livedata filters and sort entries into the OpenProject query parameters, which is
+ * done for each livedata request, including the merge with the filters of an OpenProject query URL.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LiveDataQueryConversionBenchmark
+{
+    /**
+     * The filters of an OpenProject query URL, as decoded by the livedata source.
+     */
+    private static final String QUERY_FILTERS = "[{\"n\":\"status\",\"o\":\"o\",\"v\":[]},"
+        + "{\"n\":\"type\",\"o\":\"=\",\"v\":[\"1\",\"2\"]},{\"n\":\"assignee\",\"o\":\"=\",\"v\":[\"me\"]}]";
+
+    private List<LiveDataQuery.Filter> filters;
+
+    private List<LiveDataQuery.SortEntry> sortEntries;
+
+    private JsonNode queryFilters;
+
+    /**
+     * Prepares the filters and the sort entries of a typical livedata request.
+     *
+     * @throws IOException if the filters of the query URL can't be parsed
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.filters = List.of(
+            new LiveDataQuery.Filter("status", "=", "7"),
+            new LiveDataQuery.Filter("assignees", "=", "5"),
+            new LiveDataQuery.Filter("summary", "contains", "search"),
+            new LiveDataQuery.Filter("startDate", "between", "2025-01-01/2025-03-31"),
+            new LiveDataQuery.Filter("dueDate", "before", "2025-06-30"),
+            new LiveDataQuery.Filter("progress", ">=", "50"));
+        this.sortEntries = List.of(new LiveDataQuery.SortEntry("dueDate", false),
+            new LiveDataQuery.SortEntry("identifier", true));
+        this.queryFilters = new ObjectMapper().readTree(QUERY_FILTERS);
+    }
+
+    /**
+     * @return the OpenProject filters
+     * @throws ProjectManagementException if the filters can't be converted
+     */
+    @Benchmark
+    public String convertFilters() throws ProjectManagementException
+    {
+        return OpenProjectFilterHandler.convertFilters(this.filters);
+    }
+
+    /**
+     * @return the OpenProject filters, merged with the ones of the query URL
+     * @throws ProjectManagementException if the filters can't be converted
+     */
+    @Benchmark
+    public String mergeFilters() throws ProjectManagementException
+    {
+        return OpenProjectFilterHandler.mergeFilters(this.filters, this.queryFilters);
+    }
+
+    /**
+     * @return the OpenProject sort criteria
+     * @throws ProjectManagementException if the sort entries can't be converted
+     */
+    @Benchmark
+    public String convertSorting() throws ProjectManagementException
+    {
+        return OpenProjectSortingHandler.convertSorting(this.sortEntries);
+    }
+
+    /**
+     * @return the OpenProject sort criteria, merged with the ones of the query URL
+     * @throws ProjectManagementException if the sort entries can't be converted
+     */
+    @Benchmark
+    public String mergeSortEntries() throws ProjectManagementException
+    {
+        return OpenProjectSortingHandler.mergeSortEntries(this.sortEntries, "id:asc,updatedAt:desc");
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.SpaceBlock;
+import org.xwiki.rendering.block.SpecialSymbolBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Replaces the plain text parser used by the property displayers: splits the text in words, spaces and special
+ * symbols, wrapped in a paragraph, without the components needed by the real parser.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class PlainTextParser implements Parser
+{
+    @Override
+    public Syntax getSyntax()
+    {
+        return Syntax.PLAIN_1_0;
+    }
+
+    @Override
+    public XDOM parse(Reader source) throws ParseException
+    {
+        List<Block> blocks = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        try {
+            for (int c = source.read(); c != -1; c = source.read()) {
+                if (Character.isLetterOrDigit(c)) {
+                    word.append((char) c);
+                    continue;
+                }
+                addWord(blocks, word);
+                blocks.add((c == ' ') ? new SpaceBlock() : new SpecialSymbolBlock((char) c));
+            }
+        } catch (IOException e) {
+            throw new ParseException("Failed to read the text.", e);
+        }
+        addWord(blocks, word);
+        return new XDOM(
+            blocks.isEmpty() ? Collections.emptyList() : Collections.singletonList(new ParagraphBlock(blocks)));
+    }
+
+    private void addWord(List<Block> blocks, StringBuilder word)
+    {
+        if (word.length() > 0) {
+            blocks.add(new WordBlock(word.toString()));
+            word.setLength(0);
+        }
+    }
+}
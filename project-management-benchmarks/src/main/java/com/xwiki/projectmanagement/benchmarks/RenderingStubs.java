@@ -0,0 +1,247 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.macro.MacroContentParser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+
+import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.displayer.WorkItemPropertyDisplayerManager;
+import com.xwiki.projectmanagement.internal.displayer.DefaultWorkItemPropertyDisplayerManager;
+
+/**
+ * Lightweight replacements of the rendering components used by the displayers, so that the rendering benchmarks run
+ * without a wiki. They do the minimum amount of work of the real components (splitting the text in words, printing
+ * the HTML of the displayed blocks), in order to keep the measures focused on the code of the displayers. The
+ * property displayers are the real ones.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class RenderingStubs
+{
+    /**
+     * The client set in the execution context of the displayers.
+     */
+    static final String CLIENT = "benchmark";
+
+    private static final String MACRO_START = "{{";
+
+    private static final String MACRO_END = "}}";
+
+    private static final Map<String, Object> CONTEXT =
+        Map.of("client", CLIENT, "translationPrefix", "projectmanagement.");
+
+    private RenderingStubs()
+    {
+    }
+
+    /**
+     * @return the default property displayer manager, using a plain text parser that only splits the text in words
+     * @throws InitializationException if the displayer manager can't be initialized
+     */
+    static WorkItemPropertyDisplayerManager newDisplayerManager() throws InitializationException
+    {
+        DefaultWorkItemPropertyDisplayerManager displayerManager = new DefaultWorkItemPropertyDisplayerManager();
+        ReflectionUtils.setFieldValue(displayerManager, "plainParser", new PlainTextParser());
+        ReflectionUtils.setFieldValue(displayerManager, "wikiConfigSource",
+            newStub(ConfigurationSource.class, (method, args) -> (args != null && args.length == 2
+                && !(args[1] instanceof Class)) ? args[1] : null));
+        displayerManager.initialize();
+        return displayerManager;
+    }
+
+    /**
+     * @param displayerManager the displayer manager returned for the benchmark client
+     * @return a component manager providing the given displayer manager for the benchmark client
+     */
+    static ComponentManager newComponentManager(WorkItemPropertyDisplayerManager displayerManager)
+    {
+        return newStub(ComponentManager.class, (method, args) -> {
+            switch (method.getName()) {
+                case "hasComponent":
+                    return CLIENT.equals(args[args.length - 1]);
+                case "getInstance":
+                    return displayerManager;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * @return an execution context where the benchmark client is set
+     */
+    static ProjectManagementClientExecutionContext newExecutionContext()
+    {
+        return newStub(ProjectManagementClientExecutionContext.class,
+            (method, args) -> "get".equals(method.getName()) ? CONTEXT.get(args[0]) : CONTEXT);
+    }
+
+    /**
+     * @return a factory of renderers printing the HTML of the words, symbols, paragraphs, groups and links
+     */
+    static PrintRendererFactory newHtmlRendererFactory()
+    {
+        return newStub(PrintRendererFactory.class, (method, args) -> "createRenderer".equals(method.getName())
+            ? newHtmlRenderer((WikiPrinter) args[0]) : Syntax.HTML_5_0);
+    }
+
+    /**
+     * @return a renderer printing the xwiki/2.1 syntax of the macro blocks
+     */
+    static BlockRenderer newWikiRenderer()
+    {
+        return newStub(BlockRenderer.class, (method, args) -> {
+            Collection<?> blocks =
+                (args[0] instanceof Collection) ? (Collection<?>) args[0] : Collections.singletonList(args[0]);
+            for (Object block : blocks) {
+                if (block instanceof MacroBlock) {
+                    printMacro((MacroBlock) block, (WikiPrinter) args[1]);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return a parser returning the parsed content as a single macro block, without parsing it
+     */
+    static MacroContentParser newMacroContentParser()
+    {
+        return newStub(MacroContentParser.class, (method, args) -> "parse".equals(method.getName())
+            ? new XDOM(Collections.singletonList(new MacroBlock("chartjs", Collections.emptyMap(),
+                String.valueOf(args[0]), false)))
+            : null);
+    }
+
+    /**
+     * @param role the type of the component
+     * @param <T> the type of the component
+     * @return a component doing nothing and returning {@code null} from all its methods
+     */
+    static <T> T newNoOp(Class<T> role)
+    {
+        return newStub(role, (method, args) -> null);
+    }
+
+    private static PrintRenderer newHtmlRenderer(WikiPrinter printer)
+    {
+        return newStub(PrintRenderer.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getPrinter":
+                    return printer;
+                case "onWord":
+                    printer.print((String) args[0]);
+                    break;
+                case "onSpace":
+                    printer.print(" ");
+                    break;
+                case "onSpecialSymbol":
+                    printer.print(escape(String.valueOf(args[0])));
+                    break;
+                case "beginParagraph":
+                    printer.print("<p>");
+                    break;
+                case "endParagraph":
+                    printer.print("</p>");
+                    break;
+                case "beginGroup":
+                    printer.print("<div>");
+                    break;
+                case "endGroup":
+                    printer.print("</div>");
+                    break;
+                case "beginLink":
+                    printer.print(String.format("<a href=\"%s\" target=\"_blank\">",
+                        escape(((ResourceReference) args[0]).getReference())));
+                    break;
+                case "endLink":
+                    printer.print("</a>");
+                    break;
+                default:
+                    break;
+            }
+            return null;
+        });
+    }
+
+    private static void printMacro(MacroBlock macro, WikiPrinter printer)
+    {
+        printer.print(MACRO_START + macro.getId());
+        macro.getParameters().forEach((name, value) -> printer.print(String.format(" %s=\"%s\"", name, value)));
+        printer.print(MACRO_END);
+        if (macro.getContent() != null) {
+            printer.print(String.format("%n%s%n", macro.getContent()));
+        }
+        printer.print(String.format("%s/%s%s", MACRO_START, macro.getId(), MACRO_END));
+    }
+
+    private static String escape(String text)
+    {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newStub(Class<T> role, StubBehavior behavior)
+    {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return role.getSimpleName();
+                }
+            }
+            return behavior.invoke(method, args);
+        };
+        return (T) Proxy.newProxyInstance(RenderingStubs.class.getClassLoader(), new Class<?>[] { role }, handler);
+    }
+
+    /**
+     * The behavior of a stubbed component.
+     */
+    @FunctionalInterface
+    private interface StubBehavior
+    {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Builds the work items displayed by the rendering benchmarks. The work items of a list differ by their identifier,
+ * summary, status, type, priority, assignees, project, progress and dates, so that the charts get several labels and
+ * the displayers handle all the kinds of properties.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class WorkItemFixtures
+{
+    private static final String[] STATUSES = { "New", "In progress", "On hold", "Rejected", "Closed" };
+
+    private static final String[] TYPES = { "Task", "Bug", "Feature", "Epic" };
+
+    private static final String[] PRIORITIES = { "Low", "Normal", "High", "Immediate" };
+
+    private static final String[] USERS = {
+        "Alice Martin", "Bob Durand", "Chloe Petit", "David Moreau", "Emma Laurent", "Felix Girard"
+    };
+
+    private static final String[] PROJECTS = { "Demo project", "Scrum project", "Support & maintenance" };
+
+    private static final long START = 1672531200000L;
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private WorkItemFixtures()
+    {
+    }
+
+    /**
+     * @param size the number of work items
+     * @return the work items, spread over three years
+     */
+    static List<WorkItem> getWorkItems(int size)
+    {
+        List<WorkItem> workItems = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            workItems.add(getWorkItem(id));
+        }
+        return workItems;
+    }
+
+    /**
+     * The displayers replace or remove the properties of the work items they display, so each run needs its own
+     * copies. The values themselves are not modified, hence they are shared.
+     *
+     * @param workItems the work items to copy
+     * @return shallow copies of the given work items
+     */
+    static List<WorkItem> copy(Collection<WorkItem> workItems)
+    {
+        List<WorkItem> copies = new ArrayList<>(workItems.size());
+        for (WorkItem workItem : workItems) {
+            WorkItem copy = new WorkItem();
+            copy.putAll(workItem);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static WorkItem getWorkItem(int id)
+    {
+        String location = String.format("%s/work_packages/%d", WorkPackageFixtures.SERVER_URL, id);
+        String project = PROJECTS[id % PROJECTS.length];
+        Date creationDate = new Date(START + (id * 7L % 1095) * DAY);
+
+        WorkItem workItem = new WorkItem();
+        workItem.setIdentifier(new Linkable("#" + id, location));
+        workItem.setSummary(new Linkable(String.format("Fix the display of the report number %d", id), location));
+        workItem.setDescription("The totals of the report are not aligned with the columns when it is exported.");
+        workItem.setType(TYPES[id % TYPES.length]);
+        workItem.setStatus(STATUSES[id % STATUSES.length]);
+        workItem.setPriority(PRIORITIES[id % PRIORITIES.length]);
+        workItem.setProject(new Linkable(project, getLocation(project)));
+        workItem.setCreator(getUser(id + 1));
+        List<Linkable> assignees = new ArrayList<>();
+        assignees.add(getUser(id));
+        if (id % 3 == 0) {
+            assignees.add(getUser(id + 2));
+        }
+        workItem.setAssignees(assignees);
+        workItem.setProgress(id * 10 % 110);
+        workItem.setCreationDate(creationDate);
+        workItem.setUpdateDate(new Date(creationDate.getTime() + (id % 30) * DAY));
+        workItem.setStartDate(new Date(creationDate.getTime() + DAY));
+        workItem.setDueDate(new Date(creationDate.getTime() + (id % 60 + 7) * DAY));
+        return workItem;
+    }
+
+    private static Linkable getUser(int index)
+    {
+        String name = USERS[index % USERS.length];
+        return new Linkable(name, getLocation(name));
+    }
+
+    private static String getLocation(String name)
+    {
+        return String.format("%s/%s", WorkPackageFixtures.SERVER_URL, name.toLowerCase().replace(' ', '-'));
+    }
+}
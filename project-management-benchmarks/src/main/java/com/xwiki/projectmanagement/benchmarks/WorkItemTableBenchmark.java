@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.skinx.SkinExtension;
+
+import com.xwiki.projectmanagement.displayer.WorkItemPropertyDisplayerManager;
+import com.xwiki.projectmanagement.internal.displayers.WorkItemsSingleDisplayer;
+import com.xwiki.projectmanagement.internal.tracing.DefaultProjectManagementTracer;
+import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Measures the work item page displayer, which lays out the properties of a work item in tables. Each work item of
+ * the list is displayed on its own, as by a page using the displayer for each of them, so that the measures show the
+ * cost of a work item. The work items are copied before each run since the displayer removes some of their
+ * properties.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WorkItemTableBenchmark
+{
+    /**
+     * The number of displayed work items.
+     */
+    @Param({ "25", "250", "2500" })
+    public int size;
+
+    private WorkItemsSingleDisplayer displayer;
+
+    private List<WorkItem> workItems;
+
+    private final ProjectManagementMacroParameters parameters = new ProjectManagementMacroParameters();
+
+    private final MacroTransformationContext context = new MacroTransformationContext();
+
+    /**
+     * Creates the displayer and the displayed work items.
+     *
+     * @throws InitializationException if the property displayers can't be initialized
+     */
+    @Setup
+    public void setUp() throws InitializationException
+    {
+        WorkItemPropertyDisplayerManager displayerManager = RenderingStubs.newDisplayerManager();
+        this.displayer = new WorkItemsSingleDisplayer();
+        ReflectionUtils.setFieldValue(this.displayer, "displayerManager", displayerManager);
+        ReflectionUtils.setFieldValue(this.displayer, "componentManager",
+            RenderingStubs.newComponentManager(displayerManager));
+        ReflectionUtils.setFieldValue(this.displayer, "macroContext", RenderingStubs.newExecutionContext());
+        ReflectionUtils.setFieldValue(this.displayer, "ssrx", RenderingStubs.newNoOp(SkinExtension.class));
+        ReflectionUtils.setFieldValue(this.displayer, "localizationManager",
+            RenderingStubs.newNoOp(ContextualLocalizationManager.class));
+        // Not initialized, so tracing is disabled as it is by default.
+        ReflectionUtils.setFieldValue(this.displayer, "tracer", new DefaultProjectManagementTracer());
+
+        this.parameters.setSourceParameters("client=" + RenderingStubs.CLIENT);
+        this.workItems = WorkItemFixtures.getWorkItems(this.size);
+    }
+
+    /**
+     * @return the blocks displaying the work items
+     * @throws MacroExecutionException if the client of the work items is not set
+     */
+    @Benchmark
+    public List<Block> displayWorkItems() throws MacroExecutionException
+    {
+        List<Block> blocks = new ArrayList<>(this.size);
+        for (WorkItem workItem : WorkItemFixtures.copy(this.workItems)) {
+            blocks.addAll(this.displayer.display(
+                new PaginatedResult<>(Collections.singletonList(workItem), 1, 1, 1), this.parameters, this.context));
+        }
+        return blocks;
+    }
+}
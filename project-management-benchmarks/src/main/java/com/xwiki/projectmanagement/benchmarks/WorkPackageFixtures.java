@@ -0,0 +1,125 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds the OpenProject responses used by the benchmarks from a work package recorded from the OpenProject API. The
+ * work packages of a collection differ by their id, subject, status, assignee, progress and dates, like in a real
+ * project.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class WorkPackageFixtures
+{
+    /**
+     * The URL of the OpenProject server the fixtures are supposed to come from.
+     */
+    static final String SERVER_URL = "https://openproject.example.com";
+
+    private static final String RECORDED_WORK_PACKAGE = "/fixtures/workPackage.json";
+
+    private static final String[][] STATUSES = {
+        { "1", "New" }, { "7", "In progress" }, { "9", "On hold" }, { "12", "Closed" }
+    };
+
+    private static final String[][] USERS = {
+        { "4", "Alice Martin" }, { "5", "Bob Durand" }, { "6", "Chloe Petit" }
+    };
+
+    private static final String HREF = "href";
+
+    private static final String TITLE = "title";
+
+    private static final String LINKS = "_links";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private WorkPackageFixtures()
+    {
+    }
+
+    /**
+     * @param size the number of work packages of the collection
+     * @return the JSON of a work package collection returned by the OpenProject API, in the HAL format
+     * @throws IOException if the recorded work package can't be read
+     */
+    static byte[] getWorkPackageCollection(int size) throws IOException
+    {
+        ObjectNode recorded = getRecordedWorkPackage();
+        ArrayNode elements = MAPPER.createArrayNode();
+        for (int id = 1; id <= size; id++) {
+            elements.add(getWorkPackage(recorded, id));
+        }
+
+        ObjectNode collection = MAPPER.createObjectNode();
+        collection.put("_type", "WorkPackageCollection");
+        collection.put("total", size);
+        collection.put("count", size);
+        collection.put("pageSize", size);
+        collection.put("offset", 1);
+        collection.putObject("_embedded").set("elements", elements);
+        collection.putObject(LINKS).putObject("self").put(HREF, "/api/v3/work_packages?offset=1&pageSize=" + size);
+        return MAPPER.writeValueAsBytes(collection);
+    }
+
+    private static ObjectNode getWorkPackage(ObjectNode recorded, int id)
+    {
+        ObjectNode workPackage = recorded.deepCopy();
+        String subject = String.format("%s #%d", recorded.path("subject").asText(), id);
+        LocalDate startDate = LocalDate.of(2025, 1, 1).plusDays(id % 90);
+        workPackage.put("id", id);
+        workPackage.put("subject", subject);
+        workPackage.put("percentageDone", (id * 10) % 110);
+        workPackage.put("startDate", startDate.toString());
+        workPackage.put("dueDate", startDate.plusDays(id % 15).toString());
+
+        ObjectNode links = (ObjectNode) workPackage.get(LINKS);
+        setLink(links, "self", "/api/v3/work_packages/" + id, subject);
+        String[] status = STATUSES[id % STATUSES.length];
+        setLink(links, "status", "/api/v3/statuses/" + status[0], status[1]);
+        String[] assignee = USERS[id % USERS.length];
+        setLink(links, "assignee", "/api/v3/users/" + assignee[0], assignee[1]);
+        return workPackage;
+    }
+
+    private static void setLink(ObjectNode links, String name, String href, String title)
+    {
+        links.putObject(name).put(HREF, href).put(TITLE, title);
+    }
+
+    private static ObjectNode getRecordedWorkPackage() throws IOException
+    {
+        try (InputStream stream = WorkPackageFixtures.class.getResourceAsStream(RECORDED_WORK_PACKAGE)) {
+            if (stream == null) {
+                throw new IOException(String.format("The fixture [%s] is missing.", RECORDED_WORK_PACKAGE));
+            }
+            return (ObjectNode) MAPPER.readTree(stream);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.auth.NoOpAuthenticator;
+import com.xwiki.projectmanagement.openproject.internal.DefaultOpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Measures how fast a work package collection returned by OpenProject is decoded into {@link WorkPackage} objects,
+ * from the request preparation to the last work package, without the network.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WorkPackageParsingBenchmark
+{
+    /**
+     * The number of work packages of the decoded collection.
+     */
+    @Param({ "25", "250", "2500" })
+    public int size;
+
+    private OpenProjectApiClient client;
+
+    /**
+     * Creates a client receiving the recorded collection.
+     *
+     * @throws IOException if the fixture can't be read
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.client = new DefaultOpenProjectApiClient(WorkPackageFixtures.SERVER_URL, NoOpAuthenticator.INSTANCE,
+            new FixtureHttpClient(WorkPackageFixtures.getWorkPackageCollection(this.size)));
+    }
+
+    /**
+     * @return the decoded work packages
+     * @throws ProjectManagementException if the collection can't be decoded
+     */
+    @Benchmark
+    public PaginatedResult<WorkPackage> getWorkPackages() throws ProjectManagementException
+    {
+        return this.client.getWorkPackages(1, this.size, "", "");
+    }
+}
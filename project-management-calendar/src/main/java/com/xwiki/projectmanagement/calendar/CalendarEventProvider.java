@@ -20,6 +20,7 @@
 package com.xwiki.projectmanagement.calendar;
 
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
 import org.xwiki.component.annotation.Role;
 import org.xwiki.fullcalendar.model.CalendarEvent;
 import org.xwiki.livedata.LiveDataQuery;
@@ -47,4 +48,22 @@ public interface CalendarEventProvider
      * @throws ProjectManagementException if retrieving the events fails.
      */
     List<CalendarEvent> getMoreEvents(List<LiveDataQuery.Filter> filters) throws ProjectManagementException;
+
+    /**
+     * Retrieve additional calendar events, up to a maximum number of events.
+     *
+     * @param filters the list of filters to apply when retrieving the events.
+     * @param maxEvents the maximum number of events to return.
+     * @return the calendar events that supplement the work item events, with the total number of events that could
+     *     have been returned when it exceeds the maximum, so that the caller knows the events were truncated.
+     * @throws ProjectManagementException if retrieving the events fails.
+     * @since 1.2.1
+     */
+    default PaginatedResult<CalendarEvent> getMoreEvents(List<LiveDataQuery.Filter> filters, int maxEvents)
+        throws ProjectManagementException
+    {
+        List<CalendarEvent> events = getMoreEvents(filters);
+        return new PaginatedResult<>(events.size() > maxEvents ? events.subList(0, maxEvents) : events, 0,
+            maxEvents, events.size());
+    }
 }
@@ -20,11 +20,13 @@
 
 package com.xwiki.projectmanagement.calendar.internal.rest;
 
-import com.xwiki.projectmanagement.ProjectManagementClient;
+import com.xwiki.projectmanagement.ProjectManagementManager;
+import com.xwiki.projectmanagement.WorkItemIterator;
 import com.xwiki.projectmanagement.calendar.CalendarEventProvider;
 import com.xwiki.projectmanagement.calendar.internal.CalendarEventConverter;
 import com.xwiki.projectmanagement.calendar.rest.CalendarResource;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.exception.WorkItemIterationException;
 import com.xwiki.projectmanagement.internal.rest.AbstractProjectManagementResource;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
@@ -42,6 +44,7 @@ import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Default implementation of {@link CalendarResource}.
@@ -54,34 +57,48 @@ import java.util.List;
 @Named("com.xwiki.projectmanagement.calendar.internal.rest.DefaultCalendarResource")
 public class DefaultCalendarResource extends AbstractProjectManagementResource implements CalendarResource
 {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Inject
     private CalendarEventConverter calendarEventConverter;
 
+    @Inject
+    private ProjectManagementManager projectManagementManager;
+
     @Override
     public Response getCalendarEvents(String wiki, String projectManagementHint, String filters, String start,
         String end, int limit, boolean excludeWorkItems)
     {
         prepareClientContext();
         try {
-            ProjectManagementClient client =
-                this.componentManager.getInstance(ProjectManagementClient.class, projectManagementHint);
             CalendarEventProvider calendarEventProvider =
                 this.componentManager.getInstance(CalendarEventProvider.class, projectManagementHint);
-            int pageSize = limit != 0 ? limit : 25;
+            // Without a limit, all the events of the window are returned, up to the configured maximum.
+            int maxItems = limit > 0 ? limit : Integer.MAX_VALUE;
             List<LiveDataQuery.Filter> queryFilters = new ArrayList<>(getFilters(filters));
             // Filter work items whose date range overlaps with the requested calendar window.
             queryFilters.add(new LiveDataQuery.Filter(WorkItem.KEY_START_DATE, "before", end));
             queryFilters.add(new LiveDataQuery.Filter(WorkItem.KEY_DUE_DATE, "after", start));
             List<CalendarEvent> calendarEvents = new ArrayList<>();
+            boolean truncated = false;
             // Fetch standard work item events unless the caller explicitly requests only provider events.
             if (!excludeWorkItems) {
-                PaginatedResult<WorkItem> workItems =
-                    client.getWorkItems(1, pageSize, queryFilters, Collections.emptyList());
-                calendarEvents.addAll(this.calendarEventConverter.convertAll(workItems.getItems()));
+                // The work items are retrieved in several pages when they exceed the page size accepted by the
+                // clients.
+                try (WorkItemIterator workItems = this.projectManagementManager.iterateWorkItems(projectManagementHint,
+                    Math.min(maxItems, MAX_PAGE_SIZE), maxItems, queryFilters, Collections.emptyList()))
+                {
+                    calendarEvents.addAll(
+                        this.calendarEventConverter.convertAll(workItems.stream().collect(Collectors.toList())));
+                    truncated = workItems.isTruncated();
+                }
             }
             // Add additional events from the calendar event provider.
-            calendarEvents.addAll(calendarEventProvider.getMoreEvents(queryFilters));
-            return Response.ok(calendarEvents).build();
+            PaginatedResult<CalendarEvent> moreEvents = calendarEventProvider.getMoreEvents(queryFilters, maxItems);
+            calendarEvents.addAll(moreEvents.getItems());
+            truncated |= moreEvents.getTotalItems() != null
+                && moreEvents.getTotalItems() > moreEvents.getItems().size();
+            return Response.ok(calendarEvents).header(TRUNCATED_HEADER, truncated).build();
         } catch (ComponentLookupException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(ExceptionUtils.getStackTrace(e)).build();
         } catch (LiveDataException e) {
@@ -89,6 +106,9 @@ public class DefaultCalendarResource extends AbstractProjectManagementResource i
         } catch (ProjectManagementException e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(ExceptionUtils.getStackTrace(e))
                 .build();
+        } catch (WorkItemIterationException e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(ExceptionUtils.getStackTrace(e.getCause())).build();
         }
     }
 }
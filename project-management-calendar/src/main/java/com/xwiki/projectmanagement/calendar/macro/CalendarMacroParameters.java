@@ -48,7 +48,7 @@ public class CalendarMacroParameters
 
     private String filters;
 
-    private int limit = 25;
+    private Integer limit;
 
     /**
      * @return the client id (e.g., "openproject").
@@ -135,7 +135,8 @@ public class CalendarMacroParameters
     }
 
     /**
-     * @return the limit applied of the work items resulting list.
+     * @return the limit applied of the work items resulting list, {@code null} to display all the work items of the
+     *     displayed range, up to the configured maximum number of iterated work items.
      */
     public Integer getLimit()
     {
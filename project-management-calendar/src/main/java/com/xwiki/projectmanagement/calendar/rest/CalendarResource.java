@@ -41,6 +41,14 @@ import javax.ws.rs.core.Response;
 @Path("/wikis/{wikiName}/projectmanagement/{hint}/calendar")
 public interface CalendarResource extends XWikiRestComponent
 {
+    /**
+     * The response header set to {@code true} when the returned events were truncated, because there were more
+     * events in the requested range than the limit, or than the configured maximum number of iterated work items.
+     *
+     * @since 1.2.1
+     */
+    String TRUNCATED_HEADER = "X-ProjectManagement-Truncated";
+
     /**
      * Retrieve work items from a project management implementation and return them as FullCalendar-compatible JSON
      * events.
@@ -51,7 +59,9 @@ public interface CalendarResource extends XWikiRestComponent
      *     version of the {@link org.xwiki.livedata.LiveDataQuery.Filter} list
      * @param start the start date of the range to filter work items (ISO format), as sent by FullCalendar
      * @param end the end date of the range to filter work items (ISO format), as sent by FullCalendar
-     * @param limit the maximum number of work items to return
+     * @param limit the maximum number of work items to return. When not set, all the work items of the range are
+     *     returned, up to the configured maximum number of iterated work items. The {@link #TRUNCATED_HEADER} header
+     *     tells whether some events were left out
      * @param excludeWorkItems mark if the standard client work items should be excluded
      * @return a JSON array of calendar events. HTTP 200: successful retrieval. HTTP 401: the user is not logged in.
      *     HTTP 403: the user does not have the rights to retrieve the work items.
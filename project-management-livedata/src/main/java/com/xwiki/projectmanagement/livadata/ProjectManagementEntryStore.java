@@ -20,6 +20,7 @@ package com.xwiki.projectmanagement.livadata;
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -113,7 +114,7 @@ public class ProjectManagementEntryStore implements LiveDataEntryStore
         try {
             workItems =
                 projectManagementManager.getWorkItems(clientId, Math.toIntExact(query.getOffset()), query.getLimit(),
-                    query.getFilters(), query.getSort());
+                    query.getFilters(), query.getSort(), getProperties(query));
         } catch (WorkItemException e) {
             throw new LiveDataException("Failed to retrieve the work items.", e);
         }
@@ -126,6 +127,12 @@ public class ProjectManagementEntryStore implements LiveDataEntryStore
         return ld;
     }
 
+    private static List<String> getProperties(LiveDataQuery query)
+    {
+        // Only the visible columns need to be retrieved.
+        return query.getProperties() != null ? query.getProperties() : Collections.emptyList();
+    }
+
     // TODO: Use the WorkItemPropertyDisplayerManager in order to display certain properties. (linkables, props that
     //  generate html structures).
     private void applyDisplayers(List<WorkItem> workItems, String clientId)
@@ -98,7 +98,8 @@ public class ProjectManagementEntryStoreTest
         wi.setIdentifier(new Linkable("1", "http://xwiki.com/1"));
         workItemResult.getItems().add(wi);
 
-        when(projectManagementManager.getWorkItems(any(), anyInt(), anyInt(), any(), any())).thenReturn(workItemResult);
+        when(projectManagementManager.getWorkItems(any(), anyInt(), anyInt(), any(), any(), any()))
+            .thenReturn(workItemResult);
         when(componentManager.hasComponent(ProjectManagementLiveDataDisplayer.class, clientId)).thenReturn(false);
 
         LiveData result = entryStore.get(liveDataConfiguration.getQuery());
@@ -128,7 +129,7 @@ public class ProjectManagementEntryStoreTest
         liveDataConfiguration.getQuery().setLimit(10);
         liveDataConfiguration.getQuery().setOffset(0L);
 
-        when(projectManagementManager.getWorkItems(any(), anyInt(), anyInt(), any(), any())).thenThrow(
+        when(projectManagementManager.getWorkItems(any(), anyInt(), anyInt(), any(), any(), any())).thenThrow(
             new WorkItemException("Failed to retrieve."));
 
         assertThrows(LiveDataException.class, () -> entryStore.get(liveDataConfiguration.getQuery()));
@@ -31,6 +31,7 @@ import org.xwiki.stability.Unstable;
 
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 /**
  * Defines the template for a chart type displayer. These displayers will be used by the chart macro.
@@ -55,6 +56,34 @@ public interface ChartTypeDisplayer
     List<Block> execute(List<PaginatedResult<WorkItem>> workItems, String property, List<String> labels,
         MacroTransformationContext transformationContext, Object typeDisplayerParams) throws MacroExecutionException;
 
+    /**
+     * @return true if the displayer can display the chart from the work item counts computed by the project management
+     *     platform, see {@link #executeAggregated(List, List, MacroTransformationContext, Object)}.
+     * @since 1.2.1
+     */
+    default boolean supportsAggregation()
+    {
+        return false;
+    }
+
+    /**
+     * Displays the chart from the number of work items of each value of the chart property, instead of the work items
+     * themselves.
+     *
+     * @param aggregations the work item counts of each dataset.
+     * @param labels the labels associated to each dataset.
+     * @param transformationContext the transformation context of the macro.
+     * @param typeDisplayerParams the configuration class for the implementing displayer.
+     * @return a list of blocks ready for rendering.
+     * @throws MacroExecutionException in case of errors.
+     * @since 1.2.1
+     */
+    default List<Block> executeAggregated(List<WorkItemAggregation> aggregations, List<String> labels,
+        MacroTransformationContext transformationContext, Object typeDisplayerParams) throws MacroExecutionException
+    {
+        throw new MacroExecutionException("This chart type can't be displayed from aggregated work items.");
+    }
+
     /**
      * @return the class of the configuration used by the implementer.
      */
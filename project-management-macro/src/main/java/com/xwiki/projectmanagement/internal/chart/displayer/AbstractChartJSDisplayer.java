@@ -57,6 +57,7 @@ import com.xwiki.projectmanagement.internal.chart.model.ChartJSData;
 import com.xwiki.projectmanagement.internal.chart.model.ChartJSDataset;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 import static com.xwiki.projectmanagement.chart.ChartPeriod.DAILY;
 import static com.xwiki.projectmanagement.chart.ChartPeriod.MONTHLY;
@@ -104,18 +105,52 @@ public abstract class AbstractChartJSDisplayer implements ChartTypeDisplayer
     public List<Block> execute(List<PaginatedResult<WorkItem>> workItems, String property, List<String> labels,
         MacroTransformationContext context, Object typeDisplayerParams) throws MacroExecutionException
     {
+        List<Map<String, Long>> counts = new ArrayList<>();
+        for (PaginatedResult<WorkItem> dataset : workItems) {
+            Map<String, Long> datasetCounts = new HashMap<>();
+            for (WorkItem item : dataset.getItems()) {
+                datasetCounts.merge(getChartJSLabel(item, property, (Map<String, String>) typeDisplayerParams), 1L,
+                    Long::sum);
+            }
+            counts.add(datasetCounts);
+        }
+        return display(counts, labels, context, typeDisplayerParams);
+    }
 
-        Set<String> chartJSLabels = new TreeSet<>();
+    @Override
+    public boolean supportsAggregation()
+    {
+        return true;
+    }
 
+    @Override
+    public List<Block> executeAggregated(List<WorkItemAggregation> aggregations, List<String> labels,
+        MacroTransformationContext context, Object typeDisplayerParams) throws MacroExecutionException
+    {
+        List<Map<String, Long>> counts = new ArrayList<>();
+        for (WorkItemAggregation aggregation : aggregations) {
+            Map<String, Long> datasetCounts = new HashMap<>();
+            aggregation.getCounts().forEach((value, count) -> datasetCounts.merge(
+                StringUtils.isEmpty(value) ? UNSET : value, count, Long::sum));
+            counts.add(datasetCounts);
+        }
+        return display(counts, labels, context, typeDisplayerParams);
+    }
+
+    private List<Block> display(List<Map<String, Long>> counts, List<String> labels,
+        MacroTransformationContext context, Object typeDisplayerParams) throws MacroExecutionException
+    {
         String metric = PARAM_METRIC_COUNT;
         if (typeDisplayerParams instanceof Map && ((Map<?, ?>) typeDisplayerParams).containsKey(PARAM_METRIC)) {
             metric = (String) ((Map<?, ?>) typeDisplayerParams).get(PARAM_METRIC);
         }
-        ChartJSData chartJSData =
-            initModel(workItems, property, (Map<String, String>) typeDisplayerParams, chartJSLabels);
+        ChartJSData chartJSData = initModel();
+        // Create the set of all possible labels across all datasets.
+        Set<String> chartJSLabels = new TreeSet<>();
+        counts.forEach(datasetCounts -> datasetCounts.keySet().stream().filter(label -> !UNSET.equals(label))
+            .forEach(chartJSLabels::add));
 
-        populateModel(workItems, property, labels, (Map<String, String>) typeDisplayerParams, chartJSData,
-            chartJSLabels, metric);
+        populateModel(counts, labels, chartJSData, chartJSLabels, metric);
 
         String data = "";
         try {
@@ -134,23 +169,22 @@ public abstract class AbstractChartJSDisplayer implements ChartTypeDisplayer
         }
     }
 
-    private void populateModel(List<PaginatedResult<WorkItem>> workItems, String property, List<String> labels,
-        Map<String, String> typeDisplayerParams, ChartJSData chartJSData, Set<String> chartJSLabels, String metric)
+    private void populateModel(List<Map<String, Long>> counts, List<String> labels, ChartJSData chartJSData,
+        Set<String> chartJSLabels, String metric)
     {
         boolean anyUnset = false;
-        Map<Integer, Integer> unsetValuesCount = new HashMap<>();
-        for (int i = 0; i < workItems.size(); i++) {
+        Map<Integer, Long> unsetValuesCount = new HashMap<>();
+        for (int i = 0; i < counts.size(); i++) {
             ChartJSDataset dataset = new ChartJSDataset();
             chartJSData.getDatasets().add(dataset);
-            Map<String, Integer> dataSet = new TreeMap<>();
-            chartJSLabels.forEach(label -> dataSet.put(label, 0));
-            for (WorkItem item : workItems.get(i).getItems()) {
-                String propValue = getChartJSLabel(item, property, typeDisplayerParams);
-                if (UNSET.equals(propValue)) {
-                    unsetValuesCount.put(i, unsetValuesCount.getOrDefault(i, 0) + 1);
+            Map<String, Long> dataSet = new TreeMap<>();
+            chartJSLabels.forEach(label -> dataSet.put(label, 0L));
+            for (Map.Entry<String, Long> count : counts.get(i).entrySet()) {
+                if (UNSET.equals(count.getKey())) {
+                    unsetValuesCount.put(i, count.getValue());
                     anyUnset = true;
                 } else {
-                    dataSet.put(propValue, dataSet.getOrDefault(propValue, 0) + 1);
+                    dataSet.put(count.getKey(), count.getValue());
                 }
             }
             chartJSData.getDatasets().get(i).setLabel(labels.size() > i ? labels.get(i) : "Unlabeled");
@@ -161,27 +195,16 @@ public abstract class AbstractChartJSDisplayer implements ChartTypeDisplayer
         if (anyUnset) {
             chartJSData.getLabels().add(UNSET);
             for (Integer i : unsetValuesCount.keySet()) {
-                chartJSData.getDatasets().get(i).getData().add(Long.valueOf(unsetValuesCount.get(i)));
+                chartJSData.getDatasets().get(i).getData().add(unsetValuesCount.get(i));
             }
         }
     }
 
     @Nonnull
-    private ChartJSData initModel(List<PaginatedResult<WorkItem>> workItems, String property,
-        Map<String, String> typeDisplayerParams, Set<String> chartJSLabels)
+    private ChartJSData initModel()
     {
         ChartJSData chartJSData = new ChartJSData();
         chartJSData.setDatasets(new ArrayList<>());
-        // Create the set of all possible labels across all datasets.
-        for (int i = 0; i < workItems.size(); i++) {
-            for (WorkItem item : workItems.get(i).getItems()) {
-                String propValue = getChartJSLabel(item, property, typeDisplayerParams);
-                if (UNSET.equals(propValue)) {
-                    continue;
-                }
-                chartJSLabels.add(propValue);
-            }
-        }
         return chartJSData;
     }
 
@@ -223,18 +246,17 @@ public abstract class AbstractChartJSDisplayer implements ChartTypeDisplayer
         return propValue;
     }
 
-    private static void applyMetric(String metric, ChartJSData chartJSData, int i, Map<String, Integer> dataSet)
+    private static void applyMetric(String metric, ChartJSData chartJSData, int i, Map<String, Long> dataSet)
     {
         if (metric.equals(PARAM_METRIC_ACCUMULATE)) {
             chartJSData.getDatasets().get(i).setData(new ArrayList<>());
-            int currentVal = 0;
-            for (Integer value : dataSet.values()) {
+            long currentVal = 0;
+            for (Long value : dataSet.values()) {
                 currentVal += value;
-                chartJSData.getDatasets().get(i).getData().add((long) currentVal);
+                chartJSData.getDatasets().get(i).getData().add(currentVal);
             }
         } else {
-            chartJSData.getDatasets().get(i)
-                .setData(dataSet.values().stream().map(Integer::longValue).collect(Collectors.toList()));
+            chartJSData.getDatasets().get(i).setData(new ArrayList<>(dataSet.values()));
         }
     }
 
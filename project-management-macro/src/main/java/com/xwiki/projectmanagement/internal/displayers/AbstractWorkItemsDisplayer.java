@@ -45,6 +45,8 @@ import com.xwiki.projectmanagement.internal.macro.AbstractWorkItemsMacro;
 import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
  * Abstract macro that processes the parameters before sending them to the project management client, retrieving the
@@ -74,18 +76,7 @@ public abstract class AbstractWorkItemsDisplayer extends AbstractWorkItemsMacro<
         MacroTransformationContext context)
         throws MacroExecutionException
     {
-        if (macroContext instanceof DefaultProjectManagementClientExecutionContext) {
-            Map<String, Object> clientContext =
-                URLEncodedUtils.parse(parameters.getSourceParameters(), StandardCharsets.UTF_8)
-                    .stream()
-                    .collect(Collectors.toMap(NameValuePair::getName, NameValuePair::getValue));
-            ((DefaultProjectManagementClientExecutionContext) macroContext).setContext(clientContext);
-        }
-        String clientId = (String) macroContext.get(KEY_CLIENT);
-
-        if (clientId == null || clientId.isEmpty()) {
-            throw new MacroExecutionException("Failed to retrieve the client id from the source params.");
-        }
+        String clientId = prepareClientContext(parameters);
 
         List<LiveDataQuery.Filter> filters;
         try {
@@ -104,7 +95,24 @@ public abstract class AbstractWorkItemsDisplayer extends AbstractWorkItemsMacro<
                 String.format("Failed to retrieve the work items from the client [%s].", clientId), e);
         }
 
-        return internalExecute(workItemList, parameters, context);
+        return display(workItemList, parameters, context, clientId);
+    }
+
+    /**
+     * Display work items that were already retrieved, for instance together with the work items of other displayers.
+     *
+     * @param workItemList the work items to display.
+     * @param parameters the parameters received in order to render the work items; the source parameters are used
+     *     to set up the client execution context, as when the macro is executed.
+     * @param context the macro transformation context.
+     * @return a list of blocks that will be rendered.
+     * @throws MacroExecutionException if the client id is missing from the source parameters.
+     * @since 1.2.1
+     */
+    public List<Block> display(PaginatedResult<WorkItem> workItemList, ProjectManagementMacroParameters parameters,
+        MacroTransformationContext context) throws MacroExecutionException
+    {
+        return display(workItemList, parameters, context, prepareClientContext(parameters));
     }
 
     /**
@@ -120,6 +128,38 @@ public abstract class AbstractWorkItemsDisplayer extends AbstractWorkItemsMacro<
         ProjectManagementMacroParameters parameters,
         MacroTransformationContext context);
 
+    private List<Block> display(PaginatedResult<WorkItem> workItemList, ProjectManagementMacroParameters parameters,
+        MacroTransformationContext context, String clientId)
+    {
+        try (TraceSpan span = tracer.startSpan("projectmanagement.display")) {
+            if (span.isRecording()) {
+                span.setAttribute(ProjectManagementTracer.ATTRIBUTE_CLIENT, clientId);
+                span.setAttribute("projectmanagement.displayer", getDescriptor().getId().getId());
+                if (workItemList != null && workItemList.getItems() != null) {
+                    span.setAttribute(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT, workItemList.getItems().size());
+                }
+            }
+            return internalExecute(workItemList, parameters, context);
+        }
+    }
+
+    private String prepareClientContext(ProjectManagementMacroParameters parameters) throws MacroExecutionException
+    {
+        if (macroContext instanceof DefaultProjectManagementClientExecutionContext) {
+            Map<String, Object> clientContext =
+                URLEncodedUtils.parse(parameters.getSourceParameters(), StandardCharsets.UTF_8)
+                    .stream()
+                    .collect(Collectors.toMap(NameValuePair::getName, NameValuePair::getValue));
+            ((DefaultProjectManagementClientExecutionContext) macroContext).setContext(clientContext);
+        }
+        String clientId = (String) macroContext.get(KEY_CLIENT);
+
+        if (clientId == null || clientId.isEmpty()) {
+            throw new MacroExecutionException("Failed to retrieve the client id from the source params.");
+        }
+        return clientId;
+    }
+
     @Override
     protected void setDefaultCategories(Set<String> defaultCategories)
     {
@@ -65,6 +65,9 @@ public class WorkItemInlineDisplayer extends AbstractWorkItemsDisplayer
 
     private static final String KEY_INSTANCE = "instance";
 
+    private static final List<String> REQUIRED_PROPERTIES =
+        List.of(WorkItem.KEY_TYPE, WorkItem.KEY_IDENTIFIER, WorkItem.KEY_SUMMARY);
+
     @Inject
     private ContextualLocalizationManager localizationManager;
 
@@ -91,6 +94,12 @@ public class WorkItemInlineDisplayer extends AbstractWorkItemsDisplayer
         return super.getWorkItems(clientId, parameters, filters, sortEntries);
     }
 
+    @Override
+    protected List<String> getRequiredProperties(ProjectManagementMacroParameters parameters)
+    {
+        return REQUIRED_PROPERTIES;
+    }
+
     @Override
     protected List<Block> internalExecute(PaginatedResult<WorkItem> workItemList,
         ProjectManagementMacroParameters parameters, MacroTransformationContext context)
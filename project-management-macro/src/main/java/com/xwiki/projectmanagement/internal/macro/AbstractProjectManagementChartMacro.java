@@ -23,6 +23,9 @@ package com.xwiki.projectmanagement.internal.macro;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -32,9 +35,11 @@ import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.job.JobException;
 import org.xwiki.livedata.LiveDataException;
 import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.localization.ContextualLocalizationManager;
 import org.xwiki.rendering.RenderingException;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.GroupBlock;
+import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.macro.AbstractMacro;
 import org.xwiki.rendering.macro.MacroExecutionException;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
@@ -51,6 +56,7 @@ import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
 import com.xwiki.projectmanagement.macro.ProjectManagementChartMacroParameters;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 
 /**
  * Abstract chart macro meant to be implemented by project management implementers.
@@ -66,11 +72,16 @@ public abstract class AbstractProjectManagementChartMacro<T extends ProjectManag
 
     private static final String CHART_FIX_VERSION = "18.6.0";
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     protected final ObjectMapper objectMapper = new ObjectMapper();
 
     @Inject
     private ProjectManagementAsyncExecutor asyncExecutor;
 
+    @Inject
+    private ProjectManagementDatasetFetcher datasetFetcher;
+
     @Inject
     @Named("jsrx")
     private SkinExtension jsrx;
@@ -78,6 +89,9 @@ public abstract class AbstractProjectManagementChartMacro<T extends ProjectManag
     @Inject
     private XWikiVersionChecker xWikiVersionChecker;
 
+    @Inject
+    private ContextualLocalizationManager localizationManager;
+
     /**
      * constructor.
      *
@@ -132,8 +146,21 @@ public abstract class AbstractProjectManagementChartMacro<T extends ProjectManag
                 {
                     try {
                         prepareContext(parameters);
-                        return chartTypeDisplayer.execute(getDatasets(filters, parameters), parameters.getProperty(),
-                            labels, context, typeDisplayerParams);
+                        if (isAggregated(chartTypeDisplayer, parameters)) {
+                            ProjectManagementDatasetFetcher.DatasetsResult<WorkItemAggregation> aggregations =
+                                getAggregations(filters, parameters);
+                            List<Block> chart = chartTypeDisplayer.executeAggregated(aggregations.getDatasets(),
+                                labels, context, typeDisplayerParams);
+                            return addFailuresWarning(chart, aggregations.getFailures().keySet(), labels);
+                        }
+                        Set<Integer> truncatedDatasets = ConcurrentHashMap.newKeySet();
+                        ProjectManagementDatasetFetcher.DatasetsResult<PaginatedResult<WorkItem>> datasets =
+                            getDatasets(filters, parameters, truncatedDatasets);
+                        List<Block> chart = chartTypeDisplayer.execute(datasets.getDatasets(),
+                            parameters.getProperty(), labels, context, typeDisplayerParams);
+                        chart = addWarning(chart, "projectmanagement.macro.chart.truncatedDatasets",
+                            truncatedDatasets, labels);
+                        return addFailuresWarning(chart, datasets.getFailures().keySet(), labels);
                     } catch (WorkItemException e) {
                         throw new MacroExecutionException("Failed to retrieve the work packages.", e);
                     }
@@ -164,23 +191,90 @@ public abstract class AbstractProjectManagementChartMacro<T extends ProjectManag
         // The extending class can fill things here.
     }
 
-    private List<PaginatedResult<WorkItem>> getDatasets(List<List<LiveDataQuery.Filter>> filters, T parameters)
+    private ProjectManagementDatasetFetcher.DatasetsResult<PaginatedResult<WorkItem>> getDatasets(
+        List<List<LiveDataQuery.Filter>> filters, T parameters, Set<Integer> truncatedDatasets)
         throws WorkItemException
     {
-        List<PaginatedResult<WorkItem>> workItemsList = new ArrayList<>();
+        // The chart aggregates a single property of the work items.
+        List<String> properties = StringUtils.isEmpty(parameters.getProperty()) ? Collections.emptyList()
+            : Collections.singletonList(parameters.getProperty());
+        List<List<LiveDataQuery.Filter>> datasetFilters =
+            filters.isEmpty() ? Collections.singletonList(Collections.emptyList()) : filters;
+        int offset = parameters.getOffset() != null ? Math.toIntExact(parameters.getOffset()) : 0;
+        // Without a limit, all the work items are used, up to the configured maximum.
+        int maxItems = parameters.getLimit() != null && parameters.getLimit() > 0 ? parameters.getLimit()
+            : Integer.MAX_VALUE;
 
-        for (List<LiveDataQuery.Filter> filter : filters) {
-            workItemsList.add(projectManagementManager.getWorkItems(parameters.getClient(),
-                Math.toIntExact(parameters.getOffset()),
-                parameters.getLimit(), filter, Collections.emptyList()));
+        List<ProjectManagementDatasetFetcher.AsyncDatasetLoader<PaginatedResult<WorkItem>>> loaders =
+            new ArrayList<>();
+        for (int i = 0; i < datasetFilters.size(); i++) {
+            List<LiveDataQuery.Filter> filter = datasetFilters.get(i);
+            int index = i;
+            // The work items are retrieved in several pages when they exceed the page size accepted by the clients.
+            loaders.add(() -> projectManagementManager.collectWorkItemsAsync(parameters.getClient(), offset,
+                Math.min(maxItems, MAX_PAGE_SIZE), maxItems, filter, Collections.emptyList(), properties)
+                .thenApply(workItems -> {
+                    if (workItems.getTotalItems() != null
+                        && workItems.getTotalItems() > workItems.getItems().size())
+                    {
+                        truncatedDatasets.add(index);
+                    }
+                    return new PaginatedResult<>(workItems.getItems(), offset, workItems.getItems().size(), null);
+                }));
         }
 
-        if (workItemsList.isEmpty()) {
-            workItemsList.add(projectManagementManager.getWorkItems(parameters.getClient(),
-                Math.toIntExact(parameters.getOffset()), parameters.getLimit(), Collections.emptyList(),
-                Collections.emptyList()));
+        ProjectManagementDatasetFetcher.DatasetsResult<PaginatedResult<WorkItem>> result =
+            datasetFetcher.fetchAsync(loaders);
+        // The datasets that failed to load are displayed as empty.
+        result.getDatasets().replaceAll(dataset -> dataset != null ? dataset : new PaginatedResult<>());
+        return result;
+    }
+
+    private boolean isAggregated(ChartTypeDisplayer chartTypeDisplayer, T parameters) throws WorkItemException
+    {
+        // Counting the work items on the server gives exact charts regardless of the number of work items, without
+        // retrieving them.
+        return chartTypeDisplayer.supportsAggregation() && StringUtils.isNotEmpty(parameters.getProperty())
+            && projectManagementManager.supportsAggregation(parameters.getClient(), parameters.getProperty());
+    }
+
+    private ProjectManagementDatasetFetcher.DatasetsResult<WorkItemAggregation> getAggregations(
+        List<List<LiveDataQuery.Filter>> filters, T parameters) throws WorkItemException
+    {
+        List<List<LiveDataQuery.Filter>> datasetFilters =
+            filters.isEmpty() ? Collections.singletonList(Collections.emptyList()) : filters;
+
+        List<ProjectManagementDatasetFetcher.DatasetLoader<WorkItemAggregation>> loaders = new ArrayList<>();
+        for (List<LiveDataQuery.Filter> filter : datasetFilters) {
+            loaders.add(() -> projectManagementManager.aggregateWorkItems(parameters.getClient(), filter,
+                parameters.getProperty()));
+        }
+
+        ProjectManagementDatasetFetcher.DatasetsResult<WorkItemAggregation> result = datasetFetcher.fetch(loaders);
+        // The datasets that failed to load are displayed as empty.
+        result.getDatasets().replaceAll(dataset -> dataset != null ? dataset : new WorkItemAggregation());
+        return result;
+    }
+
+    private List<Block> addFailuresWarning(List<Block> chart, Set<Integer> failedDatasets, List<String> labels)
+    {
+        return addWarning(chart, "projectmanagement.macro.chart.failedDatasets", failedDatasets, labels);
+    }
+
+    private List<Block> addWarning(List<Block> chart, String translationKey, Set<Integer> datasets,
+        List<String> labels)
+    {
+        if (datasets.isEmpty()) {
+            return chart;
         }
-        return workItemsList;
+        String datasetLabels = datasets.stream().sorted()
+            .map(index -> index < labels.size() ? labels.get(index) : String.valueOf(index + 1))
+            .collect(Collectors.joining(", "));
+        List<Block> result = new ArrayList<>();
+        result.add(new MacroBlock("warning", Collections.emptyMap(),
+            localizationManager.getTranslationPlain(translationKey, datasetLabels), false));
+        result.addAll(chart);
+        return result;
     }
 
     private List<List<LiveDataQuery.Filter>> getFiltersList(String filters)
@@ -40,6 +40,8 @@ import org.xwiki.rendering.transformation.MacroTransformationContext;
 import com.xwiki.projectmanagement.internal.WorkItemsDisplayer;
 import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
 import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
  * Something.
@@ -56,6 +58,9 @@ public abstract class AbstractProjectManagementMacro<T extends ProjectManagement
     @Inject
     private ProjectManagementAsyncExecutor asyncExecutor;
 
+    @Inject
+    private ProjectManagementTracer tracer;
+
     /**
      * @param name smth
      * @param description smth
@@ -96,7 +101,8 @@ public abstract class AbstractProjectManagementMacro<T extends ProjectManagement
             newContent = parameters.getFilters();
             parameters.setFilters("");
         }
-        try {
+        try (TraceSpan span = tracer.startSpan("projectmanagement.macro")) {
+            span.setAttribute("projectmanagement.displayer", displayer.name());
             String displayerId = displayer.name();
             if (WorkItemsDisplayer.liveDataCards.equals(displayer)) {
                 parameters.setLayouts("cards,table");
@@ -41,6 +41,8 @@ import com.xwiki.projectmanagement.exception.WorkItemException;
 import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
  * Abstract macro that processes the parameters before sending them to the project management client, retrieving the
@@ -69,6 +71,9 @@ public abstract class AbstractWorkItemsMacro<T> extends AbstractMacro<T>
     @Inject
     protected ComponentManager componentManager;
 
+    @Inject
+    protected ProjectManagementTracer tracer;
+
     /**
      * Constructor.
      *
@@ -85,8 +90,38 @@ public abstract class AbstractWorkItemsMacro<T> extends AbstractMacro<T>
         List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries) throws WorkItemException
     {
         long offset = parameters.getOffset() == null ? 0 : parameters.getOffset();
-        return projectManagementManager.getWorkItems(clientId, Math.toIntExact(offset),
-            parameters.getLimit(), filters, sortEntries);
+        try (TraceSpan span = tracer.startSpan("projectmanagement.getWorkItems")) {
+            if (span.isRecording()) {
+                span.setAttribute(ProjectManagementTracer.ATTRIBUTE_CLIENT, clientId);
+                span.setAttribute(ProjectManagementTracer.ATTRIBUTE_FILTERS_HASH,
+                    ProjectManagementTracer.hashFilters(filters));
+                if (parameters.getLimit() != null) {
+                    span.setAttribute(ProjectManagementTracer.ATTRIBUTE_PAGE_SIZE, parameters.getLimit());
+                }
+            }
+            try {
+                PaginatedResult<WorkItem> workItems = projectManagementManager.getWorkItems(clientId,
+                    Math.toIntExact(offset), parameters.getLimit(), filters, sortEntries,
+                    getRequiredProperties(parameters));
+                if (workItems != null && workItems.getItems() != null) {
+                    span.setAttribute(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT, workItems.getItems().size());
+                }
+                return workItems;
+            } catch (WorkItemException e) {
+                span.recordException(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @param parameters the macro parameters.
+     * @return the work item properties that the macro displays, allowing the client to retrieve only these; an empty
+     *     list means that all the properties are needed.
+     */
+    protected List<String> getRequiredProperties(ProjectManagementMacroParameters parameters)
+    {
+        return Collections.emptyList();
     }
 
     protected WorkItemPropertyDisplayerManager getPropertyDisplayerManager()
@@ -23,14 +23,19 @@ package com.xwiki.projectmanagement.internal.macro;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.job.JobException;
 import org.xwiki.rendering.RenderingException;
 import org.xwiki.rendering.async.internal.AsyncRendererConfiguration;
@@ -41,18 +46,24 @@ import org.xwiki.rendering.macro.Macro;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 
 import com.xpn.xwiki.internal.context.XWikiContextContextStore;
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.internal.ProjectManagementTaskExecutor;
 import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
- * Executes project management macros asynchronously.
+ * Executes project management macros asynchronously. The page gets the placeholder of the platform asynchronous
+ * renderer, but the macros, which wait for the remote servers, are displayed on threads owned by this extension (see
+ * {@link ProjectManagementExecutors}). They start as soon as they are scheduled, without waiting for a thread of the
+ * platform asynchronous rendering pool, which only collects their result.
  *
  * @version $Id$
  * @since 1.2.1
  */
 @Singleton
 @Component(roles = ProjectManagementAsyncExecutor.class)
-public class ProjectManagementAsyncExecutor
-
+public class ProjectManagementAsyncExecutor implements Initializable, Disposable
 {
     @Inject
     private BlockAsyncRendererExecutor executor;
@@ -60,6 +71,38 @@ public class ProjectManagementAsyncExecutor
     @Inject
     private ComponentManager componentManager;
 
+    @Inject
+    private ProjectManagementTracer tracer;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    private ProjectManagementExecutors executors;
+
+    @Inject
+    private ProjectManagementTaskExecutor taskExecutor;
+
+    private ExecutorService renderingExecutor;
+
+    @Override
+    public void initialize()
+    {
+        // The macros wait for the work item retrievals, which run on the task executor, so they need their own
+        // threads.
+        Integer maxThreads =
+            this.xwikiProperties.getProperty("projectmanagement.rendering.maxThreads", Integer.class);
+        int threads = (maxThreads != null && maxThreads > 0) ? maxThreads : 16;
+        this.renderingExecutor = this.executors.newExecutor("Project management rendering", threads);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.renderingExecutor.shutdownNow();
+    }
+
     /**
      * @param displayerMacro the macro that will be executed asynchronously.
      * @param parameters the parameters of the macro.
@@ -75,11 +118,12 @@ public class ProjectManagementAsyncExecutor
         throws RenderingException, JobException
     {
 
-        try {
+        try (TraceSpan span = tracer.startSpan("projectmanagement.async.schedule")) {
             AsyncRendererConfiguration configuration = getAsyncRendererConfiguration();
             ProjectManagementAsyncRenderer asyncRenderer =
                 componentManager.getInstance(ProjectManagementAsyncRenderer.class);
             asyncRenderer.initialize(displayerMacro, parameters, content, context);
+            asyncRenderer.start(this.taskExecutor.contextExecutor(this.renderingExecutor));
             Block result = executor.execute(asyncRenderer, configuration);
             return result instanceof CompositeBlock ? result.getChildren() : Collections.singletonList(result);
         } catch (ComponentLookupException e) {
@@ -21,6 +21,12 @@ package com.xwiki.projectmanagement.internal.macro;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import javax.inject.Inject;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rendering.RenderingException;
@@ -35,6 +41,8 @@ import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 
 import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
  * Async renderer for the {@link com.xwiki.projectmanagement.internal.WorkItemsDisplayer} available except for the
@@ -45,6 +53,9 @@ import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
 @Component(roles = ProjectManagementAsyncRenderer.class)
 public class ProjectManagementAsyncRenderer extends AbstractBlockAsyncRenderer
 {
+    @Inject
+    private ProjectManagementTracer tracer;
+
     private Macro<ProjectManagementAsyncMacroParams> workItemsDisplayer;
 
     private ProjectManagementAsyncMacroParams parameters;
@@ -59,6 +70,10 @@ public class ProjectManagementAsyncRenderer extends AbstractBlockAsyncRenderer
 
     private boolean inline;
 
+    private TraceSpan parentSpan;
+
+    private CompletableFuture<List<Block>> display;
+
     /**
      * Initialize the async renderer with the required parameters for a project management displayer to function
      * properly.
@@ -78,17 +93,36 @@ public class ProjectManagementAsyncRenderer extends AbstractBlockAsyncRenderer
         this.transformationContext = context.clone();
         this.inline = this.transformationContext.isInline();
         this.targetSyntax = context.getTransformationContext().getTargetSyntax();
+        // The rendering usually happens on another thread, where it continues the trace of the macro.
+        this.parentSpan = tracer.getCurrentSpan();
 
         // I'm assuming that the id should be deterministic only if we are interested in caching the result. Since we
         // shouldn't cache the results coming from OpenProject, we can generate a random uuid.
         id = createId("rendering", "macro", "projectmanagement", UUID.randomUUID().toString());
     }
 
+    /**
+     * Starts displaying the work items right away, instead of waiting for the renderer to be executed. The
+     * execution of the renderer then only waits for the result.
+     *
+     * @param executor the executor displaying the work items, in the context of the thread scheduling the renderer
+     */
+    public void start(Executor executor)
+    {
+        this.display = CompletableFuture.supplyAsync(() -> {
+            try {
+                return display(true);
+            } catch (MacroExecutionException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     @Override
     protected Block execute(boolean async, boolean cached) throws RenderingException
     {
         try {
-            List<Block> result = workItemsDisplayer.execute(this.parameters, this.content, this.transformationContext);
+            List<Block> result = (this.display != null) ? awaitDisplay() : display(async);
             if (this.transformationContext.getCurrentMacroBlock() != null) {
                 result = List.of(wrapInMacroMarker(this.transformationContext.getCurrentMacroBlock(), result));
             }
@@ -98,6 +132,32 @@ public class ProjectManagementAsyncRenderer extends AbstractBlockAsyncRenderer
         }
     }
 
+    private List<Block> display(boolean async) throws MacroExecutionException
+    {
+        try (TraceSpan span = tracer.startSpan("projectmanagement.async.render", this.parentSpan)) {
+            span.setAttribute("projectmanagement.async", String.valueOf(async));
+            return workItemsDisplayer.execute(this.parameters, this.content, this.transformationContext);
+        }
+    }
+
+    private List<Block> awaitDisplay() throws MacroExecutionException, RenderingException
+    {
+        try {
+            return this.display.get();
+        } catch (InterruptedException e) {
+            this.display.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RenderingException("Interrupted while rendering the work items displayer.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MacroExecutionException) {
+                throw (MacroExecutionException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RenderingException("Failed to render the work items displayer.", e.getCause());
+        }
+    }
+
     @Override
     public boolean isInline()
     {
@@ -0,0 +1,247 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.macro;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+
+import com.xwiki.projectmanagement.exception.WorkItemException;
+import com.xwiki.projectmanagement.internal.ProjectManagementTaskExecutor;
+
+/**
+ * Retrieves the datasets of a chart concurrently, so that the time needed to display a chart is given by the slowest
+ * dataset instead of the sum of all of them. The datasets are either retrieved asynchronously by the clients, or
+ * loaded by the {@link ProjectManagementTaskExecutor}, in threads that have the same user, wiki and client execution
+ * context as the thread that displays the chart.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = ProjectManagementDatasetFetcher.class)
+@Singleton
+public class ProjectManagementDatasetFetcher
+{
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    private ProjectManagementTaskExecutor taskExecutor;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Loads the given datasets concurrently. A single dataset is loaded directly in the current thread.
+     *
+     * @param loaders the loaders of the datasets
+     * @param <T> the type of the datasets
+     * @return the loaded datasets, in the same order as their loaders, along with the failures of the datasets that
+     *     couldn't be loaded
+     * @throws WorkItemException if none of the datasets could be loaded
+     */
+    public <T> DatasetsResult<T> fetch(List<DatasetLoader<T>> loaders) throws WorkItemException
+    {
+        if (loaders.size() == 1) {
+            List<T> datasets = new ArrayList<>(1);
+            datasets.add(loaders.get(0).load());
+            return new DatasetsResult<>(datasets, Collections.emptyMap());
+        }
+
+        List<Future<T>> futures = new ArrayList<>(loaders.size());
+        for (DatasetLoader<T> loader : loaders) {
+            futures.add(this.taskExecutor.submit(loader::load));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(getTimeout());
+        List<T> datasets = new ArrayList<>(loaders.size());
+        Map<Integer, Exception> failures = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                datasets.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException e) {
+                datasets.add(null);
+                failures.put(i, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            } catch (TimeoutException e) {
+                futures.get(i).cancel(true);
+                datasets.add(null);
+                failures.put(i, e);
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new WorkItemException("Interrupted while retrieving the chart datasets.", e);
+            }
+        }
+
+        return getResult(datasets, failures);
+    }
+
+    /**
+     * Starts the retrieval of all the given datasets from the current thread, then waits for all of them, without
+     * using a thread for each dataset.
+     *
+     * @param loaders the loaders of the datasets
+     * @param <T> the type of the datasets
+     * @return the loaded datasets, in the same order as their loaders, along with the failures of the datasets that
+     *     couldn't be loaded
+     * @throws WorkItemException if none of the datasets could be loaded
+     */
+    public <T> DatasetsResult<T> fetchAsync(List<AsyncDatasetLoader<T>> loaders) throws WorkItemException
+    {
+        List<CompletableFuture<T>> futures = new ArrayList<>(loaders.size());
+        for (AsyncDatasetLoader<T> loader : loaders) {
+            futures.add(loader.load());
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(getTimeout(), TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // The failed and the unfinished datasets are handled below.
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new WorkItemException("Interrupted while retrieving the chart datasets.", e);
+        }
+
+        List<T> datasets = new ArrayList<>(loaders.size());
+        Map<Integer, Exception> failures = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<T> future = futures.get(i);
+            if (!future.isDone()) {
+                future.cancel(true);
+                datasets.add(null);
+                failures.put(i, new TimeoutException("The chart dataset wasn't retrieved in time."));
+            } else {
+                try {
+                    datasets.add(future.join());
+                } catch (CompletionException | CancellationException e) {
+                    datasets.add(null);
+                    failures.put(i, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+        }
+        return getResult(datasets, failures);
+    }
+
+    private <T> DatasetsResult<T> getResult(List<T> datasets, Map<Integer, Exception> failures)
+        throws WorkItemException
+    {
+        if (failures.size() == datasets.size()) {
+            Exception failure = failures.values().iterator().next();
+            throw failure instanceof WorkItemException ? (WorkItemException) failure
+                : new WorkItemException("Failed to retrieve the chart datasets.", failure);
+        }
+        failures.forEach((index, failure) -> this.logger.warn("Failed to retrieve the chart dataset [{}]. Cause: [{}]",
+            index, failure.toString()));
+        return new DatasetsResult<>(datasets, failures);
+    }
+
+    private int getTimeout()
+    {
+        Integer timeout = this.xwikiProperties.getProperty("projectmanagement.chart.datasetsTimeout", Integer.class);
+        return (timeout != null && timeout > 0) ? timeout : 60;
+    }
+
+    /**
+     * Loads one dataset of a chart.
+     *
+     * @param <T> the type of the dataset
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface DatasetLoader<T>
+    {
+        /**
+         * @return the loaded dataset
+         * @throws WorkItemException if the dataset couldn't be loaded
+         */
+        T load() throws WorkItemException;
+    }
+
+    /**
+     * Starts the retrieval of one dataset of a chart.
+     *
+     * @param <T> the type of the dataset
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface AsyncDatasetLoader<T>
+    {
+        /**
+         * @return the future dataset, completed exceptionally with a {@link WorkItemException} if the dataset
+         *     couldn't be loaded
+         */
+        CompletableFuture<T> load();
+    }
+
+    /**
+     * The datasets of a chart, some of which might have failed to load.
+     *
+     * @param <T> the type of the datasets
+     * @version $Id$
+     */
+    public static final class DatasetsResult<T>
+    {
+        private final List<T> datasets;
+
+        private final Map<Integer, Exception> failures;
+
+        DatasetsResult(List<T> datasets, Map<Integer, Exception> failures)
+        {
+            this.datasets = datasets;
+            this.failures = failures;
+        }
+
+        /**
+         * @return the loaded datasets, in the order of their loaders; the datasets that failed to load are
+         *     {@code null}
+         */
+        public List<T> getDatasets()
+        {
+            return this.datasets;
+        }
+
+        /**
+         * @return the failures of the datasets that couldn't be loaded, by dataset index
+         */
+        public Map<Integer, Exception> getFailures()
+        {
+            return this.failures;
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class ProjectManagementChartMacroParameters implements ProjectManagementA
 
     private String datasetsLabels;
 
-    private Integer limit = 10;
+    private Integer limit;
 
     private Long offset = 0L;
 
@@ -125,7 +125,8 @@ public class ProjectManagementChartMacroParameters implements ProjectManagementA
     }
 
     /**
-     * @return the limit applied of the work items resulting list.
+     * @return the limit applied of the work items resulting list, {@code null} to use all the work items, up to the
+     *     configured maximum number of iterated work items.
      */
     public Integer getLimit()
     {
@@ -21,6 +21,7 @@ package com.xwiki.projectmanagement;
 
 import java.util.List;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -37,8 +38,10 @@ import org.xwiki.test.junit5.mockito.MockComponent;
 import com.xwiki.projectmanagement.internal.TestProjManagementMacro;
 import com.xwiki.projectmanagement.internal.WorkItemsDisplayer;
 import com.xwiki.projectmanagement.internal.macro.ProjectManagementAsyncExecutor;
+import com.xwiki.projectmanagement.internal.tracing.NoOpTraceSpan;
 import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
 import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -68,12 +71,21 @@ public class AbstractProjectManagementMacroTest
     @MockComponent
     private ProjectManagementAsyncExecutor asyncExecutor;
 
+    @MockComponent
+    private ProjectManagementTracer tracer;
+
     @Mock
     private MacroTransformationContext macroTransformationContext;
 
     @Mock
     private Macro<ProjectManagementAsyncMacroParams> displayerMacro;
 
+    @BeforeEach
+    void setUp()
+    {
+        when(tracer.startSpan(any())).thenReturn(NoOpTraceSpan.INSTANCE);
+    }
+
     @Test
     void executeMacroWithDefaultValuesTest() throws MacroExecutionException, ComponentLookupException
     {
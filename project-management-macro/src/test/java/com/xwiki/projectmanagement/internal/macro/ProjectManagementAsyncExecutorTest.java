@@ -0,0 +1,194 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.macro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.rendering.RenderingException;
+import org.xwiki.rendering.async.internal.AsyncRendererConfiguration;
+import org.xwiki.rendering.async.internal.block.BlockAsyncRendererExecutor;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.internal.ProjectManagementTaskExecutor;
+import com.xwiki.projectmanagement.internal.tracing.NoOpTraceSpan;
+import com.xwiki.projectmanagement.macro.ProjectManagementAsyncMacroParams;
+import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class ProjectManagementAsyncExecutorTest
+{
+    private static final int RENDERINGS = 4;
+
+    @InjectMockComponents
+    private ProjectManagementAsyncExecutor asyncExecutor;
+
+    @MockComponent
+    private BlockAsyncRendererExecutor blockAsyncRendererExecutor;
+
+    @MockComponent
+    private ComponentManager componentManager;
+
+    @MockComponent
+    private ProjectManagementTracer tracer;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @MockComponent
+    private ProjectManagementExecutors executors;
+
+    @MockComponent
+    private ProjectManagementTaskExecutor taskExecutor;
+
+    @Mock
+    private Macro<ProjectManagementAsyncMacroParams> displayerMacro;
+
+    private ExecutorService renderingPool;
+
+    // Stands for the thread pool of the platform asynchronous renderer.
+    private final ExecutorService platformPool = Executors.newSingleThreadExecutor();
+
+    private final List<Future<Block>> platformResults = new ArrayList<>();
+
+    @BeforeComponent
+    void configure()
+    {
+        this.renderingPool = Executors.newFixedThreadPool(RENDERINGS);
+        when(this.executors.newExecutor(anyString(), anyInt())).thenReturn(this.renderingPool);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.tracer.startSpan(anyString())).thenReturn(NoOpTraceSpan.INSTANCE);
+        when(this.tracer.startSpan(anyString(), any())).thenReturn(NoOpTraceSpan.INSTANCE);
+        when(this.taskExecutor.contextExecutor(any())).thenAnswer(i -> i.getArgument(0));
+        when(this.componentManager.getInstance(ProjectManagementAsyncRenderer.class)).thenAnswer(i -> {
+            ProjectManagementAsyncRenderer renderer = new ProjectManagementAsyncRenderer();
+            ReflectionUtils.setFieldValue(renderer, "tracer", this.tracer);
+            return renderer;
+        });
+        when(this.blockAsyncRendererExecutor.execute(any(), any(AsyncRendererConfiguration.class))).thenAnswer(i -> {
+            ProjectManagementAsyncRenderer renderer = i.getArgument(0);
+            this.platformResults.add(this.platformPool.submit(() -> renderer.execute(true, false)));
+            return new WordBlock("placeholder");
+        });
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.platformPool.shutdownNow();
+        this.asyncExecutor.dispose();
+    }
+
+    @Test
+    void executeRendersMoreMacrosThanThePlatformPoolThreads() throws Exception
+    {
+        CountDownLatch displaying = new CountDownLatch(RENDERINGS);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.displayerMacro.execute(any(), any(), any())).thenAnswer(i -> {
+            displaying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new WordBlock("work items"));
+        });
+
+        for (int i = 0; i < RENDERINGS; i++) {
+            List<Block> placeholder = this.asyncExecutor.execute(this.displayerMacro,
+                new ProjectManagementMacroParameters(), "", new MacroTransformationContext());
+            assertEquals(List.of(new WordBlock("placeholder")), placeholder);
+        }
+
+        // All the macros wait for the remote server at the same time, although the platform pool has a single thread.
+        assertTrue(displaying.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        for (Future<Block> result : this.platformResults) {
+            assertEquals(List.of(new WordBlock("work items")), result.get(5, TimeUnit.SECONDS).getChildren());
+        }
+    }
+
+    @Test
+    void executeReportsTheFailureOfTheDisplay() throws Exception
+    {
+        MacroExecutionException failure = new MacroExecutionException("failed");
+        when(this.displayerMacro.execute(any(), any(), any())).thenThrow(failure);
+
+        this.asyncExecutor.execute(this.displayerMacro, new ProjectManagementMacroParameters(), "",
+            new MacroTransformationContext());
+
+        Exception exception = assertThrows(Exception.class, () -> this.platformResults.get(0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RenderingException.class, exception.getCause());
+        assertSame(failure, exception.getCause().getCause());
+    }
+
+    @Test
+    void executeDisplaysOnTheExecutorSavingTheContextOfTheCaller() throws Exception
+    {
+        List<Executor> contextExecutors = new ArrayList<>();
+        when(this.taskExecutor.contextExecutor(any())).thenAnswer(i -> {
+            contextExecutors.add(i.getArgument(0));
+            return i.getArgument(0);
+        });
+        when(this.displayerMacro.execute(any(), any(), any())).thenReturn(List.of());
+
+        this.asyncExecutor.execute(this.displayerMacro, new ProjectManagementMacroParameters(), "",
+            new MacroTransformationContext());
+
+        assertEquals(List.of(this.renderingPool), contextExecutors);
+        this.platformResults.get(0).get(5, TimeUnit.SECONDS);
+    }
+}
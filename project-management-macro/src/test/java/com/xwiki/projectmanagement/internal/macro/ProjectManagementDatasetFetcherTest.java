@@ -0,0 +1,302 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.internal.macro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.exception.WorkItemException;
+import com.xwiki.projectmanagement.internal.DefaultProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.internal.ProjectManagementTaskExecutor;
+import com.xwiki.projectmanagement.internal.macro.ProjectManagementDatasetFetcher.AsyncDatasetLoader;
+import com.xwiki.projectmanagement.internal.macro.ProjectManagementDatasetFetcher.DatasetLoader;
+import com.xwiki.projectmanagement.internal.macro.ProjectManagementDatasetFetcher.DatasetsResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@ComponentList({ ProjectManagementTaskExecutor.class, DefaultProjectManagementClientExecutionContext.class })
+class ProjectManagementDatasetFetcherTest
+{
+    private static final String KEY = "key";
+
+    @InjectMockComponents
+    private ProjectManagementDatasetFetcher fetcher;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @MockComponent
+    private ContextStoreManager contextStoreManager;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ProjectManagementExecutors executors;
+
+    private DefaultProjectManagementClientExecutionContext clientContext;
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.executors.newExecutor(anyString(), anyInt())).thenAnswer(i -> Executors.newFixedThreadPool(4));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        this.clientContext = this.componentManager.getInstance(ProjectManagementClientExecutionContext.class);
+    }
+
+    @Test
+    void fetchLoadsTheDatasetsConcurrently() throws Exception
+    {
+        // Each loader waits for the other one, so the fetch only succeeds if they run at the same time.
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        DatasetLoader<String> first = () -> {
+            await(barrier);
+            return "first";
+        };
+        DatasetLoader<String> second = () -> {
+            await(barrier);
+            return "second";
+        };
+
+        DatasetsResult<String> result = this.fetcher.fetch(Arrays.asList(first, second));
+
+        assertEquals(List.of("first", "second"), result.getDatasets());
+        assertTrue(result.getFailures().isEmpty());
+    }
+
+    @Test
+    void fetchKeepsTheDatasetsThatDidNotFail() throws Exception
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        DatasetLoader<String> failing = () -> {
+            throw failure;
+        };
+
+        DatasetsResult<String> result = this.fetcher.fetch(Arrays.asList(() -> "first", failing, () -> "third"));
+
+        assertEquals(Arrays.asList("first", null, "third"), result.getDatasets());
+        assertEquals(1, result.getFailures().size());
+        assertSame(failure, result.getFailures().get(1));
+    }
+
+    @Test
+    void fetchFailsWhenAllTheDatasetsFail()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        DatasetLoader<String> failing = () -> {
+            throw failure;
+        };
+
+        WorkItemException exception =
+            assertThrows(WorkItemException.class, () -> this.fetcher.fetch(Arrays.asList(failing, failing)));
+
+        assertSame(failure, exception);
+    }
+
+    @Test
+    void fetchGivesUpOnTheSlowDatasets() throws Exception
+    {
+        when(this.xwikiProperties.getProperty("projectmanagement.chart.datasetsTimeout", Integer.class))
+            .thenReturn(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DatasetLoader<String> slow = () -> {
+            await(release);
+            return "slow";
+        };
+
+        try {
+            DatasetsResult<String> result = this.fetcher.fetch(Arrays.asList(() -> "fast", slow));
+
+            assertEquals(Arrays.asList("fast", null), result.getDatasets());
+            assertInstanceOf(TimeoutException.class, result.getFailures().get(1));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void fetchGivesEachDatasetItsOwnClientContext() throws Exception
+    {
+        Map<String, Object> context = new HashMap<>();
+        context.put(KEY, "value");
+        this.clientContext.setContext(context);
+        CountDownLatch modified = new CountDownLatch(1);
+        DatasetLoader<Object> modifying = () -> {
+            this.clientContext.getContext().put(KEY, "modified");
+            modified.countDown();
+            return this.clientContext.get(KEY);
+        };
+        DatasetLoader<Object> reading = () -> {
+            await(modified);
+            return this.clientContext.get(KEY);
+        };
+
+        try {
+            DatasetsResult<Object> result = this.fetcher.fetch(Arrays.asList(modifying, reading));
+
+            assertEquals(Arrays.asList("modified", "value"), result.getDatasets());
+            assertEquals("value", context.get(KEY));
+        } finally {
+            this.clientContext.setContext(null);
+        }
+    }
+
+    @Test
+    void fetchLoadsASingleDatasetInTheCurrentThread() throws Exception
+    {
+        Thread current = Thread.currentThread();
+
+        DatasetsResult<Boolean> result = this.fetcher.fetch(List.of(() -> Thread.currentThread() == current));
+
+        assertEquals(List.of(true), result.getDatasets());
+        assertNull(result.getFailures().get(0));
+    }
+
+    @Test
+    void fetchAsyncWaitsForAllTheDatasetsWithoutSubmittingThem() throws Exception
+    {
+        Thread current = Thread.currentThread();
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        List<Thread> startingThreads = new ArrayList<>();
+        AsyncDatasetLoader<String> firstLoader = () -> {
+            startingThreads.add(Thread.currentThread());
+            return first;
+        };
+        AsyncDatasetLoader<String> secondLoader = () -> {
+            startingThreads.add(Thread.currentThread());
+            // The datasets are retrieved at the same time: the first one completes after the second one started.
+            first.complete("first");
+            return second;
+        };
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> second.complete("second"));
+
+        DatasetsResult<String> result = this.fetcher.fetchAsync(Arrays.asList(firstLoader, secondLoader));
+
+        assertEquals(Arrays.asList("first", "second"), result.getDatasets());
+        assertTrue(result.getFailures().isEmpty());
+        assertEquals(List.of(current, current), startingThreads);
+    }
+
+    @Test
+    void fetchAsyncKeepsTheDatasetsThatDidNotFail() throws Exception
+    {
+        WorkItemException failure = new WorkItemException("failed");
+
+        DatasetsResult<String> result = this.fetcher.fetchAsync(Arrays.asList(
+            () -> CompletableFuture.completedFuture("first"), () -> CompletableFuture.failedFuture(failure)));
+
+        assertEquals(Arrays.asList("first", null), result.getDatasets());
+        assertSame(failure, result.getFailures().get(1));
+    }
+
+    @Test
+    void fetchAsyncFailsWhenAllTheDatasetsFail()
+    {
+        WorkItemException failure = new WorkItemException("failed");
+        AsyncDatasetLoader<String> failing = () -> CompletableFuture.failedFuture(failure);
+
+        assertSame(failure,
+            assertThrows(WorkItemException.class, () -> this.fetcher.fetchAsync(Arrays.asList(failing, failing))));
+    }
+
+    @Test
+    void fetchAsyncGivesUpOnTheSlowDatasets() throws Exception
+    {
+        when(this.xwikiProperties.getProperty("projectmanagement.chart.datasetsTimeout", Integer.class))
+            .thenReturn(1);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        DatasetsResult<String> result =
+            this.fetcher.fetchAsync(Arrays.asList(() -> CompletableFuture.completedFuture("fast"), () -> slow));
+
+        assertEquals(Arrays.asList("fast", null), result.getDatasets());
+        assertInstanceOf(TimeoutException.class, result.getFailures().get(1));
+        // The slow dataset is abandoned.
+        assertTrue(slow.isCancelled());
+    }
+
+    private static void await(CyclicBarrier barrier) throws WorkItemException
+    {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new WorkItemException("The other dataset wasn't loaded concurrently.", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws WorkItemException
+    {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WorkItemException("Interrupted while waiting.", e);
+        }
+    }
+}
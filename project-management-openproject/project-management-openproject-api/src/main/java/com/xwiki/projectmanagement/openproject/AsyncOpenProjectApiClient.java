@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Non-blocking counterpart of the {@link OpenProjectApiClient} work package retrieval methods, allowing several
+ * requests to be sent concurrently without using one thread for each of them while waiting for the responses. The
+ * returned futures are completed exceptionally with a
+ * {@link com.xwiki.projectmanagement.exception.ProjectManagementException} when the request fails.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public interface AsyncOpenProjectApiClient
+{
+    /**
+     * See {@link OpenProjectApiClient#getWorkPackages(Integer, Integer, String, String, String)}.
+     *
+     * @param offset the offset index from which to start retrieving work packages.
+     * @param pageSize the maximum number of work packages to return.
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param sortBy optional sorting criteria to apply (e.g. field name and sort direction).
+     * @param select the fields to retrieve, as expected by the OpenProject {@code select} query parameter; an empty
+     *     value means all the fields.
+     * @return the future {@link PaginatedResult} containing the list of {@link WorkPackage} and pagination metadata.
+     */
+    CompletableFuture<PaginatedResult<WorkPackage>> getWorkPackages(Integer offset, Integer pageSize, String filters,
+        String sortBy, String select);
+
+    /**
+     * See {@link OpenProjectApiClient#getProjectWorkPackages(String, Integer, Integer, String, String, String)}.
+     *
+     * @param project the project (project name or id) from which we want to retrieve the work packages
+     * @param offset the offset index from which to start retrieving work packages.
+     * @param pageSize the maximum number of work packages to return.
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param sortBy optional sorting criteria to apply (e.g. field name and sort direction).
+     * @param select the fields to retrieve, as expected by the OpenProject {@code select} query parameter; an empty
+     *     value means all the fields.
+     * @return the future {@link PaginatedResult} containing the list of {@link WorkPackage} and pagination metadata.
+     */
+    CompletableFuture<PaginatedResult<WorkPackage>> getProjectWorkPackages(String project, Integer offset,
+        Integer pageSize, String filters, String sortBy, String select);
+
+    /**
+     * See {@link OpenProjectApiClient#getWorkPackagesGroups(String, String)}.
+     *
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param groupBy the OpenProject work package attribute used to group the work packages.
+     * @return the future number of work packages for each value of the grouping attribute.
+     */
+    CompletableFuture<Map<String, Long>> getWorkPackagesGroups(String filters, String groupBy);
+}
@@ -62,7 +62,14 @@ public class FilterBuilder
         /**
          * None of operator. Used, generally, for excluding a set of ids from a list type property. i.e. type.
          */
-        NONE_OF("!");
+        NONE_OF("!"),
+        /**
+         * Between operator for dates and date times. Used with two values, the lower and the upper bound, either of
+         * them being empty for an open interval. i.e. {@code updatedAt}.
+         *
+         * @since 1.2.1
+         */
+        BETWEEN_DATES("<>d");
 
         private final String value;
 
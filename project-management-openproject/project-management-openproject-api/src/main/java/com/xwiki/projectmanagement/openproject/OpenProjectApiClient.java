@@ -20,6 +20,10 @@
 
 package com.xwiki.projectmanagement.openproject;
 
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
 import org.xwiki.component.annotation.Role;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -74,6 +78,46 @@ public interface OpenProjectApiClient
         String filters, String sortBy)
         throws ProjectManagementException;
 
+    /**
+     * Retrieves a list of available work packages, asking OpenProject to return only the given fields of each work
+     * package.
+     *
+     * @param offset the offset index from which to start retrieving work packages.
+     * @param pageSize the maximum number of work packages to return.
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param sortBy optional sorting criteria to apply (e.g. field name and sort direction).
+     * @param select the OpenProject {@code select} parameter (e.g. {@code total,elements/id,elements/subject}); an
+     *     empty string retrieves all the fields.
+     * @return a {@link PaginatedResult} containing the list of {@link WorkPackage} and pagination metadata.
+     * @throws ProjectManagementException if some error was encountered while trying to retrieve the work packages.
+     * @since 1.2.1
+     */
+    default PaginatedResult<WorkPackage> getWorkPackages(Integer offset, Integer pageSize, String filters,
+        String sortBy, String select) throws ProjectManagementException
+    {
+        return getWorkPackages(offset, pageSize, filters, sortBy);
+    }
+
+    /**
+     * Retrieves a list of available work packages from the specified project, asking OpenProject to return only the
+     * given fields of each work package.
+     *
+     * @param project the project (project name or id) from which we want to retrieve the work packages
+     * @param offset the offset index from which to start retrieving work packages.
+     * @param pageSize the maximum number of work packages to return.
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param sortBy optional sorting criteria to apply (e.g. field name and sort direction).
+     * @param select the OpenProject {@code select} parameter; an empty string retrieves all the fields.
+     * @return a {@link PaginatedResult} containing the list of {@link WorkPackage} and pagination metadata.
+     * @throws ProjectManagementException if some error was encountered while trying to retrieve the work packages.
+     * @since 1.2.1
+     */
+    default PaginatedResult<WorkPackage> getProjectWorkPackages(String project, Integer offset, Integer pageSize,
+        String filters, String sortBy, String select) throws ProjectManagementException
+    {
+        return getProjectWorkPackages(project, offset, pageSize, filters, sortBy);
+    }
+
     /**
      * @param offset the point where the result set begins relative to the whole set.
      * @param pageSize the max number of entries returned.
@@ -242,6 +286,23 @@ public interface OpenProjectApiClient
      */
     UserAvatar getUserAvatar(String userId) throws ProjectManagementException;
 
+    /**
+     * Counts the work packages matching the given filters, grouped by the values of a work package attribute. The
+     * work packages themselves are not retrieved.
+     *
+     * @param filters optional filters to apply (e.g. query parameters encoded as a string).
+     * @param groupBy the OpenProject attribute used to group the work packages (e.g. {@code status}).
+     * @return the number of work packages of each value of the attribute, in the order returned by OpenProject. The
+     *     work packages that have no value are counted under the empty string.
+     * @throws ProjectManagementException if some error was encountered while trying to count the work packages.
+     * @since 1.2.1
+     */
+    default Map<String, Long> getWorkPackagesGroups(String filters, String groupBy) throws ProjectManagementException
+    {
+        throw new UnsupportedOperationException(
+            "Grouping work packages is not supported by this client implementation.");
+    }
+
     /**
      * Retrieves work packages form response.
      *
@@ -366,6 +427,20 @@ public interface OpenProjectApiClient
             "Updating work packages is not supported by this client implementation.");
     }
 
+    /**
+     * Converts a work package representation returned by OpenProject, such as the response of
+     * {@link #createWorkPackage(String, String)} or {@link #updateWorkPackage(String, String)}.
+     *
+     * @param representation the JSON representation of a work package.
+     * @return the work package, or {@code null} if the given node doesn't represent a work package or if this client
+     *     can't convert it.
+     * @since 1.2.1
+     */
+    default WorkPackage readWorkPackage(JsonNode representation)
+    {
+        return null;
+    }
+
     /**
      * Retrieves the identifier of the OpenProject instance. This is the {@code installation_uuid} exposed by the
      * instance through its public {@code /.well-known/openproject-metadata} endpoint, so it can be retrieved with a
@@ -380,4 +455,49 @@ public interface OpenProjectApiClient
         throw new UnsupportedOperationException(
             "Retrieving the instance id is not supported by this client implementation.");
     }
+
+    /**
+     * Provides the non-blocking variant of the work package retrieval methods. The implementations that don't send
+     * their requests asynchronously return a view that calls the blocking methods, completing the futures before
+     * returning them.
+     *
+     * @return the non-blocking view of this client.
+     * @since 1.2.1
+     */
+    default AsyncOpenProjectApiClient async()
+    {
+        return new AsyncOpenProjectApiClient()
+        {
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getWorkPackages(Integer offset, Integer pageSize,
+                String filters, String sortBy, String select)
+            {
+                return completed(() -> OpenProjectApiClient.this.getWorkPackages(offset, pageSize, filters, sortBy,
+                    select));
+            }
+
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getProjectWorkPackages(String project,
+                Integer offset, Integer pageSize, String filters, String sortBy, String select)
+            {
+                return completed(() -> OpenProjectApiClient.this.getProjectWorkPackages(project, offset, pageSize,
+                    filters, sortBy, select));
+            }
+
+            @Override
+            public CompletableFuture<Map<String, Long>> getWorkPackagesGroups(String filters, String groupBy)
+            {
+                return completed(() -> OpenProjectApiClient.this.getWorkPackagesGroups(filters, groupBy));
+            }
+
+            private <T> CompletableFuture<T> completed(Callable<T> call)
+            {
+                try {
+                    return CompletableFuture.completedFuture(call.call());
+                } catch (Exception e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+    }
 }
@@ -20,6 +20,7 @@
 package com.xwiki.projectmanagement.openproject;
 
 import java.net.http.HttpClient;
+import java.time.Duration;
 
 import org.xwiki.cache.Cache;
 
@@ -55,13 +56,23 @@ public interface OpenProjectApiClientBuilder
     OpenProjectApiClientBuilder authentication(OpenProjectAuthenticator authenticator);
 
     /**
-     * Sets the {@link HttpClient} used to perform the requests. When not set, a default client is used.
+     * Sets the {@link HttpClient} used to perform the requests. When not set, the client shared by all the requests
+     * sent to the configured server is used.
      *
      * @param httpClient the HTTP client to use
      * @return this builder, for chaining
      */
     OpenProjectApiClientBuilder httpClient(HttpClient httpClient);
 
+    /**
+     * Sets the maximum time to wait for the response of a request. When not set, the configured default is used.
+     *
+     * @param requestTimeout the request timeout, {@code null} to wait indefinitely
+     * @return this builder, for chaining
+     * @since 1.2.1
+     */
+    OpenProjectApiClientBuilder requestTimeout(Duration requestTimeout);
+
     /**
      * Wraps the built client with a caching layer using the given cache. When not set, the client is not cached.
      *
@@ -71,6 +82,19 @@ public interface OpenProjectApiClientBuilder
      */
     OpenProjectApiClientBuilder caching(Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache, String clientId);
 
+    /**
+     * Sets the name of the connection the client is built for, used to group the metrics of its requests. When not
+     * set, the metrics are grouped by server URL.
+     *
+     * @param connectionName the name of the OpenProject connection
+     * @return this builder, for chaining
+     * @since 1.2.1
+     */
+    default OpenProjectApiClientBuilder connectionName(String connectionName)
+    {
+        return this;
+    }
+
     /**
      * Assembles the client from the collected settings.
      *
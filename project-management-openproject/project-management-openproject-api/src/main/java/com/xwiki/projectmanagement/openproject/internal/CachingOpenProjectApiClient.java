@@ -20,12 +20,27 @@
 
 package com.xwiki.projectmanagement.openproject.internal;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
 import org.xwiki.cache.Cache;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.AsyncOpenProjectApiClient;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectRequestCoalescer;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.cache.WorkPackageQueryResult;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
 import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
 import com.xwiki.projectmanagement.openproject.model.News;
 import com.xwiki.projectmanagement.openproject.model.Priority;
@@ -40,6 +55,13 @@ import com.xwiki.projectmanagement.openproject.model.Version;
 import com.xwiki.projectmanagement.openproject.model.WikiPageLink;
 import com.xwiki.projectmanagement.openproject.model.WorkPackage;
 
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.MEMBERSHIPS;
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.NEWS;
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.PROJECTS;
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.SPRINTS;
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.USERS;
+import static com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics.WORK_PACKAGES;
+
 /**
  * Implementation of {@link OpenProjectApiClient} that uses a cache for storing and retrieving entries.
  *
@@ -47,38 +69,86 @@ import com.xwiki.projectmanagement.openproject.model.WorkPackage;
  */
 public class CachingOpenProjectApiClient implements OpenProjectApiClient
 {
+    private static final String WORK_ITEMS = "workItems";
+
+    private static final String PROJECT_WORK_ITEMS = "project%sWorkItems";
+
+    private static final String SELECTED_WORK_ITEMS = "workItems[%s]";
+
+    private static final String PROJECT_SELECTED_WORK_ITEMS = "project%sWorkItems[%s]";
+
+    private static final String WORK_ITEM_GROUPS = "workItemGroups[%s]";
+
     private final Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache;
 
     private final OpenProjectApiClient client;
 
-    private final String clientId;
+    private final String namespace;
+
+    private final OpenProjectRequestCoalescer coalescer;
+
+    private final OpenProjectReferenceDataCache referenceDataCache;
+
+    private final OpenProjectWorkPackageStore workPackageStore;
+
+    private final OpenProjectWorkPackageGroupsCache groupsCache;
+
+    private final OpenProjectReplicaManager replicaManager;
+
+    private final String serverUrl;
+
+    private final OpenProjectConnectionMetrics metrics;
 
     /**
      * Create a OpenProjectApiClient that tries to retrieve the results from a cache.
      *
      * @param client the OpenProjectApi client that needs to be cached
-     * @param clientId the identifier of the current client.
+     * @param namespace the prefix of all the cache keys used by this client. Since the results of the OpenProject
+     *     API depend on the permissions of the authenticated user, the namespace must identify both the connection
+     *     and the credentials used by the wrapped client, otherwise the results of one user could be served to
+     *     another.
      * @param cache the cache that will be used to store and retrieve entries from.
      */
-    public CachingOpenProjectApiClient(OpenProjectApiClient client, String clientId,
+    public CachingOpenProjectApiClient(OpenProjectApiClient client, String namespace,
         Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache)
+    {
+        this(client, namespace, cache, new OpenProjectApiClientOptions());
+    }
+
+    /**
+     * Create a OpenProjectApiClient that tries to retrieve the results from a cache, using the given request
+     * coalescer, reference data cache, work package store and connection metrics when they are set.
+     *
+     * @param client the OpenProjectApi client that needs to be cached
+     * @param namespace the prefix of all the cache keys used by this client, see
+     *     {@link #CachingOpenProjectApiClient(OpenProjectApiClient, String, Cache)}
+     * @param cache the cache that will be used to store and retrieve entries from.
+     * @param options the optional collaborators of the client; the server URL is required when a work package store
+     *     is set
+     * @since 1.2.1
+     */
+    public CachingOpenProjectApiClient(OpenProjectApiClient client, String namespace,
+        Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache, OpenProjectApiClientOptions options)
     {
         this.client = client;
-        this.clientId = clientId;
+        this.namespace = namespace;
         this.cache = cache;
+        this.coalescer =
+            (options.getCoalescer() != null) ? options.getCoalescer() : new OpenProjectRequestCoalescer();
+        this.referenceDataCache = options.getReferenceDataCache();
+        this.workPackageStore = options.getWorkPackageStore();
+        this.groupsCache = options.getGroupsCache();
+        this.replicaManager = options.getReplicaManager();
+        this.serverUrl = options.getServerUrl();
+        this.metrics = options.getMetrics();
     }
 
     @Override
     public PaginatedResult<WorkPackage> getWorkPackages(Integer offset, Integer pageSize, String filters, String sortBy)
         throws ProjectManagementException
     {
-        String cacheKey = getCacheKey("workItems", offset, pageSize, filters, sortBy);
-        PaginatedResult<WorkPackage> result = (PaginatedResult<WorkPackage>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getWorkPackages(offset, pageSize, filters, sortBy);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        String cacheKey = getQueryCacheKey(WORK_ITEMS, offset, pageSize, filters, sortBy);
+        return getCachedWorkPackages(cacheKey, "", () -> client.getWorkPackages(offset, pageSize, filters, sortBy));
     }
 
     @Override
@@ -86,13 +156,103 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         String filters, String sortBy)
         throws ProjectManagementException
     {
-        String cacheKey = getCacheKey(String.format("project%sWorkItems", project), offset, pageSize, filters, sortBy);
-        PaginatedResult<WorkPackage> result = (PaginatedResult<WorkPackage>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getProjectWorkPackages(project, offset, pageSize, filters, sortBy);
-            cache.set(cacheKey, result);
+        String cacheKey =
+            getQueryCacheKey(String.format(PROJECT_WORK_ITEMS, project), offset, pageSize, filters, sortBy);
+        return getCachedWorkPackages(cacheKey, "",
+            () -> client.getProjectWorkPackages(project, offset, pageSize, filters, sortBy));
+    }
+
+    @Override
+    public PaginatedResult<WorkPackage> getWorkPackages(Integer offset, Integer pageSize, String filters,
+        String sortBy, String select) throws ProjectManagementException
+    {
+        if (StringUtils.isEmpty(select)) {
+            return getWorkPackages(offset, pageSize, filters, sortBy);
         }
-        return result;
+        // Results retrieved with a different set of fields must not be mixed.
+        String cacheKey =
+            getQueryCacheKey(String.format(SELECTED_WORK_ITEMS, select), offset, pageSize, filters, sortBy);
+        return getCachedWorkPackages(cacheKey, select,
+            () -> client.getWorkPackages(offset, pageSize, filters, sortBy, select));
+    }
+
+    @Override
+    public PaginatedResult<WorkPackage> getProjectWorkPackages(String project, Integer offset, Integer pageSize,
+        String filters, String sortBy, String select) throws ProjectManagementException
+    {
+        if (StringUtils.isEmpty(select)) {
+            return getProjectWorkPackages(project, offset, pageSize, filters, sortBy);
+        }
+        String cacheKey = getQueryCacheKey(String.format(PROJECT_SELECTED_WORK_ITEMS, project, select), offset,
+            pageSize, filters, sortBy);
+        return getCachedWorkPackages(cacheKey, select,
+            () -> client.getProjectWorkPackages(project, offset, pageSize, filters, sortBy, select));
+    }
+
+    @Override
+    public Map<String, Long> getWorkPackagesGroups(String filters, String groupBy) throws ProjectManagementException
+    {
+        if (groupsCache == null) {
+            return client.getWorkPackagesGroups(filters, groupBy);
+        }
+        // The counts are keyed like the work packages queries, so they are invalidated along with them.
+        String cacheKey = getQueryCacheKey(String.format(WORK_ITEM_GROUPS, groupBy), null, null, filters, "");
+        OpenProjectRequestCoalescer.Loader<Map<String, Long>> countingLoader =
+            countMisses(WORK_PACKAGES, () -> client.getWorkPackagesGroups(filters, groupBy));
+        Map<String, Long> counts = groupsCache.get(cacheKey);
+        if (counts != null) {
+            return counts;
+        }
+        return coalescer.load(cacheKey, () -> {
+            Map<String, Long> loaded = groupsCache.get(cacheKey);
+            if (loaded == null) {
+                loaded = countingLoader.load();
+                if (loaded != null) {
+                    groupsCache.set(cacheKey, loaded);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public AsyncOpenProjectApiClient async()
+    {
+        AsyncOpenProjectApiClient asyncClient = client.async();
+        return new AsyncOpenProjectApiClient()
+        {
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getWorkPackages(Integer offset, Integer pageSize,
+                String filters, String sortBy, String select)
+            {
+                String entity = StringUtils.isEmpty(select) ? WORK_ITEMS : String.format(SELECTED_WORK_ITEMS, select);
+                String cacheKey = getQueryCacheKey(entity, offset, pageSize, filters, sortBy);
+                return getCachedWorkPackagesAsync(cacheKey, select,
+                    () -> asyncClient.getWorkPackages(offset, pageSize, filters, sortBy, select));
+            }
+
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getProjectWorkPackages(String project,
+                Integer offset, Integer pageSize, String filters, String sortBy, String select)
+            {
+                String entity = StringUtils.isEmpty(select) ? String.format(PROJECT_WORK_ITEMS, project)
+                    : String.format(PROJECT_SELECTED_WORK_ITEMS, project, select);
+                String cacheKey = getQueryCacheKey(entity, offset, pageSize, filters, sortBy);
+                return getCachedWorkPackagesAsync(cacheKey, select,
+                    () -> asyncClient.getProjectWorkPackages(project, offset, pageSize, filters, sortBy, select));
+            }
+
+            @Override
+            public CompletableFuture<Map<String, Long>> getWorkPackagesGroups(String filters, String groupBy)
+            {
+                if (groupsCache == null) {
+                    return asyncClient.getWorkPackagesGroups(filters, groupBy);
+                }
+                String cacheKey =
+                    getQueryCacheKey(String.format(WORK_ITEM_GROUPS, groupBy), null, null, filters, "");
+                return getCachedGroupsAsync(cacheKey, () -> asyncClient.getWorkPackagesGroups(filters, groupBy));
+            }
+        };
     }
 
     @Override
@@ -107,74 +267,45 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         throws ProjectManagementException
     {
         String cacheKey = getCacheKey("users", offset, pageSize, filters, "");
-        PaginatedResult<User> result = (PaginatedResult<User>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getUsers(offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, USERS, () -> client.getUsers(offset, pageSize, filters));
     }
 
     @Override
     public PaginatedResult<Project> getProjects(Integer offset, Integer pageSize, String filters)
         throws ProjectManagementException
     {
-        String cacheKey = getCacheKey("projects", offset, pageSize, filters, "");
-        PaginatedResult<Project> result = (PaginatedResult<Project>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getProjects(offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        String cacheKey = getQueryCacheKey("projects", offset, pageSize, filters, "");
+        return getCached(cacheKey, PROJECTS, () -> client.getProjects(offset, pageSize, filters));
     }
 
     @Override
     public PaginatedResult<Project> getAvailableProjects(String url, Integer offset, Integer pageSize, String filters)
         throws ProjectManagementException
     {
-        String cacheKey = getCacheKey(String.format("availableProjects/%s", url), offset, pageSize, filters, "");
-        PaginatedResult<Project> result = (PaginatedResult<Project>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getAvailableProjects(url, offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        String cacheKey =
+            getQueryCacheKey(String.format("availableProjects/%s", url), offset, pageSize, filters, "");
+        return getCached(cacheKey, PROJECTS, () -> client.getAvailableProjects(url, offset, pageSize, filters));
     }
 
     @Override
     public PaginatedResult<Type> getTypes() throws ProjectManagementException
     {
         String cacheKey = getCacheKey("types", 1, Integer.MAX_VALUE, "", "");
-        PaginatedResult<Type> result = (PaginatedResult<Type>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getTypes();
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getReferenceData(cacheKey, "types", () -> client.getTypes());
     }
 
     @Override
     public PaginatedResult<Status> getStatuses() throws ProjectManagementException
     {
         String cacheKey = getCacheKey("statuses", 1, Integer.MAX_VALUE, "", "");
-        PaginatedResult<Status> result = (PaginatedResult<Status>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getStatuses();
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getReferenceData(cacheKey, "statuses", () -> client.getStatuses());
     }
 
     @Override
     public PaginatedResult<Priority> getPriorities() throws ProjectManagementException
     {
         String cacheKey = getCacheKey("priorities", 1, Integer.MAX_VALUE, "", "");
-        PaginatedResult<Priority> result = (PaginatedResult<Priority>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getPriorities();
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getReferenceData(cacheKey, "priorities", () -> client.getPriorities());
     }
 
     @Override
@@ -182,12 +313,7 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         throws ProjectManagementException
     {
         String cacheKey = getCacheKey("news", offset, pageSize, filters, "");
-        PaginatedResult<News> result = (PaginatedResult<News>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getNews(offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, NEWS, () -> client.getNews(offset, pageSize, filters));
     }
 
     @Override
@@ -201,36 +327,21 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         throws ProjectManagementException
     {
         String cacheKey = getCacheKey("memberships", offset, pageSize, filters, "");
-        PaginatedResult<User> result = (PaginatedResult<User>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getMemberships(offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, MEMBERSHIPS, () -> client.getMemberships(offset, pageSize, filters));
     }
 
     @Override
     public PaginatedResult<Version> getVersions() throws ProjectManagementException
     {
         String cacheKey = getCacheKey("versions", 1, Integer.MAX_VALUE, "", "");
-        PaginatedResult<Version> result = (PaginatedResult<Version>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getVersions();
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getReferenceData(cacheKey, "versions", () -> client.getVersions());
     }
 
     @Override
     public PaginatedResult<Version> getProjectVersions(int projectId) throws ProjectManagementException
     {
         String cacheKey = getCacheKey("projectVersions", 1, Integer.MAX_VALUE, String.valueOf(projectId), "");
-        PaginatedResult<Version> result = (PaginatedResult<Version>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getProjectVersions(projectId);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getReferenceData(cacheKey, "versions", () -> client.getProjectVersions(projectId));
     }
 
     @Override
@@ -238,12 +349,7 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         throws ProjectManagementException
     {
         String cacheKey = getCacheKey("sprints", offset, pageSize, filters, "");
-        PaginatedResult<Sprint> result = (PaginatedResult<Sprint>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getSprints(offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, SPRINTS, () -> client.getSprints(offset, pageSize, filters));
     }
 
     @Override
@@ -252,12 +358,7 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
     {
         String filtersWithProject = filters + String.format("project_id=%d", projectId);
         String cacheKey = getCacheKey("projectSprints", offset, pageSize, filtersWithProject, "");
-        PaginatedResult<Sprint> result = (PaginatedResult<Sprint>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getProjectSprints(offset, pageSize, filters, projectId);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, SPRINTS, () -> client.getProjectSprints(offset, pageSize, filters, projectId));
     }
 
     @Override
@@ -278,12 +379,7 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         throws ProjectManagementException
     {
         String cacheKey = getCacheKey(String.format("availableUsers/%s", url), offset, pageSize, filters, "");
-        PaginatedResult<User> result = (PaginatedResult<User>) cache.get(cacheKey);
-        if (result == null) {
-            result = client.getAvailableUsers(url, offset, pageSize, filters);
-            cache.set(cacheKey, result);
-        }
-        return result;
+        return getCached(cacheKey, USERS, () -> client.getAvailableUsers(url, offset, pageSize, filters));
     }
 
     @Override
@@ -296,7 +392,9 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
     @Override
     public JsonNode createWorkPackage(String url, String jsonBody) throws ProjectManagementException
     {
-        return client.createWorkPackage(url, jsonBody);
+        JsonNode response = client.createWorkPackage(url, jsonBody);
+        writeThrough(response);
+        return response;
     }
 
     @Override
@@ -309,7 +407,15 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
     @Override
     public JsonNode updateWorkPackage(String url, String jsonBody) throws ProjectManagementException
     {
-        return client.updateWorkPackage(url, jsonBody);
+        JsonNode response = client.updateWorkPackage(url, jsonBody);
+        writeThrough(response);
+        return response;
+    }
+
+    @Override
+    public WorkPackage readWorkPackage(JsonNode representation)
+    {
+        return client.readWorkPackage(representation);
     }
 
     @Override
@@ -318,9 +424,204 @@ public class CachingOpenProjectApiClient implements OpenProjectApiClient
         return client.getInstanceId();
     }
 
+    @SuppressWarnings("unchecked")
+    private <T extends BaseOpenProjectObject> PaginatedResult<T> getCached(String cacheKey, String endpoint,
+        OpenProjectRequestCoalescer.Loader<PaginatedResult<T>> loader) throws ProjectManagementException
+    {
+        OpenProjectRequestCoalescer.Loader<PaginatedResult<T>> countingLoader = countMisses(endpoint, loader);
+        PaginatedResult<T> result = (PaginatedResult<T>) cache.get(cacheKey);
+        if (result != null) {
+            return result;
+        }
+        // Only one of the concurrent callers missing the same entry sends the request, the others wait for its result.
+        return coalescer.load(cacheKey, () -> {
+            // The entry might have been added while waiting to become the caller that loads it.
+            PaginatedResult<T> loaded = (PaginatedResult<T>) cache.get(cacheKey);
+            if (loaded == null) {
+                loaded = countingLoader.load();
+                if (loaded != null) {
+                    cache.set(cacheKey, loaded);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    private PaginatedResult<WorkPackage> getCachedWorkPackages(String cacheKey, String select,
+        OpenProjectRequestCoalescer.Loader<PaginatedResult<WorkPackage>> loader) throws ProjectManagementException
+    {
+        if (workPackageStore == null) {
+            return getCached(cacheKey, WORK_PACKAGES, loader);
+        }
+        OpenProjectRequestCoalescer.Loader<PaginatedResult<WorkPackage>> countingLoader =
+            countMisses(WORK_PACKAGES, loader);
+        PaginatedResult<WorkPackage> result = getStoredWorkPackages(cacheKey, select);
+        if (result != null) {
+            return result;
+        }
+        return coalescer.load(cacheKey, () -> {
+            PaginatedResult<WorkPackage> loaded = getStoredWorkPackages(cacheKey, select);
+            if (loaded == null) {
+                loaded = countingLoader.load();
+                storeWorkPackages(cacheKey, select, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<PaginatedResult<WorkPackage>> getCachedWorkPackagesAsync(String cacheKey, String select,
+        Supplier<CompletableFuture<PaginatedResult<WorkPackage>>> loader)
+    {
+        if (metrics != null) {
+            metrics.recordCacheLookup(WORK_PACKAGES);
+        }
+        PaginatedResult<WorkPackage> result = (workPackageStore == null)
+            ? (PaginatedResult<WorkPackage>) cache.get(cacheKey) : getStoredWorkPackages(cacheKey, select);
+        if (result != null) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return coalescer.loadAsync(cacheKey, () -> {
+            if (metrics != null) {
+                metrics.recordCacheMiss(WORK_PACKAGES);
+            }
+            return loader.get().thenApply(loaded -> {
+                if (workPackageStore == null) {
+                    if (loaded != null) {
+                        cache.set(cacheKey, loaded);
+                    }
+                } else {
+                    storeWorkPackages(cacheKey, select, loaded);
+                }
+                return loaded;
+            });
+        });
+    }
+
+    private CompletableFuture<Map<String, Long>> getCachedGroupsAsync(String cacheKey,
+        Supplier<CompletableFuture<Map<String, Long>>> loader)
+    {
+        if (metrics != null) {
+            metrics.recordCacheLookup(WORK_PACKAGES);
+        }
+        Map<String, Long> counts = groupsCache.get(cacheKey);
+        if (counts != null) {
+            return CompletableFuture.completedFuture(counts);
+        }
+        return coalescer.loadAsync(cacheKey, () -> {
+            if (metrics != null) {
+                metrics.recordCacheMiss(WORK_PACKAGES);
+            }
+            return loader.get().thenApply(loaded -> {
+                if (loaded != null) {
+                    groupsCache.set(cacheKey, loaded);
+                }
+                return loaded;
+            });
+        });
+    }
+
+    private PaginatedResult<WorkPackage> getStoredWorkPackages(String cacheKey, String select)
+    {
+        PaginatedResult<? extends BaseOpenProjectObject> entry = cache.get(cacheKey);
+        if (!(entry instanceof WorkPackageQueryResult)) {
+            return null;
+        }
+        WorkPackageQueryResult query = (WorkPackageQueryResult) entry;
+        List<WorkPackage> workPackages = workPackageStore.getAll(serverUrl, select, query.getIds());
+        // When some of the work packages are no longer kept, the query is sent again.
+        return (workPackages != null) ? query.resolve(workPackages) : null;
+    }
+
+    private void storeWorkPackages(String cacheKey, String select, PaginatedResult<WorkPackage> loaded)
+    {
+        if (loaded != null) {
+            int[] ids = workPackageStore.putAll(serverUrl, select, loaded.getItems());
+            cache.set(cacheKey, new WorkPackageQueryResult(loaded, ids));
+        }
+    }
+
+    /**
+     * Makes the modification of a work package visible to the following reads. The kept work package is replaced by
+     * the one returned by OpenProject. The OpenProject filters can't be evaluated here, so any query might now return
+     * the work package, or no longer return it: all the queries cached for the server are sent again.
+     */
+    private void writeThrough(JsonNode response)
+    {
+        if (replicaManager != null) {
+            replicaManager.invalidateServer(serverUrl);
+        }
+        if (workPackageStore == null) {
+            return;
+        }
+        WorkPackage workPackage = client.readWorkPackage(response);
+        if (workPackage != null) {
+            workPackageStore.update(serverUrl, workPackage);
+        }
+        workPackageStore.invalidateQueries(serverUrl);
+    }
+
+    private <T extends BaseOpenProjectObject> PaginatedResult<T> getReferenceData(String cacheKey, String entity,
+        OpenProjectRequestCoalescer.Loader<PaginatedResult<T>> loader) throws ProjectManagementException
+    {
+        if (referenceDataCache == null) {
+            return getCached(cacheKey, entity, loader);
+        }
+        return referenceDataCache.get(cacheKey, getSnapshotKey(cacheKey), entity, countMisses(entity, loader));
+    }
+
+    /**
+     * Records a cache lookup and returns a loader recording a cache miss the first time it's called. The reference
+     * data cache keeps the loader in order to refresh the value in the background, and these refreshes are not
+     * misses.
+     */
+    private <T> OpenProjectRequestCoalescer.Loader<T> countMisses(String endpoint,
+        OpenProjectRequestCoalescer.Loader<T> loader)
+    {
+        if (metrics == null) {
+            return loader;
+        }
+        metrics.recordCacheLookup(endpoint);
+        AtomicBoolean missed = new AtomicBoolean();
+        return () -> {
+            if (missed.compareAndSet(false, true)) {
+                metrics.recordCacheMiss(endpoint);
+            }
+            return loader.load();
+        };
+    }
+
+    /**
+     * The reference data is saved across restarts under a key that doesn't depend on the access token, which is
+     * usually refreshed in the meantime. The last segment of the namespace identifies the token, so it is dropped,
+     * the rest identifying the connection and the user, see {@link OpenProjectReferenceDataCache}.
+     */
+    private String getSnapshotKey(String cacheKey)
+    {
+        int tokenSeparator = (namespace != null) ? namespace.lastIndexOf('/') : -1;
+        if (tokenSeparator < 0) {
+            return null;
+        }
+        return namespace.substring(0, tokenSeparator) + cacheKey.substring(namespace.length());
+    }
+
+    /**
+     * The queries whose results change when a work package or a project is modified include the query generation of
+     * the server in their key, so that they can all be invalidated at once, see
+     * {@link OpenProjectWorkPackageStore#invalidateQueries(String)}.
+     */
+    private String getQueryCacheKey(String entity, Integer offset, Integer pageSize, String filters, String sortBy)
+    {
+        if (workPackageStore == null) {
+            return getCacheKey(entity, offset, pageSize, filters, sortBy);
+        }
+        String generation = String.format("%s@%d", entity, workPackageStore.getQueryGeneration(serverUrl));
+        return getCacheKey(generation, offset, pageSize, filters, sortBy);
+    }
+
     private String getCacheKey(String entity, Integer offset, Integer pageSize, String filters, String sortBy)
     {
-        return String.format("%s/%s/%d/%d/%s/%s", clientId, entity,
+        return String.format("%s/%s/%d/%d/%s/%s", namespace, entity,
             offset != null ? offset : 0, pageSize != null ? pageSize : 0, filters, sortBy);
     }
 }
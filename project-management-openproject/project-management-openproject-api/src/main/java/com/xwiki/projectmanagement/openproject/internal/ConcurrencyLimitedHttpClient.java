@@ -0,0 +1,220 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+/**
+ * An {@link HttpClient} that limits the number of requests sent concurrently to a server. The requests exceeding the
+ * limit wait for a previous request to finish: the blocking ones block the calling thread, which is cheap when it is a
+ * virtual thread, while the asynchronous ones are sent once a slot is released, without holding any thread.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class ConcurrencyLimitedHttpClient extends HttpClient
+{
+    private final HttpClient client;
+
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    private int available;
+
+    /**
+     * @param client the client sending the requests
+     * @param maxConcurrentRequests the maximum number of requests in progress at the same time
+     */
+    public ConcurrencyLimitedHttpClient(HttpClient client, int maxConcurrentRequests)
+    {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent requests must be positive.");
+        }
+        this.client = client;
+        this.available = maxConcurrentRequests;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+        throws IOException, InterruptedException
+    {
+        acquire();
+        try {
+            return this.client.send(request, responseBodyHandler);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+        HttpResponse.BodyHandler<T> responseBodyHandler)
+    {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+        HttpResponse.BodyHandler<T> responseBodyHandler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler)
+    {
+        return acquireAsync().thenCompose(permit -> {
+            CompletableFuture<HttpResponse<T>> response;
+            try {
+                response = (pushPromiseHandler != null)
+                    ? this.client.sendAsync(request, responseBodyHandler, pushPromiseHandler)
+                    : this.client.sendAsync(request, responseBodyHandler);
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+            return response.whenComplete((result, error) -> release());
+        });
+    }
+
+    /**
+     * @return the number of requests waiting for a previous request to finish
+     */
+    public synchronized int getWaitingCount()
+    {
+        return this.waiting.size();
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler()
+    {
+        return this.client.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout()
+    {
+        return this.client.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects()
+    {
+        return this.client.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy()
+    {
+        return this.client.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext()
+    {
+        return this.client.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters()
+    {
+        return this.client.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator()
+    {
+        return this.client.authenticator();
+    }
+
+    @Override
+    public Version version()
+    {
+        return this.client.version();
+    }
+
+    @Override
+    public Optional<Executor> executor()
+    {
+        return this.client.executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder()
+    {
+        return this.client.newWebSocketBuilder();
+    }
+
+    private synchronized CompletableFuture<Void> acquireAsync()
+    {
+        if (this.available > 0) {
+            this.available--;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        this.waiting.add(permit);
+        return permit;
+    }
+
+    private void acquire() throws InterruptedException
+    {
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            // Give back the slot if it was handed to us in the meantime.
+            if (!permit.cancel(false)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            // Shouldn't happen since the permits are never completed exceptionally.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void release()
+    {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = this.waiting.poll();
+                if (next == null) {
+                    this.available++;
+                    return;
+                }
+            }
+            // Skip the waiting requests that were interrupted.
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+}
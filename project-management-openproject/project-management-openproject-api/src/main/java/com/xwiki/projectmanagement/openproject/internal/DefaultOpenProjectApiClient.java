@@ -19,6 +19,7 @@
  */
 package com.xwiki.projectmanagement.openproject.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -27,26 +28,42 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.http.client.utils.URIBuilder;
 import org.joda.time.LocalDate;
+import org.xwiki.model.reference.DocumentReference;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.exception.WorkItemNotFoundException;
 import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
+import com.xwiki.projectmanagement.internal.tracing.NoOpTraceSpan;
 import com.xwiki.projectmanagement.model.Linkable;
 import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.AsyncOpenProjectApiClient;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
 import com.xwiki.projectmanagement.openproject.auth.OpenProjectAuthenticator;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectResponseValidatorCache;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectSlowQueryLog;
 import com.xwiki.projectmanagement.openproject.model.News;
 import com.xwiki.projectmanagement.openproject.model.Priority;
 import com.xwiki.projectmanagement.openproject.model.Project;
@@ -59,6 +76,8 @@ import com.xwiki.projectmanagement.openproject.model.UserAvatar;
 import com.xwiki.projectmanagement.openproject.model.Version;
 import com.xwiki.projectmanagement.openproject.model.WikiPageLink;
 import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.POST;
@@ -104,6 +123,16 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
     private static final String OP_RESPONSE_TOTAL = "total";
 
+    private static final String OP_GROUP_BY = "groupBy";
+
+    private static final String OP_SHOW_SUMS = "showSums";
+
+    private static final String OP_RESPONSE_GROUPS = "groups";
+
+    private static final String OP_RESPONSE_VALUE = "value";
+
+    private static final String OP_RESPONSE_COUNT = "count";
+
     private static final String OP_DESCRIPTION = "description";
 
     private static final String OP_START_DATE = "startDate";
@@ -126,6 +155,10 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
     private static final String OP_RESPONSE_PERCENTAGE_DONE = "percentageDone";
 
+    private static final String OP_RESPONSE_LOCK_VERSION = "lockVersion";
+
+    private static final String OP_RESPONSE_INTERNAL_TYPE = "_type";
+
     private static final String API_URL_PART = "/api/v3";
 
     private static final String API_URL_WORK_PACKAGES = "/api/v3/work_packages";
@@ -136,6 +169,8 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
     private static final String PATCH = "PATCH";
 
+    private static final int HTTP_NOT_MODIFIED = 304;
+
     private static final String API_URL_TYPES = "/api/v3/types";
 
     private static final String API_URL_STATUSES = "/api/v3/statuses";
@@ -192,6 +227,14 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
     private final String connectionUrl;
 
+    private final Duration requestTimeout;
+
+    private final OpenProjectResponseValidatorCache validatorCache;
+
+    private final OpenProjectConnectionMetrics metrics;
+
+    private final ProjectManagementTracer tracer;
+
     /**
      * Constructs a new {@code OpenProjectApiClient} with the given authentication method and connection URL.
      *
@@ -200,30 +243,100 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
      * @param client the {@link HttpClient} instance used to perform HTTP requests to the OpenProject API
      */
     public DefaultOpenProjectApiClient(String connectionUrl, OpenProjectAuthenticator authenticator, HttpClient client)
+    {
+        this(connectionUrl, authenticator, client, new OpenProjectApiClientOptions());
+    }
+
+    /**
+     * Constructs a new {@code OpenProjectApiClient} that bounds the duration of its requests, revalidates the
+     * previously retrieved responses, records the statistics of its requests and traces them when the matching
+     * options are set.
+     *
+     * @param connectionUrl the base URL of the OpenProject instance
+     * @param authenticator the authentication method used to authenticate the requests sent to the OpenProject API
+     * @param client the {@link HttpClient} instance used to perform HTTP requests to the OpenProject API
+     * @param options the optional collaborators of the client
+     * @since 1.2.1
+     */
+    public DefaultOpenProjectApiClient(String connectionUrl, OpenProjectAuthenticator authenticator, HttpClient client,
+        OpenProjectApiClientOptions options)
     {
         this.connectionUrl = connectionUrl;
         this.authenticator = authenticator;
         this.client = client;
+        this.requestTimeout = options.getRequestTimeout();
+        this.validatorCache = options.getValidatorCache();
+        this.metrics = options.getMetrics();
+        this.tracer = options.getTracer();
     }
 
     @Override
     public PaginatedResult<WorkPackage> getWorkPackages(Integer offset, Integer pageSize, String filters,
         String sortBy) throws ProjectManagementException
     {
-        JsonNode mainNode =
-            getOpenProjectResponse(API_URL_WORK_PACKAGES, offset, pageSize, filters, sortBy, "");
+        return getWorkPackagesResponse(API_URL_WORK_PACKAGES, offset, pageSize, filters, sortBy, "");
+    }
 
-        return getWorkPackagePaginatedResult(mainNode, offset, pageSize);
+    @Override
+    public PaginatedResult<WorkPackage> getWorkPackages(Integer offset, Integer pageSize, String filters,
+        String sortBy, String select) throws ProjectManagementException
+    {
+        return getWorkPackagesResponse(API_URL_WORK_PACKAGES, offset, pageSize, filters, sortBy, select);
     }
 
     @Override
     public PaginatedResult<WorkPackage> getProjectWorkPackages(String project, Integer offset, Integer pageSize,
         String filters, String sortBy)
         throws ProjectManagementException
+    {
+        return getProjectWorkPackages(project, offset, pageSize, filters, sortBy, "");
+    }
+
+    @Override
+    public PaginatedResult<WorkPackage> getProjectWorkPackages(String project, Integer offset, Integer pageSize,
+        String filters, String sortBy, String select) throws ProjectManagementException
     {
         String projectWorkPackagesUrl = String.format("%s/projects/%s/work_packages", API_URL_PART, project);
-        JsonNode mainNode = getOpenProjectResponse(projectWorkPackagesUrl, offset, pageSize, filters, sortBy, "");
-        return getWorkPackagePaginatedResult(mainNode, offset, pageSize);
+        return getWorkPackagesResponse(projectWorkPackagesUrl, offset, pageSize, filters, sortBy, select);
+    }
+
+    @Override
+    public Map<String, Long> getWorkPackagesGroups(String filters, String groupBy) throws ProjectManagementException
+    {
+        return readGroups(getOpenProjectResponse(API_URL_WORK_PACKAGES, 1, 1, filters, "", "",
+            getGroupingParameters(groupBy)));
+    }
+
+    @Override
+    public AsyncOpenProjectApiClient async()
+    {
+        return new AsyncOpenProjectApiClient()
+        {
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getWorkPackages(Integer offset, Integer pageSize,
+                String filters, String sortBy, String select)
+            {
+                return getWorkPackagesResponseAsync(API_URL_WORK_PACKAGES, offset, pageSize, filters, sortBy, select);
+            }
+
+            @Override
+            public CompletableFuture<PaginatedResult<WorkPackage>> getProjectWorkPackages(String project,
+                Integer offset, Integer pageSize, String filters, String sortBy, String select)
+            {
+                String projectWorkPackagesUrl = String.format("%s/projects/%s/work_packages", API_URL_PART, project);
+                return getWorkPackagesResponseAsync(projectWorkPackagesUrl, offset, pageSize, filters, sortBy,
+                    select);
+            }
+
+            @Override
+            public CompletableFuture<Map<String, Long>> getWorkPackagesGroups(String filters, String groupBy)
+            {
+                // The groups are decoded after the response is validated, so that the validated responses of both
+                // the blocking and the non-blocking requests hold a JSON tree.
+                return getOpenProjectResponseAsync(API_URL_WORK_PACKAGES, 1, 1, filters, "", "",
+                    getGroupingParameters(groupBy)).thenApply(response -> readGroups(response));
+            }
+        };
     }
 
     @Override
@@ -331,7 +444,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         try {
             URI uri = new URI(connectionUrl + API_URL_FORM_WORK_PACKAGES);
             HttpRequest request = createAuthorizedPostRequest(uri, jsonBody);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
 
             handleOpenProjectWorkPackagesRequestExceptions(response);
 
@@ -518,7 +631,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
             uri = new URI(uriStr);
             HttpRequest request =
                 createAuthorizedGetHttpRequest(uri);
-            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
 
             if (response.statusCode() != 200) {
                 if (response.statusCode() == 404) {
@@ -579,7 +692,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         try {
             URI uri = new URI(uriStr);
             HttpRequest request = createAuthorizedPostRequest(uri, jsonBody);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
 
             handleOpenProjectWorkPackagesRequestExceptions(response);
 
@@ -602,7 +715,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         try {
             URI uri = new URI(urlString);
             HttpRequest request = createAuthorizedPostRequest(uri, jsonBody);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
 
             handleOpenProjectWorkPackagesRequestExceptions(response);
 
@@ -624,7 +737,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         try {
             URI uri = new URI(uriStr);
             HttpRequest request = createAuthorizedPatchRequest(uri, jsonBody);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
 
             handleOpenProjectWorkPackagesRequestExceptions(response);
 
@@ -639,6 +752,15 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         }
     }
 
+    @Override
+    public WorkPackage readWorkPackage(JsonNode representation)
+    {
+        if (representation == null || !"WorkPackage".equals(representation.path(OP_RESPONSE_INTERNAL_TYPE).asText())) {
+            return null;
+        }
+        return createWorkPackageFromJson(representation);
+    }
+
     @Override
     public String getInstanceId() throws ProjectManagementException
     {
@@ -648,10 +770,118 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
     private JsonNode getOpenProjectResponse(String urlPart, Integer offset, Integer pageSize, String filtersString,
         String sortByString, String selectedElementsString) throws ProjectManagementException
+    {
+        return getOpenProjectResponse(urlPart, offset, pageSize, filtersString, sortByString, selectedElementsString,
+            Collections.emptyMap());
+    }
+
+    private JsonNode getOpenProjectResponse(String urlPart, Integer offset, Integer pageSize, String filtersString,
+        String sortByString, String selectedElementsString, Map<String, String> parameters)
+        throws ProjectManagementException
+    {
+        return sendGetRequest(urlPart, offset, pageSize, filtersString, sortByString, selectedElementsString,
+            parameters, HttpResponse.BodyHandlers.ofString(), response -> {
+                handleOpenProjectWorkPackagesRequestExceptions(response);
+                return objectMapper.readTree(response.body());
+            });
+    }
+
+    private CompletableFuture<JsonNode> getOpenProjectResponseAsync(String urlPart, Integer offset, Integer pageSize,
+        String filtersString, String sortByString, String selectedElementsString, Map<String, String> parameters)
+    {
+        return sendGetRequestAsync(urlPart, offset, pageSize, filtersString, sortByString, selectedElementsString,
+            parameters, HttpResponse.BodyHandlers.ofString(), response -> {
+                handleOpenProjectWorkPackagesRequestExceptions(response);
+                return objectMapper.readTree(response.body());
+            });
+    }
+
+    private PaginatedResult<WorkPackage> getWorkPackagesResponse(String urlPart, Integer offset, Integer pageSize,
+        String filtersString, String sortByString, String select) throws ProjectManagementException
+    {
+        // Work package collections can be large, so they are decoded while being downloaded instead of building the
+        // whole JSON tree first.
+        return sendGetRequest(urlPart, offset, pageSize, filtersString, sortByString, select != null ? select : "",
+            Collections.emptyMap(), HttpResponse.BodyHandlers.ofInputStream(), response -> {
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() >= 400) {
+                        String error = (body != null) ? new String(body.readAllBytes(), StandardCharsets.UTF_8) : "";
+                        handleOpenProjectWorkPackagesRequestExceptions(response.statusCode(), error);
+                    }
+                    return readWorkPackages(body, offset, pageSize);
+                }
+            });
+    }
+
+    private CompletableFuture<PaginatedResult<WorkPackage>> getWorkPackagesResponseAsync(String urlPart,
+        Integer offset, Integer pageSize, String filtersString, String sortByString, String select)
+    {
+        // The body is buffered so that no thread blocks while it is being downloaded, and then decoded as a stream.
+        return sendGetRequestAsync(urlPart, offset, pageSize, filtersString, sortByString,
+            select != null ? select : "", Collections.emptyMap(), HttpResponse.BodyHandlers.ofByteArray(), response -> {
+                if (response.statusCode() >= 400) {
+                    handleOpenProjectWorkPackagesRequestExceptions(response.statusCode(),
+                        new String(response.body(), StandardCharsets.UTF_8));
+                }
+                return readWorkPackages(new ByteArrayInputStream(response.body()), offset, pageSize);
+            });
+    }
+
+    private <B, T> T sendGetRequest(String urlPart, Integer offset, Integer pageSize, String filtersString,
+        String sortByString, String selectedElementsString, Map<String, String> parameters,
+        HttpResponse.BodyHandler<B> bodyHandler, ResponseReader<B, T> reader) throws ProjectManagementException
+    {
+        PreparedRequest request = prepareGetRequest(urlPart, offset, pageSize, filtersString, sortByString,
+            selectedElementsString, parameters);
+        long start = System.nanoTime();
+        try {
+            return readResponse(request, send(request.httpRequest, bodyHandler, request.responseBytes), reader);
+        } catch (IOException | InterruptedException | SecurityException e) {
+            throw toProjectManagementException(request.uri, e);
+        } finally {
+            recordSlowQuery(request, start);
+        }
+    }
+
+    private <B, T> CompletableFuture<T> sendGetRequestAsync(String urlPart, Integer offset, Integer pageSize,
+        String filtersString, String sortByString, String selectedElementsString, Map<String, String> parameters,
+        HttpResponse.BodyHandler<B> bodyHandler, ResponseReader<B, T> reader)
+    {
+        PreparedRequest request;
+        try {
+            request = prepareGetRequest(urlPart, offset, pageSize, filtersString, sortByString,
+                selectedElementsString, parameters);
+        } catch (ProjectManagementException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        sendAsync(request.httpRequest, bodyHandler, request.responseBytes, request.parentSpan)
+            .whenComplete((response, error) -> {
+                try {
+                    if (error != null) {
+                        Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+                        throw toProjectManagementException(request.uri, cause);
+                    }
+                    result.complete(readResponse(request, response, reader));
+                } catch (ProjectManagementException | IOException | RuntimeException e) {
+                    result.completeExceptionally(e instanceof IOException
+                        ? toProjectManagementException(request.uri, e) : e);
+                } finally {
+                    recordSlowQuery(request, start);
+                }
+            });
+        return result;
+    }
+
+    private PreparedRequest prepareGetRequest(String urlPart, Integer offset, Integer pageSize, String filtersString,
+        String sortByString, String selectedElementsString, Map<String, String> parameters)
+        throws ProjectManagementException
     {
         String uri = connectionUrl + urlPart;
         try {
             URIBuilder uriBuilder = new URIBuilder(uri);
+            parameters.forEach(uriBuilder::setParameter);
             if (offset != null) {
                 uriBuilder.setParameter(OP_OFFSET, String.valueOf(offset));
             }
@@ -668,26 +898,190 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
                 uriBuilder.setParameter(PAGE_SIZE, String.valueOf(pageSize));
             }
 
-            HttpRequest request =
-                createAuthorizedGetHttpRequest(uriBuilder.build());
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            handleOpenProjectWorkPackagesRequestExceptions(response);
-
-            String body = response.body();
-            return objectMapper.readTree(body);
+            HttpRequest.Builder requestBuilder = createAuthorizedRequestBuilder(uriBuilder.build(), GET,
+                HttpRequest.BodyPublishers.noBody(), MediaType.APPLICATION_JSON);
+            String validatorKey = null;
+            OpenProjectResponseValidatorCache.ValidatedResponse validated = null;
+            if (validatorCache != null) {
+                validatorKey = validatorCache.getKey(requestBuilder.copy().build());
+                validated = validatorCache.get(validatorKey);
+                if (validated != null) {
+                    validated.addConditions(requestBuilder);
+                }
+            }
+            PreparedRequest request =
+                new PreparedRequest(uri, requestBuilder.build(), validatorKey, validated, getCurrentSpan());
+            OpenProjectSlowQueryLog slowQueryLog = (metrics != null) ? metrics.getSlowQueryLog() : null;
+            if (slowQueryLog != null) {
+                // The page is resolved here since the asynchronous requests complete on the threads of the client.
+                request.recordSlowQuery(slowQueryLog, pageSize, slowQueryLog.getCurrentPage());
+            }
+            return request;
         } catch (URISyntaxException e) {
             throw new ProjectManagementException(
                 String.format(PROJECT_MANAGEMENT_EXCEPTION_MESSAGE, uri), e);
+        }
+    }
+
+    private <B, T> T readResponse(PreparedRequest request, HttpResponse<B> response, ResponseReader<B, T> reader)
+        throws ProjectManagementException, IOException
+    {
+        if (request.validated != null && response.statusCode() == HTTP_NOT_MODIFIED) {
+            return request.validated.getBody();
+        }
+
+        TraceSpan span = startSpan("openproject.decode", request.httpRequest, request.parentSpan);
+        try {
+            long decodingStart = System.nanoTime();
+            T result = reader.read(response);
+            if (metrics != null) {
+                metrics.recordDecoding(OpenProjectConnectionMetrics.getEndpoint(request.httpRequest.uri()),
+                    System.nanoTime() - decodingStart);
+            }
+            if (result instanceof PaginatedResult && ((PaginatedResult<?>) result).getItems() != null) {
+                span.setAttribute(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT,
+                    ((PaginatedResult<?>) result).getItems().size());
+            }
+            if (request.validatorKey != null) {
+                validatorCache.put(request.validatorKey, response.headers(), result);
+            }
+            return result;
         } catch (JsonProcessingException e) {
+            span.recordException(e);
             throw new ProjectManagementException(
-                String.format("Error trying to read the OpenProject response from [%s].", uri), e);
-        } catch (IOException | InterruptedException | SecurityException e) {
-            throw new ProjectManagementException(
-                String.format(COMMUNICATING_ISSUE_MESSAGE, uri), e);
+                String.format("Error trying to read the OpenProject response from [%s].", request.uri), e);
+        } finally {
+            span.end();
+        }
+    }
+
+    private <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+        throws IOException, InterruptedException
+    {
+        return send(request, bodyHandler, null);
+    }
+
+    private <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+        LongAdder requestBytes) throws IOException, InterruptedException
+    {
+        TraceSpan span = startSpan("openproject.http", request, getCurrentSpan());
+        if (metrics == null) {
+            try {
+                return endSpan(span, client.send(request, bodyHandler));
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                span.recordException(e).end();
+                throw e;
+            }
+        }
+        String endpoint = OpenProjectConnectionMetrics.getEndpoint(request.uri());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<B> response =
+                client.send(request, metrics.countResponseBytes(endpoint, bodyHandler, requestBytes));
+            metrics.recordResponse(endpoint, response.statusCode(), System.nanoTime() - start);
+            return endSpan(span, response);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            metrics.recordFailure(endpoint);
+            span.recordException(e).end();
+            throw e;
+        }
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> sendAsync(HttpRequest request,
+        HttpResponse.BodyHandler<B> bodyHandler, LongAdder requestBytes, TraceSpan parentSpan)
+    {
+        TraceSpan span = startSpan("openproject.http", request, parentSpan);
+        String endpoint = OpenProjectConnectionMetrics.getEndpoint(request.uri());
+        long start = System.nanoTime();
+        HttpResponse.BodyHandler<B> handler =
+            (metrics != null) ? metrics.countResponseBytes(endpoint, bodyHandler, requestBytes) : bodyHandler;
+        return client.sendAsync(request, handler).whenComplete((response, error) -> {
+            if (error != null) {
+                if (metrics != null) {
+                    metrics.recordFailure(endpoint);
+                }
+                span.recordException(error).end();
+            } else {
+                if (metrics != null) {
+                    metrics.recordResponse(endpoint, response.statusCode(), System.nanoTime() - start);
+                }
+                endSpan(span, response);
+            }
+        });
+    }
+
+    private void recordSlowQuery(PreparedRequest request, long start)
+    {
+        if (request.slowQueryLog != null) {
+            request.slowQueryLog.record(metrics.getConnection(), request.httpRequest.uri(), request.pageSize,
+                System.nanoTime() - start, request.responseBytes.sum(), request.page);
         }
     }
 
+    private TraceSpan getCurrentSpan()
+    {
+        return (tracer != null) ? tracer.getCurrentSpan() : NoOpTraceSpan.INSTANCE;
+    }
+
+    /**
+     * Starts a span that is not made current, since the requests can complete on the threads of the HTTP client.
+     */
+    private TraceSpan startSpan(String name, HttpRequest request, TraceSpan parentSpan)
+    {
+        if (tracer == null) {
+            return NoOpTraceSpan.INSTANCE;
+        }
+        TraceSpan span = tracer.startAsyncSpan(name, parentSpan);
+        if (span.isRecording()) {
+            // The query string is left out since it holds the filter values.
+            span.setAttribute("http.request.method", request.method());
+            span.setAttribute("server.address", request.uri().getHost());
+            span.setAttribute("url.path", request.uri().getPath());
+            span.setAttribute("openproject.endpoint", OpenProjectConnectionMetrics.getEndpoint(request.uri()));
+            if (metrics != null) {
+                span.setAttribute(ProjectManagementTracer.ATTRIBUTE_CONNECTION, metrics.getConnection());
+            }
+        }
+        return span;
+    }
+
+    private static <B> HttpResponse<B> endSpan(TraceSpan span, HttpResponse<B> response)
+    {
+        span.setAttribute("http.response.status_code", response.statusCode()).end();
+        return response;
+    }
+
+    private ProjectManagementException toProjectManagementException(String uri, Throwable cause)
+    {
+        if (cause instanceof ProjectManagementException) {
+            return (ProjectManagementException) cause;
+        }
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return new ProjectManagementException(String.format(COMMUNICATING_ISSUE_MESSAGE, uri), cause);
+    }
+
+    private Map<String, String> getGroupingParameters(String groupBy)
+    {
+        // Only the group counts are needed, so a single work package is requested, without the sums.
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put(OP_GROUP_BY, groupBy);
+        parameters.put(OP_SHOW_SUMS, Boolean.FALSE.toString());
+        return parameters;
+    }
+
+    private Map<String, Long> readGroups(JsonNode response)
+    {
+        Map<String, Long> groups = new LinkedHashMap<>();
+        for (JsonNode group : response.path(OP_RESPONSE_GROUPS)) {
+            JsonNode value = group.path(OP_RESPONSE_VALUE);
+            String key = (value.isNull() || value.isMissingNode()) ? "" : value.asText();
+            groups.merge(key, group.path(OP_RESPONSE_COUNT).asLong(), Long::sum);
+        }
+        return groups;
+    }
+
     private JsonNode getOpenProjectResponseEntities(String urlPart, Integer offset, Integer pageSize,
         String filtersString, String sortByString, String selectedElementsString) throws ProjectManagementException
     {
@@ -701,17 +1095,6 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         return mainNode.path(OP_RESPONSE_TOTAL).asInt();
     }
 
-    private List<WorkPackage> getWorkPackagesFromResponse(JsonNode mainNode)
-    {
-        List<WorkPackage> workPackages = new ArrayList<>();
-
-        JsonNode elementsNode = mainNode.path(OP_RESPONSE_EMBEDDED).path(OP_RESPONSE_ELEMENTS);
-        for (JsonNode element : elementsNode) {
-            workPackages.add(createWorkPackageFromJson(element));
-        }
-        return workPackages;
-    }
-
     private WorkPackage createWorkPackageFromJson(JsonNode element)
     {
         WorkPackage workPackage = new WorkPackage();
@@ -720,12 +1103,16 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         workPackage.setPercentageDone(element.path(OP_RESPONSE_PERCENTAGE_DONE).asInt());
         int id = element.path(OP_RESPONSE_ID).asInt();
         workPackage.setId(id);
+        JsonNode lockVersionNode = element.path(OP_RESPONSE_LOCK_VERSION);
+        if (lockVersionNode.isNumber()) {
+            workPackage.setLockVersion(lockVersionNode.intValue());
+        }
 
         setDates(workPackage, element);
         setCreatedAndUpdatedDates(workPackage, element);
         setWorkPackageLinksNodeProperties(workPackage, element);
 
-        workPackage.setType(element.path("_type").asText());
+        workPackage.setType(element.path(OP_RESPONSE_INTERNAL_TYPE).asText());
 
         workPackage.setSubject(element.path(OP_RESPONSE_SUBJECT).asText());
 
@@ -812,13 +1199,29 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         }
     }
 
-    private PaginatedResult<WorkPackage> getWorkPackagePaginatedResult(JsonNode node, Integer offset, Integer pageSize)
+    private PaginatedResult<WorkPackage> readWorkPackages(InputStream body, Integer offset, Integer pageSize)
+        throws IOException
     {
         PaginatedResult<WorkPackage> paginatedResult = new PaginatedResult<>();
+        List<WorkPackage> workPackages = new ArrayList<>();
+        int totalNumberOfWorkPackages = 0;
 
-        int totalNumberOfWorkPackages = getTotalNumberOfEntities(node);
-
-        List<WorkPackage> workPackages = getWorkPackagesFromResponse(node);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "The OpenProject response is not a JSON object.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (OP_RESPONSE_TOTAL.equals(field)) {
+                    totalNumberOfWorkPackages = parser.getValueAsInt();
+                } else if (OP_RESPONSE_EMBEDDED.equals(field) && value == JsonToken.START_OBJECT) {
+                    readEmbeddedWorkPackages(parser, workPackages);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
 
         paginatedResult.setItems(workPackages);
         if (offset != null) {
@@ -831,12 +1234,39 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
         return paginatedResult;
     }
 
+    private void readEmbeddedWorkPackages(JsonParser parser, List<WorkPackage> workPackages) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (OP_RESPONSE_ELEMENTS.equals(field) && value == JsonToken.START_ARRAY) {
+                // Only the tree of the current element is kept in memory.
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode element = objectMapper.readTree(parser);
+                    workPackages.add(createWorkPackageFromJson(element));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
     private HttpRequest createAuthorizedRequest(
         URI uri,
         String method,
         HttpRequest.BodyPublisher body,
         String accept
     )
+    {
+        return createAuthorizedRequestBuilder(uri, method, body, accept).build();
+    }
+
+    private HttpRequest.Builder createAuthorizedRequestBuilder(
+        URI uri,
+        String method,
+        HttpRequest.BodyPublisher body,
+        String accept
+    )
     {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
             .uri(uri)
@@ -844,6 +1274,10 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
 
         authenticator.authenticate(builder);
 
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+
         if (POST.equals(method) || PUT.equals(method) || PATCH.equals(method)) {
             builder.header(CONTENT_TYPE, MediaType.APPLICATION_JSON);
         }
@@ -868,7 +1302,7 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
                 throw new IllegalArgumentException("Unsupported HTTP method: " + method);
         }
 
-        return builder.build();
+        return builder;
     }
 
     private HttpRequest createAuthorizedGetHttpRequest(URI uri)
@@ -904,16 +1338,78 @@ public class DefaultOpenProjectApiClient implements OpenProjectApiClient
     private void handleOpenProjectWorkPackagesRequestExceptions(HttpResponse<String> response)
         throws ProjectManagementException
     {
-        int statusCode = response.statusCode();
+        handleOpenProjectWorkPackagesRequestExceptions(response.statusCode(), response.body());
+    }
 
+    private void handleOpenProjectWorkPackagesRequestExceptions(int statusCode, String body)
+        throws ProjectManagementException
+    {
         if (statusCode >= 400 && statusCode <= 499) {
             throw new WorkItemRetrievalException(
-                String.format("The request to the OpenProject API was invalid. [%s]", response.body()), statusCode
+                String.format("The request to the OpenProject API was invalid. [%s]", body), statusCode
             );
         } else if (statusCode >= 500) {
             throw new ProjectManagementException(
-                String.format("Failed to retrieve the OpenProject entities. [%s].", response.body())
+                String.format("Failed to retrieve the OpenProject entities. [%s].", body)
             );
         }
     }
+
+    /**
+     * A GET request ready to be sent, along with what is needed to handle its response.
+     */
+    private static final class PreparedRequest
+    {
+        private final String uri;
+
+        private final HttpRequest httpRequest;
+
+        private final String validatorKey;
+
+        private final OpenProjectResponseValidatorCache.ValidatedResponse validated;
+
+        /**
+         * The span that was current when the request was prepared, the parent of the spans of the request even when
+         * it completes on another thread.
+         */
+        private final TraceSpan parentSpan;
+
+        private OpenProjectSlowQueryLog slowQueryLog;
+
+        private Integer pageSize;
+
+        private DocumentReference page;
+
+        private LongAdder responseBytes;
+
+        PreparedRequest(String uri, HttpRequest httpRequest, String validatorKey,
+            OpenProjectResponseValidatorCache.ValidatedResponse validated, TraceSpan parentSpan)
+        {
+            this.uri = uri;
+            this.httpRequest = httpRequest;
+            this.validatorKey = validatorKey;
+            this.validated = validated;
+            this.parentSpan = parentSpan;
+        }
+
+        void recordSlowQuery(OpenProjectSlowQueryLog log, Integer requestedPageSize, DocumentReference triggeringPage)
+        {
+            this.slowQueryLog = log;
+            this.pageSize = requestedPageSize;
+            this.page = triggeringPage;
+            this.responseBytes = new LongAdder();
+        }
+    }
+
+    /**
+     * Decodes the response of a request sent to the OpenProject API.
+     *
+     * @param <B> the type of the response body
+     * @param <T> the type of the decoded response
+     */
+    @FunctionalInterface
+    private interface ResponseReader<B, T>
+    {
+        T read(HttpResponse<B> response) throws IOException, ProjectManagementException;
+    }
 }
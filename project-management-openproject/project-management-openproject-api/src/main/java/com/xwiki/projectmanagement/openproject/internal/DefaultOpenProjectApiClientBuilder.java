@@ -20,6 +20,7 @@
 package com.xwiki.projectmanagement.openproject.internal;
 
 import java.net.http.HttpClient;
+import java.time.Duration;
 
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.cache.Cache;
@@ -29,7 +30,16 @@ import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClientBuilder;
 import com.xwiki.projectmanagement.openproject.auth.NoOpAuthenticator;
 import com.xwiki.projectmanagement.openproject.auth.OpenProjectAuthenticator;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectRequestCoalescer;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectResponseValidatorCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
 import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
 
 /**
  * Default implementation of {@link OpenProjectApiClientBuilder}.
@@ -39,16 +49,68 @@ import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
  */
 public class DefaultOpenProjectApiClientBuilder implements OpenProjectApiClientBuilder
 {
+    private final OpenProjectHttpClientManager httpClientManager;
+
+    private final OpenProjectRequestCoalescer requestCoalescer;
+
+    private final OpenProjectReferenceDataCache referenceDataCache;
+
+    private final OpenProjectResponseValidatorCache validatorCache;
+
+    private final OpenProjectWorkPackageStore workPackageStore;
+
+    private final OpenProjectWorkPackageGroupsCache groupsCache;
+
+    private final OpenProjectReplicaManager replicaManager;
+
+    private final OpenProjectMetrics metrics;
+
+    private final ProjectManagementTracer tracer;
+
     private String serverUrl;
 
+    private String connectionName;
+
     private OpenProjectAuthenticator authenticator = NoOpAuthenticator.INSTANCE;
 
-    private HttpClient httpClient = HttpClient.newHttpClient();
+    private HttpClient httpClient;
+
+    private Duration requestTimeout;
 
     private Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache;
 
     private String cacheClientId;
 
+    /**
+     * @param httpClientManager provides the HTTP client shared by the requests sent to the same server, used when no
+     *     client is explicitly set
+     * @param requestCoalescer deduplicates the concurrent requests missing the same cache entry
+     * @param referenceDataCache serves the reference data (statuses, types, priorities, versions) of the caching
+     *     clients
+     * @param validatorCache keeps the retrieved responses in order to revalidate them with conditional requests
+     * @param workPackageStore keeps the work packages retrieved by the caching clients once, by id
+     * @param groupsCache keeps the work packages group counts retrieved by the caching clients
+     * @param replicaManager drops the work package replicas modified through the caching clients
+     * @param metrics records the requests sent by the built clients, for each connection
+     * @param tracer traces the requests sent by the built clients
+     */
+    public DefaultOpenProjectApiClientBuilder(OpenProjectHttpClientManager httpClientManager,
+        OpenProjectRequestCoalescer requestCoalescer, OpenProjectReferenceDataCache referenceDataCache,
+        OpenProjectResponseValidatorCache validatorCache, OpenProjectWorkPackageStore workPackageStore,
+        OpenProjectWorkPackageGroupsCache groupsCache, OpenProjectReplicaManager replicaManager,
+        OpenProjectMetrics metrics, ProjectManagementTracer tracer)
+    {
+        this.httpClientManager = httpClientManager;
+        this.requestCoalescer = requestCoalescer;
+        this.referenceDataCache = referenceDataCache;
+        this.validatorCache = validatorCache;
+        this.workPackageStore = workPackageStore;
+        this.groupsCache = groupsCache;
+        this.replicaManager = replicaManager;
+        this.metrics = metrics;
+        this.tracer = tracer;
+    }
+
     @Override
     public OpenProjectApiClientBuilder serverUrl(String serverUrl)
     {
@@ -72,6 +134,13 @@ public class DefaultOpenProjectApiClientBuilder implements OpenProjectApiClientB
         return this;
     }
 
+    @Override
+    public OpenProjectApiClientBuilder requestTimeout(Duration requestTimeout)
+    {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
     @Override
     public OpenProjectApiClientBuilder caching(Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache,
         String clientId)
@@ -81,6 +150,13 @@ public class DefaultOpenProjectApiClientBuilder implements OpenProjectApiClientB
         return this;
     }
 
+    @Override
+    public OpenProjectApiClientBuilder connectionName(String connectionName)
+    {
+        this.connectionName = connectionName;
+        return this;
+    }
+
     @Override
     public OpenProjectApiClient build()
     {
@@ -88,9 +164,23 @@ public class DefaultOpenProjectApiClientBuilder implements OpenProjectApiClientB
             throw new IllegalStateException("A server URL is required to build an OpenProjectApiClient.");
         }
 
-        OpenProjectApiClient client = new DefaultOpenProjectApiClient(serverUrl, authenticator, httpClient);
+        HttpClient sharedClient = (httpClient != null) ? httpClient : httpClientManager.getHttpClient(serverUrl);
+        OpenProjectConnectionMetrics connectionMetrics = (metrics != null)
+            ? metrics.getConnectionMetrics(StringUtils.defaultIfEmpty(connectionName, serverUrl)) : null;
+        OpenProjectApiClientOptions options = new OpenProjectApiClientOptions()
+            .serverUrl(serverUrl)
+            .requestTimeout(requestTimeout)
+            .validatorCache(validatorCache)
+            .metrics(connectionMetrics)
+            .tracer(tracer)
+            .coalescer(requestCoalescer)
+            .referenceDataCache(referenceDataCache)
+            .workPackageStore(workPackageStore)
+            .groupsCache(groupsCache)
+            .replicaManager(replicaManager);
+        OpenProjectApiClient client = new DefaultOpenProjectApiClient(serverUrl, authenticator, sharedClient, options);
         if (cache != null) {
-            client = new CachingOpenProjectApiClient(client, cacheClientId, cache);
+            client = new CachingOpenProjectApiClient(client, cacheClientId, cache, options);
         }
         return client;
     }
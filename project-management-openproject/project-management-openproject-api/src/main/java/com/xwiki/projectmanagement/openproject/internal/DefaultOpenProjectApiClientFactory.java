@@ -19,12 +19,23 @@
  */
 package com.xwiki.projectmanagement.openproject.internal;
 
+import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClientBuilder;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectRequestCoalescer;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectResponseValidatorCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
 
 /**
  * Default implementation of {@link OpenProjectApiClientFactory} that hands out
@@ -37,9 +48,41 @@ import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
 @Singleton
 public class DefaultOpenProjectApiClientFactory implements OpenProjectApiClientFactory
 {
+    @Inject
+    private OpenProjectHttpClientManager httpClientManager;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectRequestCoalescer requestCoalescer;
+
+    @Inject
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    @Inject
+    private OpenProjectResponseValidatorCache validatorCache;
+
+    @Inject
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @Inject
+    private OpenProjectWorkPackageGroupsCache groupsCache;
+
+    @Inject
+    private Provider<OpenProjectReplicaManager> replicaManagerProvider;
+
+    @Inject
+    private OpenProjectMetrics metrics;
+
+    @Inject
+    private ProjectManagementTracer tracer;
+
     @Override
     public OpenProjectApiClientBuilder builder()
     {
-        return new DefaultOpenProjectApiClientBuilder();
+        return new DefaultOpenProjectApiClientBuilder(httpClientManager, requestCoalescer, referenceDataCache,
+            validatorCache, workPackageStore, groupsCache, replicaManagerProvider.get(), metrics, tracer)
+            .requestTimeout(clientConfiguration.getRequestTimeout());
     }
 }
@@ -0,0 +1,250 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal;
+
+import java.time.Duration;
+
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectRequestCoalescer;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectResponseValidatorCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+
+/**
+ * The optional collaborators of {@link DefaultOpenProjectApiClient} and {@link CachingOpenProjectApiClient}. Each
+ * client only uses the options that concern it and every option left unset disables the matching feature.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class OpenProjectApiClientOptions
+{
+    private String serverUrl;
+
+    private Duration requestTimeout;
+
+    private OpenProjectResponseValidatorCache validatorCache;
+
+    private OpenProjectConnectionMetrics metrics;
+
+    private ProjectManagementTracer tracer;
+
+    private OpenProjectRequestCoalescer coalescer;
+
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    private OpenProjectWorkPackageGroupsCache groupsCache;
+
+    private OpenProjectReplicaManager replicaManager;
+
+    /**
+     * @return the base URL of the OpenProject server the clients communicate with
+     */
+    public String getServerUrl()
+    {
+        return serverUrl;
+    }
+
+    /**
+     * @param serverUrl the base URL of the OpenProject server the clients communicate with, used by the caching
+     *     client to identify the stored work packages
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions serverUrl(String serverUrl)
+    {
+        this.serverUrl = serverUrl;
+        return this;
+    }
+
+    /**
+     * @return the maximum time to wait for the response of a request, {@code null} to wait indefinitely
+     */
+    public Duration getRequestTimeout()
+    {
+        return requestTimeout;
+    }
+
+    /**
+     * @param requestTimeout the maximum time to wait for the response of a request, {@code null} to wait
+     *     indefinitely
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions requestTimeout(Duration requestTimeout)
+    {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * @return keeps the responses and their validators, {@code null} to always send unconditional requests
+     */
+    public OpenProjectResponseValidatorCache getValidatorCache()
+    {
+        return validatorCache;
+    }
+
+    /**
+     * @param validatorCache keeps the responses and their validators, {@code null} to always send unconditional
+     *     requests
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions validatorCache(OpenProjectResponseValidatorCache validatorCache)
+    {
+        this.validatorCache = validatorCache;
+        return this;
+    }
+
+    /**
+     * @return the statistics of the connection the requests are sent for, {@code null} to not record them
+     */
+    public OpenProjectConnectionMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * @param metrics the statistics of the connection the requests are sent for, {@code null} to not record them
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions metrics(OpenProjectConnectionMetrics metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @return creates the spans measuring the requests, {@code null} to not trace them
+     */
+    public ProjectManagementTracer getTracer()
+    {
+        return tracer;
+    }
+
+    /**
+     * @param tracer creates the spans measuring the requests and the decoding of their responses, {@code null} to
+     *     not trace them
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions tracer(ProjectManagementTracer tracer)
+    {
+        this.tracer = tracer;
+        return this;
+    }
+
+    /**
+     * @return deduplicates the concurrent requests for the same cache key, {@code null} when not shared
+     */
+    public OpenProjectRequestCoalescer getCoalescer()
+    {
+        return coalescer;
+    }
+
+    /**
+     * @param coalescer deduplicates the concurrent requests for the same cache key; it should be shared by all the
+     *     clients using the same cache, {@code null} to use one per client
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions coalescer(OpenProjectRequestCoalescer coalescer)
+    {
+        this.coalescer = coalescer;
+        return this;
+    }
+
+    /**
+     * @return the cache used for the reference data, {@code null} to store it like the other results
+     */
+    public OpenProjectReferenceDataCache getReferenceDataCache()
+    {
+        return referenceDataCache;
+    }
+
+    /**
+     * @param referenceDataCache the cache used for the reference data (statuses, types, priorities and versions);
+     *     when {@code null} the reference data is stored in the response cache like the other results
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions referenceDataCache(OpenProjectReferenceDataCache referenceDataCache)
+    {
+        this.referenceDataCache = referenceDataCache;
+        return this;
+    }
+
+    /**
+     * @return keeps the retrieved work packages by id, {@code null} to cache whole pages of work packages
+     */
+    public OpenProjectWorkPackageStore getWorkPackageStore()
+    {
+        return workPackageStore;
+    }
+
+    /**
+     * @param workPackageStore keeps the retrieved work packages by id; when {@code null} the whole pages of work
+     *     packages are stored in the response cache
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions workPackageStore(OpenProjectWorkPackageStore workPackageStore)
+    {
+        this.workPackageStore = workPackageStore;
+        return this;
+    }
+
+    /**
+     * @return keeps the work packages group counts, {@code null} to not cache them
+     */
+    public OpenProjectWorkPackageGroupsCache getGroupsCache()
+    {
+        return groupsCache;
+    }
+
+    /**
+     * @param groupsCache keeps the number of work packages of each group returned by the groupings, {@code null} to
+     *     not cache them
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions groupsCache(OpenProjectWorkPackageGroupsCache groupsCache)
+    {
+        this.groupsCache = groupsCache;
+        return this;
+    }
+
+    /**
+     * @return drops the work package replicas of the server after a modification, {@code null} when not replicated
+     */
+    public OpenProjectReplicaManager getReplicaManager()
+    {
+        return replicaManager;
+    }
+
+    /**
+     * @param replicaManager drops the work package replicas of the server when the caching client modifies a work
+     *     package, {@code null} when the work packages are not replicated
+     * @return these options, for chaining
+     */
+    public OpenProjectApiClientOptions replicaManager(OpenProjectReplicaManager replicaManager)
+    {
+        this.replicaManager = replicaManager;
+        return this;
+    }
+}
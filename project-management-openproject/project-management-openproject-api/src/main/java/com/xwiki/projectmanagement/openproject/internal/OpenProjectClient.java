@@ -24,8 +24,11 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,12 +55,19 @@ import com.xwiki.projectmanagement.exception.WorkItemUpdatingException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.Project;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
 import com.xwiki.projectmanagement.openproject.exception.WorkPackageRetrievalBadRequestException;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageBatcher;
 import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectFilterHandler;
+import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectMapper;
+import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectSelectHandler;
 import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectSortingHandler;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
 import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
+import com.xwiki.projectmanagement.tracing.TraceSpan;
 
 /**
  * OpenProject client.
@@ -78,10 +88,20 @@ public class OpenProjectClient implements ProjectManagementClient
 
     private static final String IDS = "ids";
 
+    private static final String INSTANCE = "instance";
+
+    private static final String IDENTIFIER = "identifier";
+
+    private static final String WORK_ITEMS_ERROR = "An error occurred while trying to get the work items";
+
+    private static final String GET_WORK_ITEMS_SPAN = "openproject.getWorkItems";
+
     private static final Pattern URL_PATTERN = Pattern.compile("^https?://.+", Pattern.CASE_INSENSITIVE);
 
     private static final Pattern IDS_PATTERN = Pattern.compile("^\\d+(,\\d+)*$");
 
+    private static final Pattern ID_PATTERN = Pattern.compile("^\\d+$");
+
     private static final Pattern PROJECTS_PATTERN = Pattern.compile("/projects/([^/]+)/");
 
     private static final Pattern QUERY_PROPS_PATTERN = Pattern.compile(QUERY_PROPS_QUERY_PARAMETER + "([^&]+)");
@@ -92,6 +112,15 @@ public class OpenProjectClient implements ProjectManagementClient
     @Inject
     private ProjectManagementClientExecutionContext executionContext;
 
+    @Inject
+    private OpenProjectWorkPackageBatcher workPackageBatcher;
+
+    @Inject
+    private OpenProjectReplicaManager replicaManager;
+
+    @Inject
+    private ProjectManagementTracer tracer;
+
     @Inject
     private Logger logger;
 
@@ -119,31 +148,146 @@ public class OpenProjectClient implements ProjectManagementClient
     public PaginatedResult<WorkItem> getWorkItems(int page, int pageSize, List<LiveDataQuery.Filter> filters,
         List<LiveDataQuery.SortEntry> sortEntries)
         throws WorkItemRetrievalException
+    {
+        return getWorkItems(page, pageSize, filters, sortEntries, Collections.emptyList());
+    }
+
+    @Override
+    public PaginatedResult<WorkItem> getWorkItems(int page, int pageSize, List<LiveDataQuery.Filter> filters,
+        List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+        throws WorkItemRetrievalException
+    {
+        try (TraceSpan span = tracer.startSpan(GET_WORK_ITEMS_SPAN)) {
+            setQueryAttributes(span, pageSize, filters);
+            try {
+                PaginatedResult<WorkItem> workItems =
+                    retrieveWorkItems(page, pageSize, filters, sortEntries, properties);
+                setItemCount(span, workItems);
+                return workItems;
+            } catch (WorkItemRetrievalException e) {
+                span.recordException(e);
+                throw e;
+            }
+        }
+    }
+
+    private PaginatedResult<WorkItem> retrieveWorkItems(int page, int pageSize, List<LiveDataQuery.Filter> filters,
+        List<LiveDataQuery.SortEntry> sortEntries, List<String> properties) throws WorkItemRetrievalException
     {
         try {
+            String select = OpenProjectSelectHandler.convertProperties(properties);
             int offset = (page / pageSize) + 1;
-            String identifier = (String) executionContext.get("identifier");
+            String identifier = (String) executionContext.get(IDENTIFIER);
             OpenProjectApiClient openProjectApiClient =
                 getOpenProjectApiClient();
 
+            if (isSingleWorkPackage(identifier, page, filters, sortEntries)) {
+                return getBatchedWorkItem(openProjectApiClient, identifier, select);
+            }
+
             if (identifier != null && !identifier.isEmpty()) {
-                return handleIdentifier(openProjectApiClient, identifier, offset, pageSize, filters, sortEntries);
+                return handleIdentifier(openProjectApiClient, identifier, offset, pageSize, filters, sortEntries,
+                    select);
+            }
+
+            PaginatedResult<WorkItem> replicated =
+                replicaManager.query((String) executionContext.get(INSTANCE), page, pageSize, filters, sortEntries);
+            if (replicated != null) {
+                return replicated;
             }
 
             String filtersString = OpenProjectFilterHandler.convertFilters(filters);
             String sortByString = OpenProjectSortingHandler.convertSorting(sortEntries);
             PaginatedResult<WorkPackage> workPackagesPaginatedResult =
-                openProjectApiClient.getWorkPackages(offset,
-                    pageSize, filtersString, sortByString);
+                getWorkPackages(openProjectApiClient, offset, pageSize, filtersString, sortByString, select);
 
-            return OpenProjectConverters.convertPaginatedResult(
-                workPackagesPaginatedResult,
-                OpenProjectConverters::convertWorkPackageToWorkItem
-            );
+            return convertWorkPackages(workPackagesPaginatedResult, tracer.getCurrentSpan());
         } catch (WorkItemRetrievalException e) {
             return handleWorkPackageRetrievalException(e);
         } catch (ProjectManagementException e) {
-            throw new WorkItemRetrievalException("An error occurred while trying to get the work items", e);
+            throw new WorkItemRetrievalException(WORK_ITEMS_ERROR, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PaginatedResult<WorkItem>> getWorkItemsAsync(int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties)
+    {
+        // The span ends on the thread completing the request, so it can't be the current span of the calling thread.
+        TraceSpan span = tracer.startAsyncSpan(GET_WORK_ITEMS_SPAN, tracer.getCurrentSpan());
+        setQueryAttributes(span, pageSize, filters);
+        return retrieveWorkItemsAsync(page, pageSize, filters, sortEntries, properties, span)
+            .whenComplete((workItems, error) -> {
+                if (error != null) {
+                    span.recordException(error);
+                } else {
+                    setItemCount(span, workItems);
+                }
+                span.end();
+            });
+    }
+
+    private CompletableFuture<PaginatedResult<WorkItem>> retrieveWorkItemsAsync(int page, int pageSize,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries, List<String> properties,
+        TraceSpan span)
+    {
+        String identifier = (String) executionContext.get(IDENTIFIER);
+        if (identifier != null && !identifier.isEmpty()) {
+            // The identifiers are resolved with the blocking client, possibly as part of a batch.
+            return ProjectManagementClient.super.getWorkItemsAsync(page, pageSize, filters, sortEntries, properties);
+        }
+        PaginatedResult<WorkItem> replicated =
+            replicaManager.query((String) executionContext.get(INSTANCE), page, pageSize, filters, sortEntries);
+        if (replicated != null) {
+            return CompletableFuture.completedFuture(replicated);
+        }
+        try {
+            String select = OpenProjectSelectHandler.convertProperties(properties);
+            int offset = (page / pageSize) + 1;
+            String filtersString = OpenProjectFilterHandler.convertFilters(filters);
+            String sortByString = OpenProjectSortingHandler.convertSorting(sortEntries);
+            return getOpenProjectApiClient().async().getWorkPackages(offset, pageSize, filtersString, sortByString,
+                select).handle((workPackages, error) -> {
+                    if (error == null) {
+                        return convertWorkPackages(workPackages, span);
+                    }
+                    Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+                    if (cause instanceof WorkItemRetrievalException) {
+                        return handleWorkPackageRetrievalException((WorkItemRetrievalException) cause);
+                    }
+                    throw new CompletionException(new WorkItemRetrievalException(WORK_ITEMS_ERROR, cause));
+                });
+        } catch (WorkItemRetrievalException e) {
+            return CompletableFuture.completedFuture(handleWorkPackageRetrievalException(e));
+        } catch (ProjectManagementException e) {
+            return CompletableFuture.failedFuture(new WorkItemRetrievalException(WORK_ITEMS_ERROR, e));
+        }
+    }
+
+    @Override
+    public boolean supportsAggregation(String property)
+    {
+        return OpenProjectMapper.mapGroupByProperty(property) != null;
+    }
+
+    @Override
+    public WorkItemAggregation aggregateWorkItems(List<LiveDataQuery.Filter> filters, String property)
+        throws WorkItemRetrievalException
+    {
+        String groupBy = OpenProjectMapper.mapGroupByProperty(property);
+        if (groupBy == null) {
+            throw new WorkItemRetrievalException(
+                String.format("The work packages can't be grouped by the property [%s].", property));
+        }
+        try {
+            Map<String, Long> counts = getOpenProjectApiClient()
+                .getWorkPackagesGroups(OpenProjectFilterHandler.convertFilters(filters), groupBy);
+            long total = counts.values().stream().mapToLong(Long::longValue).sum();
+            return new WorkItemAggregation(property, counts, Math.toIntExact(total));
+        } catch (WorkItemRetrievalException e) {
+            throw e;
+        } catch (ProjectManagementException e) {
+            throw new WorkItemRetrievalException("An error occurred while trying to count the work items", e);
         }
     }
 
@@ -210,7 +354,7 @@ public class OpenProjectClient implements ProjectManagementClient
     private OpenProjectApiClient getOpenProjectApiClient()
         throws WorkItemRetrievalException
     {
-        String connectionName = (String) executionContext.get("instance");
+        String connectionName = (String) executionContext.get(INSTANCE);
         OpenProjectApiClient openProjectApiClient =
             openProjectConfiguration.getOpenProjectApiClient(connectionName);
 
@@ -221,10 +365,82 @@ public class OpenProjectClient implements ProjectManagementClient
         return openProjectApiClient;
     }
 
+    private PaginatedResult<WorkItem> convertWorkPackages(PaginatedResult<WorkPackage> workPackages,
+        TraceSpan parentSpan)
+    {
+        TraceSpan span = tracer.startAsyncSpan("openproject.convert", parentSpan);
+        try {
+            PaginatedResult<WorkItem> workItems = OpenProjectConverters.convertPaginatedResult(workPackages,
+                OpenProjectConverters::convertWorkPackageToWorkItem);
+            setItemCount(span, workItems);
+            return workItems;
+        } finally {
+            span.end();
+        }
+    }
+
+    private void setQueryAttributes(TraceSpan span, int pageSize, List<LiveDataQuery.Filter> filters)
+    {
+        if (span.isRecording()) {
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_CONNECTION, (String) executionContext.get(INSTANCE));
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_PAGE_SIZE, pageSize);
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_FILTERS_HASH,
+                ProjectManagementTracer.hashFilters(filters));
+        }
+    }
+
+    private static void setItemCount(TraceSpan span, PaginatedResult<?> result)
+    {
+        if (result != null && result.getItems() != null) {
+            span.setAttribute(ProjectManagementTracer.ATTRIBUTE_ITEM_COUNT, result.getItems().size());
+        }
+    }
+
+    private boolean isSingleWorkPackage(String identifier, int page, List<LiveDataQuery.Filter> filters,
+        List<LiveDataQuery.SortEntry> sortEntries)
+    {
+        return identifier != null && ID_PATTERN.matcher(identifier).matches() && page == 0
+            && (filters == null || filters.isEmpty()) && (sortEntries == null || sortEntries.isEmpty());
+    }
+
+    private PaginatedResult<WorkItem> getBatchedWorkItem(OpenProjectApiClient openProjectApiClient, String id,
+        String select) throws ProjectManagementException
+    {
+        // The macros displaying a single work package are rendered at the same time, so their work packages can be
+        // retrieved together.
+        WorkPackage workPackage = workPackageBatcher.load((String) executionContext.get(INSTANCE), select, id,
+            ids -> getWorkPackagesById(openProjectApiClient, ids, select));
+        List<WorkItem> workItems = workPackage == null ? Collections.emptyList()
+            : Collections.singletonList(OpenProjectConverters.convertWorkPackageToWorkItem(workPackage));
+        return new PaginatedResult<>(workItems, 1, 1, workItems.size());
+    }
+
+    private Map<String, WorkPackage> getWorkPackagesById(OpenProjectApiClient openProjectApiClient, List<String> ids,
+        String select) throws ProjectManagementException
+    {
+        String filters = extractFiltersFromIdentifier(Collections.emptyList(), String.join(",", ids));
+        Map<String, WorkPackage> workPackages = new HashMap<>();
+        // The server caps the page size, so the work packages are retrieved in several pages when the batch is larger
+        // than the maximum page size of the server.
+        for (int page = 1; page <= ids.size(); page++) {
+            PaginatedResult<WorkPackage> result =
+                getWorkPackages(openProjectApiClient, page, ids.size(), filters, "", select);
+            List<WorkPackage> items = result.getItems();
+            items.forEach(workPackage -> workPackages.putIfAbsent(String.valueOf(workPackage.getId()), workPackage));
+            Integer total = result.getTotalItems();
+            if (items.isEmpty() || workPackages.keySet().containsAll(ids)
+                || (total != null && workPackages.size() >= total))
+            {
+                break;
+            }
+        }
+        return workPackages;
+    }
+
     private PaginatedResult<WorkItem> handleIdentifier(OpenProjectApiClient openProjectApiClient, String identifier,
         int offset, int pageSize,
         List<LiveDataQuery.Filter> filtersEntries,
-        List<LiveDataQuery.SortEntry> sortEntries)
+        List<LiveDataQuery.SortEntry> sortEntries, String select)
         throws ProjectManagementException
     {
         String filters = "";
@@ -258,21 +474,37 @@ public class OpenProjectClient implements ProjectManagementClient
 
         try {
             if (project != null) {
-                return OpenProjectConverters.convertPaginatedResult(
-                    openProjectApiClient.getProjectWorkPackages(project, offset, pageSize, filters, sortBy),
-                    OpenProjectConverters::convertWorkPackageToWorkItem
-                );
+                return convertWorkPackages(
+                    getProjectWorkPackages(openProjectApiClient, project, offset, pageSize, filters, sortBy, select),
+                    tracer.getCurrentSpan());
             }
 
-            return OpenProjectConverters.convertPaginatedResult(
-                openProjectApiClient.getWorkPackages(offset, pageSize, filters, sortBy),
-                OpenProjectConverters::convertWorkPackageToWorkItem
-            );
+            return convertWorkPackages(getWorkPackages(openProjectApiClient, offset, pageSize, filters, sortBy, select),
+                tracer.getCurrentSpan());
         } catch (WorkPackageRetrievalBadRequestException e) {
             return handleWorkPackageRetrievalException(e);
         }
     }
 
+    private PaginatedResult<WorkPackage> getWorkPackages(OpenProjectApiClient openProjectApiClient, int offset,
+        int pageSize, String filters, String sortBy, String select) throws ProjectManagementException
+    {
+        if (select.isEmpty()) {
+            return openProjectApiClient.getWorkPackages(offset, pageSize, filters, sortBy);
+        }
+        return openProjectApiClient.getWorkPackages(offset, pageSize, filters, sortBy, select);
+    }
+
+    private PaginatedResult<WorkPackage> getProjectWorkPackages(OpenProjectApiClient openProjectApiClient,
+        String project, int offset, int pageSize, String filters, String sortBy, String select)
+        throws ProjectManagementException
+    {
+        if (select.isEmpty()) {
+            return openProjectApiClient.getProjectWorkPackages(project, offset, pageSize, filters, sortBy);
+        }
+        return openProjectApiClient.getProjectWorkPackages(project, offset, pageSize, filters, sortBy, select);
+    }
+
     private String detectIdentifierType(String identifier) throws ProjectManagementException
     {
         if (URL_PATTERN.matcher(identifier).matches()) {
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Keeps one long-lived {@link HttpClient} for each configured OpenProject server so that the clients built for the
+ * different users, macros and REST calls share the same warm connections instead of opening new sockets and doing a
+ * new TLS handshake on every request. Each client negotiates HTTP/2 when the server supports it, processes the
+ * responses on a bounded executor (or on virtual threads, see {@link ProjectManagementExecutors}) and limits the
+ * number of requests sent concurrently to the server.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectHttpClientManager.class)
+@Singleton
+public class OpenProjectHttpClientManager implements Disposable
+{
+    private final Map<String, PooledHttpClient> clients = new ConcurrentHashMap<>();
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private ProjectManagementExecutors executors;
+
+    /**
+     * @param connection the OpenProject connection for which to retrieve the HTTP client
+     * @return the shared HTTP client used to communicate with the server of the given connection
+     */
+    public HttpClient getHttpClient(OpenProjectConnection connection)
+    {
+        return getHttpClient(connection.getServerURL());
+    }
+
+    /**
+     * @param serverUrl the base URL of an OpenProject server
+     * @return the shared HTTP client used to communicate with the given server
+     */
+    public HttpClient getHttpClient(String serverUrl)
+    {
+        return this.clients.computeIfAbsent(getKey(serverUrl), this::createClient).getClient();
+    }
+
+    /**
+     * Discards the HTTP client of the given server. The next request to the server will use a new client, built with
+     * the current configuration. The API clients built before keep working with the discarded client: its executor
+     * is not shut down since they still reference it, but its idle threads stop and it is released along with the
+     * last API client using it.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     */
+    public void invalidate(String serverUrl)
+    {
+        if (StringUtils.isNotBlank(serverUrl)) {
+            this.clients.remove(getKey(serverUrl));
+        }
+    }
+
+    /**
+     * Discards all the HTTP clients.
+     */
+    public void invalidateAll()
+    {
+        this.clients.clear();
+    }
+
+    @Override
+    public void dispose()
+    {
+        // The component is disposed along with the API clients using it, so the executors can be shut down.
+        this.clients.values().forEach(PooledHttpClient::close);
+        this.clients.clear();
+    }
+
+    private PooledHttpClient createClient(String serverUrl)
+    {
+        ExecutorService executor = this.executors.newExecutor(String.format("OpenProject HTTP [%s]", serverUrl),
+            this.clientConfiguration.getMaxHttpThreads());
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(this.clientConfiguration.getConnectTimeout())
+            .executor(executor)
+            .build();
+        return new PooledHttpClient(
+            new ConcurrencyLimitedHttpClient(client, this.clientConfiguration.getMaxConcurrentRequests()), executor);
+    }
+
+    private String getKey(String serverUrl)
+    {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/");
+    }
+
+    private static final class PooledHttpClient
+    {
+        private final HttpClient client;
+
+        private final ExecutorService executor;
+
+        PooledHttpClient(HttpClient client, ExecutorService executor)
+        {
+            this.client = client;
+            this.executor = executor;
+        }
+
+        HttpClient getClient()
+        {
+            return this.client;
+        }
+
+        void close()
+        {
+            // The requests already in progress are allowed to finish. The client itself is released once it is no
+            // longer referenced.
+            this.executor.shutdown();
+        }
+    }
+}
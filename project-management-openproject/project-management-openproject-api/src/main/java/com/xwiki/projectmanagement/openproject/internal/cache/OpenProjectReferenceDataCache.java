@@ -0,0 +1,302 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Stale-while-revalidate cache for the OpenProject reference data (statuses, types, priorities, versions). This data
+ * rarely changes, so once loaded it is always served from memory: an expired value is returned right away while a
+ * fresh one is retrieved in the background. Only the very first access of a key waits for OpenProject.
+ * <p>
+ * Besides the refresh triggered by an access, the expired entries that were recently used are periodically refreshed,
+ * which keeps them warm, and the entries that were not used for a while are dropped.
+ * <p>
+ * The values are also saved in the permanent directory (see {@link OpenProjectReferenceDataSnapshot}), so that after a
+ * restart they are served right away, as expired values, instead of being retrieved again from OpenProject.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectReferenceDataCache.class)
+@Singleton
+public class OpenProjectReferenceDataCache implements Initializable, Disposable
+{
+    /**
+     * The entries that were not accessed during this many lifespans are removed instead of being refreshed.
+     */
+    private static final int IDLE_LIFESPANS = 4;
+
+    private final Map<String, Entry<?>> entries = new ConcurrentHashMap<>();
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private OpenProjectRequestCoalescer coalescer;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectReferenceDataSnapshot snapshot;
+
+    private ScheduledExecutorService refreshExecutor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenProject reference data refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = this.clientConfiguration.getReferenceDataRefreshPeriod().toMillis();
+        this.refreshExecutor.scheduleWithFixedDelay(this::refreshExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.refreshExecutor != null) {
+            this.refreshExecutor.shutdownNow();
+        }
+        this.snapshot.save();
+        this.entries.clear();
+    }
+
+    /**
+     * Retrieves a reference data value, loading it only if it was never loaded before.
+     *
+     * @param key identifies the value; it must contain everything that the value depends on, including the
+     *     credentials used to retrieve it
+     * @param entity the kind of reference data, used to find out how long the value stays fresh, see
+     *     {@link OpenProjectClientConfiguration#getReferenceDataTTL(String)}
+     * @param loader retrieves the value from OpenProject; it is kept in order to refresh the value in the background
+     * @param <T> the type of the value
+     * @return the cached value, possibly expired, or the freshly loaded one if it was not cached
+     * @throws ProjectManagementException if the value is not cached and could not be loaded
+     */
+    public <T> T get(String key, String entity, OpenProjectRequestCoalescer.Loader<T> loader)
+        throws ProjectManagementException
+    {
+        return get(key, null, entity, loader);
+    }
+
+    /**
+     * Retrieves a reference data value, loading it only if it was never loaded before, not even before the last
+     * restart.
+     *
+     * @param key identifies the value; it must contain everything that the value depends on, including the
+     *     credentials used to retrieve it
+     * @param snapshotKey identifies the value across restarts, so it must not depend on credentials that change, such
+     *     as the access tokens; {@code null} if the value must not be saved. When set, it also identifies the value in
+     *     memory, so that a refreshed token reuses the value retrieved with the previous one
+     * @param entity the kind of reference data, used to find out how long the value stays fresh, see
+     *     {@link OpenProjectClientConfiguration#getReferenceDataTTL(String)}
+     * @param loader retrieves the value from OpenProject; the loader of the latest access is kept in order to refresh
+     *     the value in the background, so that the refreshes use the latest credentials
+     * @param <T> the type of the value
+     * @return the cached value, possibly expired, or the freshly loaded one if it was not cached nor saved
+     * @throws ProjectManagementException if the value is not cached and could not be loaded
+     * @since 1.2.1
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, String snapshotKey, String entity, OpenProjectRequestCoalescer.Loader<T> loader)
+        throws ProjectManagementException
+    {
+        String entryKey = (snapshotKey != null) ? snapshotKey : key;
+        Entry<T> entry = (Entry<T>) this.entries.get(entryKey);
+        if (entry == null) {
+            Duration ttl = this.clientConfiguration.getReferenceDataTTL(entity);
+            return this.coalescer.load(entryKey, () -> {
+                Entry<T> loaded = (Entry<T>) this.entries.get(entryKey);
+                if (loaded == null) {
+                    loaded = new Entry<>(loader, ttl.toMillis(), snapshotKey);
+                    T saved = (snapshotKey != null) ? (T) this.snapshot.get(snapshotKey) : null;
+                    if (saved != null) {
+                        // Serve the value saved before the restart right away, and check it in the background.
+                        loaded.restoreValue(saved);
+                        this.entries.put(entryKey, loaded);
+                        refreshAsync(entryKey, loaded);
+                    } else {
+                        setValue(loaded, loader.load());
+                        this.entries.put(entryKey, loaded);
+                    }
+                }
+                return loaded.value;
+            });
+        }
+
+        entry.lastAccess = System.currentTimeMillis();
+        entry.loader = loader;
+        if (entry.isExpired()) {
+            refreshAsync(entryKey, entry);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Removes the values whose key starts with the given prefix.
+     *
+     * @param keyPrefix the prefix of the keys to remove, usually the namespace of a connection
+     */
+    public void invalidate(String keyPrefix)
+    {
+        this.entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        this.snapshot.invalidate(keyPrefix);
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void invalidateAll()
+    {
+        this.entries.clear();
+        this.snapshot.invalidateAll();
+    }
+
+    private void refreshExpired()
+    {
+        long now = System.currentTimeMillis();
+        this.entries.forEach((key, entry) -> {
+            if (now - entry.lastAccess > IDLE_LIFESPANS * entry.ttl) {
+                this.entries.remove(key, entry);
+            } else if (entry.isExpired() && entry.refreshing.compareAndSet(false, true)) {
+                refresh(key, entry);
+            }
+        });
+        this.snapshot.save();
+    }
+
+    private void refreshAsync(String key, Entry<?> entry)
+    {
+        if (entry.refreshing.compareAndSet(false, true)) {
+            try {
+                this.refreshExecutor.execute(() -> refresh(key, entry));
+            } catch (RuntimeException e) {
+                entry.refreshing.set(false);
+                this.logger.debug("Failed to schedule the refresh of [{}].", key, e);
+            }
+        }
+    }
+
+    private <T> void refresh(String key, Entry<T> entry)
+    {
+        try {
+            setValue(entry, entry.loader.load());
+        } catch (WorkItemRetrievalException e) {
+            if (e.getStatusCode() != null && (e.getStatusCode() == 401 || e.getStatusCode() == 403)) {
+                // The credentials of the latest access are not valid anymore. The value is dropped instead of being
+                // refreshed again with them, and is retrieved with the new credentials on the next access.
+                this.entries.remove(key, entry);
+                this.logger.debug("Dropped the OpenProject reference data [{}] since its credentials expired.", key);
+            } else {
+                logRefreshFailure(key, e);
+            }
+        } catch (ProjectManagementException | RuntimeException e) {
+            logRefreshFailure(key, e);
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void logRefreshFailure(String key, Exception e)
+    {
+        // Keep serving the stale value, the refresh is retried on the next access or periodic run.
+        this.logger.warn("Failed to refresh the OpenProject reference data [{}]. Root cause: [{}].", key,
+            e.getMessage());
+        this.logger.debug("Full stack trace: ", e);
+    }
+
+    private <T> void setValue(Entry<T> entry, T value)
+    {
+        entry.setValue(value);
+        if (entry.snapshotKey != null) {
+            this.snapshot.put(entry.snapshotKey, value);
+        }
+    }
+
+    private static final class Entry<T>
+    {
+        private volatile OpenProjectRequestCoalescer.Loader<T> loader;
+
+        private final long ttl;
+
+        private final String snapshotKey;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile T value;
+
+        private volatile long loadedAt;
+
+        private volatile long lastAccess;
+
+        Entry(OpenProjectRequestCoalescer.Loader<T> loader, long ttl, String snapshotKey)
+        {
+            this.loader = loader;
+            this.ttl = ttl;
+            this.snapshotKey = snapshotKey;
+        }
+
+        void setValue(T value)
+        {
+            this.value = value;
+            this.loadedAt = System.currentTimeMillis();
+            this.lastAccess = Math.max(this.lastAccess, this.loadedAt);
+        }
+
+        /**
+         * Sets a value that was saved before the restart; it is expired, since it may be outdated.
+         */
+        void restoreValue(T value)
+        {
+            this.value = value;
+            this.loadedAt = 0;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isExpired()
+        {
+            return System.currentTimeMillis() - this.loadedAt >= this.ttl;
+        }
+    }
+}
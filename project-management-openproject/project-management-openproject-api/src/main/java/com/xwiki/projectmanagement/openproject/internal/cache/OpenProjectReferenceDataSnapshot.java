@@ -0,0 +1,272 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Copy of the OpenProject reference data kept in the permanent directory. It is read when the wiki starts, so that the
+ * reference data retrieved before the restart is served right away, while being refreshed in the background, instead
+ * of being retrieved again from OpenProject by the first users.
+ * <p>
+ * The saved values are identified by keys that don't depend on the access tokens, which are usually refreshed before
+ * the next restart. The file is only read by this component, and only the classes of the reference data can be read
+ * from it. The values that were not refreshed during the maximum age of the snapshot, such as the ones of removed
+ * connections or projects, are dropped when the snapshot is saved, so that the file doesn't grow indefinitely.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectReferenceDataSnapshot.class)
+@Singleton
+public class OpenProjectReferenceDataSnapshot implements Initializable
+{
+    private static final String FILE_PATH = "cache/projectmanagement/openproject/referenceData.ser";
+
+    /**
+     * Incremented when the format of the file changes, in which case the previous file is ignored.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final ObjectInputFilter CLASS_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=16;java.lang.*;java.util.*;org.joda.time.**;com.xwiki.projectmanagement.**;!*");
+
+    private final Map<String, SavedValue> values = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean modified = new AtomicBoolean();
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private File file;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (!this.clientConfiguration.isReferenceDataSnapshotEnabled()) {
+            return;
+        }
+        this.file = new File(this.environment.getPermanentDirectory(), FILE_PATH);
+        if (this.file.isFile()) {
+            load();
+        }
+    }
+
+    /**
+     * @param key the key of the value, independent of the access token used to retrieve it
+     * @return the saved value, or {@code null} if there is none
+     */
+    public Object get(String key)
+    {
+        SavedValue savedValue = this.values.get(key);
+        return (savedValue != null) ? savedValue.toValue() : null;
+    }
+
+    /**
+     * Saves a value; it is written to the disk on the next {@link #save()}. The values that can't be serialized are
+     * ignored.
+     *
+     * @param key the key of the value, independent of the access token used to retrieve it
+     * @param value the value to save
+     */
+    public void put(String key, Object value)
+    {
+        if (this.file == null) {
+            return;
+        }
+        SavedValue savedValue = SavedValue.of(value);
+        if (savedValue != null) {
+            this.values.put(key, savedValue);
+            this.modified.set(true);
+        }
+    }
+
+    /**
+     * Removes the values whose key starts with the given prefix.
+     *
+     * @param keyPrefix the prefix of the keys to remove, usually the name of a connection
+     */
+    public void invalidate(String keyPrefix)
+    {
+        if (this.values.keySet().removeIf(key -> key.startsWith(keyPrefix))) {
+            this.modified.set(true);
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void invalidateAll()
+    {
+        if (!this.values.isEmpty()) {
+            this.values.clear();
+            this.modified.set(true);
+        }
+    }
+
+    /**
+     * Drops the values older than the maximum age of the snapshot, then writes the values to the disk, if they were
+     * modified since the last time they were written.
+     */
+    public void save()
+    {
+        if (this.file == null) {
+            return;
+        }
+        long maxAge = this.clientConfiguration.getReferenceDataSnapshotMaxAge().toMillis();
+        long now = System.currentTimeMillis();
+        if (this.values.values().removeIf(savedValue -> now - savedValue.savedAt > maxAge)) {
+            this.modified.set(true);
+        }
+        if (!this.modified.getAndSet(false)) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.file.getParentFile().toPath());
+            Path temporaryFile = Files.createTempFile(this.file.getParentFile().toPath(), "referenceData", ".tmp");
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporaryFile));
+                ObjectOutputStream output = new ObjectOutputStream(stream)) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeObject(new HashMap<>(this.values));
+            }
+            // Replace the previous file at once, so that a crash never leaves a truncated file.
+            Files.move(temporaryFile, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            this.modified.set(true);
+            this.logger.warn("Failed to save the OpenProject reference data in [{}]. Root cause: [{}].", this.file,
+                e.getMessage());
+            this.logger.debug("Full stack trace: ", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load()
+    {
+        long maxAge = this.clientConfiguration.getReferenceDataSnapshotMaxAge().toMillis();
+        long now = System.currentTimeMillis();
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(this.file.toPath()));
+            ObjectInputStream input = new ObjectInputStream(stream)) {
+            input.setObjectInputFilter(CLASS_FILTER);
+            if (input.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            ((Map<String, SavedValue>) input.readObject()).forEach((key, savedValue) -> {
+                if (now - savedValue.savedAt <= maxAge) {
+                    this.values.put(key, savedValue);
+                }
+            });
+            this.logger.debug("Loaded [{}] OpenProject reference data values from [{}].", this.values.size(),
+                this.file);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // The reference data is retrieved again from OpenProject.
+            this.logger.warn("Failed to load the OpenProject reference data saved in [{}]. Root cause: [{}].",
+                this.file, e.getMessage());
+            this.logger.debug("Full stack trace: ", e);
+        }
+    }
+
+    /**
+     * A saved value, the paginated results being replaced by a serializable copy.
+     */
+    private static final class SavedValue implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final long savedAt = System.currentTimeMillis();
+
+        private final Serializable value;
+
+        private final boolean paginated;
+
+        private final Integer page;
+
+        private final Integer pageSize;
+
+        private final Integer totalItems;
+
+        private SavedValue(Serializable value, PaginatedResult<?> result)
+        {
+            this.value = value;
+            this.paginated = result != null;
+            this.page = (result != null) ? result.getPage() : null;
+            this.pageSize = (result != null) ? result.getPageSize() : null;
+            this.totalItems = (result != null) ? result.getTotalItems() : null;
+        }
+
+        static SavedValue of(Object value)
+        {
+            if (value instanceof PaginatedResult) {
+                PaginatedResult<?> result = (PaginatedResult<?>) value;
+                if (result.getItems().stream().allMatch(Serializable.class::isInstance)) {
+                    return new SavedValue(new ArrayList<>(result.getItems()), result);
+                }
+            } else if (value instanceof Serializable) {
+                return new SavedValue((Serializable) value, null);
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object toValue()
+        {
+            if (this.paginated) {
+                return new PaginatedResult<>(new ArrayList<>((ArrayList<Object>) this.value), this.page,
+                    this.pageSize, this.totalItems);
+            }
+            return this.value;
+        }
+    }
+}
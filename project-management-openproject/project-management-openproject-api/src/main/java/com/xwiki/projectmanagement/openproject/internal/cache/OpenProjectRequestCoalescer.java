@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+
+/**
+ * Deduplicates the identical requests that are sent concurrently to OpenProject. The first caller asking for a given
+ * key performs the request while the other callers asking for the same key wait for its result instead of sending
+ * their own request. This avoids request storms when many users hit the same page right after the cached entries
+ * expired.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectRequestCoalescer.class)
+@Singleton
+public class OpenProjectRequestCoalescer
+{
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the value identified by the given key, sharing the result with the concurrent callers using the same key.
+     *
+     * @param key identifies the loaded value; it must contain everything that the value depends on, including the
+     *     credentials used to retrieve it
+     * @param loader retrieves the value when no other caller is already retrieving it
+     * @param <T> the type of the loaded value
+     * @return the loaded value
+     * @throws ProjectManagementException if the value could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Loader<T> loader) throws ProjectManagementException
+    {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(key, existing);
+        }
+
+        try {
+            T result = loader.load();
+            future.complete(result);
+            return result;
+        } catch (ProjectManagementException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!future.isDone()) {
+                // The loader threw an Error, which is left to propagate, but the waiters must not block forever.
+                future.completeExceptionally(
+                    new ProjectManagementException(String.format("The request [%s] failed unexpectedly.", key)));
+            }
+            this.inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #load(String, Loader)}: the callers asking for a key that is already being
+     * retrieved get the future result of the request in progress.
+     *
+     * @param key identifies the loaded value, see {@link #load(String, Loader)}
+     * @param loader sends the request retrieving the value when no other caller is already retrieving it
+     * @param <T> the type of the loaded value
+     * @return the future loaded value
+     * @since 1.2.1
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> loadAsync(String key, Supplier<CompletableFuture<T>> loader)
+    {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (CompletableFuture<T>) (CompletableFuture<?>) existing;
+        }
+
+        CompletableFuture<T> request;
+        try {
+            request = loader.get();
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((result, error) -> {
+            this.inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                future.complete(result);
+            }
+        });
+        return (CompletableFuture<T>) (CompletableFuture<?>) future;
+    }
+
+    /**
+     * @return the number of requests currently in progress
+     */
+    public int getInFlightCount()
+    {
+        return this.inFlight.size();
+    }
+
+    private Object await(String key, CompletableFuture<Object> future) throws ProjectManagementException
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProjectManagementException(
+                String.format("Interrupted while waiting for the request [%s] to finish.", key), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProjectManagementException) {
+                throw (ProjectManagementException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ProjectManagementException(String.format("The request [%s] failed.", key), cause);
+        }
+    }
+
+    /**
+     * Retrieves a value from OpenProject.
+     *
+     * @param <T> the type of the retrieved value
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface Loader<T>
+    {
+        /**
+         * @return the retrieved value
+         * @throws ProjectManagementException if the value could not be retrieved
+         */
+        T load() throws ProjectManagementException;
+    }
+}
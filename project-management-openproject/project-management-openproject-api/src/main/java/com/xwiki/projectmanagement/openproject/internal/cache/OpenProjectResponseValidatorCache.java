@@ -0,0 +1,202 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.eviction.EntryEvictionConfiguration;
+import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Keeps the decoded last response of the OpenProject GET requests together with the validators ({@code ETag} and
+ * {@code Last-Modified}) returned by OpenProject, so that the request can be revalidated with a conditional request.
+ * When OpenProject answers {@code 304 Not Modified} the kept response is reused, which avoids downloading and parsing
+ * the same, possibly large, JSON body again.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectResponseValidatorCache.class)
+@Singleton
+public class OpenProjectResponseValidatorCache implements Initializable, Disposable
+{
+    /**
+     * The {@code ETag} header.
+     */
+    public static final String ETAG = "ETag";
+
+    /**
+     * The {@code Last-Modified} header.
+     */
+    public static final String LAST_MODIFIED = "Last-Modified";
+
+    /**
+     * The {@code If-None-Match} header.
+     */
+    public static final String IF_NONE_MATCH = "If-None-Match";
+
+    /**
+     * The {@code If-Modified-Since} header.
+     */
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private Cache<ValidatedResponse> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        CacheConfiguration cacheConfig = new CacheConfiguration();
+        cacheConfig.setConfigurationId("projectmanagement.openproject.validated");
+        LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
+        lru.setMaxEntries(this.clientConfiguration.getValidatedResponsesMaxEntries());
+        lru.setMaxIdle((int) this.clientConfiguration.getValidatedResponsesMaxIdle().getSeconds());
+        cacheConfig.put(EntryEvictionConfiguration.CONFIGURATIONID, lru);
+
+        try {
+            this.cache = this.cacheManager.createNewCache(cacheConfig);
+        } catch (Exception e) {
+            throw new InitializationException("Failed to create the OpenProject validated responses cache.", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * The responses depend on the permissions of the authenticated user, so the key contains a hash of the
+     * credentials sent with the request besides its URI.
+     *
+     * @param request the authenticated request
+     * @return the key identifying the response of the given request
+     */
+    public String getKey(HttpRequest request)
+    {
+        String credentials = String.join(",", request.headers().allValues("Authorization"));
+        return String.format("%s/%s", DigestUtils.sha256Hex(credentials), request.uri());
+    }
+
+    /**
+     * @param key the key of the request, see {@link #getKey(HttpRequest)}
+     * @return the last response of the request, or {@code null} if it wasn't kept
+     */
+    public ValidatedResponse get(String key)
+    {
+        return this.cache.get(key);
+    }
+
+    /**
+     * Keeps the given response if OpenProject returned validators for it.
+     *
+     * @param key the key of the request, see {@link #getKey(HttpRequest)}
+     * @param headers the headers of the response
+     * @param body the decoded body of the response, which must not be modified afterwards
+     */
+    public void put(String key, HttpHeaders headers, Object body)
+    {
+        String etag = headers.firstValue(ETAG).orElse(null);
+        String lastModified = headers.firstValue(LAST_MODIFIED).orElse(null);
+        if (etag != null || lastModified != null) {
+            this.cache.set(key, new ValidatedResponse(etag, lastModified, body));
+        } else {
+            this.cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes all the kept responses.
+     */
+    public void invalidateAll()
+    {
+        this.cache.removeAll();
+    }
+
+    /**
+     * A response kept together with its validators.
+     *
+     * @version $Id$
+     */
+    public static final class ValidatedResponse
+    {
+        private final String etag;
+
+        private final String lastModified;
+
+        private final Object body;
+
+        ValidatedResponse(String etag, String lastModified, Object body)
+        {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        /**
+         * Adds the conditional headers to the given request, so that OpenProject answers {@code 304 Not Modified}
+         * when this response is still valid.
+         *
+         * @param builder the request to decorate
+         */
+        public void addConditions(HttpRequest.Builder builder)
+        {
+            if (this.etag != null) {
+                builder.header(IF_NONE_MATCH, this.etag);
+            }
+            if (this.lastModified != null) {
+                builder.header(IF_MODIFIED_SINCE, this.lastModified);
+            }
+        }
+
+        /**
+         * @param <T> the type of the decoded body
+         * @return the decoded body of the response
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getBody()
+        {
+            return (T) this.body;
+        }
+    }
+}
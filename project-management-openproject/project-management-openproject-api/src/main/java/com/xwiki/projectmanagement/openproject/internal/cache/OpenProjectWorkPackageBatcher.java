@@ -0,0 +1,219 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Groups the retrievals of single work packages that happen at the same time, such as the ones of the work package
+ * macros of a page that are rendered asynchronously, into a single request filtering the work packages by id.
+ * <p>
+ * A retrieval that doesn't overlap with another retrieval for the same connection, user and selected properties is
+ * sent right away, so a page rendered sequentially isn't slowed down. Otherwise, the retrieval opens a batch that
+ * collects the work package ids asked for during a short window, or until the batch is full, and then retrieves all
+ * of them at once.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectWorkPackageBatcher.class)
+@Singleton
+public class OpenProjectWorkPackageBatcher
+{
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private OpenProjectClientConfiguration configuration;
+
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    private final Map<String, Integer> activeRetrievals = new HashMap<>();
+
+    /**
+     * Retrieves a work package, possibly together with other work packages retrieved at the same time.
+     *
+     * @param connectionName the name of the connection used to retrieve the work package
+     * @param select the work package properties to retrieve, as expected by the OpenProject {@code select} query
+     *     parameter; empty to retrieve all of them
+     * @param id the id of the work package
+     * @param loader retrieves the work packages of a batch, mapped by their id, using the connection of the caller
+     * @return the work package, or {@code null} if it doesn't exist or can't be seen by the current user
+     * @throws ProjectManagementException if the work packages of the batch could not be retrieved
+     */
+    public WorkPackage load(String connectionName, String select, String id, BatchLoader loader)
+        throws ProjectManagementException
+    {
+        String key = String.format("%s/%s/%s", connectionName, this.contextProvider.get().getUserReference(), select);
+        Batch batch;
+        boolean leader;
+        boolean opened = false;
+        synchronized (this) {
+            boolean concurrent = this.activeRetrievals.merge(key, 1, Integer::sum) > 1;
+            batch = this.openBatches.get(key);
+            leader = batch == null || !batch.add(id);
+            if (leader) {
+                batch = new Batch(loader, this.configuration.getBatchMaxSize());
+                batch.add(id);
+                // Wait for other ids only when other retrievals are happening at the same time.
+                if (concurrent) {
+                    this.openBatches.put(key, batch);
+                    opened = true;
+                }
+            }
+        }
+
+        try {
+            if (opened) {
+                batch.awaitFull(this.configuration.getBatchWindow().toMillis());
+                synchronized (this) {
+                    this.openBatches.remove(key, batch);
+                }
+            }
+            if (leader) {
+                batch.dispatch();
+            }
+            return batch.get(id, key);
+        } finally {
+            synchronized (this) {
+                this.activeRetrievals.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the work packages of a batch.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface BatchLoader
+    {
+        /**
+         * @param ids the ids of the work packages to retrieve
+         * @return the retrieved work packages, mapped by their id
+         * @throws ProjectManagementException if the work packages could not be retrieved
+         */
+        Map<String, WorkPackage> load(List<String> ids) throws ProjectManagementException;
+    }
+
+    private static final class Batch
+    {
+        private final BatchLoader loader;
+
+        private final int maxSize;
+
+        private final Set<String> ids = new LinkedHashSet<>();
+
+        private final CompletableFuture<Map<String, WorkPackage>> result = new CompletableFuture<>();
+
+        Batch(BatchLoader loader, int maxSize)
+        {
+            this.loader = loader;
+            this.maxSize = maxSize;
+        }
+
+        synchronized boolean add(String id)
+        {
+            if (!this.ids.contains(id)) {
+                if (this.ids.size() >= this.maxSize) {
+                    return false;
+                }
+                this.ids.add(id);
+                if (this.ids.size() >= this.maxSize) {
+                    notifyAll();
+                }
+            }
+            return true;
+        }
+
+        synchronized void awaitFull(long window)
+        {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window);
+            long remaining = window;
+            try {
+                while (this.ids.size() < this.maxSize && remaining > 0) {
+                    wait(remaining);
+                    remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                }
+            } catch (InterruptedException e) {
+                // Send the batch right away.
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void dispatch()
+        {
+            List<String> batchIds;
+            synchronized (this) {
+                batchIds = new ArrayList<>(this.ids);
+            }
+            try {
+                this.result.complete(this.loader.load(batchIds));
+            } catch (Throwable e) {
+                // Complete the batch whatever the failure, so that the other callers don't wait for it forever.
+                this.result.completeExceptionally(e);
+                if (e instanceof Error) {
+                    // The errors are left to propagate to the caller that sent the batch.
+                    throw (Error) e;
+                }
+            }
+        }
+
+        WorkPackage get(String id, String key) throws ProjectManagementException
+        {
+            try {
+                return this.result.get().get(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProjectManagementException(
+                    String.format("Interrupted while waiting for the work packages batch [%s].", key), e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ProjectManagementException) {
+                    throw (ProjectManagementException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new ProjectManagementException(
+                    String.format("The work packages batch [%s] failed.", key), cause);
+            }
+        }
+    }
+}
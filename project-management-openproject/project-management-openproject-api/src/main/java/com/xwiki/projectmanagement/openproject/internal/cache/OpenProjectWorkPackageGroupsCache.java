@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.eviction.EntryEvictionConfiguration;
+import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Keeps the number of work packages of each group returned by the work packages groupings. The counts are cached
+ * under the keys of the work packages queries, which contain the query generation of their server, so they are
+ * invalidated along with them.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectWorkPackageGroupsCache.class)
+@Singleton
+public class OpenProjectWorkPackageGroupsCache implements Initializable, Disposable
+{
+    private static final int MAX_ENTRIES = 1000;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private Cache<WorkPackageGroupsResult> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        CacheConfiguration cacheConfig = new CacheConfiguration();
+        cacheConfig.setConfigurationId("projectmanagement.openproject.groups");
+        LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
+        // The counts are as fresh as the work packages queries.
+        lru.setLifespan(this.clientConfiguration.getResponsesLifespan());
+        lru.setMaxEntries(MAX_ENTRIES);
+        cacheConfig.put(EntryEvictionConfiguration.CONFIGURATIONID, lru);
+
+        try {
+            this.cache = this.cacheManager.createNewCache(cacheConfig);
+        } catch (Exception e) {
+            throw new InitializationException("Failed to create the OpenProject work package groups cache.", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * @param key the key of the grouping query
+     * @return the number of work packages of each group, or {@code null} if they are not cached
+     */
+    public Map<String, Long> get(String key)
+    {
+        WorkPackageGroupsResult result = this.cache.get(key);
+        return (result != null) ? result.getCounts() : null;
+    }
+
+    /**
+     * @param key the key of the grouping query
+     * @param counts the number of work packages of each group
+     */
+    public void set(String key, Map<String, Long> counts)
+    {
+        this.cache.set(key, new WorkPackageGroupsResult(counts));
+    }
+
+    /**
+     * Drops all the cached counts.
+     */
+    public void invalidateAll()
+    {
+        this.cache.removeAll();
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.FilterBuilder;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
+import com.xwiki.projectmanagement.openproject.auth.BearerTokenAuthenticator;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Keeps the cached work packages fresh without webhooks, by periodically asking each OpenProject server for the work
+ * packages modified since the previous poll, using an {@code updatedAt} filter. The modified work packages replace
+ * the cached ones and the cached queries and work package replicas of the server are invalidated, so a poll that
+ * finds no change costs two small requests and keeps all the cached queries.
+ * <p>
+ * The deleted work packages are not returned by the {@code updatedAt} filter, so each poll also retrieves the total
+ * number of work packages of the server. When it changed while no work package was modified, some were deleted and
+ * the cached queries of the server are invalidated. The deleted work packages are then no longer referenced and are
+ * evicted from the {@link OpenProjectWorkPackageStore} over time.
+ * <p>
+ * The servers are polled only if a poll interval is configured for their connection, see
+ * {@link OpenProjectClientConfiguration#getPollInterval(String)}. The polls are started from the configured
+ * connections, see {@link #start(List)}. Since there is no user in the background, the polls use an access token
+ * offered by a user of the connection, see {@link #offerAccessToken(OpenProjectConnection, String)}, until it is
+ * rejected. The changes of the work packages that this user can't see are thus only reflected once the cached values
+ * expire.
+ * <p>
+ * Nothing is known about the modifications made while a server is not polled, so all the work packages and queries
+ * cached for the server are dropped when its polls start, or resume with a new access token.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectWorkPackagePoller.class)
+@Singleton
+public class OpenProjectWorkPackagePoller implements Initializable, Disposable
+{
+    private static final String UPDATED_AT = "updatedAt";
+
+    private static final String NEWEST_FIRST = "[[\"updatedAt\",\"desc\"]]";
+
+    /**
+     * Retrieves all the work packages, including the closed ones that the default filters of OpenProject leave out.
+     */
+    private static final String ALL_WORK_PACKAGES = "[]";
+
+    /**
+     * Each poll also covers the end of the period of the previous one, so that the modifications are not missed when
+     * the clock of the OpenProject server is behind the one of the wiki. The work packages returned by both polls are
+     * recognized by their {@code lockVersion}.
+     */
+    private static final Duration SKEW_MARGIN = Duration.ofMinutes(1);
+
+    private final Map<String, Poll> polls = new ConcurrentHashMap<>();
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectApiClientFactory clientFactory;
+
+    @Inject
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @Inject
+    private Provider<OpenProjectReplicaManager> replicaManagerProvider;
+
+    private ScheduledExecutorService pollExecutor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.pollExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenProject work package poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.pollExecutor != null) {
+            this.pollExecutor.shutdownNow();
+        }
+        this.polls.clear();
+    }
+
+    /**
+     * Polls the servers of the given connections that are configured to be polled, and stops polling the other
+     * servers. The access tokens of the servers that remain polled are kept.
+     *
+     * @param connections the configured connections
+     */
+    public synchronized void start(List<OpenProjectConnection> connections)
+    {
+        Map<String, Poll> previousPolls = new HashMap<>(this.polls);
+        this.polls.clear();
+        previousPolls.values().forEach(this::cancel);
+        for (OpenProjectConnection connection : connections) {
+            long interval = this.clientConfiguration.getPollInterval(connection.getConnectionName()).toMillis();
+            String serverUrl = connection.getServerURL();
+            if (interval <= 0 || StringUtils.isEmpty(serverUrl) || this.polls.containsKey(serverUrl)) {
+                continue;
+            }
+            Poll poll = new Poll(serverUrl);
+            Poll previousPoll = previousPolls.get(serverUrl);
+            if (previousPoll != null) {
+                poll.offerAccessToken(previousPoll.accessToken);
+            }
+            poll.future = this.pollExecutor.scheduleWithFixedDelay(() -> poll(poll), interval, interval,
+                TimeUnit.MILLISECONDS);
+            this.polls.put(serverUrl, poll);
+        }
+    }
+
+    /**
+     * Offers an access token to the polls of the server of the given connection. The token is only used if the polls
+     * have none, i.e. when they start or when their previous token was rejected. The polls are not started by this
+     * method, and the client using the token is created by the next poll.
+     *
+     * @param connection the connection used by the current user
+     * @param accessToken the access token of the current user for the connection
+     */
+    public void offerAccessToken(OpenProjectConnection connection, String accessToken)
+    {
+        Poll poll = this.polls.get(StringUtils.defaultString(connection.getServerURL()));
+        if (poll != null) {
+            poll.offerAccessToken(accessToken);
+        }
+    }
+
+    /**
+     * Retrieves right away the work packages modified on the given server since its previous poll and evicts them
+     * from the caches.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     * @return {@code true} if the server is polled and the poll succeeded, {@code false} otherwise
+     */
+    public boolean poll(String serverUrl)
+    {
+        Poll poll = this.polls.get(serverUrl);
+        return poll != null && poll(poll);
+    }
+
+    /**
+     * @param serverUrl the base URL of an OpenProject server
+     * @return {@code true} if the given server is currently polled
+     */
+    public boolean isPolled(String serverUrl)
+    {
+        return this.polls.containsKey(serverUrl);
+    }
+
+    private boolean poll(Poll poll)
+    {
+        synchronized (poll) {
+            OpenProjectApiClient client = poll.getClient();
+            if (client == null) {
+                // Waiting for a user of the connection to offer an access token.
+                return false;
+            }
+            try {
+                Instant pollStart = Instant.now();
+                if (poll.lastPollStart == null) {
+                    reset(poll, client, pollStart);
+                    return true;
+                }
+                String since = poll.lastPollStart.minus(SKEW_MARGIN).truncatedTo(ChronoUnit.SECONDS).toString();
+                String filters = FilterBuilder.get()
+                    .addFilter(UPDATED_AT, FilterBuilder.Operator.BETWEEN_DATES, Arrays.asList(since, "")).build();
+                PaginatedResult<WorkPackage> modified =
+                    client.getWorkPackages(1, this.clientConfiguration.getPollMaxSize(), filters, NEWEST_FIRST);
+                long total = countWorkPackages(client);
+                List<WorkPackage> changes = poll.getChanges(modified.getItems());
+                if (!changes.isEmpty()) {
+                    evict(poll.serverUrl, changes, modified);
+                } else if (total != poll.total) {
+                    // Some work packages were deleted.
+                    this.workPackageStore.invalidateQueries(poll.serverUrl);
+                    this.replicaManagerProvider.get().invalidateServer(poll.serverUrl);
+                }
+                poll.lastPollStart = pollStart;
+                poll.seen = getVersions(modified.getItems());
+                poll.total = total;
+                return true;
+            } catch (ProjectManagementException | RuntimeException e) {
+                // The token probably expired, the polls resume once a user offers a new one.
+                this.logger.warn("Suspended the polls of the OpenProject server [{}] for modified work packages. "
+                    + "Root cause: [{}].", poll.serverUrl, e.getMessage());
+                this.logger.debug("Full stack trace: ", e);
+                poll.suspend();
+                return false;
+            }
+        }
+    }
+
+    private void reset(Poll poll, OpenProjectApiClient client, Instant pollStart) throws ProjectManagementException
+    {
+        poll.total = countWorkPackages(client);
+        poll.lastPollStart = pollStart;
+        poll.seen = Collections.emptyMap();
+        this.workPackageStore.invalidate(poll.serverUrl);
+        this.workPackageStore.invalidateQueries(poll.serverUrl);
+        this.replicaManagerProvider.get().invalidateServer(poll.serverUrl);
+    }
+
+    private long countWorkPackages(OpenProjectApiClient client) throws ProjectManagementException
+    {
+        Integer total = client.getWorkPackages(1, 1, ALL_WORK_PACKAGES, "").getTotalItems();
+        return (total != null) ? total : -1;
+    }
+
+    private void evict(String serverUrl, List<WorkPackage> changes, PaginatedResult<WorkPackage> modified)
+    {
+        List<WorkPackage> items = modified.getItems();
+        if (modified.getTotalItems() != null && modified.getTotalItems() > items.size()) {
+            // Too many work packages were modified to replace them one by one.
+            this.workPackageStore.invalidate(serverUrl);
+        } else {
+            changes.forEach(workPackage -> this.workPackageStore.update(serverUrl, workPackage));
+        }
+        this.workPackageStore.invalidateQueries(serverUrl);
+        this.replicaManagerProvider.get().invalidateServer(serverUrl);
+    }
+
+    private void cancel(Poll poll)
+    {
+        if (poll.future != null) {
+            poll.future.cancel(false);
+        }
+    }
+
+    private static Map<Integer, Integer> getVersions(List<WorkPackage> workPackages)
+    {
+        Map<Integer, Integer> versions = new HashMap<>();
+        for (WorkPackage workPackage : workPackages) {
+            if (workPackage.getId() != null) {
+                versions.put(workPackage.getId(), workPackage.getLockVersion());
+            }
+        }
+        return versions;
+    }
+
+    private final class Poll
+    {
+        private final String serverUrl;
+
+        private volatile String accessToken;
+
+        private OpenProjectApiClient client;
+
+        private ScheduledFuture<?> future;
+
+        /**
+         * The start of the previous poll, {@code null} when the polls start or resume.
+         */
+        private Instant lastPollStart;
+
+        /**
+         * The total number of work packages of the server, retrieved by the previous poll.
+         */
+        private long total;
+
+        /**
+         * The versions of the work packages returned by the previous poll, which are returned again by the next one
+         * since the polled periods overlap.
+         */
+        private Map<Integer, Integer> seen = Collections.emptyMap();
+
+        Poll(String serverUrl)
+        {
+            this.serverUrl = serverUrl;
+        }
+
+        synchronized void offerAccessToken(String offeredToken)
+        {
+            if (this.accessToken == null && StringUtils.isNotEmpty(offeredToken)) {
+                this.accessToken = offeredToken;
+            }
+        }
+
+        synchronized OpenProjectApiClient getClient()
+        {
+            if (this.client == null && this.accessToken != null) {
+                this.client = clientFactory.builder()
+                    .serverUrl(this.serverUrl)
+                    .authentication(new BearerTokenAuthenticator(this.accessToken))
+                    .build();
+            }
+            return this.client;
+        }
+
+        synchronized void suspend()
+        {
+            this.accessToken = null;
+            this.client = null;
+            this.lastPollStart = null;
+        }
+
+        List<WorkPackage> getChanges(List<WorkPackage> workPackages)
+        {
+            List<WorkPackage> changes = new ArrayList<>();
+            for (WorkPackage workPackage : workPackages) {
+                Integer id = workPackage.getId();
+                if (id == null || !this.seen.containsKey(id)
+                    || !Objects.equals(this.seen.get(id), workPackage.getLockVersion()))
+                {
+                    changes.add(workPackage);
+                }
+            }
+            return changes;
+        }
+    }
+}
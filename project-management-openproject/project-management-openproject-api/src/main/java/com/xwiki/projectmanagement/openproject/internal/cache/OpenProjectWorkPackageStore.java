@@ -0,0 +1,257 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.eviction.EntryEvictionConfiguration;
+import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Keeps each retrieved work package once, indexed by its id, while the cached queries only keep the ids of their work
+ * packages (see {@link WorkPackageQueryResult}). The memory used thus depends on the number of distinct work packages
+ * rather than on the number of cached queries, and a refreshed work package is seen by all the queries returning it.
+ * <p>
+ * The work packages are kept in a single LRU cache, bounded for all the servers, under keys made of the OpenProject
+ * server, since they are the same for all the users allowed to see them, of the {@code select} parameter, since a work
+ * package retrieved with only some of its fields must not be served to a query that needs all of them, and of their
+ * id. A work package is never replaced by an older version of it, as indicated by its {@code lockVersion}.
+ * <p>
+ * The store also keeps, for each server, the generation of the cached queries, which is part of their cache keys.
+ * Moving to the next generation makes all the queries cached for the server unreachable, while keeping the work
+ * packages. The work packages of a server are dropped in the same way, by moving to the next generation of the server
+ * work packages, and the unreachable entries are then evicted by the cache.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectWorkPackageStore.class)
+@Singleton
+public class OpenProjectWorkPackageStore implements Initializable, Disposable
+{
+    private static final char KEY_SEPARATOR = '#';
+
+    private final Map<String, Set<String>> selects = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> queryGenerations = new ConcurrentHashMap<>();
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private Cache<WorkPackage> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        CacheConfiguration cacheConfig = new CacheConfiguration();
+        cacheConfig.setConfigurationId("projectmanagement.openproject.workPackages");
+        LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
+        lru.setMaxEntries(this.clientConfiguration.getWorkPackagesMaxEntries());
+        cacheConfig.put(EntryEvictionConfiguration.CONFIGURATIONID, lru);
+
+        try {
+            this.cache = this.cacheManager.createNewCache(cacheConfig);
+        } catch (Exception e) {
+            throw new InitializationException("Failed to create the OpenProject work packages cache.", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * Keeps the given work packages, unless more recent versions of them are already kept.
+     *
+     * @param serverUrl the base URL of the OpenProject server from which the work packages were retrieved
+     * @param select the {@code select} parameter used to retrieve the work packages, empty when all the fields were
+     *     retrieved
+     * @param workPackages the retrieved work packages
+     * @return the ids of the given work packages, in the same order
+     */
+    public int[] putAll(String serverUrl, String select, List<WorkPackage> workPackages)
+    {
+        String prefix = getPrefix(serverUrl, select);
+        int[] ids = new int[workPackages.size()];
+        for (int i = 0; i < ids.length; i++) {
+            WorkPackage workPackage = workPackages.get(i);
+            if (workPackage.getId() != null) {
+                put(prefix + workPackage.getId(), workPackage);
+            }
+            ids[i] = workPackage.getId() != null ? workPackage.getId() : 0;
+        }
+        return ids;
+    }
+
+    /**
+     * @param serverUrl the base URL of an OpenProject server
+     * @param select the {@code select} parameter used to retrieve the work packages
+     * @param ids the ids of the needed work packages
+     * @return the kept work packages with the given ids, in the same order, or {@code null} if any of them is no
+     *     longer kept
+     */
+    public List<WorkPackage> getAll(String serverUrl, String select, int[] ids)
+    {
+        String prefix = getPrefix(serverUrl, select);
+        List<WorkPackage> workPackages = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            WorkPackage workPackage = this.cache.get(prefix + id);
+            if (workPackage == null) {
+                return null;
+            }
+            workPackages.add(workPackage);
+        }
+        return workPackages;
+    }
+
+    /**
+     * Replaces a work package with the version returned by OpenProject after it was modified. The versions retrieved
+     * with only some of the fields are dropped, since they can't be updated from the given one.
+     *
+     * @param serverUrl the base URL of the OpenProject server where the work package was modified
+     * @param workPackage the work package, with all its fields
+     */
+    public void update(String serverUrl, WorkPackage workPackage)
+    {
+        if (workPackage.getId() == null) {
+            return;
+        }
+        getSelects(serverUrl).stream().filter(select -> !select.isEmpty())
+            .forEach(select -> this.cache.remove(getPrefix(serverUrl, select) + workPackage.getId()));
+        put(getPrefix(serverUrl, "") + workPackage.getId(), workPackage);
+    }
+
+    /**
+     * @param serverUrl the base URL of an OpenProject server
+     * @return the current generation of the queries cached for the given server
+     */
+    public long getQueryGeneration(String serverUrl)
+    {
+        AtomicLong generation = this.queryGenerations.get(getKey(serverUrl));
+        return (generation != null) ? generation.get() : 0;
+    }
+
+    /**
+     * Moves to the next generation of the queries cached for the given server, so that they are sent again the next
+     * time they are needed.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     */
+    public void invalidateQueries(String serverUrl)
+    {
+        this.queryGenerations.computeIfAbsent(getKey(serverUrl), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Drops a work package, whatever the fields it was retrieved with, so that the queries returning it are sent
+     * again.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     * @param id the id of the work package to drop
+     */
+    public void invalidate(String serverUrl, int id)
+    {
+        getSelects(serverUrl).forEach(select -> this.cache.remove(getPrefix(serverUrl, select) + id));
+    }
+
+    /**
+     * Drops all the work packages retrieved from the given server.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     */
+    public void invalidate(String serverUrl)
+    {
+        this.generations.computeIfAbsent(getKey(serverUrl), key -> new AtomicLong()).incrementAndGet();
+        this.selects.remove(getKey(serverUrl));
+    }
+
+    /**
+     * Drops all the work packages.
+     */
+    public void invalidateAll()
+    {
+        this.cache.removeAll();
+        this.selects.clear();
+    }
+
+    private void put(String key, WorkPackage workPackage)
+    {
+        WorkPackage kept = this.cache.get(key);
+        if (kept == null || !isOlder(workPackage, kept)) {
+            this.cache.set(key, workPackage);
+        }
+    }
+
+    private static boolean isOlder(WorkPackage workPackage, WorkPackage kept)
+    {
+        Integer version = workPackage.getLockVersion();
+        Integer keptVersion = kept.getLockVersion();
+        return version != null && keptVersion != null && version < keptVersion;
+    }
+
+    private String getPrefix(String serverUrl, String select)
+    {
+        String key = getKey(serverUrl);
+        String selectKey = StringUtils.defaultString(select);
+        this.selects.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(selectKey);
+        AtomicLong generation = this.generations.get(key);
+        return key + KEY_SEPARATOR + ((generation != null) ? generation.get() : 0) + KEY_SEPARATOR + selectKey
+            + KEY_SEPARATOR;
+    }
+
+    private Set<String> getSelects(String serverUrl)
+    {
+        return this.selects.getOrDefault(getKey(serverUrl), Set.of());
+    }
+
+    private String getKey(String serverUrl)
+    {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/");
+    }
+}
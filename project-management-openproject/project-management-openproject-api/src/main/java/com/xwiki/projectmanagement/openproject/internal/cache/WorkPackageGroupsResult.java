@@ -0,0 +1,52 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The cached result of a work packages grouping: the number of work packages of each group, see
+ * {@link OpenProjectWorkPackageGroupsCache}.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class WorkPackageGroupsResult
+{
+    private final Map<String, Long> counts;
+
+    /**
+     * @param counts the number of work packages of each group
+     */
+    public WorkPackageGroupsResult(Map<String, Long> counts)
+    {
+        this.counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+    }
+
+    /**
+     * @return the number of work packages of each group
+     */
+    public Map<String, Long> getCounts()
+    {
+        return this.counts;
+    }
+}
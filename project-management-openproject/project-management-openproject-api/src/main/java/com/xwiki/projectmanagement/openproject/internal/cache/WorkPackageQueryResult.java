@@ -0,0 +1,65 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * The cached result of a work packages query: only the ordered ids of the work packages and the pagination
+ * information are kept, the work packages themselves live in the {@link OpenProjectWorkPackageStore}.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class WorkPackageQueryResult extends PaginatedResult<WorkPackage>
+{
+    private final int[] ids;
+
+    /**
+     * @param result the retrieved result of the query
+     * @param ids the ids of the work packages of the result, in order
+     */
+    public WorkPackageQueryResult(PaginatedResult<WorkPackage> result, int[] ids)
+    {
+        super(Collections.emptyList(), result.getPage(), result.getPageSize(), result.getTotalItems());
+        this.ids = ids;
+    }
+
+    /**
+     * @return the ids of the work packages of the result, in order
+     */
+    public int[] getIds()
+    {
+        return this.ids;
+    }
+
+    /**
+     * @param workPackages the work packages matching the ids of this result
+     * @return the result of the query holding the given work packages
+     */
+    public PaginatedResult<WorkPackage> resolve(List<WorkPackage> workPackages)
+    {
+        return new PaginatedResult<>(workPackages, getPage(), getPageSize(), getTotalItems());
+    }
+}
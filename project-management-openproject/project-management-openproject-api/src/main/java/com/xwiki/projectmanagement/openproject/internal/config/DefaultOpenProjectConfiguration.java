@@ -23,8 +23,10 @@ import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
@@ -45,6 +47,7 @@ import org.xwiki.contrib.oidc.OAuth2ClientScriptService;
 import org.xwiki.contrib.oidc.OAuth2Exception;
 import org.xwiki.script.service.ScriptService;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xwiki.projectmanagement.exception.AuthenticationException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
@@ -52,6 +55,14 @@ import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
 import com.xwiki.projectmanagement.openproject.auth.BearerTokenAuthenticator;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectResponseValidatorCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackagePoller;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectCacheEvictionListener;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
 import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
 
 /**
@@ -86,6 +97,33 @@ public class DefaultOpenProjectConfiguration implements OpenProjectConfiguration
     @Inject
     private OpenProjectApiClientFactory openProjectApiClientFactory;
 
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    @Inject
+    private OpenProjectResponseValidatorCache validatorCache;
+
+    @Inject
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @Inject
+    private OpenProjectWorkPackageGroupsCache groupsCache;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectWorkPackagePoller workPackagePoller;
+
+    @Inject
+    private Provider<OpenProjectReplicaManager> replicaManagerProvider;
+
+    @Inject
+    private OpenProjectMetrics metrics;
+
     private Cache<PaginatedResult<? extends BaseOpenProjectObject>> cache;
 
     @Override
@@ -96,12 +134,13 @@ public class DefaultOpenProjectConfiguration implements OpenProjectConfiguration
         LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
         // The access token coming from OpenProject has a lifespan of 2 hours so we probably shouldn't have a cache
         // longer than that either.
-        lru.setLifespan(10);
+        lru.setLifespan(this.clientConfiguration.getResponsesLifespan());
         lru.setMaxEntries(1000);
         cacheConfig.put(EntryEvictionConfiguration.CONFIGURATIONID, lru);
 
         try {
             this.cache = this.cacheManager.createNewCache(cacheConfig);
+            this.cache.addCacheEntryListener(new OpenProjectCacheEvictionListener<>(this.metrics));
         } catch (Exception e) {
             // Dispose the cache if it has been created.
             if (this.cache != null) {
@@ -168,10 +207,12 @@ public class DefaultOpenProjectConfiguration implements OpenProjectConfiguration
                 CLIENT_CONFIGURATION_NOT_EXISTING, connectionName));
             return null;
         }
+        this.workPackagePoller.offerAccessToken(connection, accessToken);
         return openProjectApiClientFactory.builder()
             .serverUrl(connection.getServerURL())
+            .connectionName(connectionName)
             .authentication(new BearerTokenAuthenticator(accessToken))
-//            .caching(cache, connection.getClientId())
+            .caching(cache, getCacheNamespace(connection, accessToken))
             .build();
     }
 
@@ -189,5 +230,21 @@ public class DefaultOpenProjectConfiguration implements OpenProjectConfiguration
         if (this.cache != null) {
             this.cache.removeAll();
         }
+        this.referenceDataCache.invalidateAll();
+        this.validatorCache.invalidateAll();
+        this.workPackageStore.invalidateAll();
+        this.groupsCache.invalidateAll();
+        this.replicaManagerProvider.get().invalidateAll();
+    }
+
+    /**
+     * The responses of the OpenProject API depend on the permissions of the user owning the access token, so the
+     * cached entries are isolated per connection, user and token. A refreshed token gets a new namespace, which leaves
+     * the entries retrieved with the previous one unreachable until they expire.
+     */
+    private String getCacheNamespace(OpenProjectConnection connection, String accessToken)
+    {
+        return String.format("%s/%s/%s", connection.getConnectionName(),
+            this.contextProvider.get().getUserReference(), DigestUtils.sha256Hex(accessToken));
     }
 }
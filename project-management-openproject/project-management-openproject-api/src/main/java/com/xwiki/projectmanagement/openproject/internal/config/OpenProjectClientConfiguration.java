@@ -0,0 +1,297 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.config;
+
+import java.time.Duration;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Exposes the low level settings used when communicating with the configured OpenProject instances, such as the HTTP
+ * timeouts or the cache durations. The values set in the OpenProject administration section take precedence over the
+ * ones from {@code xwiki.properties}, where they use the {@code openproject.} prefix.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectClientConfiguration.class)
+@Singleton
+public class OpenProjectClientConfiguration
+{
+    private static final String PREFIX = "openproject.";
+
+    private static final String TTL = "TTL";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @Inject
+    @Named("openprojectperformance")
+    private ConfigurationSource performanceConfiguration;
+
+    /**
+     * @return the maximum time to wait for a connection to an OpenProject server to be established
+     */
+    public Duration getConnectTimeout()
+    {
+        return Duration.ofSeconds(getPositiveInt("http.connectTimeout", 10));
+    }
+
+    /**
+     * @return the maximum time to wait for the response of a single OpenProject API request
+     */
+    public Duration getRequestTimeout()
+    {
+        return Duration.ofSeconds(getPositiveInt("http.requestTimeout", 30));
+    }
+
+    /**
+     * @return the maximum number of threads used by the HTTP client of a connection to process the responses
+     */
+    public int getMaxHttpThreads()
+    {
+        return getPositiveInt("http.maxThreads", 8);
+    }
+
+    /**
+     * @return the maximum number of requests sent concurrently to the server of a connection; the other requests wait
+     *     for one of them to finish
+     */
+    public int getMaxConcurrentRequests()
+    {
+        return getPositiveInt("http.maxConcurrentRequests", 64);
+    }
+
+    /**
+     * @param entity the reference data entity, such as {@code statuses}, {@code types}, {@code priorities} or
+     *     {@code versions}
+     * @return the duration for which the cached values of the given entity are considered fresh; older values are
+     *     still served but refreshed in the background
+     */
+    public Duration getReferenceDataTTL(String entity)
+    {
+        Integer ttl = this.performanceConfiguration.getProperty(entity + TTL, Integer.class);
+        if (ttl != null && ttl > 0) {
+            return Duration.ofSeconds(ttl);
+        }
+        return Duration.ofSeconds(getPositiveInt(String.format("cache.%s%s", entity, TTL), 3600));
+    }
+
+    /**
+     * @return the interval at which the expired reference data is refreshed in the background
+     */
+    public Duration getReferenceDataRefreshPeriod()
+    {
+        return Duration.ofSeconds(getPositiveInt("cache.referenceDataRefreshPeriod", 60));
+    }
+
+    /**
+     * @return {@code true} if the reference data is saved in the permanent directory, in order to be served right
+     *     after a restart, without waiting for OpenProject
+     */
+    public boolean isReferenceDataSnapshotEnabled()
+    {
+        return this.xwikiProperties.getProperty(PREFIX + "cache.referenceDataSnapshot", true);
+    }
+
+    /**
+     * @return the age after which the saved reference data is not used anymore when the wiki starts
+     */
+    public Duration getReferenceDataSnapshotMaxAge()
+    {
+        return Duration.ofSeconds(getPositiveInt("cache.referenceDataSnapshotMaxAge", 604800));
+    }
+
+    /**
+     * @return the number of seconds during which the retrieved OpenProject responses are served from the cache; it can
+     *     be raised when the OpenProject instances notify the wiki about their changes through webhooks
+     */
+    public int getResponsesLifespan()
+    {
+        return getPositiveInt("cache.responsesLifespan", 10);
+    }
+
+    /**
+     * @return the maximum number of OpenProject responses kept in order to revalidate them with conditional requests
+     */
+    public int getValidatedResponsesMaxEntries()
+    {
+        return getPositiveInt("cache.validatedResponsesMaxEntries", 200);
+    }
+
+    /**
+     * @return the duration after which a response kept for revalidation is dropped if it was not requested again
+     */
+    public Duration getValidatedResponsesMaxIdle()
+    {
+        return Duration.ofSeconds(getPositiveInt("cache.validatedResponsesMaxIdle", 3600));
+    }
+
+    /**
+     * @return the maximum number of work packages kept for all the OpenProject servers and sets of retrieved fields
+     */
+    public int getWorkPackagesMaxEntries()
+    {
+        return getPositiveInt("cache.workPackagesMaxEntries", 10000);
+    }
+
+    /**
+     * @return the time during which the concurrent retrievals of single work packages are collected in order to be
+     *     sent as a single request
+     */
+    public Duration getBatchWindow()
+    {
+        return Duration.ofMillis(getPositiveInt("batch.window", 10));
+    }
+
+    /**
+     * @return the maximum number of work packages retrieved by a single batched request
+     */
+    public int getBatchMaxSize()
+    {
+        return getPositiveInt("batch.maxSize", 100);
+    }
+
+    /**
+     * @param instance the name of an OpenProject connection
+     * @return the interval at which the work packages modified on the server of the given connection are retrieved
+     *     in order to evict them from the caches, or {@link Duration#ZERO} if the server is not polled
+     */
+    public Duration getPollInterval(String instance)
+    {
+        int interval = getPositiveInt(String.format("poll.interval.%s", instance), 0);
+        return Duration.ofSeconds((interval > 0) ? interval : getPositiveInt("poll.interval", 0));
+    }
+
+    /**
+     * @return the maximum number of modified work packages retrieved by a poll; when more work packages were modified,
+     *     all the work packages of the server are evicted from the caches
+     */
+    public int getPollMaxSize()
+    {
+        return getPositiveInt("poll.maxSize", 100);
+    }
+
+    /**
+     * @param instance the name of an OpenProject connection
+     * @return {@code true} if the livedata queries of the given connection are served from a local replica of the
+     *     work packages, when possible
+     */
+    public boolean isReplicaEnabled(String instance)
+    {
+        Boolean enabled =
+            this.xwikiProperties.getProperty(String.format("%sreplica.enabled.%s", PREFIX, instance), Boolean.class);
+        if (enabled == null) {
+            enabled = this.xwikiProperties.getProperty(PREFIX + "replica.enabled", Boolean.class);
+        }
+        return Boolean.TRUE.equals(enabled);
+    }
+
+    /**
+     * @return the interval at which the work packages modified since the previous synchronization of a replica are
+     *     retrieved
+     */
+    public Duration getReplicaSyncInterval()
+    {
+        return Duration.ofSeconds(getPositiveInt("replica.syncInterval", 30));
+    }
+
+    /**
+     * @return the interval at which a replica is entirely reloaded, which also removes the deleted work packages and
+     *     the ones that can't be seen anymore; the replicas that are not used during this interval are dropped
+     */
+    public Duration getReplicaReloadInterval()
+    {
+        return Duration.ofSeconds(getPositiveInt("replica.reloadInterval", 3600));
+    }
+
+    /**
+     * @return the maximum number of work packages of a replica; the connections with more work packages are not
+     *     replicated
+     */
+    public int getReplicaMaxEntries()
+    {
+        return getPositiveInt("replica.maxEntries", 50000);
+    }
+
+    /**
+     * @return the maximum number of work packages of all the replicas; above it, the least recently used replicas
+     *     are dropped
+     */
+    public int getReplicaTotalMaxEntries()
+    {
+        return getPositiveInt("replica.totalMaxEntries", 200000);
+    }
+
+    /**
+     * @return the number of work packages retrieved by each request loading a replica
+     */
+    public int getReplicaPageSize()
+    {
+        return getPositiveInt("replica.pageSize", 500);
+    }
+
+    /**
+     * @return the duration after which a request sent to the OpenProject API, including the decoding of its response,
+     *     is recorded in the slow query log, or {@link Duration#ZERO} if the slow requests are not recorded
+     */
+    public Duration getSlowQueryThreshold()
+    {
+        Integer threshold = this.xwikiProperties.getProperty(PREFIX + "slowQuery.threshold", 2000);
+        return Duration.ofMillis((threshold != null && threshold > 0) ? threshold : 0);
+    }
+
+    /**
+     * @return the maximum number of query fingerprints kept by the slow query log; when it is reached, the fingerprint
+     *     with the smallest total duration is dropped
+     */
+    public int getSlowQueryMaxEntries()
+    {
+        return getPositiveInt("slowQuery.maxEntries", 500);
+    }
+
+    /**
+     * @param instance the name of an OpenProject connection
+     * @return the secret used by the given OpenProject instance to sign the webhook payloads it sends, or {@code null}
+     *     if the webhooks of that instance are not accepted
+     */
+    public String getWebhookSecret(String instance)
+    {
+        String secret = this.xwikiProperties.getProperty(String.format("%swebhook.secret.%s", PREFIX, instance),
+            String.class);
+        if (StringUtils.isEmpty(secret)) {
+            secret = this.xwikiProperties.getProperty(PREFIX + "webhook.secret", String.class);
+        }
+        return StringUtils.defaultIfEmpty(secret, null);
+    }
+
+    protected int getPositiveInt(String key, int defaultValue)
+    {
+        Integer value = this.xwikiProperties.getProperty(PREFIX + key, defaultValue);
+        return (value != null && value > 0) ? value : defaultValue;
+    }
+}
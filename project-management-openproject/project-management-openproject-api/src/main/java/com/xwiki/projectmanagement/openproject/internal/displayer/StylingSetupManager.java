@@ -51,8 +51,6 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
-import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
-import com.xwiki.projectmanagement.openproject.auth.BearerTokenAuthenticator;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
 import com.xwiki.projectmanagement.openproject.model.Status;
@@ -93,9 +91,6 @@ public class StylingSetupManager
     @Inject
     private OpenProjectConfiguration opConfiguration;
 
-    @Inject
-    private OpenProjectApiClientFactory openProjectApiClientFactory;
-
     @Inject
     private DocumentReferenceResolver<EntityReference> documentReferenceResolver;
 
@@ -154,10 +149,9 @@ public class StylingSetupManager
                         openProjCfgName);
                     continue;
                 }
-                OpenProjectApiClient apiClient = openProjectApiClientFactory.builder()
-                    .serverUrl(connection.getServerURL())
-                    .authentication(new BearerTokenAuthenticator(accessToken))
-                    .build();
+                // The caching client shares the statuses and types retrieved for the current user, including the
+                // ones saved before the last restart.
+                OpenProjectApiClient apiClient = opConfiguration.getOpenProjectApiClient(openProjCfgName);
 
                 StringBuilder stringBuilder = new StringBuilder();
 
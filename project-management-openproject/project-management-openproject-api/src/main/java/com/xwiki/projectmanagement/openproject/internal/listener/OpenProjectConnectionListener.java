@@ -0,0 +1,96 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.listener;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseObjectReference;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.OpenProjectHttpClientManager;
+
+/**
+ * Releases the resources held for an OpenProject connection, such as its shared HTTP client and the cached responses,
+ * when the connection is modified or removed, so that the next requests use the new configuration.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component
+@Singleton
+@Named("com.xwiki.projectmanagement.openproject.internal.listener.OpenProjectConnectionListener")
+public class OpenProjectConnectionListener extends AbstractEventListener
+{
+    private static final LocalDocumentReference CONNECTION_CLASS =
+        new LocalDocumentReference(Arrays.asList("OpenProject", "Code"), "OpenProjectConnectionClass");
+
+    private static final EntityReference ANY_CONNECTION_OBJECT =
+        BaseObjectReference.any("OpenProject.Code.OpenProjectConnectionClass");
+
+    private static final String SERVER_URL = "serverURL";
+
+    @Inject
+    private OpenProjectHttpClientManager httpClientManager;
+
+    @Inject
+    private OpenProjectConfiguration openProjectConfiguration;
+
+    /**
+     * Default constructor.
+     */
+    public OpenProjectConnectionListener()
+    {
+        super(OpenProjectConnectionListener.class.getName(),
+            Arrays.asList(new XObjectUpdatedEvent(ANY_CONNECTION_OBJECT),
+                new XObjectDeletedEvent(ANY_CONNECTION_OBJECT)));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument document = (XWikiDocument) source;
+        XWikiDocument originalDocument = document.getOriginalDocument();
+        if (originalDocument == null) {
+            return;
+        }
+
+        List<BaseObject> previousConnections = originalDocument.getXObjects(CONNECTION_CLASS);
+        for (BaseObject connection : previousConnections) {
+            if (connection != null) {
+                httpClientManager.invalidate(connection.getStringValue(SERVER_URL));
+            }
+        }
+        openProjectConfiguration.cleanCache();
+    }
+}
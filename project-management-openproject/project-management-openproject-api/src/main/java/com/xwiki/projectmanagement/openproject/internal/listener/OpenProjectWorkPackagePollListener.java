@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.listener;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.internal.event.XObjectAddedEvent;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObjectReference;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackagePoller;
+
+/**
+ * Starts polling the OpenProject servers for modified work packages when the wiki is ready, and restarts the polls
+ * when a connection is added, modified or removed, so that they follow the configured connections.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component
+@Singleton
+@Named("com.xwiki.projectmanagement.openproject.internal.listener.OpenProjectWorkPackagePollListener")
+public class OpenProjectWorkPackagePollListener extends AbstractEventListener
+{
+    private static final EntityReference ANY_CONNECTION_OBJECT =
+        BaseObjectReference.any("OpenProject.Code.OpenProjectConnectionClass");
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private OpenProjectConfiguration openProjectConfiguration;
+
+    @Inject
+    private OpenProjectWorkPackagePoller workPackagePoller;
+
+    /**
+     * Default constructor.
+     */
+    public OpenProjectWorkPackagePollListener()
+    {
+        super(OpenProjectWorkPackagePollListener.class.getName(),
+            Arrays.asList(new ApplicationReadyEvent(), new XObjectAddedEvent(ANY_CONNECTION_OBJECT),
+                new XObjectUpdatedEvent(ANY_CONNECTION_OBJECT), new XObjectDeletedEvent(ANY_CONNECTION_OBJECT)));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        try {
+            List<OpenProjectConnection> connections = openProjectConfiguration.getOpenProjectConnections();
+            workPackagePoller.start(connections != null ? connections : List.of());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to start polling the OpenProject servers for modified work packages. Cause: [{}].",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+}
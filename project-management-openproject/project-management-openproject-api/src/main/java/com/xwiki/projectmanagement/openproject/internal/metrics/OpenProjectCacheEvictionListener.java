@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+
+/**
+ * Counts the entries removed from the cache of the OpenProject responses, whether they expired, were evicted to make
+ * room for other entries or were invalidated. The keys of the cached responses start with the name of the connection
+ * they were retrieved for.
+ *
+ * @param <T> the type of the cached values
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class OpenProjectCacheEvictionListener<T> implements CacheEntryListener<T>
+{
+    private final OpenProjectMetrics metrics;
+
+    /**
+     * @param metrics the statistics of the OpenProject connections
+     */
+    public OpenProjectCacheEvictionListener(OpenProjectMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<T> event)
+    {
+        // Counted as cache misses.
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<T> event)
+    {
+        String connection = StringUtils.substringBefore(event.getEntry().getKey(), "/");
+        if (StringUtils.isNotEmpty(connection)) {
+            this.metrics.getConnectionMetrics(connection).recordCacheEviction();
+        }
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<T> event)
+    {
+        // Nothing to count.
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects the statistics of the requests sent to the server of an OpenProject connection, by endpoint: the latency
+ * and the status codes of the responses, the number of bytes received and how often the results are served from the
+ * caches. The counters are only incremented, so that the threads sending requests never wait for each other.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class OpenProjectConnectionMetrics implements OpenProjectConnectionMetricsMXBean
+{
+    /**
+     * The endpoint of the requests that don't match any of the known endpoints.
+     */
+    public static final String OTHER = "other";
+
+    /**
+     * The endpoint retrieving and creating work packages.
+     */
+    public static final String WORK_PACKAGES = "work_packages";
+
+    /**
+     * The endpoint retrieving the work package statuses.
+     */
+    public static final String STATUSES = "statuses";
+
+    /**
+     * The endpoint retrieving the work package types.
+     */
+    public static final String TYPES = "types";
+
+    /**
+     * The endpoint retrieving the work package priorities.
+     */
+    public static final String PRIORITIES = "priorities";
+
+    /**
+     * The endpoint retrieving the versions.
+     */
+    public static final String VERSIONS = "versions";
+
+    /**
+     * The endpoint retrieving the users.
+     */
+    public static final String USERS = "users";
+
+    /**
+     * The endpoint retrieving the projects.
+     */
+    public static final String PROJECTS = "projects";
+
+    /**
+     * The endpoint retrieving the news.
+     */
+    public static final String NEWS = "news";
+
+    /**
+     * The endpoint retrieving the project members.
+     */
+    public static final String MEMBERSHIPS = "memberships";
+
+    /**
+     * The endpoint retrieving the sprints.
+     */
+    public static final String SPRINTS = "sprints";
+
+    private static final String AVATARS = "avatars";
+
+    private static final String FORMS = "forms";
+
+    /**
+     * The path segments identifying the endpoints; the segments of a path that are not listed here, such as the ids,
+     * are ignored so that the number of endpoints stays bounded.
+     */
+    private static final Map<String, String> ENDPOINTS = Map.ofEntries(Map.entry(WORK_PACKAGES, WORK_PACKAGES),
+        Map.entry(STATUSES, STATUSES), Map.entry(TYPES, TYPES), Map.entry(PRIORITIES, PRIORITIES),
+        Map.entry(VERSIONS, VERSIONS), Map.entry(USERS, USERS), Map.entry(PROJECTS, PROJECTS), Map.entry(NEWS, NEWS),
+        Map.entry(MEMBERSHIPS, MEMBERSHIPS), Map.entry(SPRINTS, SPRINTS), Map.entry("avatar", AVATARS),
+        Map.entry("form", FORMS), Map.entry("time_entries", "time_entries"),
+        Map.entry("wiki_page_links", "wiki_page_links"), Map.entry("openproject-metadata", "metadata"));
+
+    /**
+     * The upper bounds, in milliseconds, of the latency buckets.
+     */
+    private static final long[] LATENCY_BUCKETS = { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String connection;
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheEvictions = new LongAdder();
+
+    private final OpenProjectSlowQueryLog slowQueryLog;
+
+    /**
+     * @param connection the name of the OpenProject connection
+     */
+    public OpenProjectConnectionMetrics(String connection)
+    {
+        this(connection, null);
+    }
+
+    /**
+     * @param connection the name of the OpenProject connection
+     * @param slowQueryLog records the slow requests sent for the connection, {@code null} to not record them
+     */
+    public OpenProjectConnectionMetrics(String connection, OpenProjectSlowQueryLog slowQueryLog)
+    {
+        this.connection = connection;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @param uri the URI of a request sent to the OpenProject server
+     * @return the endpoint of the OpenProject API the request is sent to, identified by the last known segment of its
+     *     path, so that the work packages of a project are counted with the other work packages
+     */
+    public static String getEndpoint(URI uri)
+    {
+        String endpoint = OTHER;
+        String path = (uri != null) ? uri.getPath() : null;
+        if (path != null) {
+            for (String segment : path.split("/")) {
+                endpoint = ENDPOINTS.getOrDefault(segment, endpoint);
+            }
+        }
+        return endpoint;
+    }
+
+    /**
+     * Records a request that received a response.
+     *
+     * @param endpoint the endpoint the request was sent to, see {@link #getEndpoint(URI)}
+     * @param statusCode the status code of the response
+     * @param latency the time, in nanoseconds, between sending the request and receiving the response headers
+     */
+    public void recordResponse(String endpoint, int statusCode, long latency)
+    {
+        getEndpointMetrics(endpoint).recordResponse(statusCode, latency);
+    }
+
+    /**
+     * Records a request that didn't receive a response.
+     *
+     * @param endpoint the endpoint the request was sent to, see {@link #getEndpoint(URI)}
+     */
+    public void recordFailure(String endpoint)
+    {
+        getEndpointMetrics(endpoint).failures.increment();
+    }
+
+    /**
+     * @param endpoint the endpoint the decoded response was received from, see {@link #getEndpoint(URI)}
+     * @param duration the time, in nanoseconds, taken to decode the response
+     */
+    public void recordDecoding(String endpoint, long duration)
+    {
+        EndpointMetrics metrics = getEndpointMetrics(endpoint);
+        metrics.decodings.increment();
+        metrics.decodingTime.add(duration);
+    }
+
+    /**
+     * Records a result requested from the caches, which is a hit unless it is followed by a call to
+     * {@link #recordCacheMiss(String)}.
+     *
+     * @param endpoint the endpoint providing the requested result
+     */
+    public void recordCacheLookup(String endpoint)
+    {
+        getEndpointMetrics(endpoint).cacheLookups.increment();
+    }
+
+    /**
+     * Records a result that was not found in the caches and had to be retrieved from the server.
+     *
+     * @param endpoint the endpoint providing the requested result
+     */
+    public void recordCacheMiss(String endpoint)
+    {
+        getEndpointMetrics(endpoint).cacheMisses.increment();
+    }
+
+    /**
+     * Records a result removed from the cache.
+     */
+    public void recordCacheEviction()
+    {
+        this.cacheEvictions.increment();
+    }
+
+    /**
+     * @param endpoint the endpoint the request is sent to, see {@link #getEndpoint(URI)}
+     * @param bodyHandler the handler of the response body
+     * @param <T> the type of the response body
+     * @return a handler of the response body counting the received bytes as they arrive, without changing how the
+     *     body is read
+     */
+    public <T> HttpResponse.BodyHandler<T> countResponseBytes(String endpoint, HttpResponse.BodyHandler<T> bodyHandler)
+    {
+        return countResponseBytes(endpoint, bodyHandler, null);
+    }
+
+    /**
+     * @param endpoint the endpoint the request is sent to, see {@link #getEndpoint(URI)}
+     * @param bodyHandler the handler of the response body
+     * @param requestBytes counts the bytes of this response alone, {@code null} if they are not needed
+     * @param <T> the type of the response body
+     * @return a handler of the response body counting the received bytes as they arrive, without changing how the
+     *     body is read
+     */
+    public <T> HttpResponse.BodyHandler<T> countResponseBytes(String endpoint, HttpResponse.BodyHandler<T> bodyHandler,
+        LongAdder requestBytes)
+    {
+        LongAdder responseBytes = getEndpointMetrics(endpoint).responseBytes;
+        return responseInfo -> new CountingBodySubscriber<>(bodyHandler.apply(responseInfo), responseBytes,
+            requestBytes);
+    }
+
+    /**
+     * @return the log recording the slow requests sent for the connection, {@code null} if they are not recorded
+     */
+    public OpenProjectSlowQueryLog getSlowQueryLog()
+    {
+        return (this.slowQueryLog != null && this.slowQueryLog.isEnabled()) ? this.slowQueryLog : null;
+    }
+
+    @Override
+    public String getConnection()
+    {
+        return this.connection;
+    }
+
+    @Override
+    public long getRequests()
+    {
+        return sum(metrics -> metrics.latency.getCount());
+    }
+
+    @Override
+    public long getFailures()
+    {
+        return sum(metrics -> metrics.failures.sum());
+    }
+
+    @Override
+    public long getResponseBytes()
+    {
+        return sum(metrics -> metrics.responseBytes.sum());
+    }
+
+    @Override
+    public long getCacheHits()
+    {
+        return sum(EndpointMetrics::getCacheHits);
+    }
+
+    @Override
+    public long getCacheMisses()
+    {
+        return sum(metrics -> metrics.cacheMisses.sum());
+    }
+
+    @Override
+    public long getCacheEvictions()
+    {
+        return this.cacheEvictions.sum();
+    }
+
+    @Override
+    public Map<String, OpenProjectEndpointStatistics> getEndpoints()
+    {
+        Map<String, OpenProjectEndpointStatistics> statistics = new TreeMap<>();
+        this.endpoints.forEach((endpoint, metrics) -> statistics.put(endpoint, metrics.getStatistics()));
+        return statistics;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.endpoints.clear();
+        this.cacheEvictions.reset();
+    }
+
+    private EndpointMetrics getEndpointMetrics(String endpoint)
+    {
+        return this.endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+    }
+
+    private long sum(ToLongFunction<EndpointMetrics> counter)
+    {
+        return this.endpoints.values().stream().mapToLong(counter).sum();
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * The counters of an endpoint.
+     */
+    private static final class EndpointMetrics
+    {
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder responseBytes = new LongAdder();
+
+        private final LongAdder decodings = new LongAdder();
+
+        private final LongAdder decodingTime = new LongAdder();
+
+        private final LongAdder cacheLookups = new LongAdder();
+
+        private final LongAdder cacheMisses = new LongAdder();
+
+        void recordResponse(int statusCode, long latency)
+        {
+            this.statusCodes.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+            this.latency.record(latency);
+        }
+
+        long getCacheHits()
+        {
+            // A miss can be recorded after the statistics were read, but before the lookup that caused it.
+            return Math.max(0, this.cacheLookups.sum() - this.cacheMisses.sum());
+        }
+
+        OpenProjectEndpointStatistics getStatistics()
+        {
+            Map<String, Long> codes = new TreeMap<>();
+            this.statusCodes.forEach((code, count) -> codes.put(String.valueOf(code), count.sum()));
+            long count = this.latency.getCount();
+            long decodingCount = this.decodings.sum();
+            return new OpenProjectEndpointStatistics(count, this.failures.sum(), codes, this.latency.getBuckets(),
+                (count > 0) ? toMillis(this.latency.total.sum()) / count : 0, toMillis(this.latency.max.get()),
+                (decodingCount > 0) ? toMillis(this.decodingTime.sum()) / decodingCount : 0,
+                this.responseBytes.sum(), getCacheHits(), this.cacheMisses.sum());
+        }
+    }
+
+    /**
+     * Counts the latencies within fixed buckets, which is enough to tell the slow servers apart and costs a single
+     * increment per response.
+     */
+    private static final class LatencyHistogram
+    {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+
+        private final LongAdder total = new LongAdder();
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        LatencyHistogram()
+        {
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long latency)
+        {
+            long millis = TimeUnit.NANOSECONDS.toMillis(latency);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS.length && millis > LATENCY_BUCKETS[bucket]) {
+                bucket++;
+            }
+            this.buckets[bucket].increment();
+            this.total.add(latency);
+            this.max.accumulate(latency);
+        }
+
+        long getCount()
+        {
+            long count = 0;
+            for (LongAdder bucket : this.buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        Map<String, Long> getBuckets()
+        {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+                histogram.put(String.format("<=%dms", LATENCY_BUCKETS[i]), this.buckets[i].sum());
+            }
+            histogram.put(String.format(">%dms", LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1]),
+                this.buckets[LATENCY_BUCKETS.length].sum());
+            return histogram;
+        }
+    }
+
+    /**
+     * Forwards the response body to the subscriber reading it, counting its bytes on the way.
+     *
+     * @param <T> the type of the response body
+     */
+    private static final class CountingBodySubscriber<T> implements HttpResponse.BodySubscriber<T>
+    {
+        private final HttpResponse.BodySubscriber<T> subscriber;
+
+        private final LongAdder responseBytes;
+
+        private final LongAdder requestBytes;
+
+        CountingBodySubscriber(HttpResponse.BodySubscriber<T> subscriber, LongAdder responseBytes,
+            LongAdder requestBytes)
+        {
+            this.subscriber = subscriber;
+            this.responseBytes = responseBytes;
+            this.requestBytes = requestBytes;
+        }
+
+        @Override
+        public CompletionStage<T> getBody()
+        {
+            return this.subscriber.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item)
+        {
+            for (ByteBuffer buffer : item) {
+                this.responseBytes.add(buffer.remaining());
+                if (this.requestBytes != null) {
+                    this.requestBytes.add(buffer.remaining());
+                }
+            }
+            this.subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            this.subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            this.subscriber.onComplete();
+        }
+    }
+}
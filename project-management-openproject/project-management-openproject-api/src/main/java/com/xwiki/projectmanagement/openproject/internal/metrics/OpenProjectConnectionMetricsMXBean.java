@@ -0,0 +1,80 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the statistics of the requests sent to the server of an OpenProject connection, exposed
+ * through JMX.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public interface OpenProjectConnectionMetricsMXBean
+{
+    /**
+     * @return the name of the OpenProject connection, or the URL of its server when the requests are not sent on
+     *     behalf of a connection
+     */
+    String getConnection();
+
+    /**
+     * @return the number of requests that received a response from the server
+     */
+    long getRequests();
+
+    /**
+     * @return the number of requests that didn't receive a response, because of a timeout or a network failure
+     */
+    long getFailures();
+
+    /**
+     * @return the number of bytes received from the server
+     */
+    long getResponseBytes();
+
+    /**
+     * @return the number of results served from the caches without sending a request
+     */
+    long getCacheHits();
+
+    /**
+     * @return the number of results that had to be retrieved from the server
+     */
+    long getCacheMisses();
+
+    /**
+     * @return the number of cached results removed from the cache, because they expired, were evicted to make room
+     *     for other results or were invalidated
+     */
+    long getCacheEvictions();
+
+    /**
+     * @return the statistics of each endpoint of the OpenProject API, such as {@code work_packages}, {@code statuses},
+     *     {@code users}, {@code avatars} or {@code forms}
+     */
+    Map<String, OpenProjectEndpointStatistics> getEndpoints();
+
+    /**
+     * Restarts counting from zero.
+     */
+    void reset();
+}
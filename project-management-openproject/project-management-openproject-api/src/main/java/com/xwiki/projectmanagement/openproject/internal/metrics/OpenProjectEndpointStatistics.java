@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The statistics of the requests sent to an endpoint of the OpenProject API, at a given time.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class OpenProjectEndpointStatistics
+{
+    private final long requests;
+
+    private final long failures;
+
+    private final Map<String, Long> statusCodes;
+
+    private final Map<String, Long> latencyHistogram;
+
+    private final double averageLatency;
+
+    private final double maxLatency;
+
+    private final double averageDecodingTime;
+
+    private final long responseBytes;
+
+    private final long cacheHits;
+
+    private final long cacheMisses;
+
+    /**
+     * @param requests the number of requests that received a response
+     * @param failures the number of requests that didn't receive a response
+     * @param statusCodes the number of responses received for each status code
+     * @param latencyHistogram the number of responses received within each latency bucket
+     * @param averageLatency the average time, in milliseconds, to receive a response
+     * @param maxLatency the longest time, in milliseconds, taken to receive a response
+     * @param averageDecodingTime the average time, in milliseconds, taken to decode a response
+     * @param responseBytes the number of bytes received
+     * @param cacheHits the number of results served from the caches
+     * @param cacheMisses the number of results retrieved from the server
+     */
+    public OpenProjectEndpointStatistics(long requests, long failures, Map<String, Long> statusCodes,
+        Map<String, Long> latencyHistogram, double averageLatency, double maxLatency, double averageDecodingTime,
+        long responseBytes, long cacheHits, long cacheMisses)
+    {
+        this.requests = requests;
+        this.failures = failures;
+        this.statusCodes = Collections.unmodifiableMap(statusCodes);
+        this.latencyHistogram = Collections.unmodifiableMap(latencyHistogram);
+        this.averageLatency = averageLatency;
+        this.maxLatency = maxLatency;
+        this.averageDecodingTime = averageDecodingTime;
+        this.responseBytes = responseBytes;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * @return the number of requests that received a response
+     */
+    public long getRequests()
+    {
+        return this.requests;
+    }
+
+    /**
+     * @return the number of requests that didn't receive a response, because of a timeout or a network failure
+     */
+    public long getFailures()
+    {
+        return this.failures;
+    }
+
+    /**
+     * @return the number of responses received for each status code
+     */
+    public Map<String, Long> getStatusCodes()
+    {
+        return this.statusCodes;
+    }
+
+    /**
+     * @return the number of responses received within each latency bucket, such as {@code <=100ms}; the last bucket
+     *     counts the responses slower than all the others
+     */
+    public Map<String, Long> getLatencyHistogram()
+    {
+        return this.latencyHistogram;
+    }
+
+    /**
+     * @return the average time, in milliseconds, between sending a request and receiving the response headers
+     */
+    public double getAverageLatency()
+    {
+        return this.averageLatency;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, between sending a request and receiving the response headers
+     */
+    public double getMaxLatency()
+    {
+        return this.maxLatency;
+    }
+
+    /**
+     * @return the average time, in milliseconds, taken to decode a response; it includes the download of the body
+     *     when the body is decoded while being downloaded, as for the work packages
+     */
+    public double getAverageDecodingTime()
+    {
+        return this.averageDecodingTime;
+    }
+
+    /**
+     * @return the number of bytes received
+     */
+    public long getResponseBytes()
+    {
+        return this.responseBytes;
+    }
+
+    /**
+     * @return the number of results served from the caches without sending a request
+     */
+    public long getCacheHits()
+    {
+        return this.cacheHits;
+    }
+
+    /**
+     * @return the number of results that had to be retrieved from the server
+     */
+    public long getCacheMisses()
+    {
+        return this.cacheMisses;
+    }
+}
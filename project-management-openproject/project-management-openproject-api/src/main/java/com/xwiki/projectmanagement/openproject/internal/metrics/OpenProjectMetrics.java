@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+
+/**
+ * Keeps the statistics of the requests sent to the OpenProject servers, for each connection, and exposes them as JMX
+ * MBeans named {@code com.xwiki.projectmanagement:type=OpenProjectConnection,name=<connection>}, in order to size the
+ * caches and to spot the slow servers.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectMetrics.class)
+@Singleton
+public class OpenProjectMetrics implements Disposable
+{
+    private static final String OBJECT_NAME = "com.xwiki.projectmanagement:type=OpenProjectConnection,name=%s";
+
+    private final Map<String, OpenProjectConnectionMetrics> connections = new ConcurrentHashMap<>();
+
+    @Inject
+    private OpenProjectSlowQueryLog slowQueryLog;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param connection the name of an OpenProject connection, or the URL of a server when the requests are not sent
+     *     on behalf of a connection
+     * @return the statistics of the given connection, registered as an MBean the first time they are requested
+     */
+    public OpenProjectConnectionMetrics getConnectionMetrics(String connection)
+    {
+        return this.connections.computeIfAbsent(connection, this::register);
+    }
+
+    /**
+     * @return the statistics of all the connections that sent requests, sorted by connection
+     */
+    public List<OpenProjectConnectionMetrics> getConnectionMetrics()
+    {
+        List<OpenProjectConnectionMetrics> metrics = new ArrayList<>(this.connections.values());
+        metrics.sort(Comparator.comparing(OpenProjectConnectionMetrics::getConnection));
+        return metrics;
+    }
+
+    /**
+     * Restarts counting from zero, for all the connections.
+     */
+    public void reset()
+    {
+        this.connections.values().forEach(OpenProjectConnectionMetrics::reset);
+    }
+
+    @Override
+    public void dispose()
+    {
+        Collection<String> names = new ArrayList<>(this.connections.keySet());
+        this.connections.clear();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String name : names) {
+            try {
+                ObjectName objectName = getObjectName(name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                this.logger.debug("Failed to unregister the OpenProject metrics of [{}].", name, e);
+            }
+        }
+    }
+
+    private OpenProjectConnectionMetrics register(String connection)
+    {
+        OpenProjectConnectionMetrics metrics = new OpenProjectConnectionMetrics(connection, this.slowQueryLog);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = getObjectName(connection);
+            // The MBean of a previous instance of the component, e.g. after an extension upgrade, is replaced.
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(metrics, objectName);
+        } catch (JMException | SecurityException e) {
+            // The statistics are still collected and available through the REST API.
+            this.logger.warn("Failed to expose the OpenProject metrics of [{}] through JMX. Cause: [{}].", connection,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+        return metrics;
+    }
+
+    private ObjectName getObjectName(String connection) throws JMException
+    {
+        return new ObjectName(String.format(OBJECT_NAME, ObjectName.quote(connection)));
+    }
+}
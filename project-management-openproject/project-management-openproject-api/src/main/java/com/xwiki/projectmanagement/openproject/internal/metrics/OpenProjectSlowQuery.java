@@ -0,0 +1,156 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.util.Date;
+
+/**
+ * The requests sent to the OpenProject API that exceeded the slow query threshold and share the same fingerprint, at
+ * a given time.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class OpenProjectSlowQuery
+{
+    private final String connection;
+
+    private final String fingerprint;
+
+    private final long count;
+
+    private final double totalDuration;
+
+    private final double maxDuration;
+
+    private final int maxPageSize;
+
+    private final long maxResponseBytes;
+
+    private final String lastPage;
+
+    private final Date lastSeen;
+
+    /**
+     * @param connection the name of the OpenProject connection the requests were sent for
+     * @param fingerprint the normalized endpoint, filters, sort criteria and selected fields of the requests, without
+     *     the filter values
+     * @param count the number of slow requests
+     * @param totalDuration the time, in milliseconds, taken by all the slow requests
+     * @param maxDuration the longest time, in milliseconds, taken by one of the requests
+     * @param maxPageSize the largest page size requested, 0 when the requests were not paginated
+     * @param maxResponseBytes the largest response received, in bytes
+     * @param lastPage the wiki page that triggered the last slow request, {@code null} if it is not known
+     * @param lastSeen when the last slow request was sent
+     */
+    public OpenProjectSlowQuery(String connection, String fingerprint, long count, double totalDuration,
+        double maxDuration, int maxPageSize, long maxResponseBytes, String lastPage, Date lastSeen)
+    {
+        this.connection = connection;
+        this.fingerprint = fingerprint;
+        this.count = count;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+        this.maxPageSize = maxPageSize;
+        this.maxResponseBytes = maxResponseBytes;
+        this.lastPage = lastPage;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @return the name of the OpenProject connection the requests were sent for
+     */
+    public String getConnection()
+    {
+        return this.connection;
+    }
+
+    /**
+     * @return the normalized endpoint, filters, sort criteria and selected fields of the requests
+     */
+    public String getFingerprint()
+    {
+        return this.fingerprint;
+    }
+
+    /**
+     * @return the number of slow requests
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @return the time, in milliseconds, taken by all the slow requests
+     */
+    public double getTotalDuration()
+    {
+        return this.totalDuration;
+    }
+
+    /**
+     * @return the average time, in milliseconds, taken by the slow requests
+     */
+    public double getAverageDuration()
+    {
+        return (this.count > 0) ? this.totalDuration / this.count : 0;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, taken by one of the requests
+     */
+    public double getMaxDuration()
+    {
+        return this.maxDuration;
+    }
+
+    /**
+     * @return the largest page size requested, 0 when the requests were not paginated
+     */
+    public int getMaxPageSize()
+    {
+        return this.maxPageSize;
+    }
+
+    /**
+     * @return the largest response received, in bytes
+     */
+    public long getMaxResponseBytes()
+    {
+        return this.maxResponseBytes;
+    }
+
+    /**
+     * @return the wiki page that triggered the last slow request, {@code null} if it is not known
+     */
+    public String getLastPage()
+    {
+        return this.lastPage;
+    }
+
+    /**
+     * @return when the last slow request was sent
+     */
+    public Date getLastSeen()
+    {
+        return (this.lastSeen != null) ? new Date(this.lastSeen.getTime()) : null;
+    }
+}
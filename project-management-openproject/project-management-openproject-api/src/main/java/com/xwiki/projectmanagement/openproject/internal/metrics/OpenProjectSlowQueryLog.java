@@ -0,0 +1,299 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URIBuilder;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+/**
+ * Records the requests sent to the OpenProject API that take longer than the configured threshold, aggregated by a
+ * fingerprint of their endpoint, filters, sort criteria and selected fields, in order to find the few macros whose
+ * queries dominate the load of the OpenProject servers. The filter values and the ids in the paths are left out of
+ * the fingerprint, so that the same macro displayed with different values is counted once, and so that no user data
+ * is kept.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectSlowQueryLog.class)
+@Singleton
+public class OpenProjectSlowQueryLog
+{
+    private static final String FILTERS = "filters";
+
+    private static final String SORT_BY = "sortBy";
+
+    private static final String SELECT = "select";
+
+    private static final String ID = "{id}";
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The slow queries by connection and fingerprint. Slow queries are rare, so a lock is simpler than a concurrent
+     * map and allows to drop the least costly fingerprint when the log is full.
+     */
+    private final Map<String, SlowQuery> queries = new LinkedHashMap<>();
+
+    @Inject
+    private OpenProjectClientConfiguration configuration;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @return {@code true} if the slow requests are recorded
+     */
+    public boolean isEnabled()
+    {
+        return !this.configuration.getSlowQueryThreshold().isZero();
+    }
+
+    /**
+     * @return the wiki page being rendered by the current thread, which triggers the requests sent by this thread, or
+     *     {@code null} if there is none
+     */
+    public DocumentReference getCurrentPage()
+    {
+        XWikiContext xcontext = this.contextProvider.get();
+        XWikiDocument document = (xcontext != null) ? xcontext.getDoc() : null;
+        return (document != null) ? document.getDocumentReference() : null;
+    }
+
+    /**
+     * Records a request if it took longer than the configured threshold.
+     *
+     * @param connection the name of the OpenProject connection the request was sent for
+     * @param uri the URI of the request
+     * @param pageSize the requested page size, {@code null} if the request is not paginated
+     * @param duration the time, in nanoseconds, between sending the request and decoding its response
+     * @param responseBytes the number of bytes received
+     * @param page the wiki page that triggered the request, {@code null} if it is not known
+     */
+    public void record(String connection, URI uri, Integer pageSize, long duration, long responseBytes,
+        DocumentReference page)
+    {
+        long threshold = this.configuration.getSlowQueryThreshold().toNanos();
+        if (threshold == 0 || duration < threshold) {
+            return;
+        }
+
+        String fingerprint = getFingerprint(uri);
+        String pageName = (page != null) ? this.serializer.serialize(page) : null;
+        this.logger.warn("Slow OpenProject request on [{}] took [{}] ms: [{}], page size [{}], [{}] bytes, page [{}].",
+            connection, Math.round(duration / NANOS_PER_MILLI), fingerprint, pageSize, responseBytes, pageName);
+
+        String key = connection + '\n' + fingerprint;
+        synchronized (this.queries) {
+            SlowQuery query = this.queries.get(key);
+            if (query == null) {
+                if (this.queries.size() >= this.configuration.getSlowQueryMaxEntries()) {
+                    removeCheapest();
+                }
+                query = new SlowQuery(connection, fingerprint);
+                this.queries.put(key, query);
+            }
+            query.record(duration, (pageSize != null) ? pageSize : 0, responseBytes, pageName);
+        }
+    }
+
+    /**
+     * @param limit the maximum number of returned queries
+     * @return the recorded queries that took the longest in total, the costliest first
+     */
+    public List<OpenProjectSlowQuery> getTopQueries(int limit)
+    {
+        List<OpenProjectSlowQuery> top = new ArrayList<>();
+        synchronized (this.queries) {
+            for (SlowQuery query : this.queries.values()) {
+                top.add(query.getSnapshot());
+            }
+        }
+        top.sort(Comparator.comparingDouble(OpenProjectSlowQuery::getTotalDuration).reversed());
+        return (top.size() > limit) ? new ArrayList<>(top.subList(0, Math.max(0, limit))) : top;
+    }
+
+    /**
+     * Forgets all the recorded queries.
+     */
+    public void reset()
+    {
+        synchronized (this.queries) {
+            this.queries.clear();
+        }
+    }
+
+    /**
+     * @param uri the URI of a request sent to the OpenProject API
+     * @return the path of the request, where the ids are replaced by a placeholder, followed by the filters, without
+     *     their values, the sort criteria and the selected fields
+     */
+    public String getFingerprint(URI uri)
+    {
+        StringBuilder fingerprint = new StringBuilder();
+        for (String segment : uri.getPath().split("/")) {
+            if (!segment.isEmpty()) {
+                fingerprint.append('/').append(segment.chars().allMatch(Character::isDigit) ? ID : segment);
+            }
+        }
+
+        List<NameValuePair> parameters;
+        try {
+            parameters = new URIBuilder(uri).getQueryParams();
+        } catch (URISyntaxException e) {
+            // Can't happen since the URI was already parsed.
+            parameters = List.of();
+        }
+        char separator = '?';
+        for (NameValuePair parameter : parameters) {
+            String value = null;
+            if (FILTERS.equals(parameter.getName())) {
+                value = normalizeFilters(parameter.getValue());
+            } else if (SORT_BY.equals(parameter.getName()) || SELECT.equals(parameter.getName())) {
+                value = parameter.getValue();
+            }
+            if (value != null) {
+                fingerprint.append(separator).append(parameter.getName()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private String normalizeFilters(String filters)
+    {
+        StringJoiner normalized = new StringJoiner(", ", "[", "]");
+        try {
+            for (JsonNode filter : this.objectMapper.readTree(filters)) {
+                Iterator<Map.Entry<String, JsonNode>> fields = filter.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    normalized.add(field.getKey() + ' ' + field.getValue().path("operator").asText());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return "[?]";
+        }
+        return normalized.toString();
+    }
+
+    private void removeCheapest()
+    {
+        String cheapest = null;
+        long cheapestDuration = Long.MAX_VALUE;
+        for (Map.Entry<String, SlowQuery> entry : this.queries.entrySet()) {
+            if (entry.getValue().totalDuration < cheapestDuration) {
+                cheapest = entry.getKey();
+                cheapestDuration = entry.getValue().totalDuration;
+            }
+        }
+        this.queries.remove(cheapest);
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * The slow requests sharing the same connection and fingerprint, guarded by the lock of the log.
+     */
+    private static final class SlowQuery
+    {
+        private final String connection;
+
+        private final String fingerprint;
+
+        private long count;
+
+        private long totalDuration;
+
+        private long maxDuration;
+
+        private int maxPageSize;
+
+        private long maxResponseBytes;
+
+        private String lastPage;
+
+        private long lastSeen;
+
+        SlowQuery(String connection, String fingerprint)
+        {
+            this.connection = connection;
+            this.fingerprint = fingerprint;
+        }
+
+        void record(long duration, int pageSize, long responseBytes, String page)
+        {
+            this.count++;
+            this.totalDuration += duration;
+            this.maxDuration = Math.max(this.maxDuration, duration);
+            this.maxPageSize = Math.max(this.maxPageSize, pageSize);
+            this.maxResponseBytes = Math.max(this.maxResponseBytes, responseBytes);
+            if (page != null) {
+                this.lastPage = page;
+            }
+            this.lastSeen = System.currentTimeMillis();
+        }
+
+        OpenProjectSlowQuery getSnapshot()
+        {
+            return new OpenProjectSlowQuery(this.connection, this.fingerprint, this.count,
+                toMillis(this.totalDuration), toMillis(this.maxDuration), this.maxPageSize, this.maxResponseBytes,
+                this.lastPage, new Date(this.lastSeen));
+        }
+    }
+}
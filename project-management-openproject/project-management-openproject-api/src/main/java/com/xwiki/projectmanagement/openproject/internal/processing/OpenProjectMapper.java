@@ -39,6 +39,14 @@ public final class OpenProjectMapper
      */
     public static final Map<String, String> OPERATOR_MAPPING = new HashMap<>();
 
+    /**
+     * The mapping between the work item properties and the OpenProject attributes that work packages can be grouped
+     * by.
+     *
+     * @since 1.2.1
+     */
+    public static final Map<String, String> GROUP_BY_MAPPING = new HashMap<>();
+
     private static final String AUTHOR_STRING = "author";
 
     private static final String OP_BETWEEN = "<>d";
@@ -59,6 +67,13 @@ public final class OpenProjectMapper
         OPERATOR_MAPPING.put("empty", "!*");
         OPERATOR_MAPPING.put("before", OP_BETWEEN);
         OPERATOR_MAPPING.put("after", OP_BETWEEN);
+        GROUP_BY_MAPPING.put("status", "status");
+        GROUP_BY_MAPPING.put("type", "type");
+        GROUP_BY_MAPPING.put("priority", "priority");
+        GROUP_BY_MAPPING.put("project", "project");
+        GROUP_BY_MAPPING.put("assignees", "assignee");
+        GROUP_BY_MAPPING.put("creator", AUTHOR_STRING);
+        GROUP_BY_MAPPING.put("reporter", AUTHOR_STRING);
     }
 
     private OpenProjectMapper()
@@ -87,4 +102,16 @@ public final class OpenProjectMapper
     {
         return OPERATOR_MAPPING.getOrDefault(operator, operator);
     }
+
+    /**
+     * A mapping of work item properties to the OpenProject attributes used to group the work packages.
+     *
+     * @param property the work item property
+     * @return the OpenProject attribute, or {@code null} if the work packages can't be grouped by the given property
+     * @since 1.2.1
+     */
+    public static String mapGroupByProperty(String property)
+    {
+        return GROUP_BY_MAPPING.get(property);
+    }
 }
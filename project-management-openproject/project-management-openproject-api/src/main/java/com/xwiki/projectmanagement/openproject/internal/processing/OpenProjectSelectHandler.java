@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.processing;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.xwiki.projectmanagement.model.WorkItem;
+
+/**
+ * Converts the work item properties needed by a caller into the OpenProject {@code select} parameter, so that only the
+ * used fields of the work packages are retrieved.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public final class OpenProjectSelectHandler
+{
+    private static final String ELEMENTS = "elements/";
+
+    private static final String AUTHOR = "author";
+
+    /**
+     * The collection fields and the work package fields that are always needed, in order to paginate, to identify the
+     * work packages and to know their version.
+     */
+    private static final List<String> BASE_FIELDS = List.of("total", "count", "pageSize", "offset", ELEMENTS + "id",
+        ELEMENTS + "subject", ELEMENTS + "lockVersion");
+
+    private static final Map<String, List<String>> FIELD_MAPPING = new HashMap<>();
+
+    static {
+        FIELD_MAPPING.put(WorkItem.KEY_IDENTIFIER, List.of());
+        FIELD_MAPPING.put(WorkItem.KEY_SUMMARY, List.of());
+        FIELD_MAPPING.put(WorkItem.KEY_DESCRIPTION, List.of("description"));
+        FIELD_MAPPING.put(WorkItem.KEY_TYPE, List.of("type"));
+        FIELD_MAPPING.put(WorkItem.KEY_STATUS, List.of("status"));
+        FIELD_MAPPING.put(WorkItem.KEY_START_DATE, List.of("startDate", "derivedStartDate"));
+        FIELD_MAPPING.put(WorkItem.KEY_DUE_DATE, List.of("dueDate", "derivedDueDate"));
+        FIELD_MAPPING.put(WorkItem.KEY_PROGRESS, List.of("percentageDone"));
+        FIELD_MAPPING.put(WorkItem.KEY_CREATION_DATE, List.of("createdAt"));
+        FIELD_MAPPING.put(WorkItem.KEY_UPDATE_DATE, List.of("updatedAt"));
+        FIELD_MAPPING.put(WorkItem.KEY_CREATOR, List.of(AUTHOR));
+        FIELD_MAPPING.put(WorkItem.KEY_REPORTER, List.of(AUTHOR));
+        FIELD_MAPPING.put(WorkItem.KEY_ASSIGNEES, List.of("assignee"));
+        FIELD_MAPPING.put(WorkItem.KEY_PRIORITY, List.of("priority"));
+        FIELD_MAPPING.put(WorkItem.KEY_PROJECT, List.of("project"));
+    }
+
+    private OpenProjectSelectHandler()
+    {
+
+    }
+
+    /**
+     * Converts a list of work item properties into the value of the OpenProject {@code select} parameter.
+     *
+     * @param properties the work item properties (e.g. {@code summary} or {@code status.value}) that are needed
+     * @return the OpenProject {@code select} parameter, or an empty string when all the fields need to be retrieved,
+     *     i.e. when no property is given or when some property can't be mapped to an OpenProject field
+     */
+    public static String convertProperties(List<String> properties)
+    {
+        if (properties == null || properties.isEmpty()) {
+            return "";
+        }
+
+        Set<String> fields = new LinkedHashSet<>(BASE_FIELDS);
+        for (String property : properties) {
+            // Flattened properties (e.g. identifier.value) are retrieved as a whole.
+            int separatorIndex = property.indexOf('.');
+            String key = separatorIndex > 0 ? property.substring(0, separatorIndex) : property;
+            List<String> mappedFields = FIELD_MAPPING.get(key);
+            if (mappedFields == null) {
+                // Custom fields or properties we don't know about can't be selected safely.
+                return "";
+            }
+            mappedFields.forEach(field -> fields.add(ELEMENTS + field));
+        }
+        return String.join(",", fields);
+    }
+}
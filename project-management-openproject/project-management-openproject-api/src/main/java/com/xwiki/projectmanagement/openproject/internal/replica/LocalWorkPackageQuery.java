@@ -0,0 +1,313 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.replica;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.livedata.LiveDataQuery;
+
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Evaluates the livedata filters and sort entries on the replicated work packages, the way OpenProject would evaluate
+ * the filters and sorting produced by
+ * {@link com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectFilterHandler} and
+ * {@link com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectSortingHandler}. Only the properties
+ * and operators whose result doesn't depend on data that the work packages lack are supported, e.g. the priorities
+ * can't be filtered since their ids are not kept, and the statuses can't be sorted since OpenProject sorts them by
+ * their position.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class LocalWorkPackageQuery
+{
+    private static final Pattern LINK_ID = Pattern.compile("/(\\d+)(?:/edit)?$");
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+
+    private static final String EQUALS = "=";
+
+    private static final String NOT_EQUALS = "!";
+
+    private static final String ANY = "*";
+
+    private static final String NONE = "!*";
+
+    private static final String IDENTIFIER = "identifier";
+
+    private static final String SUMMARY = "summary";
+
+    private static final String PROGRESS = "progress";
+
+    private static final String START_DATE = "startDate";
+
+    private static final String DUE_DATE = "dueDate";
+
+    private static final String CREATION_DATE = "creationDate";
+
+    private static final String UPDATE_DATE = "updateDate";
+
+    private static final Map<String, Function<WorkPackage, String>> LIST_PROPERTIES = Map.of(
+        IDENTIFIER, workPackage -> Objects.toString(workPackage.getId(), null),
+        "type", workPackage -> getLinkId(workPackage.getTypeOfWorkPackage()),
+        "status", workPackage -> getLinkId(workPackage.getStatus()),
+        "creator", workPackage -> getLinkId(workPackage.getAuthor()),
+        "reporter", workPackage -> getLinkId(workPackage.getAuthor()),
+        "assignees", workPackage -> getLinkId(workPackage.getAssignee()),
+        "project", workPackage -> getLinkId(workPackage.getProject()));
+
+    private static final Map<String, Function<WorkPackage, Date>> DATE_PROPERTIES = Map.of(
+        START_DATE, WorkPackage::getStartDate,
+        DUE_DATE, WorkPackage::getDueDate,
+        CREATION_DATE, WorkPackage::getCreatedAt,
+        UPDATE_DATE, WorkPackage::getUpdatedAt);
+
+    private static final Map<String, Comparator<WorkPackage>> SORT_PROPERTIES = Map.of(
+        IDENTIFIER, Comparator.comparing(WorkPackage::getId, Comparator.nullsLast(Comparator.naturalOrder())),
+        SUMMARY, Comparator.comparing(WorkPackage::getSubject,
+            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)),
+        PROGRESS, Comparator.comparing(WorkPackage::getPercentageDone,
+            Comparator.nullsLast(Comparator.naturalOrder())),
+        START_DATE, byDate(WorkPackage::getStartDate),
+        DUE_DATE, byDate(WorkPackage::getDueDate),
+        CREATION_DATE, byDate(WorkPackage::getCreatedAt),
+        UPDATE_DATE, byDate(WorkPackage::getUpdatedAt));
+
+    private final Predicate<WorkPackage> filter;
+
+    private final Comparator<WorkPackage> order;
+
+    private LocalWorkPackageQuery(Predicate<WorkPackage> filter, Comparator<WorkPackage> order)
+    {
+        this.filter = filter;
+        this.order = order;
+    }
+
+    /**
+     * @param filters the livedata filters
+     * @param sortEntries the livedata sort entries
+     * @return the query evaluating the given filters and sort entries, or {@code null} if some of them can't be
+     *     evaluated locally
+     */
+    static LocalWorkPackageQuery of(List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries)
+    {
+        Predicate<WorkPackage> filter = workPackage -> true;
+        for (LiveDataQuery.Filter livedataFilter : (filters != null) ? filters : List.<LiveDataQuery.Filter>of()) {
+            Predicate<WorkPackage> propertyFilter = getPropertyFilter(livedataFilter);
+            if (propertyFilter == null) {
+                return null;
+            }
+            filter = filter.and(propertyFilter);
+        }
+
+        // OpenProject orders the work packages by id when no sorting is specified, and uses it to break the ties.
+        Comparator<WorkPackage> order = null;
+        for (LiveDataQuery.SortEntry sortEntry : (sortEntries != null) ? sortEntries
+            : List.<LiveDataQuery.SortEntry>of())
+        {
+            Comparator<WorkPackage> comparator = SORT_PROPERTIES.get(sortEntry.getProperty());
+            if (comparator == null) {
+                return null;
+            }
+            comparator = sortEntry.isDescending() ? comparator.reversed() : comparator;
+            order = (order == null) ? comparator : order.thenComparing(comparator);
+        }
+        Comparator<WorkPackage> byId = SORT_PROPERTIES.get(IDENTIFIER);
+        return new LocalWorkPackageQuery(filter, (order == null) ? byId : order.thenComparing(byId));
+    }
+
+    /**
+     * @param workPackages the replicated work packages
+     * @return the work packages matching the filters, sorted
+     */
+    List<WorkPackage> apply(Collection<WorkPackage> workPackages)
+    {
+        return workPackages.stream().filter(this.filter).sorted(this.order).collect(Collectors.toList());
+    }
+
+    private static Predicate<WorkPackage> getPropertyFilter(LiveDataQuery.Filter livedataFilter)
+    {
+        // Like OpenProject, the values of the same operator match any of them, and the operators must all match.
+        Map<String, List<String>> constraints = new LinkedHashMap<>();
+        for (LiveDataQuery.Constraint constraint : livedataFilter.getConstraints()) {
+            String value = (constraint.getValue() != null) ? String.valueOf(constraint.getValue()) : "";
+            String operator = constraint.getOperator();
+            if (value.isEmpty() && !ANY.equals(operator) && !NONE.equals(operator)) {
+                if ("t".equals(operator) || "w".equals(operator) || "o".equals(operator) || "c".equals(operator)) {
+                    return null;
+                }
+                continue;
+            }
+            constraints.computeIfAbsent(operator, key -> new ArrayList<>()).add(value);
+        }
+
+        Predicate<WorkPackage> filter = workPackage -> true;
+        for (Map.Entry<String, List<String>> constraint : constraints.entrySet()) {
+            Predicate<WorkPackage> operatorFilter =
+                getOperatorFilter(livedataFilter.getProperty(), constraint.getKey(), constraint.getValue());
+            if (operatorFilter == null) {
+                return null;
+            }
+            filter = filter.and(operatorFilter);
+        }
+        return filter;
+    }
+
+    private static Predicate<WorkPackage> getOperatorFilter(String property, String operator, List<String> values)
+    {
+        if (LIST_PROPERTIES.containsKey(property)) {
+            return getListFilter(LIST_PROPERTIES.get(property), operator, values);
+        } else if (SUMMARY.equals(property)) {
+            return getTextFilter(WorkPackage::getSubject, operator, values);
+        } else if (PROGRESS.equals(property)) {
+            return getNumberFilter(WorkPackage::getPercentageDone, operator, values);
+        } else if (DATE_PROPERTIES.containsKey(property)) {
+            return getDateFilter(DATE_PROPERTIES.get(property), operator, values);
+        }
+        return null;
+    }
+
+    private static Predicate<WorkPackage> getListFilter(Function<WorkPackage, String> property, String operator,
+        List<String> values)
+    {
+        switch (operator) {
+            case EQUALS:
+                return workPackage -> values.contains(property.apply(workPackage));
+            case NOT_EQUALS:
+                return workPackage -> !values.contains(property.apply(workPackage));
+            case ANY:
+                return workPackage -> property.apply(workPackage) != null;
+            case NONE:
+                return workPackage -> property.apply(workPackage) == null;
+            default:
+                return null;
+        }
+    }
+
+    private static Predicate<WorkPackage> getTextFilter(Function<WorkPackage, String> property, String operator,
+        List<String> values)
+    {
+        switch (operator) {
+            case "~":
+            case "contains":
+                return workPackage -> values.stream()
+                    .anyMatch(value -> StringUtils.containsIgnoreCase(property.apply(workPackage), value));
+            case "!~":
+                return workPackage -> values.stream()
+                    .noneMatch(value -> StringUtils.containsIgnoreCase(property.apply(workPackage), value));
+            default:
+                return null;
+        }
+    }
+
+    private static Predicate<WorkPackage> getNumberFilter(Function<WorkPackage, Integer> property, String operator,
+        List<String> values)
+    {
+        List<Integer> numbers = new ArrayList<>();
+        for (String value : values) {
+            if (!value.isEmpty()) {
+                if (!StringUtils.isNumeric(value)) {
+                    return null;
+                }
+                numbers.add(Integer.valueOf(value));
+            }
+        }
+        switch (operator) {
+            case EQUALS:
+                return workPackage -> numbers.contains(property.apply(workPackage));
+            case NOT_EQUALS:
+                return workPackage -> !numbers.contains(property.apply(workPackage));
+            case ">=":
+                return workPackage -> property.apply(workPackage) != null && numbers.stream()
+                    .anyMatch(number -> property.apply(workPackage) >= number);
+            case "<=":
+                return workPackage -> property.apply(workPackage) != null && numbers.stream()
+                    .anyMatch(number -> property.apply(workPackage) <= number);
+            case ANY:
+                return workPackage -> property.apply(workPackage) != null;
+            case NONE:
+                return workPackage -> property.apply(workPackage) == null;
+            default:
+                return null;
+        }
+    }
+
+    private static Predicate<WorkPackage> getDateFilter(Function<WorkPackage, Date> property, String operator,
+        List<String> values)
+    {
+        // The dates are compared as ISO 8601 days, which sort in chronological order.
+        Function<WorkPackage, String> day = workPackage -> formatDate(property.apply(workPackage));
+        switch (operator) {
+            case "=d":
+                return workPackage -> values.contains(day.apply(workPackage));
+            case "between":
+                return workPackage -> values.stream().anyMatch(value -> isBetween(day.apply(workPackage),
+                    StringUtils.substringBefore(value, "/"), StringUtils.substringAfter(value, "/")));
+            case "before":
+                return workPackage -> values.stream().anyMatch(value -> isBetween(day.apply(workPackage), "", value));
+            case "after":
+                return workPackage -> values.stream().anyMatch(value -> isBetween(day.apply(workPackage), value, ""));
+            case NONE:
+                return workPackage -> day.apply(workPackage) == null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isBetween(String day, String from, String to)
+    {
+        return day != null && (from.isEmpty() || day.compareTo(from) >= 0) && (to.isEmpty() || day.compareTo(to) <= 0);
+    }
+
+    private static String formatDate(Date date)
+    {
+        return (date != null) ? new SimpleDateFormat(DATE_FORMAT).format(date) : null;
+    }
+
+    private static Comparator<WorkPackage> byDate(Function<WorkPackage, Date> property)
+    {
+        return Comparator.comparing(property, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    private static String getLinkId(Linkable link)
+    {
+        if (link == null || link.getLocation() == null) {
+            return null;
+        }
+        Matcher matcher = LINK_ID.matcher(link.getLocation());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.replica;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.livedata.LiveDataQuery;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
+import com.xwiki.projectmanagement.openproject.auth.BearerTokenAuthenticator;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.OpenProjectConverters;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * Serves the livedata queries of the OpenProject connections from local replicas of their work packages, so that
+ * sorting, filtering and paging a table don't need a request to OpenProject. The replicas are opt-in, see
+ * {@link OpenProjectClientConfiguration#isReplicaEnabled(String)}.
+ * <p>
+ * The work packages returned by OpenProject depend on the permissions of the user, so each user gets its own replica
+ * of a connection. A replica is loaded in the background the first time it is needed, and then kept in sync with the
+ * modifications made on OpenProject. The queries are sent to OpenProject while the replica is loading, when the
+ * connection has too many work packages to be replicated, and when they use filters or sort entries that can't be
+ * evaluated locally (see {@link LocalWorkPackageQuery}).
+ * <p>
+ * The replicas of a server are dropped when its work packages are known to be modified, by the wiki, a webhook or a
+ * poll, so that they are reloaded with the modifications. The replicas of all the users share a budget of work
+ * packages, see {@link OpenProjectClientConfiguration#getReplicaTotalMaxEntries()}, above which the least recently
+ * used replicas are dropped.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectReplicaManager.class)
+@Singleton
+public class OpenProjectReplicaManager implements Initializable, Disposable
+{
+    private final Map<String, WorkPackageReplica> replicas = new ConcurrentHashMap<>();
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private OpenProjectConfiguration configuration;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectApiClientFactory clientFactory;
+
+    @Inject
+    private ProjectManagementExecutors executors;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    private ExecutorService syncExecutor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.syncExecutor = this.executors.newExecutor("OpenProject replica", 2);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.syncExecutor != null) {
+            this.syncExecutor.shutdownNow();
+        }
+        this.replicas.clear();
+    }
+
+    /**
+     * Evaluates a livedata query on the replica of the given connection for the current user.
+     *
+     * @param connectionName the name of the OpenProject connection
+     * @param offset the index of the first work item to return
+     * @param limit the maximum number of work items to return
+     * @param filters the livedata filters
+     * @param sortEntries the livedata sort entries
+     * @return the requested work items, or {@code null} if the query must be sent to OpenProject
+     */
+    public PaginatedResult<WorkItem> query(String connectionName, int offset, int limit,
+        List<LiveDataQuery.Filter> filters, List<LiveDataQuery.SortEntry> sortEntries)
+    {
+        if (StringUtils.isEmpty(connectionName) || !this.clientConfiguration.isReplicaEnabled(connectionName)) {
+            return null;
+        }
+        LocalWorkPackageQuery query = LocalWorkPackageQuery.of(filters, sortEntries);
+        if (query == null) {
+            return null;
+        }
+        WorkPackageReplica replica = getReplica(connectionName);
+        Collection<WorkPackage> workPackages = (replica != null) ? replica.getSnapshot() : null;
+        if (workPackages == null) {
+            return null;
+        }
+
+        List<WorkPackage> matches = query.apply(workPackages);
+        int pageSize = Math.max(limit, 1);
+        List<WorkItem> page = matches.stream().skip(Math.max(offset, 0)).limit(pageSize)
+            .map(OpenProjectConverters::convertWorkPackageToWorkItem).collect(Collectors.toList());
+        return new PaginatedResult<>(page, (offset / pageSize) + 1, pageSize, matches.size());
+    }
+
+    /**
+     * Drops the replicas of the given connection, for all the users.
+     *
+     * @param connectionName the name of the OpenProject connection
+     */
+    public void invalidate(String connectionName)
+    {
+        this.replicas.keySet().removeIf(key -> key.startsWith(connectionName + '/'));
+    }
+
+    /**
+     * Drops the replicas of the connections to the given server, for all the users.
+     *
+     * @param serverUrl the base URL of an OpenProject server
+     */
+    public void invalidateServer(String serverUrl)
+    {
+        String serverKey = getServerKey(serverUrl);
+        this.replicas.values().removeIf(replica -> serverKey.equals(replica.getServerKey()));
+    }
+
+    /**
+     * Drops all the replicas.
+     */
+    public void invalidateAll()
+    {
+        this.replicas.clear();
+    }
+
+    private WorkPackageReplica getReplica(String connectionName)
+    {
+        OpenProjectConnection connection = this.configuration.getConnection(connectionName);
+        String accessToken = this.configuration.getAccessTokenForConfiguration(connectionName);
+        if (connection == null || StringUtils.isEmpty(accessToken)) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long reloadInterval = this.clientConfiguration.getReplicaReloadInterval().toMillis();
+        this.replicas.values().removeIf(replica -> now - replica.getLastAccess() > reloadInterval);
+
+        String key = String.format("%s/%s", connectionName, this.contextProvider.get().getUserReference());
+        WorkPackageReplica replica = this.replicas.computeIfAbsent(key, k -> new WorkPackageReplica());
+        if (!accessToken.equals(replica.getAccessToken())) {
+            replica.setClient(this.clientFactory.builder()
+                .serverUrl(connection.getServerURL())
+                .connectionName(connectionName)
+                .authentication(new BearerTokenAuthenticator(accessToken))
+                .build(), accessToken, getServerKey(connection.getServerURL()));
+        }
+
+        if (now - replica.getLoadedAt() > reloadInterval) {
+            update(key, replica, true);
+        } else if (now - replica.getSyncedAt() > this.clientConfiguration.getReplicaSyncInterval().toMillis()) {
+            update(key, replica, false);
+        }
+        return replica;
+    }
+
+    private void update(String key, WorkPackageReplica replica, boolean reload)
+    {
+        if (!replica.acquire()) {
+            return;
+        }
+        try {
+            this.syncExecutor.execute(() -> {
+                try {
+                    if (reload) {
+                        replica.reload(this.clientConfiguration.getReplicaPageSize(),
+                            this.clientConfiguration.getReplicaMaxEntries());
+                    } else {
+                        replica.sync(this.clientConfiguration.getReplicaPageSize());
+                    }
+                    enforceBudget(replica);
+                } catch (ProjectManagementException | RuntimeException e) {
+                    // The replica keeps serving its current work packages, the next query retries.
+                    this.logger.warn("Failed to update the OpenProject work package replica [{}]. Root cause: [{}].",
+                        key, e.getMessage());
+                    this.logger.debug("Full stack trace: ", e);
+                } finally {
+                    replica.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            replica.release();
+        }
+    }
+
+    /**
+     * Drops the least recently used replicas, other than the given one, until the replicas fit in the budget.
+     */
+    private void enforceBudget(WorkPackageReplica updated)
+    {
+        int budget = this.clientConfiguration.getReplicaTotalMaxEntries();
+        long total = this.replicas.values().stream().mapToLong(WorkPackageReplica::size).sum();
+        if (total <= budget) {
+            return;
+        }
+        List<Map.Entry<String, WorkPackageReplica>> leastRecentlyUsed = this.replicas.entrySet().stream()
+            .filter(entry -> entry.getValue() != updated)
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().getLastAccess()))
+            .collect(Collectors.toList());
+        for (Map.Entry<String, WorkPackageReplica> entry : leastRecentlyUsed) {
+            if (total <= budget) {
+                break;
+            }
+            if (this.replicas.remove(entry.getKey(), entry.getValue())) {
+                total -= entry.getValue().size();
+            }
+        }
+    }
+
+    private static String getServerKey(String serverUrl)
+    {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(serverUrl), "/");
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.replica;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.FilterBuilder;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+/**
+ * The work packages of an OpenProject connection, as seen by a user. The replica is entirely loaded once, then only
+ * the work packages modified since the previous synchronization are retrieved, using an {@code updatedAt} filter. The
+ * queries read an immutable snapshot of the work packages, replaced after each synchronization.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+final class WorkPackageReplica
+{
+    /**
+     * Each synchronization also covers the end of the period of the previous one, so that the modifications are not
+     * missed when the clock of the OpenProject server is behind the one of the wiki.
+     */
+    private static final Duration SKEW_MARGIN = Duration.ofMinutes(1);
+
+    private static final String BY_ID = "[[\"id\",\"asc\"]]";
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    private volatile OpenProjectApiClient client;
+
+    private volatile String accessToken;
+
+    private volatile String serverKey;
+
+    private volatile Collection<WorkPackage> snapshot;
+
+    private volatile boolean tooLarge;
+
+    private volatile long loadedAt;
+
+    private volatile long syncedAt;
+
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    private Map<Integer, WorkPackage> workPackages = new HashMap<>();
+
+    private Instant lastSyncStart;
+
+    /**
+     * @return the work packages of the replica, or {@code null} if it was not loaded yet or it has too many work
+     *     packages
+     */
+    Collection<WorkPackage> getSnapshot()
+    {
+        this.lastAccess = System.currentTimeMillis();
+        return this.tooLarge ? null : this.snapshot;
+    }
+
+    String getAccessToken()
+    {
+        return this.accessToken;
+    }
+
+    String getServerKey()
+    {
+        return this.serverKey;
+    }
+
+    void setClient(OpenProjectApiClient client, String accessToken, String serverKey)
+    {
+        this.client = client;
+        this.accessToken = accessToken;
+        this.serverKey = serverKey;
+    }
+
+    /**
+     * @return the number of work packages kept by the replica
+     */
+    int size()
+    {
+        Collection<WorkPackage> currentSnapshot = this.snapshot;
+        return (currentSnapshot != null) ? currentSnapshot.size() : 0;
+    }
+
+    long getLoadedAt()
+    {
+        return this.loadedAt;
+    }
+
+    long getSyncedAt()
+    {
+        return this.syncedAt;
+    }
+
+    long getLastAccess()
+    {
+        return this.lastAccess;
+    }
+
+    /**
+     * @return {@code true} if the caller can load or synchronize the replica, in which case it must call
+     *     {@link #release()} afterwards
+     */
+    boolean acquire()
+    {
+        return this.busy.compareAndSet(false, true);
+    }
+
+    void release()
+    {
+        this.busy.set(false);
+    }
+
+    /**
+     * Retrieves all the work packages, replacing the current ones.
+     *
+     * @param pageSize the number of work packages retrieved by each request
+     * @param maxEntries the maximum number of work packages of the replica
+     * @throws ProjectManagementException if the work packages could not be retrieved
+     */
+    void reload(int pageSize, int maxEntries) throws ProjectManagementException
+    {
+        Instant start = Instant.now();
+        Map<Integer, WorkPackage> loaded = new HashMap<>();
+        PaginatedResult<WorkPackage> page;
+        int offset = 1;
+        do {
+            page = this.client.getWorkPackages(offset++, pageSize, "[]", BY_ID);
+            if (page.getTotalItems() != null && page.getTotalItems() > maxEntries) {
+                this.tooLarge = true;
+                this.workPackages = new HashMap<>();
+                this.snapshot = null;
+                this.loadedAt = System.currentTimeMillis();
+                this.syncedAt = this.loadedAt;
+                return;
+            }
+            page.getItems().forEach(workPackage -> loaded.put(workPackage.getId(), workPackage));
+        } while (!page.getItems().isEmpty() && page.getTotalItems() != null && loaded.size() < page.getTotalItems());
+
+        this.tooLarge = false;
+        this.workPackages = loaded;
+        this.snapshot = Collections.unmodifiableCollection(new ArrayList<>(loaded.values()));
+        this.lastSyncStart = start;
+        this.loadedAt = System.currentTimeMillis();
+        this.syncedAt = this.loadedAt;
+    }
+
+    /**
+     * Retrieves the work packages modified since the previous synchronization and replaces them in the replica.
+     *
+     * @param pageSize the number of work packages retrieved by each request
+     * @throws ProjectManagementException if the work packages could not be retrieved
+     */
+    void sync(int pageSize) throws ProjectManagementException
+    {
+        if (this.lastSyncStart == null) {
+            return;
+        }
+        Instant start = Instant.now();
+        String since = this.lastSyncStart.minus(SKEW_MARGIN).truncatedTo(ChronoUnit.SECONDS).toString();
+        String filters = FilterBuilder.get()
+            .addFilter("updatedAt", FilterBuilder.Operator.BETWEEN_DATES, Arrays.asList(since, "")).build();
+        List<WorkPackage> modified = new ArrayList<>();
+        PaginatedResult<WorkPackage> page;
+        int offset = 1;
+        do {
+            page = this.client.getWorkPackages(offset++, pageSize, filters, BY_ID);
+            modified.addAll(page.getItems());
+        } while (!page.getItems().isEmpty() && page.getTotalItems() != null && modified.size() < page.getTotalItems());
+
+        boolean changed = false;
+        for (WorkPackage workPackage : modified) {
+            WorkPackage current = this.workPackages.get(workPackage.getId());
+            if (current == null || isNewer(workPackage, current)) {
+                this.workPackages.put(workPackage.getId(), workPackage);
+                changed = true;
+            }
+        }
+        if (changed) {
+            this.snapshot = Collections.unmodifiableCollection(new ArrayList<>(this.workPackages.values()));
+        }
+        this.lastSyncStart = start;
+        this.syncedAt = System.currentTimeMillis();
+    }
+
+    private static boolean isNewer(WorkPackage workPackage, WorkPackage current)
+    {
+        return workPackage.getLockVersion() == null || current.getLockVersion() == null
+            || workPackage.getLockVersion() > current.getLockVersion();
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.Transformation;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rest.XWikiResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Api;
+import com.xpn.xwiki.plugin.skinx.SkinExtensionPluginApi;
+import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.ProjectManagementManager;
+import com.xwiki.projectmanagement.exception.WorkItemException;
+import com.xwiki.projectmanagement.internal.DefaultProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.internal.displayers.AbstractWorkItemsDisplayer;
+import com.xwiki.projectmanagement.macro.ProjectManagementMacroParameters;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.AsyncMacroBulkCallResult;
+import com.xwiki.projectmanagement.openproject.model.AsyncMacroCall;
+
+/**
+ * Endpoint for rendering many OpenProject work packages at once, as {@link AsyncMacroCallResource} would render each
+ * of them. The work packages are retrieved with a single OpenProject request, instead of one request for each of
+ * them.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
+@Component
+@Named("com.xwiki.projectmanagement.openproject.internal.rest.AsyncMacroBulkCallResource")
+@Path("/wikis/{wikiName}/openproject/async/instance/{instance}/workpackages")
+public class AsyncMacroBulkCallResource extends XWikiResource
+{
+    private static final String CLIENT = "openproject";
+
+    private static final Pattern ID_PATTERN = Pattern.compile("^\\d+$");
+
+    /**
+     * The skin extension plugins whose resources are imported by the page, in the order the page imports them.
+     */
+    private static final List<String> SKIN_EXTENSION_PLUGINS =
+        List.of("linkx", "jsfx", "jsrx", "jsx", "ssfx", "ssrx", "ssx");
+
+    @Inject
+    private ComponentManager componentManager;
+
+    @Inject
+    private ContextualAuthorizationManager authorizationManager;
+
+    @Inject
+    private ProjectManagementManager projectManagementManager;
+
+    @Inject
+    private ProjectManagementClientExecutionContext clientExecutionContext;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    @Named("macro")
+    private Transformation macroTransformation;
+
+    @Inject
+    @Named("html/5.0")
+    private PrintRendererFactory htmlRendererFactory;
+
+    @Inject
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * @param wiki the wiki that contains the OpenProject instance.
+     * @param instance the name of the OpenProject connection configuration.
+     * @param document the reference of the page displaying the work packages, used as the source of the rendered
+     *     content; optional.
+     * @param calls the displayer and the id of each work package that should be displayed.
+     * @return the HTML rendering of each work package, mapped by displayer and then by work package id, along with
+     *     the skin extensions used by the displayers, see {@link AsyncMacroBulkCallResult}; 400 if a displayer or an
+     *     id is not valid; 401 if the user does not have the rights to view the response or the given
+     *     page; 500 if the work packages could not be retrieved or displayed.
+     */
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_JSON })
+    public Response getAsyncCalls(
+        @PathParam("wikiName") String wiki,
+        @PathParam("instance") String instance,
+        @QueryParam("document") String document,
+        List<AsyncMacroCall> calls
+    )
+    {
+        DocumentReference documentReference = (document == null || document.isEmpty()) ? null
+            : documentReferenceResolver.resolve(document, new WikiReference(wiki));
+        if (!hasViewAccess(documentReference)) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        if (calls == null || calls.isEmpty()) {
+            return Response.ok(new AsyncMacroBulkCallResult(Collections.emptyMap(), "")).build();
+        }
+        try {
+            Map<String, AbstractWorkItemsDisplayer> displayers = new HashMap<>();
+            Set<String> ids = new LinkedHashSet<>();
+            for (AsyncMacroCall call : calls) {
+                if (call.getIdentifier() == null || !ID_PATTERN.matcher(call.getIdentifier()).matches()) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(String.format("The work package id [%s] is not valid.", call.getIdentifier()))
+                        .build();
+                }
+                ids.add(call.getIdentifier());
+                if (!displayers.containsKey(call.getDisplayer())) {
+                    displayers.put(call.getDisplayer(), getDisplayer(call.getDisplayer()));
+                }
+            }
+
+            Map<String, WorkItem> workItems = getWorkItems(instance, new ArrayList<>(ids));
+            Map<String, Map<String, String>> rendered =
+                renderAll(calls, displayers, workItems, instance, documentReference);
+            // The rendered HTML is injected in a page that doesn't necessarily use the skin extensions needed by the
+            // displayers, so they are returned along with it.
+            return Response.ok(new AsyncMacroBulkCallResult(rendered, getRequiredSkinExtensions())).build();
+        } catch (ComponentLookupException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        } catch (WorkItemException | MacroExecutionException | TransformationException e) {
+            return Response.serverError().build();
+        }
+    }
+
+    private boolean hasViewAccess(DocumentReference documentReference)
+    {
+        if (documentReference == null) {
+            return authorizationManager.hasAccess(Right.VIEW);
+        }
+        return authorizationManager.hasAccess(Right.VIEW, documentReference);
+    }
+
+    private Map<String, Map<String, String>> renderAll(List<AsyncMacroCall> calls,
+        Map<String, AbstractWorkItemsDisplayer> displayers, Map<String, WorkItem> workItems, String instance,
+        DocumentReference documentReference) throws MacroExecutionException, TransformationException
+    {
+        Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        for (AsyncMacroCall call : calls) {
+            WorkItem workItem = workItems.get(call.getIdentifier());
+            PaginatedResult<WorkItem> workItemList = workItem == null ? new PaginatedResult<>()
+                : new PaginatedResult<>(Collections.singletonList(workItem), 1, 1, 1);
+            result.computeIfAbsent(call.getDisplayer(), key -> new LinkedHashMap<>()).put(call.getIdentifier(),
+                render(call.getDisplayer(), displayers.get(call.getDisplayer()), workItemList, instance,
+                    documentReference));
+        }
+        return result;
+    }
+
+    /**
+     * @return the HTML importing the skin extensions used while handling the current request
+     */
+    private String getRequiredSkinExtensions()
+    {
+        XWikiContext xcontext = contextProvider.get();
+        StringBuilder imports = new StringBuilder();
+        for (String plugin : SKIN_EXTENSION_PLUGINS) {
+            Api api = xcontext.getWiki().getPluginApi(plugin, xcontext);
+            if (api instanceof SkinExtensionPluginApi) {
+                imports.append(((SkinExtensionPluginApi) api).getImportString());
+            }
+        }
+        return imports.toString();
+    }
+
+    private AbstractWorkItemsDisplayer getDisplayer(String displayer) throws ComponentLookupException
+    {
+        if (displayer == null || displayer.isEmpty()) {
+            throw new ComponentLookupException("The displayer hint is not present.");
+        }
+        Macro<?> displayerMacro = componentManager.getInstance(Macro.class, displayer);
+        if (!(displayerMacro instanceof AbstractWorkItemsDisplayer)) {
+            throw new ComponentLookupException(
+                String.format("The macro [%s] is not a work items displayer.", displayer));
+        }
+        return (AbstractWorkItemsDisplayer) displayerMacro;
+    }
+
+    private Map<String, WorkItem> getWorkItems(String instance, List<String> ids) throws WorkItemException
+    {
+        Map<String, WorkItem> workItems = new HashMap<>();
+        int batchSize = clientConfiguration.getBatchMaxSize();
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            List<String> batch = ids.subList(start, Math.min(start + batchSize, ids.size()));
+            if (clientExecutionContext instanceof DefaultProjectManagementClientExecutionContext) {
+                Map<String, Object> context = new HashMap<>();
+                context.put("instance", instance);
+                context.put("client", CLIENT);
+                context.put("identifier", String.join(",", batch));
+                ((DefaultProjectManagementClientExecutionContext) clientExecutionContext).setContext(context);
+            }
+            PaginatedResult<WorkItem> result = projectManagementManager.getWorkItems(CLIENT, 0, batch.size(),
+                Collections.emptyList(), Collections.emptyList());
+            for (WorkItem workItem : result.getItems()) {
+                workItems.put(workItem.getLinkableValue(WorkItem.KEY_IDENTIFIER), workItem);
+            }
+        }
+        return workItems;
+    }
+
+    private String render(String displayerHint, AbstractWorkItemsDisplayer displayer,
+        PaginatedResult<WorkItem> workItemList, String instance, DocumentReference documentReference)
+        throws MacroExecutionException, TransformationException
+    {
+        ProjectManagementMacroParameters parameters = new ProjectManagementMacroParameters();
+        parameters.setSourceParameters(String.format("instance=%s&client=%s&translationPrefix=%s", instance,
+            CLIENT, "openproject."));
+
+        // Display the work package as if the displayer macro was called from the given page.
+        XDOM xdom = new XDOM(Collections.emptyList());
+        TransformationContext transformationContext = new TransformationContext(xdom, Syntax.XWIKI_2_1);
+        transformationContext.setTargetSyntax(Syntax.HTML_5_0);
+        if (documentReference != null) {
+            String source = serializer.serialize(documentReference);
+            xdom.getMetaData().addMetaData(MetaData.SOURCE, source);
+            transformationContext.setId(source);
+        }
+        MacroTransformationContext macroContext = new MacroTransformationContext(transformationContext);
+        macroContext.setXDOM(xdom);
+        macroContext.setTransformation(macroTransformation);
+        macroContext.setSyntax(Syntax.XWIKI_2_1);
+        macroContext.setCurrentMacroBlock(new MacroBlock(displayerHint, Collections.emptyMap(), false));
+        List<Block> blocks = displayer.display(workItemList, parameters, macroContext);
+
+        // Execute the macros produced by the displayer, such as the warning shown when the work package is missing.
+        xdom.setChildren(blocks);
+        macroTransformation.transform(xdom, transformationContext);
+
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = htmlRendererFactory.createRenderer(printer);
+        xdom.traverse(renderer);
+        return printer.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.rest;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rest.XWikiResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectMetrics;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectSlowQueryLog;
+
+/**
+ * Exposes the statistics of the requests sent to the OpenProject servers, for each connection and endpoint, and the
+ * slowest queries. The statistics are shared by all the wikis, so they are only available to the administrators of
+ * the main wiki.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component
+@Named("com.xwiki.projectmanagement.openproject.internal.rest.OpenProjectMetricsResource")
+@Path("/wikis/{wikiName}/openproject/metrics")
+public class OpenProjectMetricsResource extends XWikiResource
+{
+    private static final String WIKI_NAME = "wikiName";
+
+    @Inject
+    private OpenProjectMetrics metrics;
+
+    @Inject
+    private OpenProjectSlowQueryLog slowQueryLog;
+
+    @Inject
+    private ContextualAuthorizationManager authorizationManager;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    /**
+     * @param wiki the wiki from which the statistics are requested
+     * @return the statistics of each connection that sent requests; 401 if the user is not an administrator of the
+     *     main wiki
+     */
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON })
+    public Response getMetrics(@PathParam(WIKI_NAME) String wiki)
+    {
+        if (!isMainWikiAdmin()) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        return Response.ok(this.metrics.getConnectionMetrics()).build();
+    }
+
+    /**
+     * Restarts counting from zero, for instance before measuring the effect of a configuration change.
+     *
+     * @param wiki the wiki from which the statistics are reset
+     * @return 204 if the statistics were reset; 401 if the user is not an administrator of the main wiki
+     */
+    @DELETE
+    public Response resetMetrics(@PathParam(WIKI_NAME) String wiki)
+    {
+        if (!isMainWikiAdmin()) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        this.metrics.reset();
+        return Response.noContent().build();
+    }
+
+    /**
+     * @param wiki the wiki from which the slow queries are requested
+     * @param limit the maximum number of returned queries
+     * @return the queries that exceeded the slow query threshold, aggregated by fingerprint, the ones that took the
+     *     longest in total first; 401 if the user is not an administrator of the main wiki
+     */
+    @GET
+    @Path("/slowQueries")
+    @Produces({ MediaType.APPLICATION_JSON })
+    public Response getSlowQueries(@PathParam(WIKI_NAME) String wiki,
+        @QueryParam("limit") @DefaultValue("20") int limit)
+    {
+        if (!isMainWikiAdmin()) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        return Response.ok(this.slowQueryLog.getTopQueries(limit)).build();
+    }
+
+    /**
+     * Forgets the recorded slow queries, for instance after fixing the macros that sent them.
+     *
+     * @param wiki the wiki from which the slow queries are reset
+     * @return 204 if the slow queries were reset; 401 if the user is not an administrator of the main wiki
+     */
+    @DELETE
+    @Path("/slowQueries")
+    public Response resetSlowQueries(@PathParam(WIKI_NAME) String wiki)
+    {
+        if (!isMainWikiAdmin()) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        this.slowQueryLog.reset();
+        return Response.noContent().build();
+    }
+
+    private boolean isMainWikiAdmin()
+    {
+        return this.authorizationManager.hasAccess(Right.ADMIN,
+            new WikiReference(this.wikiDescriptorManager.getMainWikiId()));
+    }
+}
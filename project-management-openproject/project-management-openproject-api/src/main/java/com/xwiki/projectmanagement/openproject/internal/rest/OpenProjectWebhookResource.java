@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.rest;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rest.XWikiResource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xwiki.projectmanagement.openproject.internal.webhook.OpenProjectWebhookHandler;
+
+/**
+ * Endpoint receiving the webhook events of an OpenProject instance, in order to evict the cached values they affect
+ * as soon as they change. The OpenProject webhook must be configured with a signature secret, which is set in the
+ * {@code openproject.webhook.secret.<instance>} property of {@code xwiki.properties}.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component
+@Named("com.xwiki.projectmanagement.openproject.internal.rest.OpenProjectWebhookResource")
+@Path("/wikis/{wikiName}/openproject/instance/{instance}/webhook")
+public class OpenProjectWebhookResource extends XWikiResource
+{
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Inject
+    private OpenProjectWebhookHandler webhookHandler;
+
+    /**
+     * @param wiki the wiki that contains the OpenProject instance.
+     * @param instance the name of the OpenProject connection configuration.
+     * @param signature the signature of the payload, sent by OpenProject in the {@code X-OP-Signature} header.
+     * @param payload the webhook event.
+     * @return 204 if the event was handled; 401 if the payload is not signed with the secret of the instance; 400 if
+     *     the payload is not valid JSON; 404 if the instance is not configured or the event is not supported.
+     */
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    public Response handleEvent(
+        @PathParam("wikiName") String wiki,
+        @PathParam("instance") String instance,
+        @HeaderParam("X-OP-Signature") String signature,
+        byte[] payload
+    )
+    {
+        if (!webhookHandler.isAuthentic(instance, payload, signature)) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        JsonNode event;
+        try {
+            event = jsonMapper.readTree(payload);
+        } catch (IOException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (event == null || !webhookHandler.handle(instance, event)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.noContent().build();
+    }
+}
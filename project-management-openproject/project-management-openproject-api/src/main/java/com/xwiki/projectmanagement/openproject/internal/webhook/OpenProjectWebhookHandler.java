@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.webhook;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+
+/**
+ * Handles the webhook events sent by the configured OpenProject instances, by evicting from the caches only the
+ * values affected by each event:
+ * <ul>
+ * <li>{@code work_package:*} drops the modified work package and the cached work package and project queries of its
+ * server;</li>
+ * <li>{@code time_entry:*} does the same for the work package the time was logged on, since its spent time
+ * changed;</li>
+ * <li>{@code project:*} drops the cached queries of the server and the reference data (such as the project versions)
+ * of the connection.</li>
+ * </ul>
+ * The work package replicas of the server are dropped by all the events, see {@link OpenProjectReplicaManager}.
+ * The events are accepted only if they are signed with the secret configured for their instance, see
+ * {@link OpenProjectClientConfiguration#getWebhookSecret(String)}.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+@Component(roles = OpenProjectWebhookHandler.class)
+@Singleton
+public class OpenProjectWebhookHandler
+{
+    private static final String SIGNATURE_PREFIX = "sha1=";
+
+    private static final String LINKS = "_links";
+
+    private static final String HREF = "href";
+
+    private static final Pattern WORK_PACKAGE_HREF = Pattern.compile("/work_packages/(\\d{1,9})$");
+
+    @Inject
+    private OpenProjectConfiguration configuration;
+
+    @Inject
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @Inject
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @Inject
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    @Inject
+    private OpenProjectReplicaManager replicaManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Checks that a webhook payload was sent by the given instance. OpenProject signs the payloads with the secret of
+     * the webhook and sends the signature in the {@code X-OP-Signature} header, as {@code sha1=<HMAC-SHA1 of the
+     * payload>}.
+     *
+     * @param instance the name of the connection to the OpenProject instance that sent the payload
+     * @param payload the payload, exactly as it was received
+     * @param signature the value of the signature header
+     * @return {@code true} if a secret is configured for the instance and the payload is signed with it
+     */
+    public boolean isAuthentic(String instance, byte[] payload, String signature)
+    {
+        String secret = this.clientConfiguration.getWebhookSecret(instance);
+        if (secret == null || payload == null || !StringUtils.startsWith(signature, SIGNATURE_PREFIX)) {
+            return false;
+        }
+        String expected = new HmacUtils(HmacAlgorithms.HMAC_SHA_1, secret).hmacHex(payload);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+            StringUtils.lowerCase(signature.substring(SIGNATURE_PREFIX.length())).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Evicts the cached values affected by a webhook event.
+     *
+     * @param instance the name of the connection to the OpenProject instance that sent the event
+     * @param event the webhook payload, holding the {@code action} and the modified resource
+     * @return {@code false} if the instance is not configured or the action is not supported, {@code true} otherwise
+     */
+    public boolean handle(String instance, JsonNode event)
+    {
+        OpenProjectConnection connection = this.configuration.getConnection(instance);
+        String action = event.path("action").asText();
+        if (connection == null || StringUtils.isEmpty(connection.getServerURL())) {
+            this.logger.debug("Ignoring the webhook event [{}] of the unknown instance [{}].", action, instance);
+            return false;
+        }
+        String serverUrl = connection.getServerURL();
+        String resource = StringUtils.substringBefore(action, ":");
+        switch (resource) {
+            case "work_package":
+                invalidateWorkPackage(serverUrl, event.path(resource).path("id").asInt());
+                return true;
+            case "time_entry":
+                JsonNode links = event.path(resource).path(LINKS);
+                JsonNode workPackage = links.has("workPackage") ? links.path("workPackage") : links.path("entity");
+                invalidateWorkPackage(serverUrl, getWorkPackageId(workPackage.path(HREF).asText()));
+                return true;
+            case "project":
+                this.workPackageStore.invalidateQueries(serverUrl);
+                this.replicaManager.invalidateServer(serverUrl);
+                this.referenceDataCache.invalidate(instance + '/');
+                return true;
+            default:
+                this.logger.debug("Ignoring the unsupported webhook event [{}] of the instance [{}].", action,
+                    instance);
+                return false;
+        }
+    }
+
+    private void invalidateWorkPackage(String serverUrl, int id)
+    {
+        // The queries are invalidated even when the work package is not known, since it might match some of them.
+        if (id > 0) {
+            this.workPackageStore.invalidate(serverUrl, id);
+        }
+        this.workPackageStore.invalidateQueries(serverUrl);
+        this.replicaManager.invalidateServer(serverUrl);
+    }
+
+    private int getWorkPackageId(String href)
+    {
+        Matcher matcher = WORK_PACKAGE_HREF.matcher(href);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.model;
+
+import java.util.Map;
+
+/**
+ * Models the response of the bulk asynchronous macro call endpoint: the HTML of the displayed work packages, along
+ * with the skin extensions they need.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class AsyncMacroBulkCallResult
+{
+    private final Map<String, Map<String, String>> workItems;
+
+    private final String requiredSkinExtensions;
+
+    /**
+     * @param workItems see {@link #getWorkItems()}
+     * @param requiredSkinExtensions see {@link #getRequiredSkinExtensions()}
+     */
+    public AsyncMacroBulkCallResult(Map<String, Map<String, String>> workItems, String requiredSkinExtensions)
+    {
+        this.workItems = workItems;
+        this.requiredSkinExtensions = requiredSkinExtensions;
+    }
+
+    /**
+     * @return the HTML rendering of each work package, mapped by displayer and then by work package id.
+     */
+    public Map<String, Map<String, String>> getWorkItems()
+    {
+        return workItems;
+    }
+
+    /**
+     * @return the HTML importing the style sheets and scripts used by the displayed work packages, which have to be
+     *     added to the page displaying them.
+     */
+    public String getRequiredSkinExtensions()
+    {
+        return requiredSkinExtensions;
+    }
+}
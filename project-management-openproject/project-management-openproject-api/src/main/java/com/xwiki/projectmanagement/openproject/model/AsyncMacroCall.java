@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.model;
+
+/**
+ * Models the display of a work package by one of the work item displayers, as requested to the bulk asynchronous
+ * macro call endpoint.
+ *
+ * @version $Id$
+ * @since 1.2.1
+ */
+public class AsyncMacroCall
+{
+    private String displayer;
+
+    private String identifier;
+
+    /**
+     * @return the displayer that should be used to display the work package. The value must be one of the
+     *     {@link com.xwiki.projectmanagement.internal.WorkItemsDisplayer} that display a single work item.
+     */
+    public String getDisplayer()
+    {
+        return displayer;
+    }
+
+    /**
+     * @param displayer see {@link #getDisplayer()}.
+     */
+    public void setDisplayer(String displayer)
+    {
+        this.displayer = displayer;
+    }
+
+    /**
+     * @return the id of the work package that should be displayed.
+     */
+    public String getIdentifier()
+    {
+        return identifier;
+    }
+
+    /**
+     * @param identifier see {@link #getIdentifier()}.
+     */
+    public void setIdentifier(String identifier)
+    {
+        this.identifier = identifier;
+    }
+}
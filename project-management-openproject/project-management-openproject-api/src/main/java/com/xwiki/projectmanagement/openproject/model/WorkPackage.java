@@ -111,6 +111,11 @@ public class WorkPackage extends BaseOpenProjectObject
      */
     private static final String ASSIGNEE = "assignee";
 
+    /**
+     * The key identifying the version of the work package, incremented by OpenProject on each update.
+     */
+    private static final String LOCK_VERSION = "lockVersion";
+
     /**
      * Gets the derived start date of the work package.
      *
@@ -431,6 +436,28 @@ public class WorkPackage extends BaseOpenProjectObject
         put(ASSIGNEE, assignee);
     }
 
+    /**
+     * Gets the version of the work package, which OpenProject increments each time the work package is updated.
+     *
+     * @return the lock version, or {@code null} if it was not retrieved
+     * @since 1.2.1
+     */
+    public Integer getLockVersion()
+    {
+        return (Integer) get(LOCK_VERSION);
+    }
+
+    /**
+     * Sets the version of the work package.
+     *
+     * @param lockVersion the lock version to set
+     * @since 1.2.1
+     */
+    public void setLockVersion(Integer lockVersion)
+    {
+        put(LOCK_VERSION, lockVersion);
+    }
+
     @Override
     public String getName()
     {
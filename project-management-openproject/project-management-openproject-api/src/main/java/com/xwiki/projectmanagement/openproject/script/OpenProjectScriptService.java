@@ -31,10 +31,12 @@ import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.script.service.ScriptService;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
@@ -49,6 +51,8 @@ import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
 import com.xwiki.projectmanagement.openproject.internal.UserTokenChecker;
 import com.xwiki.projectmanagement.openproject.internal.displayer.StylingSetupManager;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectSlowQuery;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectSlowQueryLog;
 import com.xwiki.projectmanagement.openproject.model.WikiPageLink;
 
 /**
@@ -97,6 +101,12 @@ public class OpenProjectScriptService implements ScriptService
     @Inject
     private UserTokenChecker userTokenChecker;
 
+    @Inject
+    private OpenProjectSlowQueryLog slowQueryLog;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
     /**
      * Retrieves a list of available OpenProject connections.
      *
@@ -243,4 +253,28 @@ public class OpenProjectScriptService implements ScriptService
             }
         }
     }
+
+    /**
+     * @param limit the maximum number of returned queries
+     * @return the OpenProject queries that exceeded the slow query threshold, aggregated by fingerprint, the ones that
+     *     took the longest in total first; an empty list if the current user is not an administrator of the main wiki,
+     *     since the queries of all the wikis are recorded together
+     * @since 1.2.1
+     */
+    public List<OpenProjectSlowQuery> getSlowQueries(int limit)
+    {
+        if (!authorizationManager.hasAccess(Right.ADMIN, new WikiReference(wikiDescriptorManager.getMainWikiId()))) {
+            return List.of();
+        }
+        return slowQueryLog.getTopQueries(limit);
+    }
+
+    /**
+     * @return {@code true} if the OpenProject queries that exceed the configured threshold are recorded
+     * @since 1.2.1
+     */
+    public boolean isSlowQueryLogEnabled()
+    {
+        return slowQueryLog.isEnabled();
+    }
 }
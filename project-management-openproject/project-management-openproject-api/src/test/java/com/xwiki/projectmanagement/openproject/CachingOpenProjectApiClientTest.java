@@ -20,9 +20,12 @@
 package com.xwiki.projectmanagement.openproject;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 import org.xwiki.cache.Cache;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -33,6 +36,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.openproject.internal.CachingOpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.internal.OpenProjectApiClientOptions;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageGroupsCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.cache.WorkPackageQueryResult;
+import com.xwiki.projectmanagement.openproject.internal.metrics.OpenProjectConnectionMetrics;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
 import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
 import com.xwiki.projectmanagement.openproject.model.Priority;
 import com.xwiki.projectmanagement.openproject.model.Project;
@@ -41,11 +50,16 @@ import com.xwiki.projectmanagement.openproject.model.Type;
 import com.xwiki.projectmanagement.openproject.model.User;
 import com.xwiki.projectmanagement.openproject.model.WorkPackage;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -403,4 +417,132 @@ public class CachingOpenProjectApiClientTest
         verify(cache).set(anyString(), eq(result));
         verify(openProjectApiClient, times(1)).getPriorities();
     }
+
+    @Test
+    public void workPackagesAreCachedOnceByIdTest() throws ProjectManagementException
+    {
+        OpenProjectWorkPackageStore workPackageStore = mock(OpenProjectWorkPackageStore.class);
+        CachingOpenProjectApiClient normalizingClient = new CachingOpenProjectApiClient(openProjectApiClient,
+            CLIENT_ID, cache, new OpenProjectApiClientOptions().workPackageStore(workPackageStore).serverUrl(URL));
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(7);
+        PaginatedResult<WorkPackage> retrieved = new PaginatedResult<>(List.of(workPackage), OFFSET, PAGE_SIZE, 1);
+        when(openProjectApiClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING))
+            .thenReturn(retrieved);
+        when(workPackageStore.putAll(URL, "", retrieved.getItems())).thenReturn(new int[] { 7 });
+
+        assertSame(retrieved, normalizingClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING));
+
+        ArgumentCaptor<PaginatedResult<? extends BaseOpenProjectObject>> entry =
+            ArgumentCaptor.forClass(PaginatedResult.class);
+        verify(cache).set(anyString(), entry.capture());
+        WorkPackageQueryResult query = (WorkPackageQueryResult) entry.getValue();
+        assertArrayEquals(new int[] { 7 }, query.getIds());
+        assertTrue(query.getItems().isEmpty());
+        assertEquals(1, query.getTotalItems());
+
+        // The cached query is resolved with the kept work packages.
+        when(cache.get(anyString())).thenReturn(query);
+        when(workPackageStore.getAll(URL, "", new int[] { 7 })).thenReturn(List.of(workPackage));
+        PaginatedResult<WorkPackage> result =
+            normalizingClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+        assertEquals(List.of(workPackage), result.getItems());
+        assertEquals(OFFSET, result.getPage());
+        assertEquals(PAGE_SIZE, result.getPageSize());
+        assertEquals(1, result.getTotalItems());
+        verify(openProjectApiClient, times(1)).getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+
+        // The query is sent again once one of its work packages is no longer kept.
+        when(workPackageStore.getAll(URL, "", new int[] { 7 })).thenReturn(null);
+        normalizingClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+        verify(openProjectApiClient, times(2)).getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+    }
+
+    @Test
+    public void updateWorkPackageWritesThroughTest() throws Exception
+    {
+        OpenProjectWorkPackageStore workPackageStore = mock(OpenProjectWorkPackageStore.class);
+        OpenProjectReplicaManager replicaManager = mock(OpenProjectReplicaManager.class);
+        CachingOpenProjectApiClient normalizingClient = new CachingOpenProjectApiClient(openProjectApiClient,
+            CLIENT_ID, cache, new OpenProjectApiClientOptions().workPackageStore(workPackageStore)
+            .replicaManager(replicaManager).serverUrl(URL));
+        JsonNode response = mapper.readTree("{\"_type\":\"WorkPackage\",\"id\":7,\"lockVersion\":3}");
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(7);
+        when(openProjectApiClient.updateWorkPackage(URL, "{}")).thenReturn(response);
+        when(openProjectApiClient.readWorkPackage(response)).thenReturn(workPackage);
+
+        assertSame(response, normalizingClient.updateWorkPackage(URL, "{}"));
+
+        verify(workPackageStore).update(URL, workPackage);
+        verify(workPackageStore).invalidateQueries(URL);
+        verify(replicaManager).invalidateServer(URL);
+    }
+
+    @Test
+    public void queriesOfThePreviousGenerationAreNotReusedTest() throws ProjectManagementException
+    {
+        OpenProjectWorkPackageStore workPackageStore = mock(OpenProjectWorkPackageStore.class);
+        CachingOpenProjectApiClient normalizingClient = new CachingOpenProjectApiClient(openProjectApiClient,
+            CLIENT_ID, cache, new OpenProjectApiClientOptions().workPackageStore(workPackageStore).serverUrl(URL));
+        PaginatedResult<WorkPackage> retrieved = new PaginatedResult<>(Collections.emptyList(), OFFSET, PAGE_SIZE, 0);
+        when(openProjectApiClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING))
+            .thenReturn(retrieved);
+        when(workPackageStore.putAll(anyString(), anyString(), any())).thenReturn(new int[0]);
+
+        normalizingClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+        when(workPackageStore.getQueryGeneration(URL)).thenReturn(1L);
+        normalizingClient.getWorkPackages(OFFSET, PAGE_SIZE, FILTERS_STRING, SORT_BY_STRING);
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(cache, times(2)).set(keys.capture(), any());
+        assertNotEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+    }
+
+    @Test
+    public void workPackagesGroupsCachingTest() throws ProjectManagementException
+    {
+        OpenProjectWorkPackageStore workPackageStore = mock(OpenProjectWorkPackageStore.class);
+        OpenProjectWorkPackageGroupsCache groupsCache = mock(OpenProjectWorkPackageGroupsCache.class);
+        CachingOpenProjectApiClient normalizingClient = new CachingOpenProjectApiClient(openProjectApiClient,
+            CLIENT_ID, cache, new OpenProjectApiClientOptions().workPackageStore(workPackageStore).serverUrl(URL)
+            .groupsCache(groupsCache));
+        Map<String, Long> counts = Map.of("New", 3L, "Closed", 5L);
+        when(openProjectApiClient.getWorkPackagesGroups(FILTERS_STRING, "status")).thenReturn(counts);
+
+        assertEquals(counts, normalizingClient.getWorkPackagesGroups(FILTERS_STRING, "status"));
+
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(groupsCache).set(key.capture(), eq(counts));
+        verify(cache, never()).set(anyString(), any());
+
+        // The cached counts are served without sending the request again.
+        when(groupsCache.get(key.getValue())).thenReturn(counts);
+        assertEquals(counts, normalizingClient.getWorkPackagesGroups(FILTERS_STRING, "status"));
+        verify(openProjectApiClient, times(1)).getWorkPackagesGroups(FILTERS_STRING, "status");
+
+        // The counts are invalidated along with the work packages queries.
+        when(workPackageStore.getQueryGeneration(URL)).thenReturn(1L);
+        assertEquals(counts, normalizingClient.getWorkPackagesGroups(FILTERS_STRING, "status"));
+        verify(openProjectApiClient, times(2)).getWorkPackagesGroups(FILTERS_STRING, "status");
+    }
+
+    @Test
+    public void cacheHitsAndMissesAreRecordedTest() throws ProjectManagementException
+    {
+        OpenProjectConnectionMetrics metrics = new OpenProjectConnectionMetrics(CLIENT_ID);
+        CachingOpenProjectApiClient measuredClient = new CachingOpenProjectApiClient(openProjectApiClient, CLIENT_ID,
+            cache, new OpenProjectApiClientOptions().metrics(metrics));
+        PaginatedResult<User> users = new PaginatedResult<>(Collections.emptyList(), OFFSET, PAGE_SIZE, 0);
+        when(openProjectApiClient.getUsers(OFFSET, PAGE_SIZE, FILTERS_STRING)).thenReturn(users);
+
+        measuredClient.getUsers(OFFSET, PAGE_SIZE, FILTERS_STRING);
+        when((PaginatedResult<User>) cache.get(anyString())).thenReturn(users);
+        measuredClient.getUsers(OFFSET, PAGE_SIZE, FILTERS_STRING);
+        measuredClient.getUsers(OFFSET, PAGE_SIZE, FILTERS_STRING);
+
+        assertEquals(2, metrics.getCacheHits());
+        assertEquals(1, metrics.getCacheMisses());
+        assertEquals(1, metrics.getEndpoints().get(OpenProjectConnectionMetrics.USERS).getCacheMisses());
+    }
 }
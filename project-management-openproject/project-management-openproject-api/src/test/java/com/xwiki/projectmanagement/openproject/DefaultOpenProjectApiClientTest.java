@@ -25,11 +25,15 @@ import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.tools.ant.filters.StringInputStream;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +43,7 @@ import org.mockito.MockitoAnnotations;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.exception.WorkItemNotFoundException;
 import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
@@ -61,10 +66,12 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -106,9 +113,9 @@ public class DefaultOpenProjectApiClientTest
     }
 
     @Test
-    public void getWorkPackagesTest() throws IOException, ProjectManagementException
+    public void getWorkPackagesTest() throws IOException, InterruptedException, ProjectManagementException
     {
-        when(this.response.body()).thenReturn(OpenProjectTestUtils.getWorkPackagesValidResponse());
+        mockStreamedResponse(OpenProjectTestUtils.getWorkPackagesValidResponse());
 
         PaginatedResult<WorkPackage> workPackages = openProjectApiClient.getWorkPackages(OFFSET, PAGE_SIZE, "", "");
 
@@ -120,9 +127,9 @@ public class DefaultOpenProjectApiClientTest
     }
 
     @Test
-    public void getProjectWorkPackagesTest() throws IOException, ProjectManagementException
+    public void getProjectWorkPackagesTest() throws IOException, InterruptedException, ProjectManagementException
     {
-        when(this.response.body()).thenReturn(OpenProjectTestUtils.getWorkPackagesValidResponse());
+        mockStreamedResponse(OpenProjectTestUtils.getWorkPackagesValidResponse());
 
         PaginatedResult<WorkPackage> projectWorkPackages = openProjectApiClient.getProjectWorkPackages(
             PROJECT_NAME,
@@ -138,6 +145,75 @@ public class DefaultOpenProjectApiClientTest
         assertGeneratedWorkPackages(projectWorkPackages.getItems());
     }
 
+    @Test
+    public void getWorkPackagesAsyncTest() throws Exception
+    {
+        HttpResponse<byte[]> bufferedResponse = mock(HttpResponse.class);
+        when(bufferedResponse.statusCode()).thenReturn(200);
+        when(bufferedResponse.body()).thenReturn(
+            OpenProjectTestUtils.getWorkPackagesValidResponse().getBytes(StandardCharsets.UTF_8));
+        when(this.client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            CompletableFuture.completedFuture(bufferedResponse));
+
+        PaginatedResult<WorkPackage> workPackages =
+            openProjectApiClient.async().getWorkPackages(OFFSET, PAGE_SIZE, "", "", "").get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, workPackages.getTotalItems());
+        assertEquals(PAGE_SIZE, workPackages.getPageSize());
+        assertEquals(OFFSET, workPackages.getPage());
+        assertGeneratedWorkPackages(workPackages.getItems());
+        verify(this.client, never()).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    public void getWorkPackagesAsyncFailureTest()
+    {
+        when(this.client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            CompletableFuture.failedFuture(new IOException("connection reset")));
+
+        CompletableFuture<PaginatedResult<WorkPackage>> workPackages =
+            openProjectApiClient.async().getWorkPackages(OFFSET, PAGE_SIZE, "", "", "");
+
+        ExecutionException thrown =
+            assertThrows(ExecutionException.class, () -> workPackages.get(5, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof ProjectManagementException);
+        assertTrue(thrown.getCause().getCause() instanceof IOException);
+    }
+
+    @Test
+    public void readWorkPackageTest() throws Exception
+    {
+        JsonNode representation = new ObjectMapper().readTree(
+            "{\"_type\":\"WorkPackage\",\"id\":7,\"lockVersion\":3,\"subject\":\"Updated\"}");
+
+        WorkPackage workPackage = openProjectApiClient.readWorkPackage(representation);
+
+        assertEquals(7, workPackage.getId());
+        assertEquals(3, workPackage.getLockVersion());
+        assertEquals("Updated", workPackage.getSubject());
+        assertNull(openProjectApiClient.readWorkPackage(new ObjectMapper().readTree("{\"_type\":\"Error\"}")));
+    }
+
+    @Test
+    public void getWorkPackagesGroupsTest() throws IOException, InterruptedException, ProjectManagementException
+    {
+        when(this.response.body()).thenReturn("{\"_type\":\"WorkPackageCollection\",\"total\":6,\"groups\":["
+            + "{\"_type\":\"GroupBy\",\"value\":\"New\",\"count\":4},"
+            + "{\"_type\":\"GroupBy\",\"value\":\"Closed\",\"count\":1},"
+            + "{\"_type\":\"GroupBy\",\"value\":null,\"count\":1}]}");
+
+        Map<String, Long> groups = openProjectApiClient.getWorkPackagesGroups("", "status");
+
+        assertEquals(List.of("New", "Closed", ""), List.copyOf(groups.keySet()));
+        assertEquals(List.of(4L, 1L, 1L), List.copyOf(groups.values()));
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(client).send(captor.capture(), any(HttpResponse.BodyHandler.class));
+        String query = captor.getValue().uri().getQuery();
+        assertTrue(query.contains("groupBy=status"));
+        assertTrue(query.contains("pageSize=1"));
+    }
+
     @Test
     public void getUsersTest() throws IOException, ProjectManagementException
     {
@@ -315,7 +391,7 @@ public class DefaultOpenProjectApiClientTest
     public void projectWorkPackagesUrlParametersTest()
         throws ProjectManagementException, IOException, InterruptedException
     {
-        when(this.response.body()).thenReturn("{}");
+        mockStreamedResponse("{}");
 
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
@@ -337,7 +413,7 @@ public class DefaultOpenProjectApiClientTest
     @Test
     public void workPackagesUrlParametersTest() throws ProjectManagementException, IOException, InterruptedException
     {
-        when(this.response.body()).thenReturn("{}");
+        mockStreamedResponse("{}");
 
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
@@ -400,6 +476,15 @@ public class DefaultOpenProjectApiClientTest
             openProjectApiClient.getWorkPackagesFormResponse("{}"));
     }
 
+    private void mockStreamedResponse(String body) throws IOException, InterruptedException
+    {
+        HttpResponse<InputStream> streamedResponse = mock(HttpResponse.class);
+        when(streamedResponse.statusCode()).thenReturn(200);
+        when(streamedResponse.body()).thenReturn(new StringInputStream(body));
+        when(this.client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            streamedResponse);
+    }
+
     private <T extends BaseOpenProjectObject> void assertGeneratedObjects(
         List<T> objects,
         List<String> expectedNames,
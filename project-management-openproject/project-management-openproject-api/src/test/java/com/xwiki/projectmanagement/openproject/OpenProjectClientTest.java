@@ -21,6 +21,9 @@ package com.xwiki.projectmanagement.openproject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,16 +44,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xwiki.projectmanagement.ProjectManagementClientExecutionContext;
 import com.xwiki.projectmanagement.exception.ProjectManagementException;
 import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
+import com.xwiki.projectmanagement.internal.tracing.NoOpTraceSpan;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.model.WorkItemAggregation;
 import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
 import com.xwiki.projectmanagement.openproject.exception.WorkPackageRetrievalBadRequestException;
 import com.xwiki.projectmanagement.openproject.internal.OpenProjectClient;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageBatcher;
 import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectFilterHandler;
 import com.xwiki.projectmanagement.openproject.internal.processing.OpenProjectSortingHandler;
 import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+import com.xwiki.projectmanagement.tracing.ProjectManagementTracer;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -74,15 +83,24 @@ public class OpenProjectClientTest
     @MockComponent
     private OpenProjectApiClient openProjectApiClient;
 
+    @MockComponent
+    private OpenProjectWorkPackageBatcher workPackageBatcher;
+
     @MockComponent
     private Logger logger;
 
+    @MockComponent
+    private ProjectManagementTracer tracer;
+
     private static final Integer NUMBER_OF_WORK_PACKAGES = 10;
 
     @BeforeEach
     public void setUp() throws ProjectManagementException
     {
         ReflectionUtils.setFieldValue(this.openProjectClient, "logger", this.logger);
+        when(tracer.startSpan(any())).thenReturn(NoOpTraceSpan.INSTANCE);
+        when(tracer.startAsyncSpan(any(), any())).thenReturn(NoOpTraceSpan.INSTANCE);
+        when(tracer.getCurrentSpan()).thenReturn(NoOpTraceSpan.INSTANCE);
 
         when(executionContext.get("instance")).thenReturn("");
         when(openProjectConfiguration.getOpenProjectApiClient(any())).thenReturn(this.openProjectApiClient);
@@ -121,6 +139,74 @@ public class OpenProjectClientTest
         assertEquals(NUMBER_OF_WORK_PACKAGES, result.getItems().size());
     }
 
+    @Test
+    public void getWorkItemsWithSingleIdentifierTest() throws ProjectManagementException
+    {
+        when(executionContext.get("identifier")).thenReturn("5");
+        when(workPackageBatcher.load(eq(""), eq(""), eq("5"), any())).thenAnswer(invocation -> invocation
+            .<OpenProjectWorkPackageBatcher.BatchLoader>getArgument(3).load(List.of("5", "7")).get("5"));
+
+        PaginatedResult<WorkItem> result = openProjectClient.getWorkItems(0, 1, List.of(), List.of());
+
+        verify(openProjectApiClient).getWorkPackages(eq(1), eq(2),
+            argThat(actual -> jsonEquals(actual, "[{\"id\":{\"operator\":\"=\",\"values\":[\"5\",\"7\"]}}]")),
+            eq(""));
+        assertEquals(1, result.getItems().size());
+        assertEquals(1, result.getTotalItems());
+    }
+
+    @Test
+    public void batchedWorkItemsAreRetrievedInSeveralPagesTest() throws ProjectManagementException
+    {
+        // The server returns at most 2 work packages per page.
+        when(openProjectApiClient.getWorkPackages(eq(1), eq(3), anyString(), eq("")))
+            .thenReturn(new PaginatedResult<>(List.of(workPackage(1), workPackage(2)), 1, 2, 3));
+        when(openProjectApiClient.getWorkPackages(eq(2), eq(3), anyString(), eq("")))
+            .thenReturn(new PaginatedResult<>(List.of(workPackage(3)), 2, 2, 3));
+        when(executionContext.get("identifier")).thenReturn("3");
+        AtomicReference<Map<String, WorkPackage>> batch = new AtomicReference<>();
+        when(workPackageBatcher.load(eq(""), eq(""), eq("3"), any())).thenAnswer(invocation -> {
+            batch.set(invocation.<OpenProjectWorkPackageBatcher.BatchLoader>getArgument(3)
+                .load(List.of("1", "2", "3")));
+            return batch.get().get("3");
+        });
+
+        PaginatedResult<WorkItem> result = openProjectClient.getWorkItems(0, 1, List.of(), List.of());
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(Set.of("1", "2", "3"), batch.get().keySet());
+        verify(openProjectApiClient, times(2)).getWorkPackages(anyInt(), eq(3), anyString(), eq(""));
+    }
+
+    @Test
+    public void getWorkItemsWithPropertiesTest() throws ProjectManagementException
+    {
+        when(openProjectApiClient.getWorkPackages(anyInt(), anyInt(), anyString(), anyString(), anyString()))
+            .thenReturn(generateWorkItems());
+
+        PaginatedResult<WorkItem> result =
+            openProjectClient.getWorkItems(1, 10, List.of(), List.of(), List.of("summary", "type"));
+
+        verify(openProjectApiClient).getWorkPackages(anyInt(), anyInt(), anyString(), anyString(),
+            eq("total,count,pageSize,offset,elements/id,elements/subject,elements/lockVersion,elements/type"));
+        assertEquals(NUMBER_OF_WORK_PACKAGES, result.getItems().size());
+    }
+
+    @Test
+    public void aggregateWorkItemsTest() throws ProjectManagementException
+    {
+        when(openProjectApiClient.getWorkPackagesGroups(anyString(), eq("author")))
+            .thenReturn(Map.of("First User", 3L));
+
+        assertTrue(openProjectClient.supportsAggregation("creator"));
+        assertFalse(openProjectClient.supportsAggregation("startDate"));
+
+        WorkItemAggregation aggregation = openProjectClient.aggregateWorkItems(List.of(), "creator");
+
+        assertEquals(Map.of("First User", 3L), aggregation.getCounts());
+        assertEquals(3, aggregation.getTotalItems());
+    }
+
     @Test
     public void getWorkItemsWithIdentifierAndProjectTest() throws ProjectManagementException
     {
@@ -196,6 +282,13 @@ public class OpenProjectClientTest
         assertEquals(expectedElements, result.getItems().size());
     }
 
+    private WorkPackage workPackage(int id)
+    {
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(id);
+        return workPackage;
+    }
+
     private PaginatedResult<WorkPackage> generateWorkItems()
     {
         PaginatedResult<WorkPackage> result = new PaginatedResult<>();
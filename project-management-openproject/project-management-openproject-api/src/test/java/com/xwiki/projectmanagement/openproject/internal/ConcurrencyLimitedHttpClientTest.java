@@ -0,0 +1,142 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class ConcurrencyLimitedHttpClientTest
+{
+    private final HttpRequest request = HttpRequest.newBuilder(URI.create("https://openproject.example.com")).build();
+
+    private final HttpClient client = mock(HttpClient.class);
+
+    @Test
+    public void asyncRequestsWaitForAFreeSlotTest() throws Exception
+    {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        when(this.client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(
+            invocation -> {
+                CompletableFuture<HttpResponse<String>> response = new CompletableFuture<>();
+                responses.add(response);
+                return response;
+            });
+        ConcurrencyLimitedHttpClient limitedClient = new ConcurrencyLimitedHttpClient(this.client, 1);
+
+        CompletableFuture<HttpResponse<String>> first =
+            limitedClient.sendAsync(this.request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<HttpResponse<String>> second =
+            limitedClient.sendAsync(this.request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(1, responses.size());
+        assertEquals(1, limitedClient.getWaitingCount());
+
+        HttpResponse<String> firstResponse = mock(HttpResponse.class);
+        responses.get(0).complete(firstResponse);
+
+        assertSame(firstResponse, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, responses.size());
+        assertEquals(0, limitedClient.getWaitingCount());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    public void blockingRequestsWaitForAFreeSlotTest() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(this.client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+        ConcurrencyLimitedHttpClient limitedClient = new ConcurrencyLimitedHttpClient(this.client, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<HttpResponse<String>> first =
+                executor.submit(() -> limitedClient.send(this.request, HttpResponse.BodyHandlers.ofString()));
+            started.await(5, TimeUnit.SECONDS);
+            Future<HttpResponse<String>> second =
+                executor.submit(() -> limitedClient.send(this.request, HttpResponse.BodyHandlers.ofString()));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limitedClient.getWaitingCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            verify(this.client, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+            release.countDown();
+
+            assertSame(response, first.get(5, TimeUnit.SECONDS));
+            assertSame(response, second.get(5, TimeUnit.SECONDS));
+            verify(this.client, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedRequestReleasesItsSlotTest() throws Exception
+    {
+        when(this.client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+        ConcurrencyLimitedHttpClient limitedClient = new ConcurrencyLimitedHttpClient(this.client, 1);
+
+        CompletableFuture<HttpResponse<String>> first =
+            limitedClient.sendAsync(this.request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<HttpResponse<String>> second =
+            limitedClient.sendAsync(this.request, HttpResponse.BodyHandlers.ofString());
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(0, limitedClient.getWaitingCount());
+    }
+
+    @Test
+    public void maxConcurrentRequestsMustBePositiveTest()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimitedHttpClient(this.client, 0));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectHttpClientManagerTest
+{
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    @InjectMockComponents
+    private OpenProjectHttpClientManager httpClientManager;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private ProjectManagementExecutors executors;
+
+    private final List<ExecutorService> createdExecutors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp()
+    {
+        when(clientConfiguration.getConnectTimeout()).thenReturn(Duration.ofSeconds(5));
+        when(clientConfiguration.getMaxHttpThreads()).thenReturn(2);
+        when(clientConfiguration.getMaxConcurrentRequests()).thenReturn(4);
+        when(executors.newExecutor(anyString(), anyInt()))
+            .thenAnswer(invocation -> {
+                ExecutorService executor = Executors.newFixedThreadPool(invocation.getArgument(1));
+                this.createdExecutors.add(executor);
+                return executor;
+            });
+    }
+
+    @Test
+    public void getHttpClientIsSharedPerServerTest()
+    {
+        HttpClient client = httpClientManager.getHttpClient(SERVER_URL);
+
+        assertSame(client, httpClientManager.getHttpClient(SERVER_URL + "/"));
+        assertNotSame(client, httpClientManager.getHttpClient("https://other.example.com"));
+        assertEquals(HttpClient.Version.HTTP_2, client.version());
+        assertEquals(Duration.ofSeconds(5), client.connectTimeout().orElse(null));
+        assertTrue(client instanceof ConcurrencyLimitedHttpClient);
+    }
+
+    @Test
+    public void invalidateTest()
+    {
+        HttpClient client = httpClientManager.getHttpClient(SERVER_URL);
+
+        httpClientManager.invalidate(SERVER_URL);
+
+        assertNotSame(client, httpClientManager.getHttpClient(SERVER_URL));
+        // The API clients built before still use the discarded client, so its executor must keep running.
+        assertEquals(2, this.createdExecutors.size());
+        assertFalse(this.createdExecutors.get(0).isShutdown());
+        this.createdExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    public void disposeTest()
+    {
+        HttpClient client = httpClientManager.getHttpClient(SERVER_URL);
+
+        httpClientManager.dispose();
+
+        assertTrue(this.createdExecutors.get(0).isShutdown());
+        assertNotSame(client, httpClientManager.getHttpClient(SERVER_URL));
+    }
+}
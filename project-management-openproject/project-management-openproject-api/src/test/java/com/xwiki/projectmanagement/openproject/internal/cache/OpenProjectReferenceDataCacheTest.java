@@ -0,0 +1,221 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.exception.WorkItemRetrievalException;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectReferenceDataCacheTest
+{
+    private static final String KEY = "namespace/statuses/1/2147483647//";
+
+    private static final String STATUSES = "statuses";
+
+    private static final String SNAPSHOT_KEY = "connection/user/statuses/1/2147483647//";
+
+    @InjectMockComponents
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private OpenProjectReferenceDataSnapshot snapshot;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        componentManager.registerComponent(OpenProjectRequestCoalescer.class, new OpenProjectRequestCoalescer());
+        when(clientConfiguration.getReferenceDataRefreshPeriod()).thenReturn(Duration.ofHours(1));
+    }
+
+    @Test
+    public void freshValueIsServedFromMemoryTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ofHours(1));
+        AtomicInteger requests = new AtomicInteger();
+
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, () -> "v" + requests.incrementAndGet()));
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, () -> "v" + requests.incrementAndGet()));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void staleValueIsServedWhileRefreshingTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ZERO);
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch refreshed = new CountDownLatch(1);
+        OpenProjectRequestCoalescer.Loader<String> loader = () -> {
+            int request = requests.incrementAndGet();
+            if (request > 1) {
+                refreshed.countDown();
+            }
+            return "v" + request;
+        };
+
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        // The expired value is returned right away, the new one being retrieved in the background.
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        String value = referenceDataCache.get(KEY, STATUSES, loader);
+        while ("v1".equals(value) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = referenceDataCache.get(KEY, STATUSES, loader);
+        }
+        assertTrue(value.startsWith("v") && !"v1".equals(value));
+    }
+
+    @Test
+    public void failedRefreshKeepsStaleValueTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ZERO);
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicInteger requests = new AtomicInteger();
+        OpenProjectRequestCoalescer.Loader<String> loader = () -> {
+            if (requests.incrementAndGet() > 1) {
+                failed.countDown();
+                throw new ProjectManagementException("OpenProject is down.");
+            }
+            return "v1";
+        };
+
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+    }
+
+    @Test
+    public void invalidateTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ofHours(1));
+        AtomicInteger requests = new AtomicInteger();
+
+        referenceDataCache.get(KEY, STATUSES, () -> "v" + requests.incrementAndGet());
+        referenceDataCache.invalidate("namespace/");
+
+        assertEquals("v2", referenceDataCache.get(KEY, STATUSES, () -> "v" + requests.incrementAndGet()));
+    }
+
+    @Test
+    public void savedValueIsServedAfterRestartTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ofHours(1));
+        when(snapshot.get(SNAPSHOT_KEY)).thenReturn("v0");
+        CountDownLatch refreshed = new CountDownLatch(1);
+        OpenProjectRequestCoalescer.Loader<String> loader = () -> {
+            refreshed.countDown();
+            return "v1";
+        };
+
+        // The value saved before the restart is returned without waiting for OpenProject, and checked in the
+        // background.
+        assertEquals("v0", referenceDataCache.get(KEY, SNAPSHOT_KEY, STATUSES, loader));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        verify(snapshot, timeout(5000)).put(SNAPSHOT_KEY, "v1");
+        assertEquals("v1", referenceDataCache.get(KEY, SNAPSHOT_KEY, STATUSES, loader));
+    }
+
+    @Test
+    public void refreshUsesTheLatestCredentialsTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ZERO);
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        assertEquals("v1", referenceDataCache.get("namespace/token1/statuses", SNAPSHOT_KEY, STATUSES, () -> "v1"));
+        // The token was refreshed: the value retrieved with the previous token is served, and refreshed with the new
+        // one.
+        assertEquals("v1", referenceDataCache.get("namespace/token2/statuses", SNAPSHOT_KEY, STATUSES, () -> {
+            refreshed.countDown();
+            return "v2";
+        }));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        verify(snapshot, timeout(5000)).put(SNAPSHOT_KEY, "v2");
+    }
+
+    @Test
+    public void expiredCredentialsDropTheValueTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ZERO);
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicInteger requests = new AtomicInteger();
+        OpenProjectRequestCoalescer.Loader<String> loader = () -> {
+            if (requests.incrementAndGet() == 2) {
+                failed.countDown();
+                throw new WorkItemRetrievalException("Unauthorized", 401);
+            }
+            return "v" + requests.get();
+        };
+
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        assertEquals("v1", referenceDataCache.get(KEY, STATUSES, loader));
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        // The value is retrieved again, with the credentials of the next access, instead of being refreshed with the
+        // expired ones.
+        long deadline = System.currentTimeMillis() + 5000;
+        String value = referenceDataCache.get(KEY, STATUSES, loader);
+        while ("v1".equals(value) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = referenceDataCache.get(KEY, STATUSES, loader);
+        }
+        assertNotEquals("v1", value);
+    }
+
+    @Test
+    public void loadedValueIsSavedTest() throws Exception
+    {
+        when(clientConfiguration.getReferenceDataTTL(STATUSES)).thenReturn(Duration.ofHours(1));
+
+        assertEquals("v1", referenceDataCache.get(KEY, SNAPSHOT_KEY, STATUSES, () -> "v1"));
+        verify(snapshot).put(SNAPSHOT_KEY, "v1");
+
+        referenceDataCache.invalidate("namespace/");
+        verify(snapshot).invalidate("namespace/");
+    }
+}
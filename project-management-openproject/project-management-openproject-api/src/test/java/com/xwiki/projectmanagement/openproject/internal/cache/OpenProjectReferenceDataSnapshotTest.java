@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.environment.Environment;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.Status;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectReferenceDataSnapshotTest
+{
+    private static final String KEY = "openproject/xwiki:XWiki.Alice/statuses/1/2147483647//";
+
+    @TempDir
+    static Path temporaryDirectory;
+
+    @InjectMockComponents
+    private OpenProjectReferenceDataSnapshot snapshot;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private File permanentDirectory;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        this.permanentDirectory = Files.createTempDirectory(temporaryDirectory, "permanent").toFile();
+        when(environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(clientConfiguration.isReferenceDataSnapshotEnabled()).thenReturn(true);
+        when(clientConfiguration.getReferenceDataSnapshotMaxAge()).thenReturn(Duration.ofDays(7));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void saveAndLoadTest() throws Exception
+    {
+        snapshot.put(KEY, new PaginatedResult<>(List.of(status(1, "New", "#1A67A3")), 1, 100, 1));
+        snapshot.save();
+
+        PaginatedResult<Status> restored = (PaginatedResult<Status>) restart().get(KEY);
+
+        assertEquals(1, restored.getTotalItems());
+        assertEquals(1, restored.getItems().size());
+        Status status = restored.getItems().get(0);
+        assertEquals(1, status.getId());
+        assertEquals("New", status.getName());
+        assertEquals("#1A67A3", status.getColor());
+        assertEquals("https://openproject.example.com/api/v3/statuses/1", status.getSelf().getLocation());
+    }
+
+    @Test
+    public void expiredValuesAreNotLoadedTest() throws Exception
+    {
+        snapshot.put(KEY, new PaginatedResult<>(List.of(status(1, "New", "#1A67A3")), 1, 100, 1));
+        snapshot.save();
+        when(clientConfiguration.getReferenceDataSnapshotMaxAge()).thenReturn(Duration.ofMillis(-1));
+
+        assertNull(restart().get(KEY));
+    }
+
+    @Test
+    public void expiredValuesAreDroppedOnSaveTest() throws Exception
+    {
+        snapshot.put(KEY, new PaginatedResult<>(List.of(status(1, "New", "#1A67A3")), 1, 100, 1));
+        snapshot.save();
+        when(clientConfiguration.getReferenceDataSnapshotMaxAge()).thenReturn(Duration.ofMillis(-1));
+        snapshot.save();
+        when(clientConfiguration.getReferenceDataSnapshotMaxAge()).thenReturn(Duration.ofDays(7));
+
+        assertNull(snapshot.get(KEY));
+        assertNull(restart().get(KEY));
+    }
+
+    @Test
+    public void invalidateTest() throws Exception
+    {
+        snapshot.put(KEY, new PaginatedResult<>(List.of(status(1, "New", "#1A67A3")), 1, 100, 1));
+        snapshot.put("other/xwiki:XWiki.Alice/types/1/2147483647//", new PaginatedResult<>(List.of(), 1, 100, 0));
+        snapshot.save();
+        snapshot.invalidate("openproject/");
+        snapshot.save();
+
+        OpenProjectReferenceDataSnapshot restarted = restart();
+        assertNull(restarted.get(KEY));
+        assertEquals(0, ((PaginatedResult<?>) restarted.get("other/xwiki:XWiki.Alice/types/1/2147483647//"))
+            .getTotalItems());
+    }
+
+    @Test
+    public void corruptedFileIsIgnoredTest() throws Exception
+    {
+        File file = new File(this.permanentDirectory, "cache/projectmanagement/openproject/referenceData.ser");
+        assertTrue(file.getParentFile().mkdirs());
+        Files.writeString(file.toPath(), "not a snapshot");
+
+        assertNull(restart().get(KEY));
+    }
+
+    @Test
+    public void disabledTest() throws Exception
+    {
+        when(clientConfiguration.isReferenceDataSnapshotEnabled()).thenReturn(false);
+        OpenProjectReferenceDataSnapshot disabled = restart();
+
+        disabled.put(KEY, new PaginatedResult<>(List.of(status(1, "New", "#1A67A3")), 1, 100, 1));
+        disabled.save();
+
+        assertNull(disabled.get(KEY));
+        assertFalse(new File(this.permanentDirectory, "cache").exists());
+    }
+
+    /**
+     * @return a new instance reading the file saved by the tested one, as it happens when the wiki restarts
+     */
+    private OpenProjectReferenceDataSnapshot restart() throws Exception
+    {
+        OpenProjectReferenceDataSnapshot restarted = new OpenProjectReferenceDataSnapshot();
+        ReflectionUtils.setFieldValue(restarted, "logger", mock(Logger.class));
+        ReflectionUtils.setFieldValue(restarted, "environment", this.environment);
+        ReflectionUtils.setFieldValue(restarted, "clientConfiguration", this.clientConfiguration);
+        restarted.initialize();
+        return restarted;
+    }
+
+    private static Status status(int id, String name, String color)
+    {
+        Status status = new Status();
+        status.setId(id);
+        status.setName(name);
+        status.setColor(color);
+        status.setSelf(new Linkable(name, "https://openproject.example.com/api/v3/statuses/" + id));
+        return status;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OpenProjectRequestCoalescerTest
+{
+    private static final String KEY = "namespace/workItems/1/10//";
+
+    private final OpenProjectRequestCoalescer coalescer = new OpenProjectRequestCoalescer();
+
+    @Test
+    public void concurrentCallersShareOneRequestTest() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> secondThread = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> coalescer.load(KEY, () -> {
+                requests.incrementAndGet();
+                started.countDown();
+                TestLatches.await(release);
+                return "result";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<String> second = executor.submit(() -> {
+                secondThread.set(Thread.currentThread());
+                return coalescer.load(KEY, () -> {
+                    requests.incrementAndGet();
+                    return "other";
+                });
+            });
+            // Wait for the second caller to block on the request in progress.
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((secondThread.get() == null || secondThread.get().getState() != Thread.State.WAITING)
+                && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            assertEquals("result", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, requests.get());
+            assertEquals(0, coalescer.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsSharedAndNotRememberedTest() throws ProjectManagementException
+    {
+        ProjectManagementException failure = new ProjectManagementException("failure");
+
+        ProjectManagementException thrown =
+            assertThrows(ProjectManagementException.class, () -> coalescer.load(KEY, () -> {
+                throw failure;
+            }));
+
+        assertSame(failure, thrown);
+        assertEquals(0, coalescer.getInFlightCount());
+        assertEquals("retried", coalescer.load(KEY, () -> "retried"));
+    }
+
+    @Test
+    public void errorReleasesTheWaitingCallersTest() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> secondThread = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> coalescer.<String>load(KEY, () -> {
+                started.countDown();
+                TestLatches.await(release);
+                throw new LinkageError("error");
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<String> second = executor.submit(() -> {
+                secondThread.set(Thread.currentThread());
+                return coalescer.load(KEY, () -> "other");
+            });
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((secondThread.get() == null || secondThread.get().getState() != Thread.State.WAITING)
+                && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            ExecutionException firstError =
+                assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertTrue(firstError.getCause() instanceof LinkageError);
+            ExecutionException secondError =
+                assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertTrue(secondError.getCause() instanceof ProjectManagementException);
+            assertEquals(0, coalescer.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentAsyncCallersShareOneRequestTest() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.loadAsync(KEY, () -> {
+            requests.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = coalescer.loadAsync(KEY, () -> {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertFalse(first.isDone());
+        assertEquals(1, coalescer.getInFlightCount());
+        response.complete("result");
+
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.get());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void asyncFailureIsSharedAndNotRememberedTest() throws Exception
+    {
+        ProjectManagementException failure = new ProjectManagementException("failure");
+
+        CompletableFuture<String> failed = coalescer.loadAsync(KEY, () -> CompletableFuture.failedFuture(failure));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertSame(failure, thrown.getCause());
+        assertEquals(0, coalescer.getInFlightCount());
+        assertEquals("retried",
+            coalescer.loadAsync(KEY, () -> CompletableFuture.completedFuture("retried")).get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.auth.BearerTokenAuthenticator;
+import com.xwiki.projectmanagement.openproject.internal.DefaultOpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.internal.OpenProjectApiClientOptions;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.Type;
+
+import utils.OpenProjectTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@SuppressWarnings("unchecked")
+public class OpenProjectResponseValidatorCacheTest
+{
+    private static final String ETAG = "W/\"7b5c1a\"";
+
+    @InjectMockComponents
+    private OpenProjectResponseValidatorCache validatorCache;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private final Map<String, Object> entries = new HashMap<>();
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(any())).thenAnswer(invocation -> this.entries.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> this.entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(any(), any());
+        when(this.cacheManager.createNewCache(any(CacheConfiguration.class))).thenReturn((Cache) cache);
+        when(this.clientConfiguration.getValidatedResponsesMaxEntries()).thenReturn(10);
+        when(this.clientConfiguration.getValidatedResponsesMaxIdle()).thenReturn(Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void notModifiedResponseIsReusedTest() throws Exception
+    {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> okResponse = mock(HttpResponse.class);
+        when(okResponse.statusCode()).thenReturn(200);
+        when(okResponse.body()).thenReturn(OpenProjectTestUtils.getTypesValidResponse());
+        when(okResponse.headers()).thenReturn(
+            HttpHeaders.of(Map.of(OpenProjectResponseValidatorCache.ETAG, List.of(ETAG)), (name, value) -> true));
+        HttpResponse<String> notModifiedResponse = mock(HttpResponse.class);
+        when(notModifiedResponse.statusCode()).thenReturn(304);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            (HttpResponse) okResponse, notModifiedResponse);
+
+        DefaultOpenProjectApiClient apiClient = new DefaultOpenProjectApiClient("http://localhost.com",
+            new BearerTokenAuthenticator("token"), httpClient,
+            new OpenProjectApiClientOptions().validatorCache(this.validatorCache));
+
+        PaginatedResult<Type> first = apiClient.getTypes();
+        PaginatedResult<Type> second = apiClient.getTypes();
+
+        assertEquals(2, second.getTotalItems());
+        assertEquals(first.getItems().get(0).getName(), second.getItems().get(0).getName());
+
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).send(requests.capture(), any(HttpResponse.BodyHandler.class));
+        assertFalse(requests.getAllValues().get(0).headers()
+            .firstValue(OpenProjectResponseValidatorCache.IF_NONE_MATCH).isPresent());
+        assertEquals(ETAG, requests.getAllValues().get(1).headers()
+            .firstValue(OpenProjectResponseValidatorCache.IF_NONE_MATCH).orElse(null));
+    }
+
+    @Test
+    public void groupsValidatedByBlockingAndAsyncRequestsTest() throws Exception
+    {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> okResponse = mock(HttpResponse.class);
+        when(okResponse.statusCode()).thenReturn(200);
+        when(okResponse.body()).thenReturn("{\"_type\":\"WorkPackageCollection\",\"total\":7,\"groups\":["
+            + "{\"_type\":\"GroupBy\",\"value\":\"New\",\"count\":4},"
+            + "{\"_type\":\"GroupBy\",\"value\":\"Closed\",\"count\":3}]}");
+        when(okResponse.headers()).thenReturn(
+            HttpHeaders.of(Map.of(OpenProjectResponseValidatorCache.ETAG, List.of(ETAG)), (name, value) -> true));
+        HttpResponse<String> notModifiedResponse = mock(HttpResponse.class);
+        when(notModifiedResponse.statusCode()).thenReturn(304);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            (HttpResponse) okResponse, notModifiedResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(
+            CompletableFuture.completedFuture(notModifiedResponse), CompletableFuture.completedFuture(okResponse));
+
+        DefaultOpenProjectApiClient apiClient = new DefaultOpenProjectApiClient("http://localhost.com",
+            new BearerTokenAuthenticator("token"), httpClient,
+            new OpenProjectApiClientOptions().validatorCache(this.validatorCache));
+        Map<String, Long> expected = Map.of("New", 4L, "Closed", 3L);
+
+        // The response validated by the blocking request is reused by the non-blocking one, and the other way around.
+        assertEquals(expected, apiClient.getWorkPackagesGroups("", "status"));
+        assertEquals(expected, apiClient.async().getWorkPackagesGroups("", "status").get(5, TimeUnit.SECONDS));
+        assertEquals(expected, apiClient.async().getWorkPackagesGroups("", "status").get(5, TimeUnit.SECONDS));
+        assertEquals(expected, apiClient.getWorkPackagesGroups("", "status"));
+    }
+
+    @Test
+    public void keyDependsOnCredentialsTest()
+    {
+        HttpRequest.Builder first = HttpRequest.newBuilder(URI.create("http://localhost.com/api/v3/types"));
+        HttpRequest.Builder second = first.copy();
+        new BearerTokenAuthenticator("first").authenticate(first);
+        new BearerTokenAuthenticator("second").authenticate(second);
+
+        assertNotEquals(this.validatorCache.getKey(first.build()), this.validatorCache.getKey(second.build()));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectWorkPackageBatcherTest
+{
+    private static final String CONNECTION = "connection";
+
+    @InjectMockComponents
+    private OpenProjectWorkPackageBatcher batcher;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private OpenProjectClientConfiguration configuration;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp()
+    {
+        when(this.contextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "User"));
+        when(this.configuration.getBatchWindow()).thenReturn(Duration.ofSeconds(5));
+        when(this.configuration.getBatchMaxSize()).thenReturn(3);
+    }
+
+    @Test
+    public void sequentialRetrievalsAreNotBatchedTest() throws ProjectManagementException
+    {
+        assertEquals(1, this.batcher.load(CONNECTION, "", "1", this::loadWorkPackages).getId());
+        assertEquals(2, this.batcher.load(CONNECTION, "", "2", this::loadWorkPackages).getId());
+
+        assertEquals(List.of(List.of("1"), List.of("2")), this.batches);
+    }
+
+    @Test
+    public void concurrentRetrievalsAreBatchedTest() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Keep a retrieval in progress so that the next ones are batched.
+            Future<WorkPackage> first = executor.submit(() -> this.batcher.load(CONNECTION, "", "1", ids -> {
+                started.countDown();
+                TestLatches.await(release);
+                return loadWorkPackages(ids);
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            List<Future<WorkPackage>> batched = new ArrayList<>();
+            for (String id : List.of("2", "3", "4")) {
+                batched.add(executor.submit(() -> this.batcher.load(CONNECTION, "", id, this::loadWorkPackages)));
+            }
+            for (int i = 0; i < batched.size(); i++) {
+                assertEquals(i + 2, batched.get(i).get(5, TimeUnit.SECONDS).getId());
+            }
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(1, this.batches.size());
+            assertEquals(Set.of("2", "3", "4"), Set.copyOf(this.batches.get(0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void missingWorkPackageTest() throws ProjectManagementException
+    {
+        assertNull(this.batcher.load(CONNECTION, "", "1", ids -> Map.of()));
+    }
+
+    @Test
+    public void failureIsThrownTest()
+    {
+        ProjectManagementException failure = new ProjectManagementException("failure");
+
+        ProjectManagementException thrown = assertThrows(ProjectManagementException.class,
+            () -> this.batcher.load(CONNECTION, "", "1", ids -> {
+                throw failure;
+            }));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    public void errorReleasesTheWaitingCallersTest() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> leaderThread = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Keep a retrieval in progress so that the next ones are batched.
+            Future<WorkPackage> first = executor.submit(() -> this.batcher.load(CONNECTION, "", "1", ids -> {
+                started.countDown();
+                TestLatches.await(release);
+                return loadWorkPackages(ids);
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<WorkPackage> leader = executor.submit(() -> {
+                leaderThread.set(Thread.currentThread());
+                return this.batcher.load(CONNECTION, "", "2", ids -> {
+                    throw new LinkageError("error");
+                });
+            });
+            // Wait for the leader to open the batch, so that the next retrieval joins it.
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((leaderThread.get() == null || leaderThread.get().getState() != Thread.State.TIMED_WAITING)
+                && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(10);
+            }
+            Future<WorkPackage> batched =
+                executor.submit(() -> this.batcher.load(CONNECTION, "", "3", this::loadWorkPackages));
+
+            ExecutionException leaderError =
+                assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+            assertTrue(leaderError.getCause() instanceof LinkageError);
+            ExecutionException batchedError =
+                assertThrows(ExecutionException.class, () -> batched.get(10, TimeUnit.SECONDS));
+            assertTrue(batchedError.getCause() instanceof ProjectManagementException);
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, WorkPackage> loadWorkPackages(List<String> ids)
+    {
+        this.batches.add(ids);
+        return ids.stream().collect(Collectors.toMap(Function.identity(), id -> {
+            WorkPackage workPackage = new WorkPackage();
+            workPackage.setId(Integer.valueOf(id));
+            return workPackage;
+        }));
+    }
+}
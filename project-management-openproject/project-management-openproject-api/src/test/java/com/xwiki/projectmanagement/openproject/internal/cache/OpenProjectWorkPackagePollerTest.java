@@ -0,0 +1,297 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientBuilder;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectWorkPackagePollerTest
+{
+    private static final String INSTANCE = "openproject";
+
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    private static final String TOKEN = "token";
+
+    private static final String UPDATED_AT_FILTER = "[{\"updatedAt\"";
+
+    private static final OpenProjectConnection CONNECTION =
+        new OpenProjectConnection(INSTANCE, SERVER_URL, "clientId", "clientSecret", "instanceId");
+
+    @InjectMockComponents
+    private OpenProjectWorkPackagePoller poller;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private OpenProjectApiClientFactory clientFactory;
+
+    @MockComponent
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @MockComponent
+    private OpenProjectReplicaManager replicaManager;
+
+    @Mock
+    private OpenProjectApiClient client;
+
+    @Mock
+    private OpenProjectApiClientBuilder builder;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(clientConfiguration.getPollInterval(INSTANCE)).thenReturn(Duration.ofHours(1));
+        when(clientConfiguration.getPollMaxSize()).thenReturn(2);
+        when(clientFactory.builder()).thenReturn(builder);
+        when(builder.serverUrl(any())).thenReturn(builder);
+        when(builder.authentication(any())).thenReturn(builder);
+        when(builder.build()).thenReturn(client);
+        when(client.getWorkPackages(1, 1, "[]", "")).thenReturn(count(10));
+    }
+
+    @Test
+    public void startWhenPollingIsDisabledTest()
+    {
+        when(clientConfiguration.getPollInterval(INSTANCE)).thenReturn(Duration.ZERO);
+
+        poller.start(List.of(CONNECTION));
+        poller.offerAccessToken(CONNECTION, TOKEN);
+
+        assertFalse(poller.isPolled(SERVER_URL));
+        assertFalse(poller.poll(SERVER_URL));
+        verifyNoInteractions(clientFactory);
+    }
+
+    @Test
+    public void pollWaitsForAnAccessTokenTest()
+    {
+        poller.start(List.of(CONNECTION));
+
+        assertTrue(poller.isPolled(SERVER_URL));
+        assertFalse(poller.poll(SERVER_URL));
+        verifyNoInteractions(clientFactory, workPackageStore);
+    }
+
+    @Test
+    public void firstPollDropsTheCachedWorkPackagesTest() throws Exception
+    {
+        poller.start(List.of(CONNECTION));
+        poller.offerAccessToken(CONNECTION, TOKEN);
+
+        assertTrue(poller.poll(SERVER_URL));
+
+        verify(workPackageStore).invalidate(SERVER_URL);
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(replicaManager).invalidateServer(SERVER_URL);
+        verify(client, never()).getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString());
+    }
+
+    @Test
+    public void pollUpdatesModifiedWorkPackagesTest() throws Exception
+    {
+        WorkPackage first = workPackage(1, 3);
+        WorkPackage second = workPackage(2, 7);
+        when(client.getWorkPackages(eq(1), eq(2), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(new PaginatedResult<>(Arrays.asList(first, second), 1, 2, 2));
+        startPolling();
+
+        assertTrue(poller.poll(SERVER_URL));
+
+        ArgumentCaptor<String> filters = ArgumentCaptor.forClass(String.class);
+        verify(client).getWorkPackages(eq(1), eq(2), filters.capture(), eq("[[\"updatedAt\",\"desc\"]]"));
+        assertTrue(filters.getValue().startsWith("[{\"updatedAt\":{\"operator\":\"<>d\",\"values\":[\""));
+        verify(workPackageStore).update(SERVER_URL, first);
+        verify(workPackageStore).update(SERVER_URL, second);
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(replicaManager).invalidateServer(SERVER_URL);
+    }
+
+    @Test
+    public void pollSkipsTheWorkPackagesSeenByThePreviousPollTest() throws Exception
+    {
+        WorkPackage first = workPackage(1, 3);
+        WorkPackage modified = workPackage(1, 4);
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(result(first), result(first), result(modified));
+        startPolling();
+
+        assertTrue(poller.poll(SERVER_URL));
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).update(SERVER_URL, first);
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).update(SERVER_URL, modified);
+        verify(workPackageStore, times(2)).invalidateQueries(SERVER_URL);
+    }
+
+    @Test
+    public void pollWithoutChangesTest() throws Exception
+    {
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(result());
+        startPolling();
+
+        assertTrue(poller.poll(SERVER_URL));
+        verifyNoInteractions(workPackageStore, replicaManager);
+    }
+
+    @Test
+    public void pollAfterDeletionTest() throws Exception
+    {
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(result());
+        startPolling();
+        when(client.getWorkPackages(1, 1, "[]", "")).thenReturn(count(9));
+
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(replicaManager).invalidateServer(SERVER_URL);
+        verify(workPackageStore, never()).invalidate(anyString());
+        verify(workPackageStore, never()).update(anyString(), any());
+    }
+
+    @Test
+    public void pollWithTooManyChangesTest() throws Exception
+    {
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(new PaginatedResult<>(Arrays.asList(workPackage(1, 1), workPackage(2, 1)), 1, 2, 50));
+        startPolling();
+
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).invalidate(SERVER_URL);
+        verify(workPackageStore, never()).update(anyString(), any());
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+    }
+
+    @Test
+    public void rejectedTokenSuspendsThePollsTest() throws Exception
+    {
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenThrow(new ProjectManagementException("Unauthorized"))
+            .thenReturn(result(workPackage(1, 1)));
+        startPolling();
+
+        assertFalse(poller.poll(SERVER_URL));
+        assertTrue(poller.isPolled(SERVER_URL));
+        assertFalse(poller.poll(SERVER_URL));
+
+        poller.offerAccessToken(CONNECTION, "newToken");
+
+        // The polls resume by dropping what was cached while they were suspended.
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).invalidate(SERVER_URL);
+        verify(builder, times(2)).build();
+    }
+
+    @Test
+    public void laterOfferedTokensAreIgnoredTest() throws Exception
+    {
+        when(client.getWorkPackages(anyInt(), anyInt(), startsWith(UPDATED_AT_FILTER), anyString()))
+            .thenReturn(result());
+        poller.start(List.of(CONNECTION));
+        poller.offerAccessToken(CONNECTION, TOKEN);
+        poller.offerAccessToken(CONNECTION, "otherToken");
+
+        assertTrue(poller.poll(SERVER_URL));
+        assertTrue(poller.poll(SERVER_URL));
+
+        verify(builder).build();
+    }
+
+    @Test
+    public void restartKeepsTheAccessTokensTest()
+    {
+        startPolling();
+
+        poller.start(List.of(CONNECTION));
+
+        assertTrue(poller.poll(SERVER_URL));
+        verify(workPackageStore).invalidate(SERVER_URL);
+
+        poller.start(Collections.emptyList());
+
+        assertFalse(poller.isPolled(SERVER_URL));
+    }
+
+    private void startPolling()
+    {
+        poller.start(List.of(CONNECTION));
+        poller.offerAccessToken(CONNECTION, TOKEN);
+        assertTrue(poller.poll(SERVER_URL));
+        clearInvocations(workPackageStore, replicaManager);
+    }
+
+    private static WorkPackage workPackage(int id, int lockVersion)
+    {
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(id);
+        workPackage.setLockVersion(lockVersion);
+        return workPackage;
+    }
+
+    private static PaginatedResult<WorkPackage> result(WorkPackage... workPackages)
+    {
+        List<WorkPackage> items = Arrays.asList(workPackages);
+        return new PaginatedResult<>(items, 1, 2, items.size());
+    }
+
+    private static PaginatedResult<WorkPackage> count(int total)
+    {
+        return new PaginatedResult<>(Collections.emptyList(), 1, 1, total);
+    }
+}
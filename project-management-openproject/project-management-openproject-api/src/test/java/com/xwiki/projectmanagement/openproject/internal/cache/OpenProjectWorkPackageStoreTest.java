@@ -0,0 +1,185 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@SuppressWarnings("unchecked")
+public class OpenProjectWorkPackageStoreTest
+{
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    private static final String SELECT = "elements/id,elements/subject,elements/lockVersion";
+
+    @InjectMockComponents
+    private OpenProjectWorkPackageStore store;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    private final Map<String, WorkPackage> entries = new HashMap<>();
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        Cache<WorkPackage> cache = mock(Cache.class);
+        when(cache.get(any())).thenAnswer(invocation -> this.entries.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> this.entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(any(), any());
+        doAnswer(invocation -> this.entries.remove(invocation.<String>getArgument(0))).when(cache).remove(any());
+        doAnswer(invocation -> {
+            this.entries.clear();
+            return null;
+        }).when(cache).removeAll();
+        when(this.cacheManager.createNewCache(any(CacheConfiguration.class))).thenReturn((Cache) cache);
+        when(this.clientConfiguration.getWorkPackagesMaxEntries()).thenReturn(100);
+    }
+
+    @Test
+    public void workPackagesAreSharedByQueriesTest()
+    {
+        WorkPackage first = workPackage(1, 1);
+        WorkPackage second = workPackage(2, 1);
+
+        assertArrayEquals(new int[] { 2, 1 }, this.store.putAll(SERVER_URL, "", List.of(second, first)));
+        assertArrayEquals(new int[] { 1 }, this.store.putAll(SERVER_URL + "/", "", List.of(first)));
+
+        assertEquals(2, this.entries.size());
+        assertEquals(List.of(first, second), this.store.getAll(SERVER_URL, "", new int[] { 1, 2 }));
+
+        WorkPackage updated = workPackage(1, 2);
+        this.store.putAll(SERVER_URL, "", List.of(updated));
+        assertSame(updated, this.store.getAll(SERVER_URL, "", new int[] { 2, 1 }).get(1));
+    }
+
+    @Test
+    public void olderVersionIsIgnoredTest()
+    {
+        WorkPackage current = workPackage(1, 3);
+        this.store.putAll(SERVER_URL, "", List.of(current));
+
+        this.store.putAll(SERVER_URL, "", List.of(workPackage(1, 2)));
+
+        assertSame(current, this.store.getAll(SERVER_URL, "", new int[] { 1 }).get(0));
+    }
+
+    @Test
+    public void lateSelectResultIsIgnoredTest()
+    {
+        WorkPackage polled = workPackage(1, 4);
+        this.store.putAll(SERVER_URL, SELECT, List.of(polled));
+
+        // The response of a query sent before the work package was modified comes back afterwards.
+        this.store.putAll(SERVER_URL, SELECT, List.of(workPackage(1, 3)));
+
+        assertSame(polled, this.store.getAll(SERVER_URL, SELECT, new int[] { 1 }).get(0));
+    }
+
+    @Test
+    public void selectedFieldsAreKeptApartTest()
+    {
+        this.store.putAll(SERVER_URL, SELECT, List.of(workPackage(1, 1)));
+
+        assertNull(this.store.getAll(SERVER_URL, "", new int[] { 1 }));
+        assertEquals(1, this.store.getAll(SERVER_URL, SELECT, new int[] { 1 }).size());
+    }
+
+    @Test
+    public void invalidateTest()
+    {
+        this.store.putAll(SERVER_URL, "", List.of(workPackage(1, 1), workPackage(2, 1)));
+        this.store.putAll(SERVER_URL, SELECT, List.of(workPackage(1, 1)));
+
+        this.store.invalidate(SERVER_URL, 1);
+
+        assertNull(this.store.getAll(SERVER_URL, "", new int[] { 1, 2 }));
+        assertNull(this.store.getAll(SERVER_URL, SELECT, new int[] { 1 }));
+        assertEquals(1, this.store.getAll(SERVER_URL, "", new int[] { 2 }).size());
+
+        this.store.invalidate(SERVER_URL);
+        assertNull(this.store.getAll(SERVER_URL, "", new int[] { 2 }));
+
+        this.store.putAll(SERVER_URL, "", List.of(workPackage(2, 1)));
+        assertEquals(1, this.store.getAll(SERVER_URL, "", new int[] { 2 }).size());
+
+        this.store.invalidateAll();
+        assertTrue(this.entries.isEmpty());
+    }
+
+    @Test
+    public void updateTest()
+    {
+        this.store.putAll(SERVER_URL, "", List.of(workPackage(1, 1)));
+        this.store.putAll(SERVER_URL, SELECT, List.of(workPackage(1, 1)));
+        WorkPackage updated = workPackage(1, 2);
+
+        this.store.update(SERVER_URL, updated);
+
+        assertSame(updated, this.store.getAll(SERVER_URL, "", new int[] { 1 }).get(0));
+        assertNull(this.store.getAll(SERVER_URL, SELECT, new int[] { 1 }));
+    }
+
+    @Test
+    public void invalidateQueriesTest()
+    {
+        assertEquals(0, this.store.getQueryGeneration(SERVER_URL));
+
+        this.store.invalidateQueries(SERVER_URL + "/");
+
+        assertEquals(1, this.store.getQueryGeneration(SERVER_URL));
+        assertEquals(0, this.store.getQueryGeneration("https://other.example.com"));
+    }
+
+    private WorkPackage workPackage(int id, int lockVersion)
+    {
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(id);
+        workPackage.setLockVersion(lockVersion);
+        return workPackage;
+    }
+}
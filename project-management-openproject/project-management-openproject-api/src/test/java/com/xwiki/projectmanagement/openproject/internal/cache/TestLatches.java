@@ -0,0 +1,56 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.xwiki.projectmanagement.exception.ProjectManagementException;
+
+/**
+ * Waits on latches from the loaders used in the cache tests, which can only throw
+ * {@link ProjectManagementException}.
+ *
+ * @version $Id$
+ */
+final class TestLatches
+{
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private TestLatches()
+    {
+    }
+
+    /**
+     * Wait for the given latch to be released.
+     *
+     * @param latch the latch to wait on
+     * @throws ProjectManagementException if the wait is interrupted
+     */
+    static void await(CountDownLatch latch) throws ProjectManagementException
+    {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProjectManagementException("Interrupted while waiting for the test latch.", e);
+        }
+    }
+}
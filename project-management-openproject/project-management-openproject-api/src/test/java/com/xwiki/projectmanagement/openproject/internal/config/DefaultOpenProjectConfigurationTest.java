@@ -24,6 +24,7 @@ import java.net.http.HttpRequest;
 import java.util.List;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.junit.jupiter.api.Assertions;
@@ -42,11 +43,13 @@ import org.xwiki.component.util.ReflectionUtils;
 import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.contrib.oidc.OAuth2ClientScriptService;
 import org.xwiki.contrib.oidc.OAuth2Exception;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.script.service.ScriptService;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xwiki.projectmanagement.exception.AuthenticationException;
 import com.xwiki.projectmanagement.model.PaginatedResult;
 import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
@@ -57,13 +60,17 @@ import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
 import com.xwiki.projectmanagement.openproject.model.BaseOpenProjectObject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -92,6 +99,12 @@ public class DefaultOpenProjectConfigurationTest
     @MockComponent
     private OpenProjectApiClientFactory openProjectApiClientFactory;
 
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @Mock
+    private XWikiContext xcontext;
+
     @Mock
     private OpenProjectApiClientBuilder builder;
 
@@ -146,6 +159,8 @@ public class DefaultOpenProjectConfigurationTest
         when(openProjectConfiguration.getProperty("openprojectConnections")).thenReturn(this.connections);
         when(this.componentManager.getInstance(ScriptService.class, "oauth2client")).thenReturn(oauth2Client);
         when(this.oauth2Client.getAccessToken(opConnection.getConnectionName())).thenReturn(ACCESS_TOKEN);
+        when(this.contextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "User"));
     }
 
     @Test
@@ -237,6 +252,7 @@ public class DefaultOpenProjectConfigurationTest
     {
         when(openProjectApiClientFactory.builder()).thenReturn(builder);
         when(builder.serverUrl(any())).thenReturn(builder);
+        when(builder.connectionName(any())).thenReturn(builder);
         when(builder.authentication(any())).thenReturn(builder);
         when(builder.caching(any(), any())).thenReturn(builder);
         when(builder.build()).thenReturn(apiClient);
@@ -246,7 +262,13 @@ public class DefaultOpenProjectConfigurationTest
         assertSame(apiClient, client);
 
         verify(builder).serverUrl(opConnection.getServerURL());
-//        verify(builder).caching(any(), eq(opConnection.getClientId()));
+        verify(builder).connectionName(opConnection.getConnectionName());
+        ArgumentCaptor<String> namespaceCaptor = ArgumentCaptor.forClass(String.class);
+        verify(builder).caching(any(), namespaceCaptor.capture());
+        String namespace = namespaceCaptor.getValue();
+        assertTrue(namespace.startsWith(opConnection.getConnectionName() + "/xwiki:XWiki.User/"));
+        // The token itself must not be part of the cache keys.
+        assertFalse(namespace.contains(ACCESS_TOKEN));
 
         ArgumentCaptor<OpenProjectAuthenticator> authCaptor = ArgumentCaptor.forClass(OpenProjectAuthenticator.class);
         verify(builder).authentication(authCaptor.capture());
@@ -258,6 +280,25 @@ public class DefaultOpenProjectConfigurationTest
             requestBuilder.build().headers().firstValue("Authorization").orElse(null));
     }
 
+    @Test
+    public void getOpenProjectApiClientCacheNamespaceDependsOnTokenTest() throws OAuth2Exception
+    {
+        when(openProjectApiClientFactory.builder()).thenReturn(builder);
+        when(builder.serverUrl(any())).thenReturn(builder);
+        when(builder.connectionName(any())).thenReturn(builder);
+        when(builder.authentication(any())).thenReturn(builder);
+        when(builder.caching(any(), any())).thenReturn(builder);
+        when(builder.build()).thenReturn(apiClient);
+
+        configuration.getOpenProjectApiClient(opConnection.getConnectionName());
+        when(this.oauth2Client.getAccessToken(opConnection.getConnectionName())).thenReturn("refreshedToken");
+        configuration.getOpenProjectApiClient(opConnection.getConnectionName());
+
+        ArgumentCaptor<String> namespaceCaptor = ArgumentCaptor.forClass(String.class);
+        verify(builder, times(2)).caching(any(), namespaceCaptor.capture());
+        assertNotEquals(namespaceCaptor.getAllValues().get(0), namespaceCaptor.getAllValues().get(1));
+    }
+
     @Test
     public void getOpenProjectApiClientConnectionIsNullTest()
     {
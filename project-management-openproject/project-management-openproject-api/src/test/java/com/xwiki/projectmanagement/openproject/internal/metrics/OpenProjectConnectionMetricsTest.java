@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OpenProjectConnectionMetricsTest
+{
+    private static final String SERVER = "https://openproject.example.com";
+
+    private final OpenProjectConnectionMetrics metrics = new OpenProjectConnectionMetrics("connection");
+
+    @Test
+    public void getEndpointTest()
+    {
+        assertEquals(OpenProjectConnectionMetrics.WORK_PACKAGES,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/work_packages?pageSize=10")));
+        assertEquals(OpenProjectConnectionMetrics.WORK_PACKAGES,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/projects/12/work_packages")));
+        assertEquals(OpenProjectConnectionMetrics.WORK_PACKAGES,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/work_packages/42")));
+        assertEquals(OpenProjectConnectionMetrics.PROJECTS,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/projects/12")));
+        assertEquals(OpenProjectConnectionMetrics.STATUSES,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/statuses")));
+        assertEquals("avatars",
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/users/3/avatar")));
+        assertEquals("forms",
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/projects/12/work_packages/form")));
+        assertEquals(OpenProjectConnectionMetrics.OTHER,
+            OpenProjectConnectionMetrics.getEndpoint(URI.create(SERVER + "/api/v3/unknown")));
+        assertEquals(OpenProjectConnectionMetrics.OTHER, OpenProjectConnectionMetrics.getEndpoint(null));
+    }
+
+    @Test
+    public void recordResponseTest()
+    {
+        this.metrics.recordResponse(OpenProjectConnectionMetrics.WORK_PACKAGES, 200, TimeUnit.MILLISECONDS.toNanos(5));
+        this.metrics.recordResponse(OpenProjectConnectionMetrics.WORK_PACKAGES, 200, TimeUnit.MILLISECONDS.toNanos(80));
+        this.metrics.recordResponse(OpenProjectConnectionMetrics.WORK_PACKAGES, 304,
+            TimeUnit.MILLISECONDS.toNanos(20000));
+        this.metrics.recordFailure(OpenProjectConnectionMetrics.USERS);
+
+        assertEquals(3, this.metrics.getRequests());
+        assertEquals(1, this.metrics.getFailures());
+
+        OpenProjectEndpointStatistics statistics =
+            this.metrics.getEndpoints().get(OpenProjectConnectionMetrics.WORK_PACKAGES);
+        assertEquals(3, statistics.getRequests());
+        assertEquals(Map.of("200", 2L, "304", 1L), statistics.getStatusCodes());
+        Map<String, Long> histogram = statistics.getLatencyHistogram();
+        assertEquals(1L, histogram.get("<=10ms"));
+        assertEquals(1L, histogram.get("<=100ms"));
+        assertEquals(1L, histogram.get(">10000ms"));
+        assertEquals(0L, histogram.get("<=25ms"));
+        assertEquals(20000, statistics.getMaxLatency(), 0.001);
+        assertEquals(20085 / 3.0, statistics.getAverageLatency(), 0.001);
+
+        this.metrics.reset();
+        assertEquals(0, this.metrics.getRequests());
+        assertTrue(this.metrics.getEndpoints().isEmpty());
+    }
+
+    @Test
+    public void recordCacheLookupsTest()
+    {
+        this.metrics.recordCacheLookup(OpenProjectConnectionMetrics.STATUSES);
+        this.metrics.recordCacheLookup(OpenProjectConnectionMetrics.STATUSES);
+        this.metrics.recordCacheLookup(OpenProjectConnectionMetrics.STATUSES);
+        this.metrics.recordCacheMiss(OpenProjectConnectionMetrics.STATUSES);
+        this.metrics.recordCacheEviction();
+
+        assertEquals(2, this.metrics.getCacheHits());
+        assertEquals(1, this.metrics.getCacheMisses());
+        assertEquals(1, this.metrics.getCacheEvictions());
+        assertEquals(2, this.metrics.getEndpoints().get(OpenProjectConnectionMetrics.STATUSES).getCacheHits());
+    }
+
+    @Test
+    public void countResponseBytesTest() throws Exception
+    {
+        HttpResponse.BodyHandler<String> handler = this.metrics.countResponseBytes(
+            OpenProjectConnectionMetrics.WORK_PACKAGES, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse.BodySubscriber<String> subscriber = handler.apply(new HttpResponse.ResponseInfo()
+        {
+            @Override
+            public int statusCode()
+            {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers()
+            {
+                return HttpHeaders.of(Map.of(), (name, value) -> true);
+            }
+
+            @Override
+            public HttpClient.Version version()
+            {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+
+        subscriber.onSubscribe(new Flow.Subscription()
+        {
+            @Override
+            public void request(long n)
+            {
+                // The items are pushed by the test.
+            }
+
+            @Override
+            public void cancel()
+            {
+                // Nothing to release.
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap("{\"total\":".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onNext(List.of(ByteBuffer.wrap("0}".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        assertEquals("{\"total\":0}", subscriber.getBody().toCompletableFuture().get());
+        assertEquals(11, this.metrics.getResponseBytes());
+        assertEquals(11,
+            this.metrics.getEndpoints().get(OpenProjectConnectionMetrics.WORK_PACKAGES).getResponseBytes());
+    }
+}
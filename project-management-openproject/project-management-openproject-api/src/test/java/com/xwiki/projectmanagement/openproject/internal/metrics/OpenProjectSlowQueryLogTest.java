@@ -0,0 +1,225 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.metrics;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.context.concurrent.ContextStoreManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.XWikiContextContextStore;
+import com.xwiki.projectmanagement.internal.DefaultProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.internal.ProjectManagementTaskExecutor;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectSlowQueryLogTest
+{
+    private static final String CONNECTION = "connection";
+
+    private static final String SERVER = "https://openproject.example.com";
+
+    private static final DocumentReference PAGE = new DocumentReference("xwiki", "Sandbox", "WebHome");
+
+    @InjectMockComponents
+    private OpenProjectSlowQueryLog slowQueryLog;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    private final Logger logger = mock(Logger.class);
+
+    @BeforeEach
+    void setUp()
+    {
+        ReflectionUtils.setFieldValue(this.slowQueryLog, "logger", this.logger);
+        when(this.clientConfiguration.getSlowQueryThreshold()).thenReturn(Duration.ofSeconds(1));
+        when(this.clientConfiguration.getSlowQueryMaxEntries()).thenReturn(2);
+        when(this.serializer.serialize(PAGE)).thenReturn("xwiki:Sandbox.WebHome");
+    }
+
+    @Test
+    public void getFingerprintTest()
+    {
+        String filters = "[{\"status\":{\"operator\":\"o\",\"values\":[]}},"
+            + "{\"subject\":{\"operator\":\"~\",\"values\":[\"secret\"]}}]";
+        URI uri = URI.create(SERVER + "/api/v3/projects/12/work_packages?offset=1&filters="
+            + URLEncoder.encode(filters, StandardCharsets.UTF_8) + "&sortBy="
+            + URLEncoder.encode("[[\"id\",\"asc\"]]", StandardCharsets.UTF_8) + "&pageSize=50");
+
+        assertEquals("/api/v3/projects/{id}/work_packages?filters=[status o, subject ~]&sortBy=[[\"id\",\"asc\"]]",
+            this.slowQueryLog.getFingerprint(uri));
+        assertEquals("/api/v3/work_packages/{id}",
+            this.slowQueryLog.getFingerprint(URI.create(SERVER + "/api/v3/work_packages/42")));
+        assertEquals("/api/v3/work_packages?filters=[?]",
+            this.slowQueryLog.getFingerprint(URI.create(SERVER + "/api/v3/work_packages?filters=invalid")));
+    }
+
+    @Test
+    public void recordTest()
+    {
+        URI first = URI.create(SERVER + "/api/v3/work_packages?filters="
+            + URLEncoder.encode("[{\"id\":{\"operator\":\"=\",\"values\":[\"1\"]}}]", StandardCharsets.UTF_8));
+        URI second = URI.create(SERVER + "/api/v3/work_packages?filters="
+            + URLEncoder.encode("[{\"id\":{\"operator\":\"=\",\"values\":[\"1\",\"2\"]}}]", StandardCharsets.UTF_8));
+
+        this.slowQueryLog.record(CONNECTION, first, 10, TimeUnit.MILLISECONDS.toNanos(500), 100, PAGE);
+        verifyNoInteractions(this.logger);
+        assertTrue(this.slowQueryLog.getTopQueries(10).isEmpty());
+
+        this.slowQueryLog.record(CONNECTION, first, 10, TimeUnit.MILLISECONDS.toNanos(1500), 100, null);
+        this.slowQueryLog.record(CONNECTION, second, 50, TimeUnit.MILLISECONDS.toNanos(2500), 300, PAGE);
+        this.slowQueryLog.record(CONNECTION, URI.create(SERVER + "/api/v3/statuses"), null,
+            TimeUnit.MILLISECONDS.toNanos(1000), 20, null);
+
+        List<OpenProjectSlowQuery> queries = this.slowQueryLog.getTopQueries(10);
+        assertEquals(2, queries.size());
+        OpenProjectSlowQuery query = queries.get(0);
+        assertEquals(CONNECTION, query.getConnection());
+        assertEquals("/api/v3/work_packages?filters=[id =]", query.getFingerprint());
+        assertEquals(2, query.getCount());
+        assertEquals(4000, query.getTotalDuration(), 0.001);
+        assertEquals(2000, query.getAverageDuration(), 0.001);
+        assertEquals(2500, query.getMaxDuration(), 0.001);
+        assertEquals(50, query.getMaxPageSize());
+        assertEquals(300, query.getMaxResponseBytes());
+        assertEquals("xwiki:Sandbox.WebHome", query.getLastPage());
+        assertEquals("/api/v3/statuses", queries.get(1).getFingerprint());
+        assertEquals(1, this.slowQueryLog.getTopQueries(1).size());
+        verify(this.logger).warn(anyString(), eq(CONNECTION), eq(2500L), eq(query.getFingerprint()), eq(50),
+            eq(300L), eq("xwiki:Sandbox.WebHome"));
+
+        // The log is full, so the cheapest fingerprint is dropped.
+        this.slowQueryLog.record("other", first, 10, TimeUnit.MILLISECONDS.toNanos(1200), 10, null);
+        queries = this.slowQueryLog.getTopQueries(10);
+        assertEquals(2, queries.size());
+        assertEquals("other", queries.get(1).getConnection());
+
+        this.slowQueryLog.reset();
+        assertTrue(this.slowQueryLog.getTopQueries(10).isEmpty());
+    }
+
+    @Test
+    public void recordFromSubmittedTaskTest() throws Exception
+    {
+        // The XWiki context of each thread, restored from the saved context entries as the platform does.
+        ThreadLocal<XWikiContext> contexts = new ThreadLocal<>();
+        when(this.contextProvider.get()).thenAnswer(invocation -> contexts.get());
+        XWikiContext xcontext = mock(XWikiContext.class);
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(PAGE);
+        when(xcontext.getDoc()).thenReturn(document);
+        contexts.set(xcontext);
+        ContextStoreManager contextStoreManager = mock(ContextStoreManager.class);
+        when(contextStoreManager.save(any())).thenAnswer(invocation -> {
+            Collection<String> entries = invocation.getArgument(0);
+            return entries.contains(XWikiContextContextStore.PROP_DOCUMENT_REFERENCE)
+                ? Map.of(XWikiContextContextStore.PROP_DOCUMENT_REFERENCE, PAGE) : Map.of();
+        });
+        doAnswer(invocation -> {
+            Map<String, ?> entries = invocation.getArgument(0);
+            if (entries.containsKey(XWikiContextContextStore.PROP_DOCUMENT_REFERENCE)) {
+                contexts.set(xcontext);
+            }
+            return null;
+        }).when(contextStoreManager).restore(any());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ProjectManagementExecutors executors = mock(ProjectManagementExecutors.class);
+        when(executors.newExecutor(anyString(), anyInt())).thenReturn(executor);
+
+        ProjectManagementTaskExecutor taskExecutor = new ProjectManagementTaskExecutor();
+        ReflectionUtils.setFieldValue(taskExecutor, "xwikiProperties", mock(ConfigurationSource.class));
+        ReflectionUtils.setFieldValue(taskExecutor, "contextStoreManager", contextStoreManager);
+        ReflectionUtils.setFieldValue(taskExecutor, "executionContextManager", mock(ExecutionContextManager.class));
+        ReflectionUtils.setFieldValue(taskExecutor, "execution", mock(Execution.class));
+        ReflectionUtils.setFieldValue(taskExecutor, "clientExecutionContext",
+            new DefaultProjectManagementClientExecutionContext());
+        ReflectionUtils.setFieldValue(taskExecutor, "executors", executors);
+        taskExecutor.initialize();
+        try {
+            // A chart dataset is retrieved by a task submitted from the rendering of the page.
+            taskExecutor.submit(() -> {
+                this.slowQueryLog.record(CONNECTION, URI.create(SERVER + "/api/v3/work_packages"), 100,
+                    TimeUnit.SECONDS.toNanos(2), 1000, this.slowQueryLog.getCurrentPage());
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            taskExecutor.dispose();
+        }
+
+        assertEquals("xwiki:Sandbox.WebHome", this.slowQueryLog.getTopQueries(1).get(0).getLastPage());
+    }
+
+    @Test
+    public void disabledTest()
+    {
+        when(this.clientConfiguration.getSlowQueryThreshold()).thenReturn(Duration.ZERO);
+
+        this.slowQueryLog.record(CONNECTION, URI.create(SERVER + "/api/v3/statuses"), null,
+            TimeUnit.MINUTES.toNanos(1), 20, null);
+
+        assertTrue(this.slowQueryLog.getTopQueries(10).isEmpty());
+        assertFalse(this.slowQueryLog.isEnabled());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.processing;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OpenProjectSelectHandlerTest
+{
+    @Test
+    void convertEmptyPropertiesTest()
+    {
+        assertEquals("", OpenProjectSelectHandler.convertProperties(List.of()));
+        assertEquals("", OpenProjectSelectHandler.convertProperties(null));
+    }
+
+    @Test
+    void convertPropertiesTest()
+    {
+        assertEquals("total,count,pageSize,offset,elements/id,elements/subject,elements/lockVersion,elements/status,"
+                + "elements/startDate,elements/derivedStartDate,elements/assignee",
+            OpenProjectSelectHandler.convertProperties(
+                List.of("identifier", "summary", "status", "startDate", "assignees.value")));
+    }
+
+    @Test
+    void convertUnknownPropertyTest()
+    {
+        assertEquals("", OpenProjectSelectHandler.convertProperties(List.of("summary", "customField12")));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.replica;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.xwiki.livedata.LiveDataQuery;
+
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LocalWorkPackageQueryTest
+{
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    private final List<WorkPackage> workPackages = Arrays.asList(
+        workPackage(3, "Migrate the wiki search", 7, 5, 40, "2025-03-03"),
+        workPackage(1, "Fix the login page", 7, null, 100, "2025-02-10"),
+        workPackage(2, "Document the REST API", 1, 6, 0, null));
+
+    @Test
+    public void defaultOrderTest()
+    {
+        assertEquals(Arrays.asList(1, 2, 3), ids(LocalWorkPackageQuery.of(null, null)));
+    }
+
+    @Test
+    public void filterAndSortTest()
+    {
+        LocalWorkPackageQuery query = LocalWorkPackageQuery.of(
+            List.of(new LiveDataQuery.Filter("status", "=", "7")),
+            List.of(new LiveDataQuery.SortEntry("summary", true)));
+
+        assertEquals(Arrays.asList(3, 1), ids(query));
+    }
+
+    @Test
+    public void valuesOfTheSameOperatorTest()
+    {
+        LiveDataQuery.Filter filter = new LiveDataQuery.Filter();
+        filter.setProperty("assignees");
+        filter.getConstraints().add(new LiveDataQuery.Constraint("5", "="));
+        filter.getConstraints().add(new LiveDataQuery.Constraint("6", "="));
+
+        assertEquals(Arrays.asList(2, 3), ids(LocalWorkPackageQuery.of(List.of(filter), null)));
+    }
+
+    @Test
+    public void notEqualsMatchesTheMissingValuesTest()
+    {
+        LocalWorkPackageQuery query =
+            LocalWorkPackageQuery.of(List.of(new LiveDataQuery.Filter("assignees", "!", "5")), null);
+
+        assertEquals(Arrays.asList(1, 2), ids(query));
+    }
+
+    @Test
+    public void textAndNumberFiltersTest()
+    {
+        LocalWorkPackageQuery query = LocalWorkPackageQuery.of(List.of(
+            new LiveDataQuery.Filter("summary", "~", "THE"),
+            new LiveDataQuery.Filter("progress", ">=", "40")), null);
+
+        assertEquals(Arrays.asList(1, 3), ids(query));
+    }
+
+    @Test
+    public void dateFiltersTest()
+    {
+        assertEquals(List.of(3), ids(LocalWorkPackageQuery.of(
+            List.of(new LiveDataQuery.Filter("startDate", "between", "2025-03-01/2025-03-31")), null)));
+        assertEquals(List.of(1), ids(LocalWorkPackageQuery.of(
+            List.of(new LiveDataQuery.Filter("startDate", "=d", "2025-02-10")), null)));
+        assertEquals(List.of(2), ids(LocalWorkPackageQuery.of(
+            List.of(new LiveDataQuery.Filter("startDate", "!*", "")), null)));
+    }
+
+    @Test
+    public void sortWithMissingValuesTest()
+    {
+        assertEquals(Arrays.asList(1, 3, 2), ids(LocalWorkPackageQuery.of(null,
+            List.of(new LiveDataQuery.SortEntry("startDate", false)))));
+        assertEquals(Arrays.asList(2, 3, 1), ids(LocalWorkPackageQuery.of(null,
+            List.of(new LiveDataQuery.SortEntry("startDate", true)))));
+    }
+
+    @Test
+    public void unsupportedQueriesTest()
+    {
+        assertNull(LocalWorkPackageQuery.of(List.of(new LiveDataQuery.Filter("priority", "=", "8")), null));
+        assertNull(LocalWorkPackageQuery.of(List.of(new LiveDataQuery.Filter("status", "o", "")), null));
+        assertNull(LocalWorkPackageQuery.of(List.of(new LiveDataQuery.Filter("startDate", "w", "")), null));
+        assertNull(LocalWorkPackageQuery.of(null, List.of(new LiveDataQuery.SortEntry("status", false))));
+    }
+
+    private List<Integer> ids(LocalWorkPackageQuery query)
+    {
+        return query.apply(this.workPackages).stream().map(WorkPackage::getId).collect(Collectors.toList());
+    }
+
+    private static WorkPackage workPackage(int id, String subject, int status, Integer assignee, int progress,
+        String startDate)
+    {
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(id);
+        workPackage.setSubject(subject);
+        workPackage.setStatus(new Linkable("Status", String.format("%s/statuses/%d/edit", SERVER_URL, status)));
+        workPackage.setAssignee(new Linkable((assignee != null) ? "User" : "",
+            SERVER_URL + ((assignee != null) ? "/users/" + assignee : "")));
+        workPackage.setPercentageDone(progress);
+        Date date = (startDate != null) ? LocalDate.parse(startDate).toDate() : null;
+        workPackage.setStartDate(date);
+        return workPackage;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.replica;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.projectmanagement.internal.ProjectManagementExecutors;
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClient;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientBuilder;
+import com.xwiki.projectmanagement.openproject.OpenProjectApiClientFactory;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.WorkPackage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectReplicaManagerTest
+{
+    private static final String INSTANCE = "openproject";
+
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    private static final String BY_ID = "[[\"id\",\"asc\"]]";
+
+    @InjectMockComponents
+    private OpenProjectReplicaManager replicaManager;
+
+    @MockComponent
+    private OpenProjectConfiguration configuration;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private OpenProjectApiClientFactory clientFactory;
+
+    @MockComponent
+    private ProjectManagementExecutors executors;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private OpenProjectApiClientBuilder builder;
+
+    @Mock
+    private OpenProjectApiClient client;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(executors.newExecutor(anyString(), anyInt())).thenReturn(new DirectExecutorService());
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(configuration.getConnection(INSTANCE))
+            .thenReturn(new OpenProjectConnection(INSTANCE, SERVER_URL, "clientId", "clientSecret", "instanceId"));
+        when(configuration.getAccessTokenForConfiguration(INSTANCE)).thenReturn("token");
+        when(contextProvider.get()).thenReturn(context);
+        when(context.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "Alice"));
+        when(clientConfiguration.isReplicaEnabled(INSTANCE)).thenReturn(true);
+        when(clientConfiguration.getReplicaReloadInterval()).thenReturn(Duration.ofHours(1));
+        when(clientConfiguration.getReplicaSyncInterval()).thenReturn(Duration.ofHours(1));
+        when(clientConfiguration.getReplicaPageSize()).thenReturn(2);
+        when(clientConfiguration.getReplicaMaxEntries()).thenReturn(10);
+        when(clientConfiguration.getReplicaTotalMaxEntries()).thenReturn(10);
+        when(clientFactory.builder()).thenReturn(builder);
+        when(builder.serverUrl(any())).thenReturn(builder);
+        when(builder.connectionName(any())).thenReturn(builder);
+        when(builder.authentication(any())).thenReturn(builder);
+        when(builder.build()).thenReturn(client);
+        when(client.getWorkPackages(1, 2, "[]", BY_ID)).thenReturn(
+            new PaginatedResult<>(Arrays.asList(workPackage(1, "Fix the login page", 7, 1),
+                workPackage(2, "Document the REST API", 1, 1)), 1, 2, 3));
+        when(client.getWorkPackages(2, 2, "[]", BY_ID)).thenReturn(
+            new PaginatedResult<>(List.of(workPackage(3, "Migrate the wiki search", 7, 1)), 2, 2, 3));
+    }
+
+    @Test
+    public void queryTest() throws Exception
+    {
+        PaginatedResult<WorkItem> result = replicaManager.query(INSTANCE, 0, 1,
+            List.of(new LiveDataQuery.Filter("status", "=", "7")),
+            List.of(new LiveDataQuery.SortEntry("summary", false)));
+
+        assertEquals(2, result.getTotalItems());
+        assertEquals(List.of("Fix the login page"), summaries(result));
+
+        result = replicaManager.query(INSTANCE, 1, 1, List.of(new LiveDataQuery.Filter("status", "=", "7")),
+            List.of(new LiveDataQuery.SortEntry("summary", false)));
+
+        assertEquals(List.of("Migrate the wiki search"), summaries(result));
+        verify(client).getWorkPackages(1, 2, "[]", BY_ID);
+        verify(client).getWorkPackages(2, 2, "[]", BY_ID);
+    }
+
+    @Test
+    public void queryWhenDisabledTest()
+    {
+        when(clientConfiguration.isReplicaEnabled(INSTANCE)).thenReturn(false);
+
+        assertNull(replicaManager.query(INSTANCE, 0, 10, List.of(), List.of()));
+    }
+
+    @Test
+    public void queryWithUnsupportedFiltersTest() throws Exception
+    {
+        assertNull(replicaManager.query(INSTANCE, 0, 10, List.of(new LiveDataQuery.Filter("priority", "=", "8")),
+            List.of()));
+        verify(client, never()).getWorkPackages(anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    public void queryWithTooManyWorkPackagesTest()
+    {
+        when(clientConfiguration.getReplicaMaxEntries()).thenReturn(2);
+
+        assertNull(replicaManager.query(INSTANCE, 0, 10, List.of(), List.of()));
+    }
+
+    @Test
+    public void syncTest() throws Exception
+    {
+        assertEquals(3, replicaManager.query(INSTANCE, 0, 10, List.of(), List.of()).getTotalItems());
+
+        when(clientConfiguration.getReplicaSyncInterval()).thenReturn(Duration.ofMillis(-1));
+        when(client.getWorkPackages(eq(1), eq(2), argThat(filters -> filters.contains("\"<>d\"")), eq(BY_ID)))
+            .thenReturn(new PaginatedResult<>(Arrays.asList(workPackage(1, "Fix the login form", 7, 2),
+                workPackage(4, "Upgrade the database", 7, 1)), 1, 2, 2));
+
+        // The query that triggers the synchronization is served after it, since the executor runs it right away.
+        PaginatedResult<WorkItem> result = replicaManager.query(INSTANCE, 0, 10,
+            List.of(new LiveDataQuery.Filter("status", "=", "7")), List.of());
+
+        assertEquals(Arrays.asList("Fix the login form", "Migrate the wiki search", "Upgrade the database"),
+            summaries(result));
+    }
+
+    @Test
+    public void invalidateTest() throws Exception
+    {
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+        replicaManager.invalidate(INSTANCE);
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+
+        verify(client, times(2)).getWorkPackages(1, 2, "[]", BY_ID);
+    }
+
+    @Test
+    public void invalidateServerTest() throws Exception
+    {
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+        replicaManager.invalidateServer("https://other.example.com");
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+
+        verify(client).getWorkPackages(1, 2, "[]", BY_ID);
+
+        replicaManager.invalidateServer(SERVER_URL + "/");
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+
+        verify(client, times(2)).getWorkPackages(1, 2, "[]", BY_ID);
+    }
+
+    @Test
+    public void leastRecentlyUsedReplicasAreDroppedAboveTheBudgetTest() throws Exception
+    {
+        when(clientConfiguration.getReplicaTotalMaxEntries()).thenReturn(5);
+
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+        when(context.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "Bob"));
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+
+        // The replica of Alice was dropped when the one of Bob was loaded.
+        when(context.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "Alice"));
+        replicaManager.query(INSTANCE, 0, 10, List.of(), List.of());
+
+        verify(client, times(3)).getWorkPackages(1, 2, "[]", BY_ID);
+    }
+
+    private static List<String> summaries(PaginatedResult<WorkItem> result)
+    {
+        return result.getItems().stream().map(workItem -> workItem.getSummary().getValue())
+            .collect(Collectors.toList());
+    }
+
+    private static WorkPackage workPackage(int id, String subject, int status, int lockVersion)
+    {
+        WorkPackage workPackage = new WorkPackage();
+        workPackage.setId(id);
+        workPackage.setSubject(subject);
+        workPackage.setLockVersion(lockVersion);
+        workPackage.setSelf(new Linkable(subject, String.format("%s/work_packages/%d/activity", SERVER_URL, id)));
+        workPackage.setStatus(new Linkable("Status", String.format("%s/statuses/%d/edit", SERVER_URL, status)));
+        return workPackage;
+    }
+
+    private static final class DirectExecutorService extends AbstractExecutorService
+    {
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow()
+        {
+            this.shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.ws.rs.core.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.Transformation;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.plugin.skinx.SkinExtensionPluginApi;
+import com.xwiki.projectmanagement.ProjectManagementManager;
+import com.xwiki.projectmanagement.internal.DefaultProjectManagementClientExecutionContext;
+import com.xwiki.projectmanagement.internal.displayers.AbstractWorkItemsDisplayer;
+import com.xwiki.projectmanagement.model.Linkable;
+import com.xwiki.projectmanagement.model.PaginatedResult;
+import com.xwiki.projectmanagement.model.WorkItem;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.model.AsyncMacroBulkCallResult;
+import com.xwiki.projectmanagement.openproject.model.AsyncMacroCall;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class AsyncMacroBulkCallResourceTest
+{
+    private static final String WIKI = "wiki";
+
+    private static final String INSTANCE = "instance";
+
+    private static final String SINGLE = "workItemsSingle";
+
+    private static final String DOCUMENT = "Space.Page";
+
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference(WIKI, "Space", "Page");
+
+    private static final String SINGLE_CSS = "<link rel=\"stylesheet\" href=\"single.css\"/>";
+
+    @InjectMockComponents
+    private AsyncMacroBulkCallResource resource;
+
+    @MockComponent
+    private ComponentManager componentManager;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorizationManager;
+
+    @MockComponent
+    private ProjectManagementManager projectManagementManager;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @MockComponent
+    @Named("macro")
+    private Transformation macroTransformation;
+
+    @MockComponent
+    @Named("html/5.0")
+    private PrintRendererFactory htmlRendererFactory;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    private final AbstractWorkItemsDisplayer displayer = mock(AbstractWorkItemsDisplayer.class);
+
+    private final DefaultProjectManagementClientExecutionContext clientContext =
+        new DefaultProjectManagementClientExecutionContext();
+
+    private final List<String> requestedIdentifiers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        // The work packages are retrieved with the ids set in the client execution context.
+        ReflectionUtils.setFieldValue(this.resource, "clientExecutionContext", this.clientContext);
+        when(this.authorizationManager.hasAccess(Right.VIEW)).thenReturn(true);
+        when(this.authorizationManager.hasAccess(Right.VIEW, DOCUMENT_REFERENCE)).thenReturn(true);
+        when(this.documentReferenceResolver.resolve(DOCUMENT, new WikiReference(WIKI)))
+            .thenReturn(DOCUMENT_REFERENCE);
+        when(this.componentManager.getInstance(Macro.class, SINGLE)).thenReturn(this.displayer);
+        when(this.clientConfiguration.getBatchMaxSize()).thenReturn(100);
+        XWikiContext xcontext = mock(XWikiContext.class);
+        XWiki xwiki = mock(XWiki.class);
+        SkinExtensionPluginApi ssrx = mock(SkinExtensionPluginApi.class);
+        when(this.contextProvider.get()).thenReturn(xcontext);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+        when(xwiki.getPluginApi("ssrx", xcontext)).thenReturn(ssrx);
+        when(ssrx.getImportString()).thenReturn(SINGLE_CSS);
+
+        // Each call retrieves the work packages whose ids are set in the client execution context.
+        when(this.projectManagementManager.getWorkItems(eq("openproject"), eq(0), anyInt(), any(), any()))
+            .thenAnswer(invocation -> {
+                String identifiers = (String) this.clientContext.get("identifier");
+                this.requestedIdentifiers.add(identifiers);
+                List<WorkItem> workItems = Arrays.stream(identifiers.split(","))
+                    .filter(id -> !"404".equals(id))
+                    .map(AsyncMacroBulkCallResourceTest::workItem)
+                    .collect(Collectors.toList());
+                return new PaginatedResult<>(workItems, 1, workItems.size(), workItems.size());
+            });
+        // The displayer outputs the id of the work package, or "missing".
+        when(this.displayer.display(any(), any(), any())).thenAnswer(invocation -> {
+            PaginatedResult<WorkItem> workItems = invocation.getArgument(0);
+            String word = (workItems.getItems() == null || workItems.getItems().isEmpty()) ? "missing"
+                : workItems.getItems().get(0).getLinkableValue(WorkItem.KEY_IDENTIFIER);
+            return List.<Block>of(new WordBlock(word));
+        });
+        when(this.htmlRendererFactory.createRenderer(any())).thenAnswer(invocation -> {
+            WikiPrinter printer = invocation.getArgument(0);
+            PrintRenderer renderer = mock(PrintRenderer.class);
+            doAnswer(word -> {
+                printer.print(word.getArgument(0));
+                return null;
+            }).when(renderer).onWord(anyString());
+            return renderer;
+        });
+    }
+
+    @Test
+    void rendersAllTheWorkPackagesWithASingleRetrieval()
+    {
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, calls("1", "2", "404", "1"));
+
+        assertEquals(200, response.getStatus());
+        AsyncMacroBulkCallResult result = (AsyncMacroBulkCallResult) response.getEntity();
+        assertEquals(Map.of(SINGLE, Map.of("1", "1", "2", "2", "404", "missing")), result.getWorkItems());
+        // The skin extensions used by the displayers are returned along with their output.
+        assertEquals(SINGLE_CSS, result.getRequiredSkinExtensions());
+        // The duplicated id is only retrieved once.
+        assertEquals(List.of("1,2,404"), this.requestedIdentifiers);
+    }
+
+    @Test
+    void retrievesTheWorkPackagesInBatches()
+    {
+        when(this.clientConfiguration.getBatchMaxSize()).thenReturn(2);
+
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, calls("1", "2", "3", "4", "5"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of("1,2", "3,4", "5"), this.requestedIdentifiers);
+        verify(this.projectManagementManager).getWorkItems(eq("openproject"), eq(0), eq(2), any(), any());
+        verify(this.projectManagementManager).getWorkItems(eq("openproject"), eq(0), eq(1), any(), any());
+    }
+
+    @Test
+    void rejectsTheUsersWithoutViewRight()
+    {
+        when(this.authorizationManager.hasAccess(Right.VIEW)).thenReturn(false);
+
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, calls("1"));
+
+        assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+        verify(this.projectManagementManager, never()).getWorkItems(anyString(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void rejectsTheUsersWithoutViewRightOnTheDocument()
+    {
+        when(this.authorizationManager.hasAccess(Right.VIEW, DOCUMENT_REFERENCE)).thenReturn(false);
+
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, DOCUMENT, calls("1"));
+
+        assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+        verify(this.projectManagementManager, never()).getWorkItems(anyString(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void rejectsTheInvalidIds()
+    {
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, calls("1", "1 OR 2"));
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        verify(this.projectManagementManager, never()).getWorkItems(anyString(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void rejectsTheMacrosThatAreNotDisplayers() throws Exception
+    {
+        when(this.componentManager.getInstance(Macro.class, "velocity")).thenReturn(mock(Macro.class));
+        AsyncMacroCall call = new AsyncMacroCall();
+        call.setDisplayer("velocity");
+        call.setIdentifier("1");
+
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, List.of(call));
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    void rejectsTheUnknownDisplayers() throws Exception
+    {
+        when(this.componentManager.getInstance(Macro.class, "unknown"))
+            .thenThrow(new ComponentLookupException("unknown"));
+        AsyncMacroCall call = new AsyncMacroCall();
+        call.setDisplayer("unknown");
+        call.setIdentifier("1");
+
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, List.of(call));
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    void returnsAnEmptyResultWithoutCalls()
+    {
+        Response response = this.resource.getAsyncCalls(WIKI, INSTANCE, null, List.of());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(Map.of(), ((AsyncMacroBulkCallResult) response.getEntity()).getWorkItems());
+    }
+
+    @Test
+    void displaysTheWorkPackagesInTheContextOfTheDocument() throws Exception
+    {
+        this.resource.getAsyncCalls(WIKI, INSTANCE, DOCUMENT, calls("1"));
+
+        ArgumentCaptor<MacroTransformationContext> context =
+            ArgumentCaptor.forClass(MacroTransformationContext.class);
+        verify(this.displayer).display(any(), any(), context.capture());
+        assertNotNull(context.getValue().getTransformationContext());
+        assertSame(context.getValue().getXDOM(), context.getValue().getTransformationContext().getXDOM());
+        assertSame(this.macroTransformation, context.getValue().getTransformation());
+        assertEquals(SINGLE, context.getValue().getCurrentMacroBlock().getId());
+    }
+
+    private static List<AsyncMacroCall> calls(String... ids)
+    {
+        return Arrays.stream(ids).map(id -> {
+            AsyncMacroCall call = new AsyncMacroCall();
+            call.setDisplayer(SINGLE);
+            call.setIdentifier(id);
+            return call;
+        }).collect(Collectors.toList());
+    }
+
+    private static WorkItem workItem(String id)
+    {
+        WorkItem workItem = new WorkItem();
+        workItem.setIdentifier(new Linkable(id, "/work_packages/" + id));
+        return workItem;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.projectmanagement.openproject.internal.webhook;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConfiguration;
+import com.xwiki.projectmanagement.openproject.config.OpenProjectConnection;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectReferenceDataCache;
+import com.xwiki.projectmanagement.openproject.internal.cache.OpenProjectWorkPackageStore;
+import com.xwiki.projectmanagement.openproject.internal.config.OpenProjectClientConfiguration;
+import com.xwiki.projectmanagement.openproject.internal.replica.OpenProjectReplicaManager;
+
+import utils.OpenProjectTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+public class OpenProjectWebhookHandlerTest
+{
+    private static final String INSTANCE = "openproject";
+
+    private static final String SERVER_URL = "https://openproject.example.com";
+
+    private static final String SECRET = "secret";
+
+    private static final byte[] PAYLOAD = "{\"action\":\"project:updated\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String SIGNATURE = "sha1=31ddd823742f3172a5e6fa2cea368fef00606604";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMockComponents
+    private OpenProjectWebhookHandler webhookHandler;
+
+    @MockComponent
+    private OpenProjectConfiguration configuration;
+
+    @MockComponent
+    private OpenProjectClientConfiguration clientConfiguration;
+
+    @MockComponent
+    private OpenProjectWorkPackageStore workPackageStore;
+
+    @MockComponent
+    private OpenProjectReferenceDataCache referenceDataCache;
+
+    @MockComponent
+    private OpenProjectReplicaManager replicaManager;
+
+    @BeforeEach
+    void setUp()
+    {
+        when(configuration.getConnection(INSTANCE))
+            .thenReturn(new OpenProjectConnection(INSTANCE, SERVER_URL, "clientId", "clientSecret", "instanceId"));
+        when(clientConfiguration.getWebhookSecret(INSTANCE)).thenReturn(SECRET);
+    }
+
+    @Test
+    public void isAuthenticTest()
+    {
+        assertTrue(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, SIGNATURE));
+        assertTrue(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, SIGNATURE.toUpperCase().replace("SHA1", "sha1")));
+    }
+
+    @Test
+    public void isAuthenticWithWrongSignatureTest()
+    {
+        assertFalse(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, "sha1=0000"));
+        assertFalse(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, SIGNATURE.substring("sha1=".length())));
+        assertFalse(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, null));
+        assertFalse(webhookHandler.isAuthentic(INSTANCE,
+            "{\"action\":\"project:deleted\"}".getBytes(StandardCharsets.UTF_8), SIGNATURE));
+    }
+
+    @Test
+    public void isAuthenticWithoutSecretTest()
+    {
+        when(clientConfiguration.getWebhookSecret(INSTANCE)).thenReturn(null);
+
+        assertFalse(webhookHandler.isAuthentic(INSTANCE, PAYLOAD, SIGNATURE));
+    }
+
+    @Test
+    public void workPackageUpdatedTest() throws Exception
+    {
+        JsonNode event = readEvent(OpenProjectTestUtils.getWorkPackageUpdatedWebhookPayload());
+
+        assertTrue(webhookHandler.handle(INSTANCE, event));
+
+        verify(workPackageStore).invalidate(SERVER_URL, 42);
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(replicaManager).invalidateServer(SERVER_URL);
+        verifyNoInteractions(referenceDataCache);
+    }
+
+    @Test
+    public void timeEntryCreatedTest() throws Exception
+    {
+        JsonNode event = readEvent(OpenProjectTestUtils.getTimeEntryCreatedWebhookPayload());
+
+        assertTrue(webhookHandler.handle(INSTANCE, event));
+
+        verify(workPackageStore).invalidate(SERVER_URL, 42);
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(replicaManager).invalidateServer(SERVER_URL);
+        verifyNoInteractions(referenceDataCache);
+    }
+
+    @Test
+    public void projectUpdatedTest() throws Exception
+    {
+        JsonNode event = readEvent(OpenProjectTestUtils.getProjectUpdatedWebhookPayload());
+
+        assertTrue(webhookHandler.handle(INSTANCE, event));
+
+        verify(workPackageStore, never()).invalidate(anyString(), anyInt());
+        verify(workPackageStore).invalidateQueries(SERVER_URL);
+        verify(referenceDataCache).invalidate(INSTANCE + "/");
+        verify(replicaManager).invalidateServer(SERVER_URL);
+    }
+
+    @Test
+    public void unsupportedEventTest() throws Exception
+    {
+        assertFalse(webhookHandler.handle(INSTANCE, readEvent("{\"action\":\"attachment:created\"}")));
+
+        verifyNoInteractions(workPackageStore, referenceDataCache, replicaManager);
+    }
+
+    @Test
+    public void unknownInstanceTest() throws Exception
+    {
+        JsonNode event = readEvent(OpenProjectTestUtils.getProjectUpdatedWebhookPayload());
+
+        assertFalse(webhookHandler.handle("unknown", event));
+
+        verifyNoInteractions(workPackageStore, referenceDataCache, replicaManager);
+    }
+
+    private JsonNode readEvent(String payload) throws Exception
+    {
+        return objectMapper.readTree(payload);
+    }
+}
@@ -87,6 +87,21 @@ public class OpenProjectTestUtils
         return getJsonFromResource("openProjectCreateWorkPackageValidationSuccessResponse.json");
     }
 
+    public static String getWorkPackageUpdatedWebhookPayload() throws IOException
+    {
+        return getJsonFromResource("openProjectWorkPackageUpdatedWebhook.json");
+    }
+
+    public static String getTimeEntryCreatedWebhookPayload() throws IOException
+    {
+        return getJsonFromResource("openProjectTimeEntryCreatedWebhook.json");
+    }
+
+    public static String getProjectUpdatedWebhookPayload() throws IOException
+    {
+        return getJsonFromResource("openProjectProjectUpdatedWebhook.json");
+    }
+
     private static String getJsonFromResource(String fileName) throws IOException
     {
         InputStream stream = OpenProjectTestUtils.class.getClassLoader().getResourceAsStream(fileName);
@@ -31,6 +31,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.fullcalendar.model.CalendarEvent;
@@ -66,6 +67,8 @@ public class OpenProjectCalendarEventProvider implements CalendarEventProvider
 
     private static final String VERSION = "version";
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Inject
     private OpenProjectConfiguration openProjectConfiguration;
 
@@ -77,20 +80,31 @@ public class OpenProjectCalendarEventProvider implements CalendarEventProvider
 
     @Override
     public List<CalendarEvent> getMoreEvents(List<LiveDataQuery.Filter> filters) throws ProjectManagementException
+    {
+        int limit = NumberUtils.toInt((String) this.executionContext.get("limit"));
+        return getMoreEvents(filters, limit > 0 ? limit : Integer.MAX_VALUE).getItems();
+    }
+
+    @Override
+    public PaginatedResult<CalendarEvent> getMoreEvents(List<LiveDataQuery.Filter> filters, int maxEvents)
+        throws ProjectManagementException
     {
         boolean getSprints = Boolean.parseBoolean((String) this.executionContext.get(SPRINT));
         boolean getVersion = Boolean.parseBoolean((String) this.executionContext.get(VERSION));
         OpenProjectApiClient apiClient = getOpenProjectApiClient();
         List<CalendarEvent> calendarEvents = new ArrayList<>();
+        int leftOut = 0;
         int projectId = getProjectVersion(filters);
         if (getSprints) {
-            calendarEvents.addAll(getSprintsCalendarEvents(projectId, apiClient));
+            PaginatedResult<Sprint> sprints = getSprints(projectId, apiClient, maxEvents);
+            calendarEvents.addAll(convertSprintsToCalendarEvents(sprints));
+            leftOut = sprints.getTotalItems() - sprints.getItems().size();
         }
         if (getVersion) {
             calendarEvents.addAll(getVersionsCalendarEvents(projectId, apiClient));
         }
 
-        return calendarEvents;
+        return new PaginatedResult<>(calendarEvents, 1, maxEvents, calendarEvents.size() + leftOut);
     }
 
     private List<CalendarEvent> getVersionsCalendarEvents(int projectId, OpenProjectApiClient apiClient)
@@ -105,26 +119,41 @@ public class OpenProjectCalendarEventProvider implements CalendarEventProvider
         return convertVersionsToCalendarEvents(versions);
     }
 
-    private List<CalendarEvent> getSprintsCalendarEvents(int projectId, OpenProjectApiClient apiClient)
+    private PaginatedResult<Sprint> getSprints(int projectId, OpenProjectApiClient apiClient, int maxSprints)
         throws ProjectManagementException
     {
-        PaginatedResult<Sprint> sprints = new PaginatedResult<>();
-        int limit = Integer.parseInt((String) this.executionContext.get("limit"));
-        if (projectId != -1) {
-            try {
-                sprints = apiClient.getProjectSprints(1, limit, "", projectId);
-            } catch (WorkItemRetrievalException e) {
-                // If the project doesn't have backlogs enabled, it will return a 403 error message.
-                if (e.getStatusCode().equals(403)) {
-                    this.logger.debug("Sprints are not available for the project with ID {}.", projectId);
-                } else {
-                    throw e;
-                }
+        // The sprints are retrieved page by page, since OpenProject caps the size of the pages.
+        int pageSize = Math.min(maxSprints, MAX_PAGE_SIZE);
+        List<Sprint> sprints = new ArrayList<>();
+        int totalItems = 0;
+        for (int page = 1; sprints.size() < maxSprints; page++) {
+            PaginatedResult<Sprint> result = getSprintsPage(projectId, apiClient, page, pageSize);
+            List<Sprint> items = (result.getItems() != null) ? result.getItems() : List.of();
+            totalItems = (result.getTotalItems() != null) ? result.getTotalItems() : sprints.size() + items.size();
+            sprints.addAll(items.subList(0, Math.min(items.size(), maxSprints - sprints.size())));
+            if (items.size() < pageSize || page * pageSize >= totalItems) {
+                break;
             }
-        } else {
-            sprints = apiClient.getSprints(1, limit, "");
         }
-        return convertSprintsToCalendarEvents(sprints);
+        return new PaginatedResult<>(sprints, 1, pageSize, Math.max(totalItems, sprints.size()));
+    }
+
+    private PaginatedResult<Sprint> getSprintsPage(int projectId, OpenProjectApiClient apiClient, int page,
+        int pageSize) throws ProjectManagementException
+    {
+        if (projectId == -1) {
+            return apiClient.getSprints(page, pageSize, "");
+        }
+        try {
+            return apiClient.getProjectSprints(page, pageSize, "", projectId);
+        } catch (WorkItemRetrievalException e) {
+            // If the project doesn't have backlogs enabled, it will return a 403 error message.
+            if (e.getStatusCode().equals(403)) {
+                this.logger.debug("Sprints are not available for the project with ID {}.", projectId);
+                return new PaginatedResult<>();
+            }
+            throw e;
+        }
     }
 
     private int getProjectVersion(List<LiveDataQuery.Filter> filters)
@@ -50,7 +50,6 @@ public class OpenProjectChartMacroParameters extends ProjectManagementChartMacro
     {
         setProperty(WorkItem.KEY_STATUS);
         setType(BarChartDisplayer.TYPE);
-        setLimit(100);
     }
 
     /**